@@ -0,0 +1,50 @@
+package com.yammer.dropwizard.client;
+
+import com.yammer.dropwizard.servlets.RequestDeadline;
+import com.yammer.metrics.httpclient.InstrumentedClientConnManager;
+import com.yammer.metrics.httpclient.InstrumentedHttpClient;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.params.AllClientPNames;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.DefaultedHttpParams;
+import org.apache.http.params.HttpParams;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link InstrumentedHttpClient} which bounds the timeouts of requests made on behalf of a
+ * server request by the time left until that request's {@link RequestDeadline}, and which doesn't
+ * make requests at all once the deadline has passed.
+ */
+class DeadlineAwareHttpClient extends InstrumentedHttpClient {
+    DeadlineAwareHttpClient(InstrumentedClientConnManager manager, HttpParams params) {
+        super(manager, params);
+    }
+
+    @Override
+    protected HttpParams determineParams(HttpRequest req) {
+        final HttpParams params = super.determineParams(req);
+        for (RequestDeadline deadline : RequestDeadline.current().asSet()) {
+            deadline.check();
+
+            final long remaining = Math.max(1, deadline.getRemaining(TimeUnit.MILLISECONDS));
+            final HttpParams bounded = new DefaultedHttpParams(new BasicHttpParams(), params);
+            bound(bounded, AllClientPNames.SO_TIMEOUT, remaining);
+            bound(bounded, AllClientPNames.CONNECTION_TIMEOUT, remaining);
+            final long leaseTimeout = bounded.getLongParameter(AllClientPNames.CONN_MANAGER_TIMEOUT, 0);
+            if (leaseTimeout <= 0 || leaseTimeout > remaining) {
+                bounded.setLongParameter(AllClientPNames.CONN_MANAGER_TIMEOUT, remaining);
+            }
+            return bounded;
+        }
+        return params;
+    }
+
+    private static void bound(HttpParams params, String name, long remaining) {
+        final int timeout = params.getIntParameter(name, 0);
+        // zero means no timeout at all
+        if (timeout <= 0 || timeout > remaining) {
+            params.setIntParameter(name, (int) Math.min(remaining, Integer.MAX_VALUE));
+        }
+    }
+}
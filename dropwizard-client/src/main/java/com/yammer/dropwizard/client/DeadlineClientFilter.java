@@ -0,0 +1,49 @@
+package com.yammer.dropwizard.client;
+
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.filter.ClientFilter;
+import com.yammer.dropwizard.servlets.DeadlineExceededException;
+import com.yammer.dropwizard.servlets.RequestDeadline;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link ClientFilter} which passes the time left until the deadline of the server request a
+ * request is made on behalf of on to the downstream service in a header, and which turns failed
+ * requests into {@link DeadlineExceededException}s if they failed because that deadline passed,
+ * so that the server request is abandoned rather than treated as an error.
+ */
+class DeadlineClientFilter extends ClientFilter {
+    private final String header;
+
+    DeadlineClientFilter(String header) {
+        this.header = header;
+    }
+
+    @Override
+    public ClientResponse handle(ClientRequest cr) throws ClientHandlerException {
+        for (RequestDeadline deadline : RequestDeadline.current().asSet()) {
+            deadline.check();
+            if (!cr.getHeaders().containsKey(header)) {
+                final long remaining = Math.max(1, deadline.getRemaining(TimeUnit.MILLISECONDS));
+                cr.getHeaders().putSingle(header, Long.toString(remaining));
+            }
+        }
+
+        try {
+            return getNext().handle(cr);
+        } catch (ClientHandlerException e) {
+            if (e.getCause() instanceof DeadlineExceededException) {
+                throw (DeadlineExceededException) e.getCause();
+            }
+
+            final RequestDeadline deadline = RequestDeadline.current().orNull();
+            if (deadline != null && deadline.isExpired()) {
+                throw new DeadlineExceededException(e);
+            }
+            throw e;
+        }
+    }
+}
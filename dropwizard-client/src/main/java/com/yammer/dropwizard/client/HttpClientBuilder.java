@@ -30,6 +30,7 @@ import java.util.concurrent.TimeUnit;
  *     <li>Disables stale connection checks</li>
  *     <li>Disables Nagle's algorithm</li>
  *     <li>Disables cookie management by default</li>
+ *     <li>Bounds timeouts by the deadline of the server request being handled, if any</li>
  * </ul>
  */
 public class HttpClientBuilder {
@@ -85,7 +86,7 @@ public class HttpClientBuilder {
     public HttpClient build() {
         final BasicHttpParams params = createHttpParams();
         final InstrumentedClientConnManager manager = createConnectionManager(registry);
-        final InstrumentedHttpClient client = new InstrumentedHttpClient(manager, params);
+        final InstrumentedHttpClient client = new DeadlineAwareHttpClient(manager, params);
         setStrategiesForClient(client);
 
         return client;
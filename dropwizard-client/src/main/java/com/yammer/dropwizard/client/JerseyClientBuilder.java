@@ -11,6 +11,7 @@ import com.sun.jersey.client.apache4.config.ApacheHttpClient4Config;
 import com.sun.jersey.client.apache4.config.DefaultApacheHttpClient4Config;
 import com.yammer.dropwizard.config.Environment;
 import com.yammer.dropwizard.jersey.JacksonMessageBodyProvider;
+import com.yammer.dropwizard.servlets.RequestDeadlineFilter;
 import com.yammer.dropwizard.validation.Validator;
 import org.apache.http.conn.DnsResolver;
 import org.apache.http.conn.scheme.SchemeRegistry;
@@ -32,6 +33,8 @@ import static com.google.common.base.Preconditions.checkNotNull;
  *     <li>Disables stale connection checks</li>
  *     <li>Disables Nagle's algorithm</li>
  *     <li>Disables cookie management by default</li>
+ *     <li>Passes the time left until the current request's deadline on in the
+ *     {@code X-Request-Timeout} header</li>
  * </ul>
  *
  * @see HttpClientBuilder
@@ -184,6 +187,7 @@ public class JerseyClientBuilder {
                          ObjectMapper objectMapper) {
         final Client client = new ApacheHttpClient4(buildHandler(), buildConfig(objectMapper));
         client.setExecutorService(threadPool);
+        client.addFilter(new DeadlineClientFilter(RequestDeadlineFilter.DEFAULT_HEADER));
 
         if (configuration.isGzipEnabled()) {
             client.addFilter(new GZIPContentEncodingFilter(configuration.isGzipEnabledForRequests()));
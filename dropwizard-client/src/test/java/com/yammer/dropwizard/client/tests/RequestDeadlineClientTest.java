@@ -0,0 +1,194 @@
+package com.yammer.dropwizard.client.tests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.jersey.api.client.Client;
+import com.yammer.dropwizard.client.HttpClientBuilder;
+import com.yammer.dropwizard.client.HttpClientConfiguration;
+import com.yammer.dropwizard.client.JerseyClientBuilder;
+import com.yammer.dropwizard.servlets.DeadlineExceededException;
+import com.yammer.dropwizard.servlets.RequestDeadline;
+import com.yammer.dropwizard.util.Duration;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.AbstractHttpClient;
+import org.apache.http.params.CoreConnectionPNames;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.eclipse.jetty.server.nio.SelectChannelConnector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.fest.assertions.api.Assertions.failBecauseExceptionWasNotThrown;
+import static org.mockito.Mockito.mock;
+
+public class RequestDeadlineClientTest {
+    private final Server server = new Server();
+    private final SelectChannelConnector connector = new SelectChannelConnector();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicReference<String> header = new AtomicReference<String>();
+    private final AtomicReference<HttpParams> params = new AtomicReference<HttpParams>();
+    private final HttpClientConfiguration configuration = new HttpClientConfiguration();
+
+    @Before
+    public void setUp() throws Exception {
+        configuration.setTimeout(Duration.seconds(10));
+        configuration.setConnectionTimeout(Duration.seconds(10));
+
+        connector.setPort(0);
+        server.addConnector(connector);
+        server.setHandler(new AbstractHandler() {
+            @Override
+            public void handle(String target,
+                               Request baseRequest,
+                               HttpServletRequest request,
+                               HttpServletResponse response) throws IOException, ServletException {
+                requests.incrementAndGet();
+                header.set(request.getHeader("X-Request-Timeout"));
+                response.setStatus(200);
+                response.getWriter().print("ok");
+                baseRequest.setHandled(true);
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        RequestDeadline.set(null);
+        server.stop();
+    }
+
+    @Test
+    public void boundsTheTimeoutsByTheRequestDeadline() throws Exception {
+        RequestDeadline.set(RequestDeadline.in(Duration.seconds(1)));
+
+        get();
+
+        assertThat(params.get().getIntParameter(CoreConnectionPNames.SO_TIMEOUT, 0))
+                .isGreaterThan(0)
+                .isLessThanOrEqualTo(1000);
+
+        assertThat(params.get().getIntParameter(CoreConnectionPNames.CONNECTION_TIMEOUT, 0))
+                .isGreaterThan(0)
+                .isLessThanOrEqualTo(1000);
+    }
+
+    @Test
+    public void keepsShorterTimeoutsThanTheRequestDeadline() throws Exception {
+        RequestDeadline.set(RequestDeadline.in(Duration.seconds(30)));
+
+        get();
+
+        assertThat(params.get().getIntParameter(CoreConnectionPNames.SO_TIMEOUT, 0))
+                .isEqualTo(10000);
+
+        assertThat(params.get().getIntParameter(CoreConnectionPNames.CONNECTION_TIMEOUT, 0))
+                .isEqualTo(10000);
+    }
+
+    @Test
+    public void leavesTheTimeoutsAloneWithoutARequestDeadline() throws Exception {
+        get();
+
+        assertThat(params.get().getIntParameter(CoreConnectionPNames.SO_TIMEOUT, 0))
+                .isEqualTo(10000);
+    }
+
+    @Test
+    public void doesNotMakeRequestsOnceTheRequestDeadlineHasPassed() throws Exception {
+        RequestDeadline.set(RequestDeadline.in(Duration.milliseconds(0)));
+
+        try {
+            get();
+            failBecauseExceptionWasNotThrown(DeadlineExceededException.class);
+        } catch (DeadlineExceededException e) {
+            assertThat(requests.get())
+                    .isZero();
+        }
+    }
+
+    @Test
+    public void propagatesTheRemainingTimeAsAHeader() throws Exception {
+        RequestDeadline.set(RequestDeadline.in(Duration.seconds(1)));
+
+        assertThat(jerseyClient().resource(uri()).get(String.class))
+                .isEqualTo("ok");
+
+        assertThat(Long.parseLong(header.get()))
+                .isGreaterThan(0)
+                .isLessThanOrEqualTo(1000);
+    }
+
+    @Test
+    public void keepsAnExplicitTimeoutHeader() throws Exception {
+        RequestDeadline.set(RequestDeadline.in(Duration.seconds(1)));
+
+        jerseyClient().resource(uri()).header("X-Request-Timeout", "200ms").get(String.class);
+
+        assertThat(header.get())
+                .isEqualTo("200ms");
+    }
+
+    @Test
+    public void doesNotAddATimeoutHeaderWithoutARequestDeadline() throws Exception {
+        jerseyClient().resource(uri()).get(String.class);
+
+        assertThat(header.get())
+                .isNull();
+    }
+
+    @Test
+    public void doesNotMakeJerseyRequestsOnceTheRequestDeadlineHasPassed() throws Exception {
+        RequestDeadline.set(RequestDeadline.in(Duration.milliseconds(0)));
+
+        try {
+            jerseyClient().resource(uri()).get(String.class);
+            failBecauseExceptionWasNotThrown(DeadlineExceededException.class);
+        } catch (DeadlineExceededException e) {
+            assertThat(requests.get())
+                    .isZero();
+        }
+    }
+
+    private void get() throws Exception {
+        final AbstractHttpClient client =
+                (AbstractHttpClient) new HttpClientBuilder().using(configuration).build();
+        // the request's parameters are the ones the client determined for it
+        client.addRequestInterceptor(new HttpRequestInterceptor() {
+            @Override
+            public void process(HttpRequest request, HttpContext context) throws HttpException, IOException {
+                params.set(request.getParams());
+            }
+        });
+        try {
+            EntityUtils.consume(client.execute(new HttpGet(uri())).getEntity());
+        } finally {
+            client.getConnectionManager().shutdown();
+        }
+    }
+
+    private Client jerseyClient() {
+        return new JerseyClientBuilder().using(mock(ExecutorService.class), new ObjectMapper())
+                                        .build();
+    }
+
+    private String uri() {
+        return "http://localhost:" + connector.getLocalPort() + "/";
+    }
+}
@@ -3,6 +3,7 @@ package com.yammer.dropwizard.cli;
 import com.yammer.dropwizard.config.*;
 import com.yammer.dropwizard.config.provider.ConfigurationSourceProvider;
 import com.yammer.dropwizard.json.ObjectMapperFactory;
+import com.yammer.dropwizard.lifecycle.StartupProfiler;
 import com.yammer.dropwizard.util.Generics;
 import com.yammer.dropwizard.validation.Validator;
 import net.sourceforge.argparse4j.inf.Namespace;
@@ -48,13 +49,19 @@ public abstract class ConfiguredCommand<T extends Configuration> extends Command
     @Override
     @SuppressWarnings("unchecked")
     public final void run(Bootstrap<?> bootstrap, Namespace namespace) throws Exception {
-        final T configuration = parseConfiguration(bootstrap.getConfigurationProvider(),
-                                                   namespace.getString("file"),
-                                                   getConfigurationClass(),
-                                                   new ObjectMapperFactory(bootstrap.getObjectMapperFactory()));
-        if (configuration != null) {
-            new LoggingFactory(configuration.getLoggingConfiguration(),
-                               bootstrap.getService().getName()).configure();
+        final StartupProfiler.Phase phase = bootstrap.getStartupProfiler().start("configuration");
+        final T configuration;
+        try {
+            configuration = parseConfiguration(bootstrap.getConfigurationProvider(),
+                                               namespace.getString("file"),
+                                               getConfigurationClass(),
+                                               new ObjectMapperFactory(bootstrap.getObjectMapperFactory()));
+            if (configuration != null) {
+                new LoggingFactory(configuration.getLoggingConfiguration(),
+                                   bootstrap.getService().getName()).configure();
+            }
+        } finally {
+            phase.stop();
         }
         run((Bootstrap<T>) bootstrap, namespace, configuration);
     }
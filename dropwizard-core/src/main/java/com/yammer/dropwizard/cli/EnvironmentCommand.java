@@ -4,7 +4,9 @@ import com.yammer.dropwizard.Service;
 import com.yammer.dropwizard.config.Bootstrap;
 import com.yammer.dropwizard.config.Configuration;
 import com.yammer.dropwizard.config.Environment;
+import com.yammer.dropwizard.config.StartupConfiguration;
 import com.yammer.dropwizard.json.ObjectMapperFactory;
+import com.yammer.dropwizard.lifecycle.StartupProfiler;
 import com.yammer.dropwizard.validation.Validator;
 import net.sourceforge.argparse4j.inf.Namespace;
 
@@ -31,11 +33,30 @@ public abstract class EnvironmentCommand<T extends Configuration> extends Config
 
     @Override
     protected final void run(Bootstrap<T> bootstrap, Namespace namespace, T configuration) throws Exception {
+        final StartupProfiler profiler = bootstrap.getStartupProfiler();
         final Environment environment = new Environment(bootstrap.getService().getName(),
                                                         new ObjectMapperFactory(bootstrap.getObjectMapperFactory()),
-                                                        new Validator());
-        bootstrap.runWithBundles(configuration, environment);
-        service.run(configuration, environment);
+                                                        new Validator(),
+                                                        profiler);
+        final StartupConfiguration startup = configuration.getStartupConfiguration();
+        if (startup.isConcurrent()) {
+            environment.getLifecycleEnvironment().startManagedObjectsConcurrently(startup.getThreads());
+        }
+
+        final StartupProfiler.Phase bundles = profiler.start("bundles");
+        try {
+            bootstrap.runWithBundles(configuration, environment);
+        } finally {
+            bundles.stop();
+        }
+
+        final StartupProfiler.Phase serviceRun = profiler.start("service " + service.getClass().getName());
+        try {
+            service.run(configuration, environment);
+        } finally {
+            serviceRun.stop();
+        }
+
         run(environment, namespace, configuration);
     }
 
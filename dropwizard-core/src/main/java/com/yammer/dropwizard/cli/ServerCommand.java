@@ -1,11 +1,14 @@
 package com.yammer.dropwizard.cli;
 
 import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
 import com.google.common.io.Resources;
 import com.yammer.dropwizard.Service;
 import com.yammer.dropwizard.config.Configuration;
 import com.yammer.dropwizard.config.Environment;
 import com.yammer.dropwizard.config.ServerFactory;
+import com.yammer.dropwizard.jetty.ServerWarmer;
+import com.yammer.dropwizard.lifecycle.StartupProfiler;
 import net.sourceforge.argparse4j.inf.Namespace;
 import org.eclipse.jetty.server.Server;
 import org.slf4j.Logger;
@@ -39,12 +42,33 @@ public class ServerCommand<T extends Configuration> extends EnvironmentCommand<T
 
     @Override
     protected void run(Environment environment, Namespace namespace, T configuration) throws Exception {
-        final Server server = new ServerFactory(configuration.getHttpConfiguration(),
-                                                environment.getName()).buildServer(environment);
+        final StartupProfiler profiler = environment.getStartupProfiler();
+        final StartupProfiler.Phase build = profiler.start("server");
+        final ServerFactory factory = new ServerFactory(configuration.getHttpConfiguration(),
+                                                        environment.getName());
+        final Server server;
+        final Optional<ServerWarmer> warmer;
+        try {
+            server = factory.buildServer(environment);
+            warmer = factory.buildWarmer(server);
+        } finally {
+            build.stop();
+        }
         final Logger logger = LoggerFactory.getLogger(ServerCommand.class);
         logBanner(environment.getName(), logger);
         try {
-            server.start();
+            final StartupProfiler.Phase start = profiler.start("start");
+            try {
+                if (warmer.isPresent()) {
+                    warmer.get().start();
+                } else {
+                    server.start();
+                }
+            } finally {
+                start.stop();
+            }
+            profiler.finish();
+            logger.info("Started {}\n\n{}", environment.getName(), profiler.getReport());
         } catch (Exception e) {
             logger.error("Unable to start server, shutting down", e);
             server.stop();
@@ -0,0 +1,127 @@
+package com.yammer.dropwizard.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableMap;
+import com.yammer.dropwizard.jetty.AdaptiveCompression;
+import com.yammer.dropwizard.util.Size;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * An object representation of the {@code http.gzip.adaptive} section of the YAML configuration
+ * file, which backs response compression off when the server is busy.
+ */
+@SuppressWarnings("UnusedDeclaration")
+public class AdaptiveCompressionConfiguration {
+    @JsonProperty
+    private boolean enabled = false;
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    @JsonProperty
+    private double maxCpuLoad = 0.85;
+
+    @Min(1)
+    @JsonProperty
+    private int maxQueueSize = 50;
+
+    @Min(Deflater.NO_COMPRESSION)
+    @Max(Deflater.BEST_COMPRESSION)
+    @JsonProperty
+    private int reducedCompressionLevel = Deflater.BEST_SPEED;
+
+    @NotNull
+    @JsonProperty
+    private Size maxEntitySizeUnderLoad = Size.kilobytes(64);
+
+    @NotNull
+    @JsonProperty
+    private ImmutableMap<String, AdaptiveCompression.Policy> mediaTypes = ImmutableMap.of();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the process CPU load, from {@code 0} to {@code 1}, at which the server is considered
+     * to be under pressure.
+     *
+     * @return the maximum CPU load
+     */
+    public double getMaxCpuLoad() {
+        return maxCpuLoad;
+    }
+
+    public void setMaxCpuLoad(double maxCpuLoad) {
+        this.maxCpuLoad = maxCpuLoad;
+    }
+
+    /**
+     * Returns the number of requests waiting for a worker thread at which the server is
+     * considered to be under pressure.
+     *
+     * @return the maximum queue size
+     */
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    public void setMaxQueueSize(int maxQueueSize) {
+        this.maxQueueSize = maxQueueSize;
+    }
+
+    public int getReducedCompressionLevel() {
+        return reducedCompressionLevel;
+    }
+
+    public void setReducedCompressionLevel(int level) {
+        this.reducedCompressionLevel = level;
+    }
+
+    /**
+     * Returns the size above which responses aren't compressed while the server is under
+     * pressure.
+     *
+     * @return the maximum size of responses compressed under pressure
+     */
+    public Size getMaxEntitySizeUnderLoad() {
+        return maxEntitySizeUnderLoad;
+    }
+
+    public void setMaxEntitySizeUnderLoad(Size size) {
+        this.maxEntitySizeUnderLoad = size;
+    }
+
+    /**
+     * Returns the compression policies of media types (e.g. {@code image/svg+xml} or
+     * {@code image/*}). Responses of other media types are compressed at the reduced level under
+     * pressure.
+     *
+     * @return the compression policies of media types
+     */
+    public ImmutableMap<String, AdaptiveCompression.Policy> getMediaTypes() {
+        return mediaTypes;
+    }
+
+    public void setMediaTypes(Map<String, AdaptiveCompression.Policy> mediaTypes) {
+        this.mediaTypes = ImmutableMap.copyOf(mediaTypes);
+    }
+
+    public AdaptiveCompression build() {
+        return new AdaptiveCompression(maxCpuLoad,
+                                       maxQueueSize,
+                                       maxEntitySizeUnderLoad.toBytes(),
+                                       reducedCompressionLevel,
+                                       mediaTypes);
+    }
+}
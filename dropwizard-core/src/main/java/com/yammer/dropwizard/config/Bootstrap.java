@@ -1,7 +1,9 @@
 package com.yammer.dropwizard.config;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.yammer.dropwizard.Bundle;
 import com.yammer.dropwizard.ConfiguredBundle;
 import com.yammer.dropwizard.Service;
@@ -10,8 +12,10 @@ import com.yammer.dropwizard.cli.ConfiguredCommand;
 import com.yammer.dropwizard.config.provider.ConfigurationSourceProvider;
 import com.yammer.dropwizard.config.provider.FileConfigurationSourceProvider;
 import com.yammer.dropwizard.json.ObjectMapperFactory;
+import com.yammer.dropwizard.lifecycle.StartupProfiler;
 
 import java.util.List;
+import java.util.concurrent.*;
 
 public class Bootstrap<T extends Configuration> {
     private final Service<T> service;
@@ -20,6 +24,7 @@ public class Bootstrap<T extends Configuration> {
     private final List<Bundle> bundles;
     private final List<ConfiguredBundle<? super T>> configuredBundles;
     private final List<Command> commands;
+    private final StartupProfiler startupProfiler;
 
     public Bootstrap(Service<T> service) {
         this.service = service;
@@ -27,6 +32,7 @@ public class Bootstrap<T extends Configuration> {
         this.bundles = Lists.newArrayList();
         this.configuredBundles = Lists.newArrayList();
         this.commands = Lists.newArrayList();
+        this.startupProfiler = new StartupProfiler();
     }
 
     public Service<T> getService() {
@@ -63,12 +69,69 @@ public class Bootstrap<T extends Configuration> {
         return objectMapperFactory;
     }
 
-    public void runWithBundles(T configuration, Environment environment) throws Exception {
-        for (Bundle bundle : bundles) {
-            bundle.run(environment);
+    public StartupProfiler getStartupProfiler() {
+        return startupProfiler;
+    }
+
+    public void runWithBundles(final T configuration, final Environment environment) throws Exception {
+        final List<Callable<Void>> runs = Lists.newArrayList();
+        for (final Bundle bundle : bundles) {
+            runs.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    final StartupProfiler.Phase phase =
+                            startupProfiler.start("bundle " + bundle.getClass().getName());
+                    try {
+                        bundle.run(environment);
+                    } finally {
+                        phase.stop();
+                    }
+                    return null;
+                }
+            });
         }
-        for (ConfiguredBundle<? super T> bundle : configuredBundles) {
-            bundle.run(configuration, environment);
+        for (final ConfiguredBundle<? super T> bundle : configuredBundles) {
+            runs.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    final StartupProfiler.Phase phase =
+                            startupProfiler.start("bundle " + bundle.getClass().getName());
+                    try {
+                        bundle.run(configuration, environment);
+                    } finally {
+                        phase.stop();
+                    }
+                    return null;
+                }
+            });
+        }
+
+        final StartupConfiguration startup = configuration.getStartupConfiguration();
+        if (startup.isConcurrent() && runs.size() > 1) {
+            runConcurrently(runs, startup.getThreads());
+        } else {
+            for (Callable<Void> run : runs) {
+                run.call();
+            }
+        }
+    }
+
+    private static void runConcurrently(List<Callable<Void>> runs, int threads) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(threads, runs.size()),
+                new ThreadFactoryBuilder().setNameFormat("dw-startup-%d").setDaemon(true).build()
+        );
+        try {
+            for (Future<Void> future : executor.invokeAll(runs)) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    Throwables.propagateIfPossible(e.getCause(), Exception.class);
+                    throw e;
+                }
+            }
+        } finally {
+            executor.shutdown();
         }
     }
 
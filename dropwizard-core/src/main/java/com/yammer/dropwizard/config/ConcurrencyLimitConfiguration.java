@@ -0,0 +1,99 @@
+package com.yammer.dropwizard.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.yammer.dropwizard.validation.ValidationMethod;
+
+import javax.validation.constraints.Min;
+
+/**
+ * An object representation of the {@code http.concurrencyLimit} section of the YAML configuration
+ * file, which limits the number of concurrent requests to each resource method.
+ *
+ * @see com.yammer.dropwizard.jersey.concurrency.AdaptiveConcurrencyLimit
+ */
+@SuppressWarnings("UnusedDeclaration")
+public class ConcurrencyLimitConfiguration {
+    @JsonProperty
+    private boolean enabled = false;
+
+    @Min(1)
+    @JsonProperty
+    private int initialLimit = 20;
+
+    @Min(1)
+    @JsonProperty
+    private int minLimit = 1;
+
+    @Min(1)
+    @JsonProperty
+    private int maxLimit = 200;
+
+    @JsonProperty
+    private double backoffRatio = 0.9;
+
+    @JsonProperty
+    private double latencyTolerance = 2.0;
+
+    @ValidationMethod(message = "must have minLimit <= initialLimit <= maxLimit")
+    public boolean isLimitRangeValid() {
+        return (minLimit <= initialLimit) && (initialLimit <= maxLimit);
+    }
+
+    @ValidationMethod(message = "must have a backoffRatio between 0 and 1")
+    public boolean isBackoffRatioValid() {
+        return (backoffRatio > 0) && (backoffRatio < 1);
+    }
+
+    @ValidationMethod(message = "must have a latencyTolerance of at least 1")
+    public boolean isLatencyToleranceValid() {
+        return latencyTolerance >= 1;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int limit) {
+        this.initialLimit = limit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int limit) {
+        this.minLimit = limit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int limit) {
+        this.maxLimit = limit;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    public void setBackoffRatio(double ratio) {
+        this.backoffRatio = ratio;
+    }
+
+    public double getLatencyTolerance() {
+        return latencyTolerance;
+    }
+
+    public void setLatencyTolerance(double tolerance) {
+        this.latencyTolerance = tolerance;
+    }
+}
@@ -54,6 +54,11 @@ public class Configuration {
     @JsonProperty("logging")
     private LoggingConfiguration logging = new LoggingConfiguration();
 
+    @Valid
+    @NotNull
+    @JsonProperty("startup")
+    private StartupConfiguration startup = new StartupConfiguration();
+
     /**
      * Returns the HTTP-specific section of the configuration file.
      *
@@ -88,11 +93,29 @@ public class Configuration {
         this.logging = config;
     }
 
+    /**
+     * Returns the startup-specific section of the configuration file.
+     *
+     * @return startup-specific configuration parameters
+     */
+    @JsonIgnore
+    public StartupConfiguration getStartupConfiguration() {
+        return startup;
+    }
+
+    /**
+     * Sets the startup-specific section of the configuration file.
+     */
+    public void setStartupConfiguration(StartupConfiguration config) {
+        this.startup = config;
+    }
+
     @Override
     public String toString() {
         return Objects.toStringHelper(this)
                       .add("http", http)
                       .add("logging", logging)
+                      .add("startup", startup)
                       .toString();
     }
 }
@@ -0,0 +1,128 @@
+package com.yammer.dropwizard.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Optional;
+import com.yammer.dropwizard.config.HttpConfiguration.ConnectorType;
+import com.yammer.dropwizard.util.Duration;
+import com.yammer.dropwizard.util.Size;
+import com.yammer.dropwizard.validation.ValidationMethod;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
+/**
+ * An object representation of the tuning parameters of a single connector. Any parameter which is
+ * omitted falls back to the corresponding value in {@link HttpConfiguration}.
+ */
+@SuppressWarnings("UnusedDeclaration")
+public class ConnectorConfiguration {
+    @JsonProperty
+    private ConnectorType type = null;
+
+    @JsonProperty
+    private Duration maxIdleTime = null;
+
+    @Min(1)
+    @Max(128)
+    @JsonProperty
+    private Integer acceptorThreads = null;
+
+    @JsonProperty
+    private Size requestBufferSize = null;
+
+    @JsonProperty
+    private Size requestHeaderBufferSize = null;
+
+    @JsonProperty
+    private Size responseBufferSize = null;
+
+    @JsonProperty
+    private Size responseHeaderBufferSize = null;
+
+    @Min(1)
+    @Max(1000000)
+    @JsonProperty
+    private Integer minThreads = null;
+
+    @Min(2)
+    @Max(1000000)
+    @JsonProperty
+    private Integer maxThreads = null;
+
+    @ValidationMethod(message = "must have a smaller minThreads than maxThreads")
+    public boolean isThreadPoolSizedCorrectly() {
+        return (minThreads == null) || (maxThreads == null) || (minThreads <= maxThreads);
+    }
+
+    public Optional<ConnectorType> getType() {
+        return Optional.fromNullable(type);
+    }
+
+    public void setType(ConnectorType type) {
+        this.type = type;
+    }
+
+    public Optional<Duration> getMaxIdleTime() {
+        return Optional.fromNullable(maxIdleTime);
+    }
+
+    public void setMaxIdleTime(Duration duration) {
+        this.maxIdleTime = duration;
+    }
+
+    public Optional<Integer> getAcceptorThreads() {
+        return Optional.fromNullable(acceptorThreads);
+    }
+
+    public void setAcceptorThreads(Integer count) {
+        this.acceptorThreads = count;
+    }
+
+    public Optional<Size> getRequestBufferSize() {
+        return Optional.fromNullable(requestBufferSize);
+    }
+
+    public void setRequestBufferSize(Size size) {
+        this.requestBufferSize = size;
+    }
+
+    public Optional<Size> getRequestHeaderBufferSize() {
+        return Optional.fromNullable(requestHeaderBufferSize);
+    }
+
+    public void setRequestHeaderBufferSize(Size size) {
+        this.requestHeaderBufferSize = size;
+    }
+
+    public Optional<Size> getResponseBufferSize() {
+        return Optional.fromNullable(responseBufferSize);
+    }
+
+    public void setResponseBufferSize(Size size) {
+        this.responseBufferSize = size;
+    }
+
+    public Optional<Size> getResponseHeaderBufferSize() {
+        return Optional.fromNullable(responseHeaderBufferSize);
+    }
+
+    public void setResponseHeaderBufferSize(Size size) {
+        this.responseHeaderBufferSize = size;
+    }
+
+    public Optional<Integer> getMinThreads() {
+        return Optional.fromNullable(minThreads);
+    }
+
+    public void setMinThreads(Integer count) {
+        this.minThreads = count;
+    }
+
+    public Optional<Integer> getMaxThreads() {
+        return Optional.fromNullable(maxThreads);
+    }
+
+    public void setMaxThreads(Integer count) {
+        this.maxThreads = count;
+    }
+}
@@ -1,10 +1,12 @@
 package com.yammer.dropwizard.config;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.sun.jersey.spi.container.servlet.ServletContainer;
 import com.yammer.dropwizard.jersey.DropwizardResourceConfig;
 import com.yammer.dropwizard.json.ObjectMapperFactory;
+import com.yammer.dropwizard.lifecycle.StartupProfiler;
 import com.yammer.dropwizard.setup.*;
 import com.yammer.dropwizard.validation.Validator;
 import com.yammer.metrics.core.HealthCheck;
@@ -38,6 +40,8 @@ public class Environment {
     private final ServletContextHandler adminContext;
     private final AdminEnvironment adminEnvironment;
 
+    private final StartupProfiler startupProfiler;
+
     /**
      * Creates a new environment.
      *
@@ -47,7 +51,22 @@ public class Environment {
     public Environment(String name,
                        ObjectMapperFactory objectMapperFactory,
                        Validator validator) {
+        this(name, objectMapperFactory, validator, new StartupProfiler());
+    }
+
+    /**
+     * Creates a new environment.
+     *
+     * @param name                the name of the service
+     * @param objectMapperFactory the {@link ObjectMapperFactory} for the service
+     * @param startupProfiler     the {@link StartupProfiler} recording the service's startup
+     */
+    public Environment(String name,
+                       ObjectMapperFactory objectMapperFactory,
+                       Validator validator,
+                       StartupProfiler startupProfiler) {
         this.name = name;
+        this.startupProfiler = startupProfiler;
         this.jsonEnvironment = new JsonEnvironment(objectMapperFactory);
         this.validator = validator;
         final DropwizardResourceConfig jerseyConfig = new DropwizardResourceConfig(false);
@@ -57,11 +76,12 @@ public class Environment {
         this.servletContext = new ServletContextHandler();
         this.servletEnvironment = new ServletEnvironment(servletContext);
 
-        this.healthChecks = Sets.newHashSet();
+        // bundles may be run concurrently
+        this.healthChecks = Sets.newSetFromMap(Maps.<HealthCheck, Boolean>newConcurrentMap());
         this.adminContext = new ServletContextHandler();
         this.adminEnvironment = new AdminEnvironment(adminContext, healthChecks);
 
-        this.lifecycleEnvironment = new LifecycleEnvironment(server);
+        this.lifecycleEnvironment = new LifecycleEnvironment(server, startupProfiler);
 
         this.jerseyServletContainer = new AtomicReference<ServletContainer>(new ServletContainer(jerseyConfig));
         this.jerseyEnvironment = new JerseyEnvironment(servletContext, jerseyServletContainer,
@@ -88,6 +108,10 @@ public class Environment {
         return jsonEnvironment;
     }
 
+    public StartupProfiler getStartupProfiler() {
+        return startupProfiler;
+    }
+
     public String getName() {
         return name;
     }
@@ -1,11 +1,16 @@
 package com.yammer.dropwizard.config;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableSet;
 import com.yammer.dropwizard.util.Size;
 
+import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import java.util.Set;
+import java.util.zip.Deflater;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -21,12 +26,22 @@ public class GzipConfiguration {
     @JsonProperty
     private Size bufferSize = Size.kilobytes(8);
 
+    @JsonProperty
+    @Min(Deflater.DEFAULT_COMPRESSION)
+    @Max(Deflater.BEST_COMPRESSION)
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
     @JsonProperty
     private ImmutableSet<String> excludedUserAgents = ImmutableSet.of();
 
     @JsonProperty
     private ImmutableSet<String> compressedMimeTypes = ImmutableSet.of();
 
+    @Valid
+    @NotNull
+    @JsonProperty
+    private AdaptiveCompressionConfiguration adaptive = new AdaptiveCompressionConfiguration();
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -51,6 +66,14 @@ public class GzipConfiguration {
         this.bufferSize = checkNotNull(size);
     }
 
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public void setCompressionLevel(int level) {
+        this.compressionLevel = level;
+    }
+
     public ImmutableSet<String> getExcludedUserAgents() {
         return excludedUserAgents;
     }
@@ -66,4 +89,13 @@ public class GzipConfiguration {
     public void setCompressedMimeTypes(Set<String> mimeTypes) {
         this.compressedMimeTypes = ImmutableSet.copyOf(mimeTypes);
     }
+
+    @JsonIgnore
+    public AdaptiveCompressionConfiguration getAdaptiveCompressionConfiguration() {
+        return adaptive;
+    }
+
+    public void setAdaptiveCompressionConfiguration(AdaptiveCompressionConfiguration config) {
+        this.adaptive = checkNotNull(config);
+    }
 }
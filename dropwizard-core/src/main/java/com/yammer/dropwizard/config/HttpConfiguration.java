@@ -5,6 +5,9 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonValue;
 import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+import com.yammer.dropwizard.servlets.RequestDeadlineFilter;
 import com.yammer.dropwizard.util.Duration;
 import com.yammer.dropwizard.util.Size;
 import com.yammer.dropwizard.validation.PortRange;
@@ -14,13 +17,20 @@ import javax.validation.Valid;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
+import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
 /**
  * An object representation of the {@code http} section of the YAML configuration file.
  */
 @SuppressWarnings("UnusedDeclaration")
 public class HttpConfiguration {
+    /**
+     * The name of the admin connector, which service connectors can't use.
+     */
+    public static final String ADMIN_CONNECTOR_NAME = "internal";
+
     public enum ConnectorType {
         BLOCKING,
         LEGACY,
@@ -50,6 +60,46 @@ public class HttpConfiguration {
     @JsonProperty("gzip")
     private GzipConfiguration gzip = new GzipConfiguration();
 
+    @Valid
+    @NotNull
+    @JsonProperty("requestQueue")
+    private RequestQueueConfiguration requestQueue = new RequestQueueConfiguration();
+
+    @Valid
+    @NotNull
+    @JsonProperty("concurrencyLimit")
+    private ConcurrencyLimitConfiguration concurrencyLimit = new ConcurrencyLimitConfiguration();
+
+    @Valid
+    @NotNull
+    @JsonProperty("rateLimiting")
+    private RateLimitingConfiguration rateLimiting = new RateLimitingConfiguration();
+
+    @Valid
+    @NotNull
+    @JsonProperty("warmup")
+    private WarmupConfiguration warmup = new WarmupConfiguration();
+
+    @Valid
+    @NotNull
+    @JsonProperty("responseCache")
+    private ResponseCacheConfiguration responseCache = new ResponseCacheConfiguration();
+
+    @Valid
+    @NotNull
+    @JsonProperty("logLevelEscalation")
+    private LogLevelEscalationConfiguration logLevelEscalation = new LogLevelEscalationConfiguration();
+
+    @Valid
+    @NotNull
+    @JsonProperty("adminConnector")
+    private ConnectorConfiguration adminConnector = new ConnectorConfiguration();
+
+    @Valid
+    @NotNull
+    @JsonProperty
+    private ImmutableList<ServiceConnectorConfiguration> connectors = ImmutableList.of();
+
     @Valid
     @JsonProperty("ssl")
     private SslConfiguration ssl = null;
@@ -143,6 +193,13 @@ public class HttpConfiguration {
     @JsonProperty
     private Duration shutdownGracePeriod = Duration.seconds(2);
 
+    @NotNull
+    @JsonProperty
+    private Duration drainDelay = Duration.seconds(0);
+
+    @JsonProperty
+    private String requestTimeoutHeader = null;
+
     @JsonProperty
     private boolean useServerHeader = false;
 
@@ -166,9 +223,32 @@ public class HttpConfiguration {
 
     @ValidationMethod(message = "must have an SSL configuration when using SSL connection")
     public boolean isSslConfigured() {
-        final ConnectorType type = getConnectorType();
-        return !((ssl == null) && ((type == ConnectorType.LEGACY_SSL) ||
-                                   (type == ConnectorType.NONBLOCKING_SSL)));
+        if (ssl != null) {
+            return true;
+        }
+        for (ServiceConnectorConfiguration connector : connectors) {
+            if (isSsl(connector.getType().or(connectorType))) {
+                return false;
+            }
+        }
+        return !(isSsl(getConnectorType()) ||
+                 isSsl(adminConnector.getType().or(ConnectorType.LEGACY)));
+    }
+
+    @ValidationMethod(message = "must have unique connector names, other than \"" +
+            ADMIN_CONNECTOR_NAME + "\"")
+    public boolean isConnectorNamingUnique() {
+        final Set<String> names = Sets.newHashSet(ADMIN_CONNECTOR_NAME);
+        for (ServiceConnectorConfiguration connector : connectors) {
+            if (!names.add(connector.getName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSsl(ConnectorType type) {
+        return (type == ConnectorType.LEGACY_SSL) || (type == ConnectorType.NONBLOCKING_SSL);
     }
 
     @ValidationMethod(message = "must have a smaller minThreads than maxThreads")
@@ -198,6 +278,69 @@ public class HttpConfiguration {
         this.gzip = config;
     }
 
+    @JsonIgnore
+    public RequestQueueConfiguration getRequestQueueConfiguration() {
+        return requestQueue;
+    }
+
+    public void setRequestQueueConfiguration(RequestQueueConfiguration config) {
+        this.requestQueue = config;
+    }
+
+    @JsonIgnore
+    public ConcurrencyLimitConfiguration getConcurrencyLimitConfiguration() {
+        return concurrencyLimit;
+    }
+
+    public void setConcurrencyLimitConfiguration(ConcurrencyLimitConfiguration config) {
+        this.concurrencyLimit = config;
+    }
+
+    @JsonIgnore
+    public RateLimitingConfiguration getRateLimitingConfiguration() {
+        return rateLimiting;
+    }
+
+    public void setRateLimitingConfiguration(RateLimitingConfiguration config) {
+        this.rateLimiting = config;
+    }
+
+    @JsonIgnore
+    public WarmupConfiguration getWarmupConfiguration() {
+        return warmup;
+    }
+
+    public void setWarmupConfiguration(WarmupConfiguration config) {
+        this.warmup = config;
+    }
+
+    @JsonIgnore
+    public ResponseCacheConfiguration getResponseCacheConfiguration() {
+        return responseCache;
+    }
+
+    public void setResponseCacheConfiguration(ResponseCacheConfiguration config) {
+        this.responseCache = config;
+    }
+
+    @JsonIgnore
+    public LogLevelEscalationConfiguration getLogLevelEscalationConfiguration() {
+        return logLevelEscalation;
+    }
+
+    public void setLogLevelEscalationConfiguration(LogLevelEscalationConfiguration config) {
+        this.logLevelEscalation = config;
+    }
+
+    @JsonIgnore
+    public ConnectorConfiguration getAdminConnectorConfiguration() {
+        return adminConnector;
+    }
+
+    public void setAdminConnectorConfiguration(ConnectorConfiguration config) {
+        this.adminConnector = config;
+    }
+
     @JsonIgnore
     public SslConfiguration getSslConfiguration() {
         return ssl;
@@ -207,6 +350,14 @@ public class HttpConfiguration {
         this.ssl = config;
     }
 
+    public ImmutableList<ServiceConnectorConfiguration> getConnectors() {
+        return connectors;
+    }
+
+    public void setConnectors(List<ServiceConnectorConfiguration> connectors) {
+        this.connectors = ImmutableList.copyOf(connectors);
+    }
+
     public ConnectorType getConnectorType() {
         return connectorType;
     }
@@ -383,6 +534,30 @@ public class HttpConfiguration {
         this.shutdownGracePeriod = duration;
     }
 
+    public Duration getDrainDelay() {
+        return drainDelay;
+    }
+
+    public void setDrainDelay(Duration duration) {
+        this.drainDelay = duration;
+    }
+
+    /**
+     * Returns the name of the request header from which the deadlines of requests are read, if
+     * request deadlines are enabled. They're disabled by default; set the header (e.g. to
+     * {@link RequestDeadlineFilter#DEFAULT_HEADER}) to enable them.
+     *
+     * @return the name of the request timeout header
+     * @see com.yammer.dropwizard.servlets.RequestDeadline
+     */
+    public Optional<String> getRequestTimeoutHeader() {
+        return Optional.fromNullable(requestTimeoutHeader);
+    }
+
+    public void setRequestTimeoutHeader(String header) {
+        this.requestTimeoutHeader = header;
+    }
+
     public boolean useForwardedHeaders() {
         return useForwardedHeaders;
     }
@@ -0,0 +1,102 @@
+package com.yammer.dropwizard.config;
+
+import ch.qos.logback.classic.Level;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.yammer.dropwizard.logging.DuplicateSuppressingFilter;
+import com.yammer.dropwizard.util.Duration;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * An object representation of the {@code logging.deduplication} section of the YAML configuration
+ * file, which stops the same statement from being logged over and over again.
+ */
+@SuppressWarnings("UnusedDeclaration")
+public class LogDeduplicationConfiguration {
+    @JsonProperty
+    private boolean enabled = false;
+
+    @NotNull
+    @JsonProperty
+    private Level threshold = Level.WARN;
+
+    @Min(1)
+    @JsonProperty
+    private int maxOccurrences = 10;
+
+    @NotNull
+    @JsonProperty
+    private Duration window = Duration.minutes(1);
+
+    @Min(1)
+    @JsonProperty
+    private int maxFingerprints = 1024;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the least severe level of the statements which are deduplicated.
+     *
+     * @return the least severe level of deduplicated statements
+     */
+    public Level getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(Level threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * Returns the number of statements with the same logger, message format, exception type and
+     * top of the stack trace which are logged in each window.
+     *
+     * @return the number of duplicate statements logged in each window
+     */
+    public int getMaxOccurrences() {
+        return maxOccurrences;
+    }
+
+    public void setMaxOccurrences(int maxOccurrences) {
+        this.maxOccurrences = maxOccurrences;
+    }
+
+    /**
+     * Returns the length of the windows at the end of which the number of suppressed statements is
+     * logged.
+     *
+     * @return the length of each window
+     */
+    public Duration getWindow() {
+        return window;
+    }
+
+    public void setWindow(Duration window) {
+        this.window = window;
+    }
+
+    /**
+     * Returns the maximum number of distinct statements which are tracked at once. Statements
+     * beyond those are always logged.
+     *
+     * @return the maximum number of tracked statements
+     */
+    public int getMaxFingerprints() {
+        return maxFingerprints;
+    }
+
+    public void setMaxFingerprints(int maxFingerprints) {
+        this.maxFingerprints = maxFingerprints;
+    }
+
+    public DuplicateSuppressingFilter build() {
+        return new DuplicateSuppressingFilter(threshold, maxOccurrences, window, maxFingerprints);
+    }
+}
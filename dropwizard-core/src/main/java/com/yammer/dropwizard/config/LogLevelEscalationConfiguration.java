@@ -0,0 +1,86 @@
+package com.yammer.dropwizard.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Optional;
+import com.yammer.dropwizard.servlets.LogLevelEscalationFilter;
+import com.yammer.dropwizard.util.ClientKey;
+import com.yammer.metrics.core.Clock;
+import org.hibernate.validator.constraints.NotEmpty;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * An object representation of the {@code http.logLevelEscalation} section of the YAML
+ * configuration file, which allows the log level of individual requests to be escalated without
+ * changing the levels of any loggers.
+ */
+@SuppressWarnings("UnusedDeclaration")
+public class LogLevelEscalationConfiguration {
+    @JsonProperty
+    private boolean enabled = false;
+
+    @NotEmpty
+    @JsonProperty
+    private String header = LogLevelEscalationFilter.DEFAULT_HEADER;
+
+    @JsonProperty
+    private String secret = null;
+
+    @NotNull
+    @JsonProperty
+    private ClientKey clientKey = ClientKey.principal();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the name of the header containing a request's signed log level.
+     *
+     * @return the name of the log level header
+     */
+    public String getHeader() {
+        return header;
+    }
+
+    public void setHeader(String header) {
+        this.header = header;
+    }
+
+    /**
+     * Returns the secret the log level header is signed with. If absent, requests are only
+     * escalated by the rules added through the {@code escalate-log-level} task.
+     *
+     * @return the secret the log level header is signed with
+     */
+    public Optional<String> getSecret() {
+        return Optional.fromNullable(secret);
+    }
+
+    public void setSecret(String secret) {
+        this.secret = secret;
+    }
+
+    /**
+     * Returns how the clients named by the {@code escalate-log-level} task's {@code principal}
+     * parameter are told apart. The default, {@code principal}, only sees principals set by the
+     * servlet container, not by {@code @Auth}, and otherwise falls back to the client's address.
+     *
+     * @return how escalated clients are told apart
+     */
+    public ClientKey getClientKey() {
+        return clientKey;
+    }
+
+    public void setClientKey(ClientKey clientKey) {
+        this.clientKey = clientKey;
+    }
+
+    public LogLevelEscalationFilter build() {
+        return new LogLevelEscalationFilter(header, getSecret(), clientKey, Clock.defaultClock());
+    }
+}
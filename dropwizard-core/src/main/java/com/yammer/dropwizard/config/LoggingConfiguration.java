@@ -1,17 +1,24 @@
 package com.yammer.dropwizard.config;
 
 import ch.qos.logback.classic.Level;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+import com.yammer.dropwizard.logging.AsyncLoggingOutput;
 import com.yammer.dropwizard.logging.ConsoleLoggingOutput;
 import com.yammer.dropwizard.logging.LoggingOutput;
+import com.yammer.dropwizard.validation.ValidationMethod;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 @SuppressWarnings("UnusedDeclaration")
 public class LoggingConfiguration {
     static final TimeZone UTC = TimeZone.getTimeZone("UTC");
@@ -31,6 +38,11 @@ public class LoggingConfiguration {
             new ConsoleLoggingOutput()
     );
 
+    @Valid
+    @NotNull
+    @JsonProperty
+    private LogDeduplicationConfiguration deduplication = new LogDeduplicationConfiguration();
+
     public Level getLevel() {
         return level;
     }
@@ -54,4 +66,26 @@ public class LoggingConfiguration {
     public void setOutputs(ImmutableList<LoggingOutput> outputs) {
         this.outputs = outputs;
     }
+
+    @ValidationMethod(message = "must have unique async output names")
+    public boolean isAsyncOutputNamingUnique() {
+        final Set<String> names = Sets.newHashSet();
+        for (LoggingOutput output : outputs) {
+            if ((output instanceof AsyncLoggingOutput) &&
+                    (((AsyncLoggingOutput) output).getOutput() != null) &&
+                    !names.add(((AsyncLoggingOutput) output).getName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @JsonIgnore
+    public LogDeduplicationConfiguration getDeduplicationConfiguration() {
+        return deduplication;
+    }
+
+    public void setDeduplicationConfiguration(LogDeduplicationConfiguration config) {
+        this.deduplication = checkNotNull(config);
+    }
 }
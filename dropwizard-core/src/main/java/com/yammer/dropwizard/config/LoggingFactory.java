@@ -2,11 +2,15 @@ package com.yammer.dropwizard.config;
 
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.filter.ThresholdFilter;
 import ch.qos.logback.classic.jmx.JMXConfigurator;
 import ch.qos.logback.classic.jul.LevelChangePropagator;
 import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.turbo.TurboFilter;
 import ch.qos.logback.core.ConsoleAppender;
+import com.yammer.dropwizard.logging.DuplicateSuppressingFilter;
+import com.yammer.dropwizard.logging.EscalatedLevelFilter;
 import com.yammer.dropwizard.logging.LogFormatter;
 import com.yammer.dropwizard.logging.LoggingOutput;
 import com.yammer.metrics.logback.InstrumentedAppender;
@@ -20,7 +24,6 @@ import java.util.Map;
 import java.util.TimeZone;
 
 // TODO: 11/7/11 <coda> -- document LoggingFactory
-// TODO: 11/7/11 <coda> -- test LoggingFactory
 
 public class LoggingFactory {
     // initially configure for WARN+ console logging
@@ -44,6 +47,21 @@ public class LoggingFactory {
         root.addAppender(appender);
     }
 
+    /**
+     * Adds an {@link EscalatedLevelFilter}, which lets through the statements of requests whose
+     * log level has been escalated, replacing any which was added before.
+     */
+    public static void addEscalatedLevelFilter() {
+        final Logger root = (Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        final LoggerContext context = root.getLoggerContext();
+        removeTurboFilters(context, EscalatedLevelFilter.class);
+
+        final EscalatedLevelFilter filter = new EscalatedLevelFilter();
+        filter.setContext(context);
+        filter.start();
+        context.addTurboFilter(filter);
+    }
+
     private final LoggingConfiguration config;
     private final String name;
 
@@ -61,6 +79,15 @@ public class LoggingFactory {
             root.addAppender(output.build(root.getLoggerContext(), name, null));
         }
 
+        removeTurboFilters(root.getLoggerContext(), DuplicateSuppressingFilter.class);
+        final LogDeduplicationConfiguration deduplication = config.getDeduplicationConfiguration();
+        if (deduplication.isEnabled()) {
+            final DuplicateSuppressingFilter filter = deduplication.build();
+            filter.setContext(root.getLoggerContext());
+            filter.start();
+            root.getLoggerContext().addTurboFilter(filter);
+        }
+
         final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
         try {
             final ObjectName objectName = new ObjectName("com.yammer:type=Logging");
@@ -84,6 +111,15 @@ public class LoggingFactory {
         root.addAppender(appender);
     }
 
+    private static void removeTurboFilters(LoggerContext context, Class<? extends TurboFilter> type) {
+        for (TurboFilter filter : context.getTurboFilterList()) {
+            if (type.isInstance(filter)) {
+                filter.stop();
+                context.getTurboFilterList().remove(filter);
+            }
+        }
+    }
+
     private void hijackJDKLogging() {
         SLF4JBridgeHandler.removeHandlersForRootLogger();
         SLF4JBridgeHandler.install();
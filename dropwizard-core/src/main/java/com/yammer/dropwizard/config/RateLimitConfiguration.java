@@ -0,0 +1,57 @@
+package com.yammer.dropwizard.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Optional;
+import com.yammer.dropwizard.util.Duration;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * An object representation of a named rate limit in the {@code http.rateLimiting.limits} section
+ * of the YAML configuration file.
+ */
+@SuppressWarnings("UnusedDeclaration")
+public class RateLimitConfiguration {
+    @Min(1)
+    @JsonProperty
+    private int permits = 10;
+
+    @NotNull
+    @JsonProperty
+    private Duration period = Duration.seconds(1);
+
+    @NotNull
+    @JsonProperty
+    private Optional<Integer> burst = Optional.absent();
+
+    public int getPermits() {
+        return permits;
+    }
+
+    public void setPermits(int permits) {
+        this.permits = permits;
+    }
+
+    public Duration getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(Duration period) {
+        this.period = period;
+    }
+
+    /**
+     * Returns the number of requests a client may make at once after being idle. Defaults to
+     * {@link #getPermits()}.
+     *
+     * @return the burst size
+     */
+    public Optional<Integer> getBurst() {
+        return burst;
+    }
+
+    public void setBurst(Optional<Integer> burst) {
+        this.burst = burst;
+    }
+}
@@ -0,0 +1,89 @@
+package com.yammer.dropwizard.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableMap;
+import com.yammer.dropwizard.util.ClientKey;
+import com.yammer.dropwizard.util.Duration;
+import com.yammer.dropwizard.util.TokenBucketTable;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.Map;
+
+/**
+ * An object representation of the {@code http.rateLimiting} section of the YAML configuration
+ * file, which limits the rate at which each client may call resource methods annotated with
+ * {@link com.yammer.dropwizard.jersey.ratelimit.RateLimited}.
+ */
+@SuppressWarnings("UnusedDeclaration")
+public class RateLimitingConfiguration {
+    @NotNull
+    @JsonProperty
+    private ClientKey clientKey = ClientKey.address();
+
+    @Min(1)
+    @JsonProperty
+    private long maxClients = 10000;
+
+    @NotNull
+    @JsonProperty
+    private Duration idleTimeout = Duration.minutes(5);
+
+    @Valid
+    @NotNull
+    @JsonProperty
+    private ImmutableMap<String, RateLimitConfiguration> limits = ImmutableMap.of();
+
+    public ClientKey getClientKey() {
+        return clientKey;
+    }
+
+    public void setClientKey(ClientKey clientKey) {
+        this.clientKey = clientKey;
+    }
+
+    /**
+     * Returns the maximum number of clients tracked by each limit. Once a limit tracks this many
+     * clients, the least recently seen ones are forgotten.
+     *
+     * @return the maximum number of clients per limit
+     */
+    public long getMaxClients() {
+        return maxClients;
+    }
+
+    public void setMaxClients(long maxClients) {
+        this.maxClients = maxClients;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public ImmutableMap<String, RateLimitConfiguration> getLimits() {
+        return limits;
+    }
+
+    public void setLimits(Map<String, RateLimitConfiguration> limits) {
+        this.limits = ImmutableMap.copyOf(limits);
+    }
+
+    /**
+     * Builds the clients' token buckets for the given limit.
+     *
+     * @param limit the limit's configuration
+     * @return a table of token buckets
+     */
+    public TokenBucketTable buildTable(RateLimitConfiguration limit) {
+        return new TokenBucketTable(limit.getPermits(),
+                                    limit.getPeriod(),
+                                    limit.getBurst().or(limit.getPermits()),
+                                    maxClients,
+                                    idleTimeout);
+    }
+}
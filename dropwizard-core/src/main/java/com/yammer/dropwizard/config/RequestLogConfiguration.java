@@ -1,14 +1,18 @@
 package com.yammer.dropwizard.config;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableList;
+import com.yammer.dropwizard.jetty.AsyncRequestLog;
 import com.yammer.dropwizard.logging.ConsoleLoggingOutput;
 import com.yammer.dropwizard.logging.LoggingOutput;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import java.util.TimeZone;
 
+import static com.google.common.base.Preconditions.checkNotNull;
 import static com.yammer.dropwizard.config.LoggingConfiguration.*;
 
 public class RequestLogConfiguration {
@@ -23,6 +27,23 @@ public class RequestLogConfiguration {
             new ConsoleLoggingOutput()
     );
 
+    @Min(1)
+    @JsonProperty
+    private int queueSize = AsyncRequestLog.DEFAULT_QUEUE_SIZE;
+
+    @NotNull
+    @JsonProperty
+    private AsyncRequestLog.QueueFullPolicy queueFullPolicy = AsyncRequestLog.QueueFullPolicy.DROP;
+
+    @NotNull
+    @JsonProperty
+    private AsyncRequestLog.Format format = AsyncRequestLog.Format.NCSA;
+
+    @Valid
+    @NotNull
+    @JsonProperty
+    private RequestLogSamplingConfiguration sampling = new RequestLogSamplingConfiguration();
+
     public ImmutableList<LoggingOutput> getOutputs() {
         return outputs;
     }
@@ -38,4 +59,52 @@ public class RequestLogConfiguration {
     public void setTimeZone(TimeZone timeZone) {
         this.timeZone = timeZone;
     }
+
+    /**
+     * Returns the maximum number of log entries waiting to be written.
+     *
+     * @return the maximum number of queued entries
+     */
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    /**
+     * Returns what happens to log entries when {@link #getQueueSize() the queue} is full.
+     *
+     * @return the policy for entries logged while the queue is full
+     */
+    public AsyncRequestLog.QueueFullPolicy getQueueFullPolicy() {
+        return queueFullPolicy;
+    }
+
+    public void setQueueFullPolicy(AsyncRequestLog.QueueFullPolicy policy) {
+        this.queueFullPolicy = policy;
+    }
+
+    /**
+     * Returns the format of log entries.
+     *
+     * @return the format of log entries
+     */
+    public AsyncRequestLog.Format getFormat() {
+        return format;
+    }
+
+    public void setFormat(AsyncRequestLog.Format format) {
+        this.format = format;
+    }
+
+    @JsonIgnore
+    public RequestLogSamplingConfiguration getSamplingConfiguration() {
+        return sampling;
+    }
+
+    public void setSamplingConfiguration(RequestLogSamplingConfiguration config) {
+        this.sampling = checkNotNull(config);
+    }
 }
@@ -7,7 +7,9 @@ import ch.qos.logback.core.CoreConstants;
 import ch.qos.logback.core.LayoutBase;
 import ch.qos.logback.core.spi.AppenderAttachableImpl;
 import com.yammer.dropwizard.jetty.AsyncRequestLog;
+import com.yammer.dropwizard.jetty.ContinuationAwareRequestLogHandler;
 import com.yammer.dropwizard.logging.LoggingOutput;
+import com.yammer.metrics.Metrics;
 import com.yammer.metrics.core.Clock;
 import org.eclipse.jetty.server.handler.RequestLogHandler;
 import org.slf4j.LoggerFactory;
@@ -49,10 +51,21 @@ public class RequestLogHandlerFactory {
             appenders.addAppender(output.build(context, name, layout));
         }
 
-        final RequestLogHandler handler = new RequestLogHandler();
-        handler.setRequestLog(new AsyncRequestLog(Clock.defaultClock(),
-                                                  appenders,
-                                                  config.getTimeZone()));
+        final AsyncRequestLog requestLog = new AsyncRequestLog(Metrics.defaultRegistry(),
+                                                               Clock.defaultClock(),
+                                                               appenders,
+                                                               config.getTimeZone(),
+                                                               config.getQueueSize(),
+                                                               config.getQueueFullPolicy(),
+                                                               config.getFormat());
+
+        final RequestLogSamplingConfiguration sampling = config.getSamplingConfiguration();
+        if (sampling.isEnabled()) {
+            requestLog.setSampler(sampling.build());
+        }
+
+        final RequestLogHandler handler = new ContinuationAwareRequestLogHandler();
+        handler.setRequestLog(requestLog);
 
         return handler;
     }
@@ -0,0 +1,100 @@
+package com.yammer.dropwizard.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.yammer.dropwizard.jetty.RequestLogSampler;
+import com.yammer.dropwizard.util.Duration;
+import com.yammer.dropwizard.validation.ValidationMethod;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.NotNull;
+import java.util.Map;
+
+/**
+ * An object representation of the {@code http.requestLog.sampling} section of the YAML
+ * configuration file, which only logs a fraction of successful requests.
+ */
+@SuppressWarnings("UnusedDeclaration")
+public class RequestLogSamplingConfiguration {
+    @JsonProperty
+    private boolean enabled = false;
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    @JsonProperty
+    private double successRate = 1.0;
+
+    @JsonProperty
+    private Duration slowRequestThreshold = null;
+
+    @NotNull
+    @JsonProperty
+    private ImmutableMap<String, Double> paths = ImmutableMap.of();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the fraction, from {@code 0} to {@code 1}, of successful requests which are logged.
+     * Client and server errors are always logged.
+     *
+     * @return the fraction of successful requests which are logged
+     */
+    public double getSuccessRate() {
+        return successRate;
+    }
+
+    public void setSuccessRate(double successRate) {
+        this.successRate = successRate;
+    }
+
+    /**
+     * Returns the latency above which requests are always logged.
+     *
+     * @return the latency above which requests are always logged
+     */
+    public Optional<Duration> getSlowRequestThreshold() {
+        return Optional.fromNullable(slowRequestThreshold);
+    }
+
+    public void setSlowRequestThreshold(Duration threshold) {
+        this.slowRequestThreshold = threshold;
+    }
+
+    /**
+     * Returns the fractions of successful requests which are logged for paths starting with the
+     * given prefixes (e.g. {@code /health}), which override the {@link #getSuccessRate() success
+     * rate}.
+     *
+     * @return the success rates of path prefixes
+     */
+    public ImmutableMap<String, Double> getPaths() {
+        return paths;
+    }
+
+    public void setPaths(Map<String, Double> paths) {
+        this.paths = ImmutableMap.copyOf(paths);
+    }
+
+    @ValidationMethod(message = "must have path success rates between 0 and 1")
+    public boolean isValidPathRates() {
+        for (Double rate : paths.values()) {
+            if ((rate == null) || (rate < 0) || (rate > 1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public RequestLogSampler build() {
+        final long threshold = (slowRequestThreshold == null) ? 0 : slowRequestThreshold.toMilliseconds();
+        return new RequestLogSampler(successRate, threshold, paths);
+    }
+}
@@ -0,0 +1,51 @@
+package com.yammer.dropwizard.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Optional;
+import com.yammer.dropwizard.util.Duration;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
+/**
+ * An object representation of the {@code http.requestQueue} section of the YAML configuration
+ * file, which bounds the queue of the server's thread pool.
+ */
+@SuppressWarnings("UnusedDeclaration")
+public class RequestQueueConfiguration {
+    @Min(-1)
+    @JsonProperty
+    private int maxQueueLength = -1;
+
+    @JsonProperty
+    private Duration maxQueueWait = null;
+
+    @Min(400)
+    @Max(599)
+    @JsonProperty
+    private int shedStatusCode = 503;
+
+    public int getMaxQueueLength() {
+        return maxQueueLength;
+    }
+
+    public void setMaxQueueLength(int length) {
+        this.maxQueueLength = length;
+    }
+
+    public Optional<Duration> getMaxQueueWait() {
+        return Optional.fromNullable(maxQueueWait);
+    }
+
+    public void setMaxQueueWait(Duration duration) {
+        this.maxQueueWait = duration;
+    }
+
+    public int getShedStatusCode() {
+        return shedStatusCode;
+    }
+
+    public void setShedStatusCode(int statusCode) {
+        this.shedStatusCode = statusCode;
+    }
+}
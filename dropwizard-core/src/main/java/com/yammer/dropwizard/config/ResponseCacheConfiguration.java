@@ -0,0 +1,110 @@
+package com.yammer.dropwizard.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+import com.google.common.net.HttpHeaders;
+import com.yammer.dropwizard.jersey.caching.ResponseCache;
+import com.yammer.dropwizard.jersey.caching.ResponseCachingResourceMethodDispatchAdapter;
+import com.yammer.dropwizard.util.Duration;
+import com.yammer.dropwizard.util.Size;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * An object representation of the {@code http.responseCache} section of the YAML configuration
+ * file, which configures the in-process cache of responses from resource methods annotated with
+ * {@link com.yammer.dropwizard.jersey.caching.CacheControl}.
+ */
+@SuppressWarnings("UnusedDeclaration")
+public class ResponseCacheConfiguration {
+    @JsonProperty
+    private boolean enabled = false;
+
+    @NotNull
+    @JsonProperty
+    private Size maxSize = Size.megabytes(64);
+
+    @NotNull
+    @JsonProperty
+    private Duration staleWhileRevalidate = Duration.seconds(0);
+
+    @NotNull
+    @JsonProperty
+    private ImmutableList<String> varyHeaders = ImmutableList.of(HttpHeaders.ACCEPT,
+                                                                 HttpHeaders.ACCEPT_ENCODING,
+                                                                 HttpHeaders.AUTHORIZATION);
+
+    @NotNull
+    @JsonProperty
+    private ImmutableList<String> credentialHeaders =
+            ResponseCachingResourceMethodDispatchAdapter.DEFAULT_CREDENTIAL_HEADERS;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the maximum total size of the cached response entities. Once the cache is full, the
+     * least recently used responses are evicted.
+     *
+     * @return the maximum size of the cache
+     */
+    public Size getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(Size maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns how long a response may still be served from the cache after it's gone stale, while
+     * a single request refreshes it.
+     *
+     * @return the stale-while-revalidate period
+     */
+    public Duration getStaleWhileRevalidate() {
+        return staleWhileRevalidate;
+    }
+
+    public void setStaleWhileRevalidate(Duration staleWhileRevalidate) {
+        this.staleWhileRevalidate = staleWhileRevalidate;
+    }
+
+    /**
+     * Returns the names of the request headers which responses vary on. Responses to requests
+     * with different values for any of these headers are cached separately.
+     *
+     * @return the names of the request headers responses vary on
+     */
+    public ImmutableList<String> getVaryHeaders() {
+        return varyHeaders;
+    }
+
+    public void setVaryHeaders(ImmutableList<String> varyHeaders) {
+        this.varyHeaders = varyHeaders;
+    }
+
+    /**
+     * Returns the names of the request headers which carry credentials, e.g. session cookies or
+     * custom authentication tokens. Requests with any of these headers which isn't also one of the
+     * {@link #getVaryHeaders() vary headers} are never served from or stored in the cache.
+     *
+     * @return the names of the request headers which carry credentials
+     */
+    public ImmutableList<String> getCredentialHeaders() {
+        return credentialHeaders;
+    }
+
+    public void setCredentialHeaders(ImmutableList<String> credentialHeaders) {
+        this.credentialHeaders = credentialHeaders;
+    }
+
+    public ResponseCache buildCache() {
+        return new ResponseCache(maxSize, staleWhileRevalidate);
+    }
+}
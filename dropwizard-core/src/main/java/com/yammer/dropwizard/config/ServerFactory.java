@@ -1,19 +1,43 @@
 package com.yammer.dropwizard.config;
 
 import com.google.common.base.Optional;
+import com.google.common.base.Predicates;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
 import com.sun.jersey.api.container.filter.PostReplaceFilter.ConfigFlag;
 import com.sun.jersey.spi.container.servlet.ServletContainer;
 import com.yammer.dropwizard.config.HttpConfiguration.ConnectorType;
 import com.yammer.dropwizard.jersey.JacksonMessageBodyProvider;
+import com.yammer.dropwizard.jersey.caching.PurgeResponseCacheTask;
+import com.yammer.dropwizard.jersey.caching.ResponseCache;
+import com.yammer.dropwizard.jersey.caching.ResponseCachingResourceMethodDispatchAdapter;
+import com.yammer.dropwizard.jersey.concurrency.ConcurrencyLimitingResourceMethodDispatchAdapter;
+import com.yammer.dropwizard.jersey.ratelimit.RateLimitedResourceMethodDispatchAdapter;
 import com.yammer.dropwizard.jetty.BiDiGzipHandler;
+import com.yammer.dropwizard.jetty.BoundedQueuedThreadPool;
+import com.yammer.dropwizard.jetty.CipherSuiteOrderSslContextFactory;
+import com.yammer.dropwizard.jetty.InFlightRequestHandler;
+import com.yammer.dropwizard.jetty.LoadSheddingHandler;
+import com.yammer.dropwizard.jetty.MeteredSslSelectChannelConnector;
+import com.yammer.dropwizard.jetty.MeteredSslSocketConnector;
 import com.yammer.dropwizard.jetty.NonblockingServletHolder;
+import com.yammer.dropwizard.jetty.ServerDrainer;
+import com.yammer.dropwizard.jetty.ServerWarmer;
 import com.yammer.dropwizard.jetty.UnbrandedErrorHandler;
+import com.yammer.dropwizard.jetty.WarmUpBypassingHandler;
+import com.yammer.dropwizard.servlets.LogLevelEscalationFilter;
+import com.yammer.dropwizard.servlets.LogLevelEscalationTask;
+import com.yammer.dropwizard.servlets.RequestDeadlineFilter;
+import com.yammer.dropwizard.servlets.StartupReportServlet;
 import com.yammer.dropwizard.servlets.ThreadNameFilter;
 import com.yammer.dropwizard.util.Duration;
 import com.yammer.dropwizard.util.Size;
+import com.yammer.dropwizard.util.TokenBucketTable;
 import com.yammer.metrics.HealthChecks;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Counter;
 import com.yammer.metrics.core.HealthCheck;
 import com.yammer.metrics.jetty.*;
 import com.yammer.metrics.reporting.AdminServlet;
@@ -27,26 +51,27 @@ import org.eclipse.jetty.server.AbstractConnector;
 import org.eclipse.jetty.server.Connector;
 import org.eclipse.jetty.server.Handler;
 import org.eclipse.jetty.server.Server;
-import org.eclipse.jetty.server.bio.SocketConnector;
 import org.eclipse.jetty.server.handler.HandlerCollection;
 import org.eclipse.jetty.server.nio.AbstractNIOConnector;
 import org.eclipse.jetty.server.nio.SelectChannelConnector;
-import org.eclipse.jetty.server.ssl.SslConnector;
+import org.eclipse.jetty.servlet.FilterHolder;
 import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.servlet.ServletHolder;
 import org.eclipse.jetty.util.security.Constraint;
 import org.eclipse.jetty.util.security.Credential;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
 import org.eclipse.jetty.util.thread.QueuedThreadPool;
-import org.eclipse.jetty.util.thread.ThreadPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import javax.servlet.DispatcherType;
 import java.io.File;
 import java.net.URI;
 import java.security.KeyStore;
 import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
 
 /*
  * A factory for creating instances of {@link org.eclipse.jetty.server.Server} and configuring Servlets
@@ -64,6 +89,7 @@ import java.util.EnumSet;
  * */
 public class ServerFactory {
     private static final Logger LOGGER = LoggerFactory.getLogger(ServerFactory.class);
+    private static final String IN_FLIGHT_REQUESTS = "in-flight-requests";
 
     private final HttpConfiguration config;
     private final RequestLogHandlerFactory requestLogHandlerFactory;
@@ -81,23 +107,61 @@ public class ServerFactory {
         }
         final Server server = createServer(env);
         server.setHandler(createHandler(env));
+
+        // the counter maintained by the service's InFlightRequestHandler
+        final Counter activeRequests = Metrics.newCounter(Server.class, IN_FLIGHT_REQUESTS);
+        final ServerDrainer drainer = new ServerDrainer(server,
+                                                        activeRequests,
+                                                        getAdminConnectorNames(),
+                                                        config.getDrainDelay(),
+                                                        config.getShutdownGracePeriod());
+        HealthChecks.defaultRegistry().register(drainer.getHealthCheck());
+        server.addBean(drainer);
+
         return server;
     }
 
+    /**
+     * Returns a warmer which starts the given server, if the configuration has any warm-up
+     * requests.
+     *
+     * @param server the server built by {@link #buildServer(Environment)}
+     * @return a warmer for {@code server}, if warm-up is enabled
+     */
+    public Optional<ServerWarmer> buildWarmer(Server server) {
+        final WarmupConfiguration warmup = config.getWarmupConfiguration();
+        if (warmup.isEnabled()) {
+            // a service connector which also serves the admin servlets stays open during the
+            // warm-up, so the service connectors are warmed up by name
+            final ServerWarmer warmer = new ServerWarmer(server,
+                                                         getAdminConnectorNames(),
+                                                         warmup.buildRequests(),
+                                                         warmup.getIterations(),
+                                                         warmup.getDuration());
+            warmer.setWarmedConnectors(getServiceConnectorPorts().keySet());
+            return Optional.of(warmer);
+        }
+        return Optional.absent();
+    }
+
     private Server createServer(Environment env) {
         final Server server = env.getServer();
         LOGGER.info("createServer method called");
-        if ((config.getSslPort() != 9999) && (config.getSslConfiguration() != null) && (config.getSslPort() != config.getPort())) {
+        if (!config.getConnectors().isEmpty()) {
+            for (ServiceConnectorConfiguration connector : config.getConnectors()) {
+                server.addConnector(createServiceConnector(connector));
+            }
+        } else if (isCustomRtrServer()) {
         	LOGGER.info("About to create custom RTR server");
         	setCustomRtrServer(server);
         } else {
         	LOGGER.info("About to follow coda's pattern in creating servers");
             server.addConnector(createExternalConnector());
-            
-            // if we're dynamically allocating ports, no worries if they are the same (i.e. 0)
-            if (config.getAdminPort() == 0 || (config.getAdminPort() != config.getPort()) ) {
-                server.addConnector(createInternalConnector());
-            }
+        }
+
+        // if we're dynamically allocating ports, no worries if they are the same (i.e. 0)
+        if (config.getAdminPort() == 0 || !getServiceConnectorPorts().containsValue(config.getAdminPort())) {
+            server.addConnector(createInternalConnector());
         }
         
         server.addBean(new UnbrandedErrorHandler());
@@ -105,22 +169,52 @@ public class ServerFactory {
         server.setSendDateHeader(config.isDateHeaderEnabled());
         server.setSendServerVersion(config.isServerHeaderEnabled());
 
-        server.setThreadPool(createThreadPool());
+        server.setThreadPool(createThreadPool(null, config.getMinThreads(), config.getMaxThreads()));
 
         server.setStopAtShutdown(true);
 
-        server.setGracefulShutdown((int) config.getShutdownGracePeriod().toMilliseconds());
-
         return server;
     }
+
+    private boolean isCustomRtrServer() {
+        return (config.getSslPort() != 9999) && (config.getSslConfiguration() != null) && (config.getSslPort() != config.getPort());
+    }
+
+    /*
+     * The names and ports of the connectors serving the service, as opposed to the admin servlets.
+     */
+    private ImmutableMap<String, Integer> getServiceConnectorPorts() {
+        final ImmutableMap.Builder<String, Integer> ports = ImmutableMap.builder();
+        if (!config.getConnectors().isEmpty()) {
+            for (ServiceConnectorConfiguration connector : config.getConnectors()) {
+                ports.put(connector.getName(), connector.getPort());
+            }
+        } else if (isCustomRtrServer()) {
+            ports.put("SSL", config.getSslPort());
+            ports.put("NonSSL", config.getPort());
+        } else {
+            ports.put("main", config.getPort());
+        }
+        return ports.build();
+    }
     
+    /*
+     * The names of the connectors serving the admin servlets: the internal connector, or the
+     * service connectors sharing the admin port.
+     */
+    private ImmutableSet<String> getAdminConnectorNames() {
+        final ImmutableMap<String, Integer> servicePorts = getServiceConnectorPorts();
+        if (config.getAdminPort() != 0 && servicePorts.containsValue(config.getAdminPort())) {
+            return ImmutableSet.copyOf(Maps.filterValues(servicePorts,
+                                                         Predicates.equalTo(config.getAdminPort()))
+                                           .keySet());
+        }
+        return ImmutableSet.of(HttpConfiguration.ADMIN_CONNECTOR_NAME);
+    }
+
     //RTR patch
     private void setCustomRtrServer(Server server) {
     	LOGGER.info("Custom RTR Server");
-    	 // if we're dynamically allocating ports, no worries if they are the same (i.e. 0)
-        if (config.getAdminPort() == 0 || (config.getAdminPort() != config.getPort()) && (config.getAdminPort() != config.getSslPort())) {
-            server.addConnector(createInternalConnector());
-        }
         LOGGER.info("SSL port: " + config.getSslPort());
         LOGGER.info("Non-SSL port: " + config.getPort());
         server.addConnector(createExternalConnector(config.getSslPort(), config.getSslConnectorType(), "SSL"));
@@ -130,48 +224,46 @@ public class ServerFactory {
 
     //RTR Patch
     private Connector createExternalConnector(int port, ConnectorType connectorType, String connectorName) {
-    	final AbstractConnector connector;
-        switch (connectorType) {
-            case BLOCKING:
-                connector = new InstrumentedBlockingChannelConnector(port);
-                break;
-            case LEGACY:
-                connector = new InstrumentedSocketConnector(port);
-                break;
-            case LEGACY_SSL:
-                connector = new InstrumentedSslSocketConnector(port);
-                break;
-            case NONBLOCKING:
-                connector = new InstrumentedSelectChannelConnector(port);
-                break;
-            case NONBLOCKING_SSL:
-                connector = new InstrumentedSslSelectChannelConnector(port);
-                break;
-            default:
-                throw new IllegalStateException("Invalid connector type: " + config.getConnectorType());
-        }
+    	final AbstractConnector connector = createConnector(port, connectorType);
+        configureConnector(connector, port, connectorName, new ConnectorConfiguration());
+    	return connector;
+    }
 
-        if (connector instanceof SslConnector) {
-            configureSslContext(((SslConnector) connector).getSslContextFactory());
-        }
+    private Connector createExternalConnector() {
+        final AbstractConnector connector = createConnector(config.getPort(),
+                                                            config.getConnectorType());
+        configureConnector(connector, config.getPort(), "main", new ConnectorConfiguration());
+        return connector;
+    }
 
-        if (connector instanceof SelectChannelConnector) {
-            ((SelectChannelConnector) connector).setLowResourcesConnections(config.getLowResourcesConnectionThreshold());
-        }
+    private Connector createServiceConnector(ServiceConnectorConfiguration connectorConfig) {
+        final AbstractConnector connector = createConnector(connectorConfig.getPort(),
+                                                            connectorConfig.getType()
+                                                                           .or(config.getConnectorType()));
+        configureConnector(connector,
+                           connectorConfig.getPort(),
+                           connectorConfig.getName(),
+                           connectorConfig);
 
-        if (connector instanceof AbstractNIOConnector) {
-            ((AbstractNIOConnector) connector).setUseDirectBuffers(config.useDirectBuffers());
+        for (Integer maxThreads : connectorConfig.getMaxThreads().asSet()) {
+            final int minThreads = connectorConfig.getMinThreads()
+                                                  .or(Math.min(config.getMinThreads(), maxThreads));
+            connector.setThreadPool(createThreadPool(connectorConfig.getName(),
+                                                     minThreads,
+                                                     maxThreads));
         }
 
+        return connector;
+    }
 
+    private void configureConnector(AbstractConnector connector,
+                                    int port,
+                                    String name,
+                                    ConnectorConfiguration overrides) {
         connector.setHost(config.getBindHost().orNull());
 
-        connector.setAcceptors(config.getAcceptorThreads());
-
         connector.setForwarded(config.useForwardedHeaders());
 
-        connector.setMaxIdleTime((int) config.getMaxIdleTime().toMilliseconds());
-
         connector.setLowResourcesMaxIdleTime((int) config.getLowResourcesMaxIdleTime()
                                                          .toMilliseconds());
 
@@ -181,14 +273,6 @@ public class ServerFactory {
 
         connector.setMaxBuffers(config.getMaxBufferCount());
 
-        connector.setRequestBufferSize((int) config.getRequestBufferSize().toBytes());
-
-        connector.setRequestHeaderSize((int) config.getRequestHeaderBufferSize().toBytes());
-
-        connector.setResponseBufferSize((int) config.getResponseBufferSize().toBytes());
-
-        connector.setResponseHeaderSize((int) config.getResponseHeaderBufferSize().toBytes());
-
         connector.setReuseAddress(config.isReuseAddressEnabled());
         
         final Optional<Duration> lingerTime = config.getSoLingerTime();
@@ -197,58 +281,41 @@ public class ServerFactory {
             connector.setSoLingerTime((int) lingerTime.get().toMilliseconds());
         }
 
+        configureTuning(connector, overrides, config.getAcceptorThreads());
+
         connector.setPort(port);
-        connector.setName(connectorName);
-    	
-    	return connector;
+        connector.setName(name);
     }
-    
-    
-    private Connector createExternalConnector() {
-        final AbstractConnector connector = createConnector(config.getPort());
 
-        connector.setHost(config.getBindHost().orNull());
-
-        connector.setAcceptors(config.getAcceptorThreads());
-
-        connector.setForwarded(config.useForwardedHeaders());
-
-        connector.setMaxIdleTime((int) config.getMaxIdleTime().toMilliseconds());
-
-        connector.setLowResourcesMaxIdleTime((int) config.getLowResourcesMaxIdleTime()
-                                                         .toMilliseconds());
+    private void configureTuning(AbstractConnector connector,
+                                 ConnectorConfiguration overrides,
+                                 int defaultAcceptorThreads) {
+        connector.setAcceptors(overrides.getAcceptorThreads().or(defaultAcceptorThreads));
 
-        connector.setAcceptorPriorityOffset(config.getAcceptorThreadPriorityOffset());
-
-        connector.setAcceptQueueSize(config.getAcceptQueueSize());
-
-        connector.setMaxBuffers(config.getMaxBufferCount());
-
-        connector.setRequestBufferSize((int) config.getRequestBufferSize().toBytes());
+        connector.setMaxIdleTime((int) overrides.getMaxIdleTime()
+                                                .or(config.getMaxIdleTime())
+                                                .toMilliseconds());
 
-        connector.setRequestHeaderSize((int) config.getRequestHeaderBufferSize().toBytes());
+        connector.setRequestBufferSize((int) overrides.getRequestBufferSize()
+                                                      .or(config.getRequestBufferSize())
+                                                      .toBytes());
 
-        connector.setResponseBufferSize((int) config.getResponseBufferSize().toBytes());
+        connector.setRequestHeaderSize((int) overrides.getRequestHeaderBufferSize()
+                                                      .or(config.getRequestHeaderBufferSize())
+                                                      .toBytes());
 
-        connector.setResponseHeaderSize((int) config.getResponseHeaderBufferSize().toBytes());
+        connector.setResponseBufferSize((int) overrides.getResponseBufferSize()
+                                                       .or(config.getResponseBufferSize())
+                                                       .toBytes());
 
-        connector.setReuseAddress(config.isReuseAddressEnabled());
-        
-        final Optional<Duration> lingerTime = config.getSoLingerTime();
-
-        if (lingerTime.isPresent()) {
-            connector.setSoLingerTime((int) lingerTime.get().toMilliseconds());
-        }
-
-        connector.setPort(config.getPort());
-        connector.setName("main");
-
-        return connector;
+        connector.setResponseHeaderSize((int) overrides.getResponseHeaderBufferSize()
+                                                       .or(config.getResponseHeaderBufferSize())
+                                                       .toBytes());
     }
 
-    private AbstractConnector createConnector(int port) {
+    private AbstractConnector createConnector(int port, ConnectorType connectorType) {
         final AbstractConnector connector;
-        switch (config.getConnectorType()) {
+        switch (connectorType) {
             case BLOCKING:
                 connector = new InstrumentedBlockingChannelConnector(port);
                 break;
@@ -256,20 +323,16 @@ public class ServerFactory {
                 connector = new InstrumentedSocketConnector(port);
                 break;
             case LEGACY_SSL:
-                connector = new InstrumentedSslSocketConnector(port);
+                connector = new MeteredSslSocketConnector(createSslContextFactory(), port);
                 break;
             case NONBLOCKING:
                 connector = new InstrumentedSelectChannelConnector(port);
                 break;
             case NONBLOCKING_SSL:
-                connector = new InstrumentedSslSelectChannelConnector(port);
+                connector = new MeteredSslSelectChannelConnector(createSslContextFactory(), port);
                 break;
             default:
-                throw new IllegalStateException("Invalid connector type: " + config.getConnectorType());
-        }
-
-        if (connector instanceof SslConnector) {
-            configureSslContext(((SslConnector) connector).getSslContextFactory());
+                throw new IllegalStateException("Invalid connector type: " + connectorType);
         }
 
         if (connector instanceof SelectChannelConnector) {
@@ -283,7 +346,8 @@ public class ServerFactory {
         return connector;
     }
 
-    private void configureSslContext(SslContextFactory factory) {
+    private SslContextFactory createSslContextFactory() {
+        final CipherSuiteOrderSslContextFactory factory = new CipherSuiteOrderSslContextFactory();
         final SslConfiguration sslConfig = config.getSslConfiguration();
 
         for (File keyStore : sslConfig.getKeyStore().asSet()) {
@@ -382,6 +446,32 @@ public class ServerFactory {
 
         factory.setIncludeProtocols(Iterables.toArray(sslConfig.getSupportedProtocols(),
                                                       String.class));
+
+        if (!sslConfig.getSupportedCipherSuites().isEmpty()) {
+            factory.setIncludeCipherSuites(Iterables.toArray(sslConfig.getSupportedCipherSuites(),
+                                                             String.class));
+        }
+
+        factory.setExcludeCipherSuites(Iterables.toArray(sslConfig.getExcludedCipherSuites(),
+                                                         String.class));
+
+        for (Boolean honor : sslConfig.getHonorCipherSuiteOrder().asSet()) {
+            factory.setHonorCipherSuiteOrder(honor);
+        }
+
+        for (Boolean enable : sslConfig.getSessionCachingEnabled().asSet()) {
+            factory.setSessionCachingEnabled(enable);
+        }
+
+        for (Integer size : sslConfig.getSessionCacheSize().asSet()) {
+            factory.setSslSessionCacheSize(size);
+        }
+
+        for (Duration timeout : sslConfig.getSessionTimeout().asSet()) {
+            factory.setSslSessionTimeout((int) timeout.toSeconds());
+        }
+
+        return factory;
     }
 
 
@@ -401,13 +491,14 @@ public class ServerFactory {
     private Handler createInternalServlet(Environment env) {
         final ServletContextHandler handler = env.getAdminContext();
         handler.addServlet(new NonblockingServletHolder(new AdminServlet()), "/*");
+        handler.addServlet(new NonblockingServletHolder(new StartupReportServlet(env.getStartupProfiler())),
+                           "/startup");
 
-        if (config.getAdminPort() != 0 && config.getAdminPort() == config.getPort()) {
+        final Set<String> names = getAdminConnectorNames();
+        if (!names.contains(HttpConfiguration.ADMIN_CONNECTOR_NAME)) {
             handler.setContextPath("/admin");
-            handler.setConnectorNames(new String[]{"main"});
-        } else {
-            handler.setConnectorNames(new String[]{"internal"});
         }
+        handler.setConnectorNames(names.toArray(new String[names.size()]));
 
         if (config.getAdminUsername().isPresent() || config.getAdminPassword().isPresent()) {
             handler.setSecurityHandler(basicAuthHandler(config.getAdminUsername().or(""), config.getAdminPassword().or("")));
@@ -444,6 +535,20 @@ public class ServerFactory {
     private Handler createExternalServlet(Environment env) {
         final ServletContextHandler handler = env.getServletContext();
         handler.addFilter(ThreadNameFilter.class, "/*", EnumSet.of(DispatcherType.REQUEST));
+        for (String header : config.getRequestTimeoutHeader().asSet()) {
+            handler.addFilter(new FilterHolder(new RequestDeadlineFilter(header)),
+                              "/*", EnumSet.of(DispatcherType.REQUEST));
+        }
+
+        final LogLevelEscalationConfiguration escalation = config.getLogLevelEscalationConfiguration();
+        if (escalation.isEnabled()) {
+            LoggingFactory.addEscalatedLevelFilter();
+
+            final LogLevelEscalationFilter escalationFilter = escalation.build();
+            handler.addFilter(new FilterHolder(escalationFilter),
+                              "/*", EnumSet.of(DispatcherType.REQUEST, DispatcherType.ASYNC));
+            env.getAdminEnvironment().addTask(new LogLevelEscalationTask(escalationFilter));
+        }
 
         final ServletContainer jerseyContainer = env.getJerseyServletContainer();
         if (jerseyContainer != null) {
@@ -451,18 +556,66 @@ public class ServerFactory {
                     new JacksonMessageBodyProvider(env.getJsonEnvironment().build(),
                                                    env.getValidator())
             );
+
+            final ConcurrencyLimitConfiguration limits = config.getConcurrencyLimitConfiguration();
+            if (limits.isEnabled()) {
+                env.getJerseyEnvironment().addProvider(
+                        new ConcurrencyLimitingResourceMethodDispatchAdapter(limits.getInitialLimit(),
+                                                                             limits.getMinLimit(),
+                                                                             limits.getMaxLimit(),
+                                                                             limits.getBackoffRatio(),
+                                                                             limits.getLatencyTolerance())
+                );
+            }
+
+            final RateLimitingConfiguration rateLimiting = config.getRateLimitingConfiguration();
+            if (!rateLimiting.getLimits().isEmpty()) {
+                final Map<String, TokenBucketTable> tables = Maps.newHashMap();
+                for (Map.Entry<String, RateLimitConfiguration> limit : rateLimiting.getLimits().entrySet()) {
+                    tables.put(limit.getKey(), rateLimiting.buildTable(limit.getValue()));
+                }
+                env.getJerseyEnvironment().addProvider(
+                        new RateLimitedResourceMethodDispatchAdapter(tables, rateLimiting.getClientKey())
+                );
+            }
+
+            final ResponseCacheConfiguration responseCache = config.getResponseCacheConfiguration();
+            if (responseCache.isEnabled()) {
+                final ResponseCache cache = responseCache.buildCache();
+                env.getJerseyEnvironment().addProvider(
+                        new ResponseCachingResourceMethodDispatchAdapter(cache,
+                                                                         responseCache.getVaryHeaders(),
+                                                                         responseCache.getCredentialHeaders())
+                );
+                env.getAdminEnvironment().addTask(new PurgeResponseCacheTask(cache));
+            }
+
             final ServletHolder jerseyHolder = new NonblockingServletHolder(jerseyContainer);
             jerseyHolder.setInitOrder(Integer.MAX_VALUE);
+            jerseyHolder.addLifeCycleListener(env.getStartupProfiler().newListener("jersey"));
             handler.addServlet(jerseyHolder, env.getJerseyEnvironment().getUrlPattern());
         }
 
-        handler.setConnectorNames(new String[]{"main"});
+        final Set<String> names = getServiceConnectorPorts().keySet();
+        handler.setConnectorNames(names.toArray(new String[names.size()]));
 
         return wrapHandler(handler);
     }
 
     private Handler wrapHandler(ServletContextHandler handler) {
-        final InstrumentedHandler instrumented = new InstrumentedHandler(handler);
+        final RequestQueueConfiguration queue = config.getRequestQueueConfiguration();
+        final Handler gzipped = wrapGzipHandler(handler);
+        if (queue.getMaxQueueWait().isPresent()) {
+            return new LoadSheddingHandler(gzipped, queue.getShedStatusCode());
+        }
+        return gzipped;
+    }
+
+    private Handler wrapGzipHandler(ServletContextHandler handler) {
+        final Handler instrumented = new WarmUpBypassingHandler(
+                new InFlightRequestHandler(new InstrumentedHandler(handler),
+                                           Metrics.newCounter(Server.class, IN_FLIGHT_REQUESTS)),
+                handler);
         final GzipConfiguration gzip = config.getGzipConfiguration();
         if (gzip.isEnabled()) {
             final BiDiGzipHandler gzipHandler = new BiDiGzipHandler(instrumented);
@@ -473,6 +626,13 @@ public class ServerFactory {
             final Size bufferSize = gzip.getBufferSize();
             gzipHandler.setBufferSize((int) bufferSize.toBytes());
 
+            gzipHandler.setCompressionLevel(gzip.getCompressionLevel());
+
+            final AdaptiveCompressionConfiguration adaptive = gzip.getAdaptiveCompressionConfiguration();
+            if (adaptive.isEnabled()) {
+                gzipHandler.setAdaptiveCompression(adaptive.build());
+            }
+
             final ImmutableSet<String> userAgents = gzip.getExcludedUserAgents();
             if (!userAgents.isEmpty()) {
                 gzipHandler.setExcluded(userAgents);
@@ -488,19 +648,40 @@ public class ServerFactory {
         return instrumented;
     }
 
-    private ThreadPool createThreadPool() {
-        final InstrumentedQueuedThreadPool pool = new InstrumentedQueuedThreadPool();
-        pool.setMinThreads(config.getMinThreads());
-        pool.setMaxThreads(config.getMaxThreads());
+    private QueuedThreadPool createThreadPool(@Nullable String name, int minThreads, int maxThreads) {
+        final RequestQueueConfiguration queue = config.getRequestQueueConfiguration();
+        final BoundedQueuedThreadPool pool = new BoundedQueuedThreadPool(name,
+                                                                         queue.getMaxQueueWait());
+        if (name != null) {
+            pool.setName("dw-" + name);
+        }
+        pool.setMinThreads(minThreads);
+        pool.setMaxThreads(maxThreads);
+        pool.setMaxQueued(queue.getMaxQueueLength());
         return pool;
     }
 
     private Connector createInternalConnector() {
-        final SocketConnector connector = new SocketConnector();
+        final ConnectorConfiguration admin = config.getAdminConnectorConfiguration();
+        final AbstractConnector connector = createConnector(config.getAdminPort(),
+                                                            admin.getType()
+                                                                 .or(ConnectorType.LEGACY));
         connector.setHost(config.getBindHost().orNull());
         connector.setPort(config.getAdminPort());
-        connector.setName("internal");
-        connector.setThreadPool(new QueuedThreadPool(8));
+        connector.setName(HttpConfiguration.ADMIN_CONNECTOR_NAME);
+
+        configureTuning(connector, admin, 1);
+
+        // unlike the service pools, the admin pool is never bounded, so health checks and tasks
+        // aren't shed along with the service's requests
+        final int maxThreads = admin.getMaxThreads().or(8);
+        final BoundedQueuedThreadPool pool = new BoundedQueuedThreadPool(HttpConfiguration.ADMIN_CONNECTOR_NAME,
+                                                                         Optional.<Duration>absent());
+        pool.setMinThreads(admin.getMinThreads().or(Math.min(maxThreads, 8)));
+        pool.setMaxThreads(maxThreads);
+        pool.setName("dw-admin");
+        connector.setThreadPool(pool);
+
         return connector;
     }
 }
@@ -0,0 +1,37 @@
+package com.yammer.dropwizard.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.yammer.dropwizard.validation.PortRange;
+import org.hibernate.validator.constraints.NotEmpty;
+
+/**
+ * An object representation of an entry in the {@code http.connectors} section of the YAML
+ * configuration file. If {@code maxThreads} is set, the connector gets a dedicated thread pool;
+ * otherwise it shares the server's thread pool.
+ */
+@SuppressWarnings("UnusedDeclaration")
+public class ServiceConnectorConfiguration extends ConnectorConfiguration {
+    @NotEmpty
+    @JsonProperty
+    private String name = null;
+
+    @PortRange
+    @JsonProperty
+    private int port = 8080;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+}
@@ -3,6 +3,7 @@ package com.yammer.dropwizard.config;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
+import com.yammer.dropwizard.util.Duration;
 import org.hibernate.validator.constraints.NotEmpty;
 
 import javax.validation.constraints.NotNull;
@@ -93,6 +94,30 @@ public class SslConfiguration {
                                                                         "TLSv1.1",
                                                                         "TLSv1.2");
 
+    @NotNull
+    @JsonProperty
+    private ImmutableList<String> supportedCipherSuites = ImmutableList.of();
+
+    @NotNull
+    @JsonProperty
+    private ImmutableList<String> excludedCipherSuites = ImmutableList.of();
+
+    @NotNull
+    @JsonProperty
+    private Optional<Boolean> honorCipherSuiteOrder = Optional.absent();
+
+    @NotNull
+    @JsonProperty
+    private Optional<Boolean> sessionCachingEnabled = Optional.absent();
+
+    @NotNull
+    @JsonProperty
+    private Optional<Integer> sessionCacheSize = Optional.absent();
+
+    @NotNull
+    @JsonProperty
+    private Optional<Duration> sessionTimeout = Optional.absent();
+
     public String getKeyStoreType() {
         return keyStoreType;
     }
@@ -244,4 +269,71 @@ public class SslConfiguration {
     public void setValidatePeers(Optional<Boolean> validatePeers) {
         this.validatePeers = validatePeers;
     }
+
+    /**
+     * Returns the cipher suites the server supports, in order of preference. If empty, the JVM's
+     * default cipher suites are used.
+     *
+     * @return the supported cipher suites
+     */
+    public ImmutableList<String> getSupportedCipherSuites() {
+        return supportedCipherSuites;
+    }
+
+    public void setSupportedCipherSuites(List<String> cipherSuites) {
+        this.supportedCipherSuites = ImmutableList.copyOf(cipherSuites);
+    }
+
+    public ImmutableList<String> getExcludedCipherSuites() {
+        return excludedCipherSuites;
+    }
+
+    public void setExcludedCipherSuites(List<String> cipherSuites) {
+        this.excludedCipherSuites = ImmutableList.copyOf(cipherSuites);
+    }
+
+    /**
+     * Returns whether the server picks the cipher suite of a connection by the order of
+     * {@link #getSupportedCipherSuites()} rather than by the client's preferences. Requires Java 8
+     * or later.
+     *
+     * @return whether the server's cipher suite order is honored
+     */
+    public Optional<Boolean> getHonorCipherSuiteOrder() {
+        return honorCipherSuiteOrder;
+    }
+
+    public void setHonorCipherSuiteOrder(Optional<Boolean> honorCipherSuiteOrder) {
+        this.honorCipherSuiteOrder = honorCipherSuiteOrder;
+    }
+
+    /**
+     * Returns whether clients may resume sessions from the server's session cache instead of
+     * performing a full handshake on every connection.
+     *
+     * @return whether session resumption is enabled
+     */
+    public Optional<Boolean> getSessionCachingEnabled() {
+        return sessionCachingEnabled;
+    }
+
+    public void setSessionCachingEnabled(Optional<Boolean> sessionCachingEnabled) {
+        this.sessionCachingEnabled = sessionCachingEnabled;
+    }
+
+    public Optional<Integer> getSessionCacheSize() {
+        return sessionCacheSize;
+    }
+
+    public void setSessionCacheSize(Optional<Integer> sessionCacheSize) {
+        this.sessionCacheSize = sessionCacheSize;
+    }
+
+    public Optional<Duration> getSessionTimeout() {
+        return sessionTimeout;
+    }
+
+    public void setSessionTimeout(Optional<Duration> sessionTimeout) {
+        this.sessionTimeout = sessionTimeout;
+    }
 }
@@ -0,0 +1,40 @@
+package com.yammer.dropwizard.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import javax.validation.constraints.Min;
+
+/**
+ * An object representation of the {@code startup} section of the YAML configuration file.
+ */
+@SuppressWarnings("UnusedDeclaration")
+public class StartupConfiguration {
+    @JsonProperty
+    private boolean concurrent = false;
+
+    @Min(1)
+    @JsonProperty
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Returns whether bundles are run, and managed objects started, concurrently rather than one
+     * after the other. Only enable this if they don't depend on each other.
+     *
+     * @return whether startup is concurrent
+     */
+    public boolean isConcurrent() {
+        return concurrent;
+    }
+
+    public void setConcurrent(boolean concurrent) {
+        this.concurrent = concurrent;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+}
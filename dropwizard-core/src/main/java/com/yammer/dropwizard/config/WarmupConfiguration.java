@@ -0,0 +1,79 @@
+package com.yammer.dropwizard.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.yammer.dropwizard.jetty.ServerWarmer;
+import com.yammer.dropwizard.util.Duration;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * An object representation of the {@code http.warmup} section of the YAML configuration file,
+ * which configures the synthetic requests sent to the service before it starts accepting
+ * connections.
+ */
+@SuppressWarnings("UnusedDeclaration")
+public class WarmupConfiguration {
+    @Min(1)
+    @JsonProperty
+    private int iterations = 1000;
+
+    @NotNull
+    @JsonProperty
+    private Optional<Duration> duration = Optional.absent();
+
+    @Valid
+    @NotNull
+    @JsonProperty
+    private ImmutableList<WarmupRequestConfiguration> requests = ImmutableList.of();
+
+    /**
+     * Returns the number of times each request is sent.
+     *
+     * @return the number of warm-up iterations
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    public void setIterations(int iterations) {
+        this.iterations = iterations;
+    }
+
+    /**
+     * Returns the longest the warm-up may take. If it takes longer than this, the remaining
+     * iterations are skipped.
+     *
+     * @return the maximum duration of the warm-up
+     */
+    public Optional<Duration> getDuration() {
+        return duration;
+    }
+
+    public void setDuration(Optional<Duration> duration) {
+        this.duration = duration;
+    }
+
+    public ImmutableList<WarmupRequestConfiguration> getRequests() {
+        return requests;
+    }
+
+    public void setRequests(ImmutableList<WarmupRequestConfiguration> requests) {
+        this.requests = requests;
+    }
+
+    public boolean isEnabled() {
+        return !requests.isEmpty();
+    }
+
+    public ImmutableList<ServerWarmer.Request> buildRequests() {
+        final ImmutableList.Builder<ServerWarmer.Request> builder = ImmutableList.builder();
+        for (WarmupRequestConfiguration request : requests) {
+            builder.add(request.build());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,79 @@
+package com.yammer.dropwizard.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.yammer.dropwizard.jetty.ServerWarmer;
+import org.hibernate.validator.constraints.NotEmpty;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * An object representation of a request in the {@code http.warmup.requests} section of the YAML
+ * configuration file.
+ */
+@SuppressWarnings("UnusedDeclaration")
+public class WarmupRequestConfiguration {
+    @NotEmpty
+    @JsonProperty
+    private String method = "GET";
+
+    @NotEmpty
+    @JsonProperty
+    private String path;
+
+    @NotNull
+    @JsonProperty
+    private ImmutableMap<String, String> headers = ImmutableMap.of();
+
+    @NotNull
+    @JsonProperty
+    private Optional<String> body = Optional.absent();
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    /**
+     * Returns the path of the request, including the service's root path and any query string.
+     *
+     * @return the request path
+     */
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public ImmutableMap<String, String> getHeaders() {
+        return headers;
+    }
+
+    public void setHeaders(ImmutableMap<String, String> headers) {
+        this.headers = headers;
+    }
+
+    /**
+     * Returns the request body, which is sent as {@code application/json} unless there's a
+     * {@code Content-Type} header.
+     *
+     * @return the request body
+     */
+    public Optional<String> getBody() {
+        return body;
+    }
+
+    public void setBody(Optional<String> body) {
+        this.body = body;
+    }
+
+    public ServerWarmer.Request build() {
+        return new ServerWarmer.Request(method, path, headers, body);
+    }
+}
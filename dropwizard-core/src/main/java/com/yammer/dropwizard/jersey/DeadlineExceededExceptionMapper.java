@@ -0,0 +1,19 @@
+package com.yammer.dropwizard.jersey;
+
+import com.yammer.dropwizard.servlets.DeadlineExceededException;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.ExceptionMapper;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Abandons requests whose deadline has passed with a {@code 504 Gateway Timeout}, instead of
+ * logging them as errors.
+ */
+@Provider
+public class DeadlineExceededExceptionMapper implements ExceptionMapper<DeadlineExceededException> {
+    @Override
+    public Response toResponse(DeadlineExceededException exception) {
+        return Response.status(504).build();
+    }
+}
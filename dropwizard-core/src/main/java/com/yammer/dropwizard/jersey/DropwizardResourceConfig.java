@@ -1,7 +1,12 @@
 package com.yammer.dropwizard.jersey;
 
 import com.sun.jersey.api.core.ScanningResourceConfig;
+import com.yammer.dropwizard.jersey.async.AsyncResourceMethodDispatchAdapter;
+import com.yammer.dropwizard.jersey.async.AsyncResponseInjectableProvider;
+import com.yammer.dropwizard.jersey.async.InitialDispatchOnlyResourceMethodDispatchAdapter;
 import com.yammer.dropwizard.jersey.caching.CacheControlledResourceMethodDispatchAdapter;
+import com.yammer.dropwizard.jersey.caching.ETaggedResourceMethodDispatchAdapter;
+import com.yammer.dropwizard.jersey.coalescing.CoalescingResourceMethodDispatchAdapter;
 import com.yammer.metrics.jersey.InstrumentedResourceMethodDispatchAdapter;
 
 public class DropwizardResourceConfig extends ScanningResourceConfig {
@@ -13,10 +18,20 @@ public class DropwizardResourceConfig extends ScanningResourceConfig {
             getSingletons().add(new LoggingExceptionMapper<Throwable>() {});
             getSingletons().add(new InvalidEntityExceptionMapper());
             getSingletons().add(new JsonProcessingExceptionMapper());
+            getSingletons().add(new DeadlineExceededExceptionMapper());
         }
-        getClasses().add(InstrumentedResourceMethodDispatchAdapter.class);
+        // singleton adapters wrap the resource methods before adapter classes do, and this one has
+        // to be the innermost, so the other adapters see the responses of resumed requests
+        getSingletons().add(new AsyncResourceMethodDispatchAdapter());
+        // time and meter each request once, not once per dispatch
+        getSingletons().add(new InitialDispatchOnlyResourceMethodDispatchAdapter(
+                new InstrumentedResourceMethodDispatchAdapter()));
+        getClasses().add(AsyncResponseInjectableProvider.class);
         getClasses().add(CacheControlledResourceMethodDispatchAdapter.class);
+        getClasses().add(ETaggedResourceMethodDispatchAdapter.class);
+        getClasses().add(CoalescingResourceMethodDispatchAdapter.class);
         getClasses().add(OptionalResourceMethodDispatchAdapter.class);
+        getClasses().add(ResourceMethodRecordingDispatchAdapter.class);
         getClasses().add(OptionalQueryParamInjectableProvider.class);
     }
 }
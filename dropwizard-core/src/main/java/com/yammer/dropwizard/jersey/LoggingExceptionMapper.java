@@ -54,7 +54,7 @@ public class LoggingExceptionMapper<E extends Throwable> implements ExceptionMap
     }
 
     protected void logException(long id, E exception) {
-        LOGGER.error(formatLogMessage(id, exception), exception);
+        LOGGER.error(formatLogMessage(id, exception), formatId(id), exception);
     }
 
     @SuppressWarnings("UnusedParameters")
@@ -62,9 +62,22 @@ public class LoggingExceptionMapper<E extends Throwable> implements ExceptionMap
         return String.format("There was an error processing your request. It has been logged (ID %016x).\n", id);
     }
 
+    /**
+     * Returns the format of the message the exception is logged with, in which {@code {}} is
+     * replaced with the error's ID. The ID isn't part of the format itself, so that repeated errors
+     * are recognized as duplicates.
+     *
+     * @param id        the error's ID
+     * @param exception the exception
+     * @return the format of the log message
+     */
     @SuppressWarnings("UnusedParameters")
     protected String formatLogMessage(long id, Throwable exception) {
-        return String.format("Error handling a request: %016x", id);
+        return "Error handling a request: {}";
+    }
+
+    protected static String formatId(long id) {
+        return String.format("%016x", id);
     }
 
     protected static long randomId() {
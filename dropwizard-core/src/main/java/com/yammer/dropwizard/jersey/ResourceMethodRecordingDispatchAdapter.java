@@ -0,0 +1,62 @@
+package com.yammer.dropwizard.jersey;
+
+import com.sun.jersey.api.core.HttpContext;
+import com.sun.jersey.api.model.AbstractResourceMethod;
+import com.sun.jersey.spi.container.ResourceMethodDispatchAdapter;
+import com.sun.jersey.spi.container.ResourceMethodDispatchProvider;
+import com.sun.jersey.spi.dispatch.RequestDispatcher;
+import com.yammer.dropwizard.jetty.AsyncRequestLog;
+import org.eclipse.jetty.server.AbstractHttpConnection;
+
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Records the name of the resource method which handles each request in the Jetty request's
+ * {@link AsyncRequestLog#RESOURCE_METHOD_ATTRIBUTE} attribute, for the request log. Requests which
+ * aren't handled by Jetty (e.g. in resource tests) are left alone.
+ */
+@Provider
+public class ResourceMethodRecordingDispatchAdapter implements ResourceMethodDispatchAdapter {
+    private static class ResourceMethodRecordingDispatchProvider implements ResourceMethodDispatchProvider {
+        private final ResourceMethodDispatchProvider provider;
+
+        private ResourceMethodRecordingDispatchProvider(ResourceMethodDispatchProvider provider) {
+            this.provider = provider;
+        }
+
+        @Override
+        public RequestDispatcher create(AbstractResourceMethod abstractResourceMethod) {
+            final RequestDispatcher dispatcher = provider.create(abstractResourceMethod);
+            if (dispatcher == null) {
+                return null;
+            }
+            final String name = abstractResourceMethod.getResource().getResourceClass().getSimpleName() +
+                    '#' + abstractResourceMethod.getMethod().getName();
+            return new ResourceMethodRecordingRequestDispatcher(dispatcher, name);
+        }
+    }
+
+    private static class ResourceMethodRecordingRequestDispatcher implements RequestDispatcher {
+        private final RequestDispatcher dispatcher;
+        private final String name;
+
+        private ResourceMethodRecordingRequestDispatcher(RequestDispatcher dispatcher, String name) {
+            this.dispatcher = dispatcher;
+            this.name = name;
+        }
+
+        @Override
+        public void dispatch(Object resource, HttpContext context) {
+            final AbstractHttpConnection connection = AbstractHttpConnection.getCurrentConnection();
+            if (connection != null) {
+                connection.getRequest().setAttribute(AsyncRequestLog.RESOURCE_METHOD_ATTRIBUTE, name);
+            }
+            dispatcher.dispatch(resource, context);
+        }
+    }
+
+    @Override
+    public ResourceMethodDispatchProvider adapt(ResourceMethodDispatchProvider provider) {
+        return new ResourceMethodRecordingDispatchProvider(provider);
+    }
+}
@@ -0,0 +1,74 @@
+package com.yammer.dropwizard.jersey;
+
+import com.sun.jersey.api.core.HttpContext;
+import com.sun.jersey.api.core.HttpResponseContext;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Providers;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Serializes response entities ahead of time, for dispatchers which need to look at, keep, or
+ * share the bytes which will be sent.
+ */
+public class ResponseEntities {
+    private ResponseEntities() { /* unused */ }
+
+    /**
+     * Returns the media type the response's entity will be serialized as: its {@code Content-Type}
+     * if it has one, or the produced type most acceptable to the client.
+     *
+     * @param context       the request's context
+     * @param producedTypes the media types the resource method produces
+     * @return the media type of the response entity, or {@code null} if there's no single concrete
+     *         one
+     */
+    public static MediaType mediaType(HttpContext context, List<MediaType> producedTypes) {
+        MediaType mediaType = context.getResponse().getMediaType();
+        if (mediaType == null) {
+            mediaType = context.getRequest().getAcceptableMediaType(producedTypes);
+        }
+        if ((mediaType == null) || mediaType.isWildcardType() || mediaType.isWildcardSubtype()) {
+            return null;
+        }
+        return mediaType;
+    }
+
+    /**
+     * Serializes the response's entity.
+     *
+     * @param providers the providers to find a {@link MessageBodyWriter} with
+     * @param response  the response
+     * @param mediaType the media type to serialize the entity as
+     * @return the serialized entity, or {@code null} if there's no writer for it
+     * @throws IOException if the entity can't be serialized
+     * @throws WebApplicationException if the entity can't be serialized
+     */
+    @SuppressWarnings("unchecked")
+    public static byte[] serialize(Providers providers,
+                                   HttpResponseContext response,
+                                   MediaType mediaType) throws IOException {
+        final Object entity = response.getEntity();
+        final Class<Object> type = (Class<Object>) entity.getClass();
+        final MessageBodyWriter<Object> writer = providers.getMessageBodyWriter(type,
+                                                                              response.getEntityType(),
+                                                                              response.getAnnotations(),
+                                                                              mediaType);
+        if (writer == null) {
+            return null;
+        }
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(1024);
+        writer.writeTo(entity,
+                       type,
+                       response.getEntityType(),
+                       response.getAnnotations(),
+                       mediaType,
+                       response.getHttpHeaders(),
+                       output);
+        return output.toByteArray();
+    }
+}
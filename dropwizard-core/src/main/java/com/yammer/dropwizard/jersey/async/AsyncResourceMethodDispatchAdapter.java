@@ -0,0 +1,303 @@
+package com.yammer.dropwizard.jersey.async;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.sun.jersey.api.container.MappableContainerException;
+import com.sun.jersey.api.core.HttpContext;
+import com.sun.jersey.api.model.AbstractResourceMethod;
+import com.sun.jersey.api.model.Parameter;
+import com.sun.jersey.spi.container.ResourceMethodDispatchAdapter;
+import com.sun.jersey.spi.container.ResourceMethodDispatchProvider;
+import com.sun.jersey.spi.dispatch.RequestDispatcher;
+import com.yammer.dropwizard.util.Duration;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Counter;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricsRegistry;
+import com.yammer.metrics.core.Timer;
+import org.eclipse.jetty.continuation.Continuation;
+import org.eclipse.jetty.continuation.ContinuationSupport;
+import org.eclipse.jetty.server.AbstractHttpConnection;
+import org.eclipse.jetty.server.Request;
+
+import javax.annotation.Nullable;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.GenericEntity;
+import javax.ws.rs.core.Response;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Handles resource methods which return a {@link ListenableFuture} or take an
+ * {@code @Context} {@link AsyncResponse} asynchronously: once the method returns, its request is
+ * suspended with a Jetty {@link Continuation}, which frees up the worker thread, and resumed once
+ * the future (or the response) is done. The response is then written on a worker thread, as usual.
+ * <p/>
+ * Requests which stay suspended for longer than the method's {@link AsyncTimeout} (or the default
+ * timeout) are answered with {@code 503 Service Unavailable}, and their future is cancelled.
+ * Outside of Jetty (e.g. in in-memory tests), the request's own thread waits for the future
+ * instead.
+ * <p/>
+ * This adapter is the innermost one, so the adapters around it see the final response. They also
+ * see the resumed request dispatched a second time; adapters which must only act once per request
+ * (e.g. rate or concurrency limits) pass resumed requests straight through, see
+ * {@link #isResumed()}.
+ * <p/>
+ * The number of currently suspended requests is counted as {@code suspended-requests}, how long
+ * requests stay suspended is timed as {@code suspensions}, and timeouts are metered as
+ * {@code timeouts}, in the {@code AsyncResourceMethodDispatchAdapter} group.
+ */
+public class AsyncResourceMethodDispatchAdapter implements ResourceMethodDispatchAdapter {
+    private static final String PENDING_ATTRIBUTE =
+            AsyncResourceMethodDispatchAdapter.class.getName() + ".pending";
+    private static final Duration DEFAULT_TIMEOUT = Duration.seconds(30);
+
+    private static class Pending {
+        private final ListenableFuture<?> future;
+        private final long suspendedAt;
+
+        private Pending(ListenableFuture<?> future, long suspendedAt) {
+            this.future = future;
+            this.suspendedAt = suspendedAt;
+        }
+    }
+
+    private class AsyncResourceMethodDispatchProvider implements ResourceMethodDispatchProvider {
+        private final ResourceMethodDispatchProvider provider;
+
+        private AsyncResourceMethodDispatchProvider(ResourceMethodDispatchProvider provider) {
+            this.provider = provider;
+        }
+
+        @Override
+        public RequestDispatcher create(AbstractResourceMethod method) {
+            final RequestDispatcher dispatcher = provider.create(method);
+            if (dispatcher == null) {
+                return null;
+            }
+
+            final boolean returnsFuture = ListenableFuture.class.isAssignableFrom(method.getReturnType());
+            if (!returnsFuture && !takesAsyncResponse(method)) {
+                return dispatcher;
+            }
+
+            final AsyncTimeout annotation = method.getAnnotation(AsyncTimeout.class);
+            final long timeout = (annotation == null) ?
+                    defaultTimeout.toMilliseconds() : annotation.unit().toMillis(annotation.value());
+            final Type type = returnsFuture ? futureType(method.getGenericReturnType()) : null;
+            return new AsyncRequestDispatcher(dispatcher, returnsFuture, type, timeout);
+        }
+
+        private boolean takesAsyncResponse(AbstractResourceMethod method) {
+            for (Parameter parameter : method.getParameters()) {
+                if (AsyncResponse.class.equals(parameter.getParameterClass())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Nullable
+        private Type futureType(Type returnType) {
+            if (returnType instanceof ParameterizedType) {
+                final Type type = ((ParameterizedType) returnType).getActualTypeArguments()[0];
+                if ((type instanceof Class) || (type instanceof ParameterizedType)) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+
+    private class AsyncRequestDispatcher implements RequestDispatcher {
+        private final RequestDispatcher dispatcher;
+        private final boolean returnsFuture;
+        private final Type type;
+        private final long timeout;
+
+        private AsyncRequestDispatcher(RequestDispatcher dispatcher,
+                                       boolean returnsFuture,
+                                       @Nullable Type type,
+                                       long timeout) {
+            this.dispatcher = dispatcher;
+            this.returnsFuture = returnsFuture;
+            this.type = type;
+            this.timeout = timeout;
+        }
+
+        @Override
+        public void dispatch(Object resource, HttpContext context) {
+            final Request request = currentRequest();
+            if (request != null) {
+                final Pending pending = (Pending) request.getAttribute(PENDING_ATTRIBUTE);
+                if (pending != null) {
+                    // the request has been resumed, or has timed out
+                    request.removeAttribute(PENDING_ATTRIBUTE);
+                    suspended.dec();
+                    suspensions.update(System.nanoTime() - pending.suspendedAt, TimeUnit.NANOSECONDS);
+                    complete(pending.future, context);
+                    return;
+                }
+            }
+
+            dispatcher.dispatch(resource, context);
+
+            final ListenableFuture<?> future = future(context);
+            if (future == null) {
+                return;
+            }
+
+            if (!future.isDone()) {
+                if (request == null) {
+                    await(future);
+                } else {
+                    suspend(request, future);
+                }
+            }
+            complete(future, context);
+        }
+
+        @Nullable
+        private ListenableFuture<?> future(HttpContext context) {
+            if (returnsFuture) {
+                final Object entity = context.getResponse().getEntity();
+                return (entity instanceof ListenableFuture) ? (ListenableFuture<?>) entity : null;
+            }
+            final Object response = context.getProperties()
+                                           .get(AsyncResponseInjectableProvider.PROPERTY);
+            return (response == null) ? null : ((AsyncResponse) response).getFuture();
+        }
+
+        private void suspend(Request request, ListenableFuture<?> future) {
+            final Continuation continuation = ContinuationSupport.getContinuation(request);
+            continuation.setTimeout(timeout);
+            request.setAttribute(PENDING_ATTRIBUTE, new Pending(future, System.nanoTime()));
+            continuation.suspend();
+            suspended.inc();
+            future.addListener(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        continuation.resume();
+                    } catch (IllegalStateException ignored) {
+                        // the request has already timed out
+                    }
+                }
+            }, MoreExecutors.sameThreadExecutor());
+            // leave Jersey without writing a response; Jetty will dispatch the request again once
+            // it's resumed or has timed out
+            continuation.undispatch();
+        }
+
+        private void await(ListenableFuture<?> future) {
+            try {
+                future.get(timeout, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException ignored) {
+                // handled by complete()
+            } catch (TimeoutException ignored) {
+                // handled by complete()
+            }
+        }
+
+        private void complete(ListenableFuture<?> future, HttpContext context) {
+            if (!future.isDone()) {
+                future.cancel(true);
+                timeouts.mark();
+                throw new WebApplicationException(Response.Status.SERVICE_UNAVAILABLE);
+            }
+
+            final Object value;
+            try {
+                value = future.get();
+            } catch (CancellationException e) {
+                throw new WebApplicationException(Response.Status.SERVICE_UNAVAILABLE);
+            } catch (InterruptedException e) {
+                // can't happen; the future is done
+                Thread.currentThread().interrupt();
+                throw new WebApplicationException(Response.Status.SERVICE_UNAVAILABLE);
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new MappableContainerException(cause);
+            }
+
+            if (value instanceof Response) {
+                context.getResponse().setResponse((Response) value);
+            } else if (value == null) {
+                context.getResponse().setResponse(Response.noContent().build());
+            } else {
+                final Type entityType = (type == null) ? value.getClass() : type;
+                context.getResponse().setResponse(
+                        Response.ok(new GenericEntity<Object>(value, entityType)).build()
+                );
+            }
+        }
+    }
+
+    private final Duration defaultTimeout;
+    private final Counter suspended;
+    private final Timer suspensions;
+    private final Meter timeouts;
+
+    /**
+     * Creates a new adapter which times out requests after 30 seconds by default, and records its
+     * metrics in the default registry.
+     */
+    public AsyncResourceMethodDispatchAdapter() {
+        this(Metrics.defaultRegistry(), DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Creates a new adapter.
+     *
+     * @param registry       the registry for the adapter's metrics
+     * @param defaultTimeout how long requests to methods without an {@link AsyncTimeout} may stay
+     *                       suspended
+     */
+    public AsyncResourceMethodDispatchAdapter(MetricsRegistry registry, Duration defaultTimeout) {
+        this.defaultTimeout = defaultTimeout;
+        this.suspended = registry.newCounter(AsyncResourceMethodDispatchAdapter.class,
+                                             "suspended-requests");
+        this.suspensions = registry.newTimer(AsyncResourceMethodDispatchAdapter.class,
+                                             "suspensions",
+                                             TimeUnit.MILLISECONDS,
+                                             TimeUnit.SECONDS);
+        this.timeouts = registry.newMeter(AsyncResourceMethodDispatchAdapter.class,
+                                          "timeouts",
+                                          "requests",
+                                          TimeUnit.SECONDS);
+    }
+
+    @Override
+    public ResourceMethodDispatchProvider adapt(ResourceMethodDispatchProvider provider) {
+        return new AsyncResourceMethodDispatchProvider(provider);
+    }
+
+    /**
+     * Returns whether the request the current thread is handling is an asynchronous request which
+     * is being dispatched again, because it has been resumed or has timed out.
+     *
+     * @return {@code true} if the current request has been resumed
+     */
+    public static boolean isResumed() {
+        final Request request = currentRequest();
+        return (request != null) && (request.getAttribute(PENDING_ATTRIBUTE) != null);
+    }
+
+    @Nullable
+    private static Request currentRequest() {
+        final AbstractHttpConnection connection = AbstractHttpConnection.getCurrentConnection();
+        return (connection == null) ? null : connection.getRequest();
+    }
+}
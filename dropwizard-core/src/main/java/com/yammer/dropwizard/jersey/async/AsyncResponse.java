@@ -0,0 +1,65 @@
+package com.yammer.dropwizard.jersey.async;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+import javax.ws.rs.core.Response;
+
+/**
+ * A handle on the response to a request which is handled asynchronously. A resource method which
+ * takes an {@code @Context AsyncResponse} parameter returns straight away, and its request is
+ * suspended, without holding on to a thread, until the response is resumed from another thread.
+ *
+ * <pre>{@code
+ * @GET
+ * public void getThing(@Context final AsyncResponse response) {
+ *     client.fetchThing(new Callback<Thing>() {
+ *         public void onSuccess(Thing thing) { response.resume(thing); }
+ *         public void onFailure(Throwable t) { response.resume(t); }
+ *     });
+ * }
+ * }</pre>
+ *
+ * @see AsyncResourceMethodDispatchAdapter
+ */
+public class AsyncResponse {
+    private final SettableFuture<Object> future = SettableFuture.create();
+
+    AsyncResponse() { /* created by AsyncResponseInjectableProvider */ }
+
+    /**
+     * Resumes the request with the given entity, or {@link Response}.
+     *
+     * @param entity the response entity, or the response itself
+     * @return {@code true} if the request was resumed, {@code false} if it had already been
+     *         resumed or had timed out
+     */
+    public boolean resume(Object entity) {
+        return future.set(entity);
+    }
+
+    /**
+     * Resumes the request with the given exception, which is then mapped to a response as if the
+     * resource method had thrown it.
+     *
+     * @param exception the exception
+     * @return {@code true} if the request was resumed, {@code false} if it had already been
+     *         resumed or had timed out
+     */
+    public boolean resume(Throwable exception) {
+        return future.setException(exception);
+    }
+
+    /**
+     * Returns {@code true} if the request has been resumed or has timed out.
+     *
+     * @return whether or not the request is done
+     */
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    ListenableFuture<Object> getFuture() {
+        return future;
+    }
+}
@@ -0,0 +1,43 @@
+package com.yammer.dropwizard.jersey.async;
+
+import com.sun.jersey.api.core.HttpContext;
+import com.sun.jersey.core.spi.component.ComponentContext;
+import com.sun.jersey.core.spi.component.ComponentScope;
+import com.sun.jersey.server.impl.inject.AbstractHttpContextInjectable;
+import com.sun.jersey.spi.inject.Injectable;
+import com.sun.jersey.spi.inject.InjectableProvider;
+
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.Provider;
+import java.lang.reflect.Type;
+
+/**
+ * Injects an {@link AsyncResponse} into resource method parameters annotated with
+ * {@code @Context}.
+ */
+@Provider
+public class AsyncResponseInjectableProvider implements InjectableProvider<Context, Type> {
+    static final String PROPERTY = AsyncResponse.class.getName();
+
+    private static class AsyncResponseInjectable extends AbstractHttpContextInjectable<AsyncResponse> {
+        @Override
+        public AsyncResponse getValue(HttpContext c) {
+            final AsyncResponse response = new AsyncResponse();
+            c.getProperties().put(PROPERTY, response);
+            return response;
+        }
+    }
+
+    @Override
+    public ComponentScope getScope() {
+        return ComponentScope.PerRequest;
+    }
+
+    @Override
+    public Injectable<?> getInjectable(ComponentContext ic, Context a, Type c) {
+        if (AsyncResponse.class.equals(c)) {
+            return new AsyncResponseInjectable();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,29 @@
+package com.yammer.dropwizard.jersey.async;
+
+import java.lang.annotation.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An annotation which sets how long requests to the annotated asynchronous resource method may
+ * stay suspended before they're answered with {@code 503 Service Unavailable}.
+ *
+ * @see AsyncResourceMethodDispatchAdapter
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AsyncTimeout {
+    /**
+     * The longest a request may stay suspended, in {@link #unit()}s.
+     *
+     * @return the longest a request may stay suspended
+     */
+    long value();
+
+    /**
+     * The time unit of {@link #value()}.
+     *
+     * @return the time unit of {@link #value()}
+     */
+    TimeUnit unit() default TimeUnit.SECONDS;
+}
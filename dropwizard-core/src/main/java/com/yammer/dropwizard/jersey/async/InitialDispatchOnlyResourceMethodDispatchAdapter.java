@@ -0,0 +1,72 @@
+package com.yammer.dropwizard.jersey.async;
+
+import com.sun.jersey.api.core.HttpContext;
+import com.sun.jersey.api.model.AbstractResourceMethod;
+import com.sun.jersey.spi.container.ResourceMethodDispatchAdapter;
+import com.sun.jersey.spi.container.ResourceMethodDispatchProvider;
+import com.sun.jersey.spi.dispatch.RequestDispatcher;
+
+/**
+ * Applies another {@link ResourceMethodDispatchAdapter} to the initial dispatch of each request
+ * only. Once an asynchronous request has been resumed (see
+ * {@link AsyncResourceMethodDispatchAdapter#isResumed()}), it skips the other adapter, so e.g. a
+ * metered resource method is metered once per request rather than once per dispatch.
+ * <p/>
+ * The other adapter isn't managed by Jersey, so it can't rely on {@code @Context} injection.
+ */
+public class InitialDispatchOnlyResourceMethodDispatchAdapter implements ResourceMethodDispatchAdapter {
+    private static class InitialDispatchOnlyRequestDispatcher implements RequestDispatcher {
+        private final RequestDispatcher adapted;
+        private final RequestDispatcher underlying;
+
+        private InitialDispatchOnlyRequestDispatcher(RequestDispatcher adapted,
+                                                     RequestDispatcher underlying) {
+            this.adapted = adapted;
+            this.underlying = underlying;
+        }
+
+        @Override
+        public void dispatch(Object resource, HttpContext context) {
+            if (AsyncResourceMethodDispatchAdapter.isResumed()) {
+                underlying.dispatch(resource, context);
+            } else {
+                adapted.dispatch(resource, context);
+            }
+        }
+    }
+
+    private final ResourceMethodDispatchAdapter adapter;
+
+    /**
+     * Creates a new adapter.
+     *
+     * @param adapter the adapter to apply to initial dispatches
+     */
+    public InitialDispatchOnlyResourceMethodDispatchAdapter(ResourceMethodDispatchAdapter adapter) {
+        this.adapter = adapter;
+    }
+
+    @Override
+    public ResourceMethodDispatchProvider adapt(final ResourceMethodDispatchProvider provider) {
+        return new ResourceMethodDispatchProvider() {
+            @Override
+            public RequestDispatcher create(AbstractResourceMethod method) {
+                final RequestDispatcher underlying = provider.create(method);
+                if (underlying == null) {
+                    return null;
+                }
+
+                final RequestDispatcher adapted = adapter.adapt(new ResourceMethodDispatchProvider() {
+                    @Override
+                    public RequestDispatcher create(AbstractResourceMethod ignored) {
+                        return underlying;
+                    }
+                }).create(method);
+                if ((adapted == null) || (adapted == underlying)) {
+                    return underlying;
+                }
+                return new InitialDispatchOnlyRequestDispatcher(adapted, underlying);
+            }
+        };
+    }
+}
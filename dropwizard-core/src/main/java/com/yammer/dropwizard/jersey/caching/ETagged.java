@@ -0,0 +1,19 @@
+package com.yammer.dropwizard.jersey.caching;
+
+import java.lang.annotation.*;
+
+/**
+ * An annotation which adds a strong {@code ETag} header, computed from the serialized entity, to
+ * the responses of the annotated {@code GET} method, and answers requests whose
+ * {@code If-None-Match} header matches it with {@code 304 Not Modified}.
+ * <p/>
+ * The method is still called on every request, but unchanged entities aren't sent to the client
+ * again.
+ *
+ * @see ETaggedResourceMethodDispatchAdapter
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ETagged {
+}
@@ -0,0 +1,156 @@
+package com.yammer.dropwizard.jersey.caching;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.sun.jersey.api.core.HttpContext;
+import com.sun.jersey.api.core.HttpResponseContext;
+import com.sun.jersey.api.model.AbstractResourceMethod;
+import com.sun.jersey.spi.container.ResourceMethodDispatchAdapter;
+import com.sun.jersey.spi.container.ResourceMethodDispatchProvider;
+import com.sun.jersey.spi.dispatch.RequestDispatcher;
+import com.yammer.dropwizard.jersey.ResponseEntities;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.Providers;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Adds strong {@code ETag} headers to the responses of methods annotated with {@link ETagged}, and
+ * answers conditional requests for unchanged entities with {@code 304 Not Modified}.
+ * <p/>
+ * The entity is serialized before the response is committed, hashed with Murmur3, and then sent
+ * as-is, so it's only serialized once. When a response is compressed on the way out, its content
+ * encoding ({@code -gzip} or {@code -deflate}) is appended to its ETag; those ETags match the
+ * uncompressed entity's, too.
+ */
+public class ETaggedResourceMethodDispatchAdapter implements ResourceMethodDispatchAdapter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ETaggedResourceMethodDispatchAdapter.class);
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+    private static final Splitter TAG_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+    private static final String WEAK_PREFIX = "W/";
+    private static final ImmutableList<String> ENCODING_SUFFIXES = ImmutableList.of("-gzip\"",
+                                                                                   "-deflate\"");
+
+    private class ETaggedResourceMethodDispatchProvider implements ResourceMethodDispatchProvider {
+        private final ResourceMethodDispatchProvider provider;
+
+        private ETaggedResourceMethodDispatchProvider(ResourceMethodDispatchProvider provider) {
+            this.provider = provider;
+        }
+
+        @Override
+        public RequestDispatcher create(AbstractResourceMethod method) {
+            final RequestDispatcher dispatcher = provider.create(method);
+            if ((dispatcher != null) && HttpMethod.GET.equals(method.getHttpMethod()) &&
+                    method.isAnnotationPresent(ETagged.class)) {
+                return new ETaggedRequestDispatcher(dispatcher, method.getSupportedOutputTypes());
+            }
+            return dispatcher;
+        }
+    }
+
+    private class ETaggedRequestDispatcher implements RequestDispatcher {
+        private final RequestDispatcher dispatcher;
+        private final List<MediaType> producedTypes;
+
+        private ETaggedRequestDispatcher(RequestDispatcher dispatcher, List<MediaType> producedTypes) {
+            this.dispatcher = dispatcher;
+            this.producedTypes = producedTypes;
+        }
+
+        @Override
+        public void dispatch(Object resource, HttpContext context) {
+            dispatcher.dispatch(resource, context);
+
+            final HttpResponseContext response = context.getResponse();
+            if ((response.getStatus() != Response.Status.OK.getStatusCode()) ||
+                    (response.getEntity() == null)) {
+                return;
+            }
+
+            final MediaType mediaType = ResponseEntities.mediaType(context, producedTypes);
+            if (mediaType == null) {
+                return;
+            }
+
+            final byte[] bytes;
+            try {
+                bytes = ResponseEntities.serialize(providers, response, mediaType);
+            } catch (IOException e) {
+                LOGGER.debug("Unable to serialize the response, not tagging it", e);
+                return;
+            } catch (WebApplicationException e) {
+                LOGGER.debug("Unable to serialize the response, not tagging it", e);
+                return;
+            }
+            if (bytes == null) {
+                return;
+            }
+
+            final String tag = '"' + HASH_FUNCTION.hashBytes(bytes).toString() + '"';
+            final String matched = match(context.getRequest().getRequestHeaders()
+                                                .getFirst(HttpHeaders.IF_NONE_MATCH), tag);
+            if (matched != null) {
+                response.setStatus(Response.Status.NOT_MODIFIED.getStatusCode());
+                response.setEntity(null);
+                response.getHttpHeaders().remove(HttpHeaders.CONTENT_TYPE);
+                // echo the client's own tag, which may be the gzipped representation's
+                response.getHttpHeaders().putSingle(HttpHeaders.ETAG, matched);
+            } else {
+                // send the bytes we've just serialized instead of serializing the entity again
+                response.getHttpHeaders().putSingle(HttpHeaders.CONTENT_TYPE, mediaType);
+                response.getHttpHeaders().putSingle(HttpHeaders.ETAG, tag);
+                response.setEntity(bytes);
+            }
+        }
+    }
+
+    @Context
+    private Providers providers;
+
+    @Override
+    public ResourceMethodDispatchProvider adapt(ResourceMethodDispatchProvider provider) {
+        return new ETaggedResourceMethodDispatchProvider(provider);
+    }
+
+    /**
+     * Returns the entity tag in the given {@code If-None-Match} header which matches the given
+     * tag, if any. Entity tags are compared weakly, as they should be for {@code If-None-Match},
+     * and with any content encoding suffix removed.
+     */
+    private static String match(String ifNoneMatch, String tag) {
+        if (ifNoneMatch == null) {
+            return null;
+        }
+
+        for (String candidate : TAG_SPLITTER.split(ifNoneMatch)) {
+            if ("*".equals(candidate)) {
+                return tag;
+            }
+
+            String opaque = candidate;
+            if (opaque.startsWith(WEAK_PREFIX)) {
+                opaque = opaque.substring(WEAK_PREFIX.length());
+            }
+            for (String suffix : ENCODING_SUFFIXES) {
+                if (opaque.endsWith(suffix)) {
+                    opaque = opaque.substring(0, opaque.length() - suffix.length()) + '"';
+                }
+            }
+            if (opaque.equals(tag)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,39 @@
+package com.yammer.dropwizard.jersey.caching;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultimap;
+import com.yammer.dropwizard.tasks.Task;
+
+import java.io.PrintWriter;
+
+/**
+ * Removes responses from a {@link ResponseCache}: all of them, or only those whose request URIs
+ * start with the {@code prefix} parameter.
+ */
+public class PurgeResponseCacheTask extends Task {
+    private final ResponseCache cache;
+
+    /**
+     * Creates a new PurgeResponseCacheTask.
+     *
+     * @param cache    the cache to purge
+     */
+    public PurgeResponseCacheTask(ResponseCache cache) {
+        super("purge-response-cache");
+        this.cache = cache;
+    }
+
+    @Override
+    public void execute(ImmutableMultimap<String, String> parameters, PrintWriter output) {
+        final ImmutableList<String> prefixes = parameters.get("prefix").asList();
+        long purged = 0;
+        if (prefixes.isEmpty()) {
+            purged = cache.purge();
+        } else {
+            for (String prefix : prefixes) {
+                purged += cache.purge(prefix);
+            }
+        }
+        output.println("Purged " + purged + " responses");
+    }
+}
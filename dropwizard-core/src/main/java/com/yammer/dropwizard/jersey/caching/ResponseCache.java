@@ -0,0 +1,353 @@
+package com.yammer.dropwizard.jersey.caching;
+
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.yammer.dropwizard.util.Duration;
+import com.yammer.dropwizard.util.Size;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Clock;
+import com.yammer.metrics.core.Gauge;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricsRegistry;
+
+import javax.annotation.Nullable;
+import javax.ws.rs.core.MediaType;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An in-process cache of serialized responses, bounded by the total size of the cached entities.
+ * When the cache is full, the least recently used responses are evicted.
+ * <p/>
+ * Each response is fresh for its own max age. Once it's stale, it may still be served for the
+ * cache's stale-while-revalidate period, while a single request at a time is allowed through to
+ * refresh it.
+ * <p/>
+ * Hits, misses, stale hits, and evictions are metered, and the number and total size of the cached
+ * responses are gauged, in the {@code ResponseCache} group.
+ */
+public class ResponseCache {
+    // a rough guess at the memory taken up by a response's key, headers, and bookkeeping
+    private static final int ENTRY_OVERHEAD = 512;
+
+    /**
+     * The key of a cached response: its request method, its request URI's path and query string,
+     * and the values of the request headers the response varies on.
+     */
+    public static class Key {
+        private final String method;
+        private final String uri;
+        private final ImmutableList<String> varyValues;
+
+        public Key(String method, String uri, ImmutableList<String> varyValues) {
+            this.method = method;
+            this.uri = uri;
+            this.varyValues = varyValues;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getUri() {
+            return uri;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) { return true; }
+            if ((obj == null) || (getClass() != obj.getClass())) { return false; }
+            final Key that = (Key) obj;
+            return method.equals(that.method) && uri.equals(that.uri) &&
+                    varyValues.equals(that.varyValues);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(method, uri, varyValues);
+        }
+
+        @Override
+        public String toString() {
+            return method + ' ' + uri;
+        }
+    }
+
+    /**
+     * A cached response.
+     */
+    public static class Entry {
+        private final MediaType mediaType;
+        private final ImmutableListMultimap<String, Object> headers;
+        private final byte[] entity;
+        private final long storedAt;
+        private final long freshUntil;
+        private final long staleUntil;
+        private final AtomicBoolean revalidating = new AtomicBoolean();
+
+        private Entry(MediaType mediaType,
+                      ImmutableListMultimap<String, Object> headers,
+                      byte[] entity,
+                      long storedAt,
+                      long freshUntil,
+                      long staleUntil) {
+            this.mediaType = mediaType;
+            this.headers = headers;
+            this.entity = entity;
+            this.storedAt = storedAt;
+            this.freshUntil = freshUntil;
+            this.staleUntil = staleUntil;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public ImmutableListMultimap<String, Object> getHeaders() {
+            return headers;
+        }
+
+        public byte[] getEntity() {
+            return entity;
+        }
+
+        /**
+         * Returns the age of the response, as of the given time.
+         *
+         * @param now the current tick of the cache's clock
+         * @return the age of the response in seconds
+         */
+        public long getAge(long now) {
+            return TimeUnit.NANOSECONDS.toSeconds(now - storedAt);
+        }
+    }
+
+    /**
+     * The outcome of looking a response up.
+     */
+    public enum Status {
+        /**
+         * The response is fresh, and should be served from the cache.
+         */
+        FRESH,
+
+        /**
+         * The response is stale and another request is refreshing it, so it should be served from
+         * the cache.
+         */
+        STALE,
+
+        /**
+         * The response is stale, and the current request should refresh it.
+         */
+        REVALIDATE,
+
+        /**
+         * There's no usable response in the cache.
+         */
+        MISS
+    }
+
+    private final Clock clock;
+    private final long staleWhileRevalidate;
+    private final Cache<Key, Entry> cache;
+    private final AtomicLong bytes = new AtomicLong();
+    private final Meter hits;
+    private final Meter staleHits;
+    private final Meter misses;
+    private final Meter evictions;
+
+    /**
+     * Creates a new cache which records its metrics in the default registry.
+     *
+     * @param maxSize              the maximum total size of the cached responses
+     * @param staleWhileRevalidate how long a stale response may still be served while it's being
+     *                             refreshed
+     */
+    public ResponseCache(Size maxSize, Duration staleWhileRevalidate) {
+        this(Metrics.defaultRegistry(), Clock.defaultClock(), maxSize, staleWhileRevalidate);
+    }
+
+    /**
+     * Creates a new cache.
+     *
+     * @param registry             the registry for the cache's metrics
+     * @param clock                the clock used to age responses
+     * @param maxSize              the maximum total size of the cached responses
+     * @param staleWhileRevalidate how long a stale response may still be served while it's being
+     *                             refreshed
+     */
+    public ResponseCache(MetricsRegistry registry,
+                         Clock clock,
+                         Size maxSize,
+                         Duration staleWhileRevalidate) {
+        this.clock = clock;
+        this.staleWhileRevalidate = staleWhileRevalidate.toNanoseconds();
+        this.hits = registry.newMeter(ResponseCache.class, "hits", "requests", TimeUnit.SECONDS);
+        this.staleHits = registry.newMeter(ResponseCache.class, "stale-hits",
+                                           "requests", TimeUnit.SECONDS);
+        this.misses = registry.newMeter(ResponseCache.class, "misses", "requests", TimeUnit.SECONDS);
+        this.evictions = registry.newMeter(ResponseCache.class, "evictions",
+                                           "responses", TimeUnit.SECONDS);
+        this.cache = CacheBuilder.newBuilder()
+                                 .maximumWeight(maxSize.toBytes())
+                                 .weigher(new Weigher<Key, Entry>() {
+                                     @Override
+                                     public int weigh(Key key, Entry value) {
+                                         return weight(value);
+                                     }
+                                 })
+                                 .removalListener(new RemovalListener<Key, Entry>() {
+                                     @Override
+                                     public void onRemoval(RemovalNotification<Key, Entry> notification) {
+                                         bytes.addAndGet(-weight(notification.getValue()));
+                                         if (notification.getCause() == RemovalCause.SIZE) {
+                                             evictions.mark();
+                                         }
+                                     }
+                                 })
+                                 .build();
+        registry.newGauge(ResponseCache.class, "responses", new Gauge<Long>() {
+            @Override
+            public Long value() {
+                return cache.size();
+            }
+        });
+        registry.newGauge(ResponseCache.class, "bytes", new Gauge<Long>() {
+            @Override
+            public Long value() {
+                return bytes.get();
+            }
+        });
+    }
+
+    /**
+     * Returns the current tick of the cache's clock.
+     *
+     * @return the current time in nanoseconds
+     */
+    public long tick() {
+        return clock.tick();
+    }
+
+    /**
+     * Returns the cached response for the given key, if any, whether it's stale or not.
+     *
+     * @param key the key of the response
+     * @return the cached response, or {@code null}
+     */
+    @Nullable
+    public Entry get(Key key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * Decides how a request for the given cached response should be handled, and meters the
+     * outcome. Only one request at a time is told to {@link Status#REVALIDATE} a stale response.
+     *
+     * @param entry the cached response, or {@code null}
+     * @return how the request should be handled
+     */
+    public Status check(@Nullable Entry entry) {
+        final long now = clock.tick();
+        if ((entry == null) || (now >= entry.staleUntil)) {
+            misses.mark();
+            return Status.MISS;
+        }
+
+        if (now < entry.freshUntil) {
+            hits.mark();
+            return Status.FRESH;
+        }
+
+        if (entry.revalidating.compareAndSet(false, true)) {
+            misses.mark();
+            return Status.REVALIDATE;
+        }
+
+        staleHits.mark();
+        return Status.STALE;
+    }
+
+    /**
+     * Allows another request to refresh the given stale response, if the current one failed to.
+     *
+     * @param entry a stale cached response
+     */
+    public void revalidationFailed(Entry entry) {
+        entry.revalidating.set(false);
+    }
+
+    /**
+     * Caches a response.
+     *
+     * @param key       the key of the response
+     * @param mediaType the media type of the response entity
+     * @param headers   the response headers
+     * @param entity    the serialized response entity
+     * @param maxAge    how long the response is fresh, in seconds
+     */
+    public void put(Key key,
+                    MediaType mediaType,
+                    ImmutableListMultimap<String, Object> headers,
+                    byte[] entity,
+                    long maxAge) {
+        final long now = clock.tick();
+        final long freshUntil = now + TimeUnit.SECONDS.toNanos(maxAge);
+        final Entry entry = new Entry(mediaType, headers, entity, now, freshUntil,
+                                      freshUntil + staleWhileRevalidate);
+        bytes.addAndGet(weight(entry));
+        cache.put(key, entry);
+    }
+
+    /**
+     * Removes all cached responses.
+     *
+     * @return the number of responses removed
+     */
+    public long purge() {
+        final long size = cache.size();
+        cache.invalidateAll();
+        return size;
+    }
+
+    /**
+     * Removes the cached responses whose request URIs start with the given prefix.
+     *
+     * @param uriPrefix a prefix of request URIs
+     * @return the number of responses removed
+     */
+    public long purge(String uriPrefix) {
+        long count = 0;
+        final Iterator<Key> keys = cache.asMap().keySet().iterator();
+        while (keys.hasNext()) {
+            if (keys.next().getUri().startsWith(uriPrefix)) {
+                keys.remove();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of cached responses.
+     *
+     * @return the number of cached responses
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    private static int weight(Entry entry) {
+        return entry.entity.length + ENTRY_OVERHEAD;
+    }
+}
@@ -0,0 +1,280 @@
+package com.yammer.dropwizard.jersey.caching;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.sun.jersey.api.core.HttpContext;
+import com.sun.jersey.api.core.HttpRequestContext;
+import com.sun.jersey.api.core.HttpResponseContext;
+import com.sun.jersey.api.model.AbstractResourceMethod;
+import com.sun.jersey.spi.container.ResourceMethodDispatchAdapter;
+import com.sun.jersey.spi.container.ResourceMethodDispatchProvider;
+import com.sun.jersey.spi.dispatch.RequestDispatcher;
+import com.yammer.dropwizard.jersey.ResponseEntities;
+import com.yammer.dropwizard.jetty.ServerWarmer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.Providers;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves {@code GET} requests for resource methods annotated with {@link CacheControl} from a
+ * {@link ResponseCache}, for as long as the annotation's shared max age (or, failing that, its max
+ * age) allows.
+ * <p/>
+ * Responses are cached separately for each request URI and each combination of values of the
+ * request headers they vary on (e.g. {@code Accept}, {@code Accept-Encoding}, and
+ * {@code Authorization}). Only {@code 200 OK} responses with a concrete media type are cached, and
+ * their entities are cached already serialized. Responses which are {@code private},
+ * {@code no-cache}, or {@code no-store}, or which set cookies, are never cached, and warm-up
+ * requests neither read nor fill the cache.
+ * <p/>
+ * Requests which carry credentials (e.g. {@code Authorization} or {@code Cookie}) in a header the
+ * responses don't vary on bypass the cache entirely, so one client's response is never served to
+ * another.
+ */
+@Provider
+public class ResponseCachingResourceMethodDispatchAdapter implements ResourceMethodDispatchAdapter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResponseCachingResourceMethodDispatchAdapter.class);
+    private static final long ONE_YEAR_IN_SECONDS = TimeUnit.DAYS.toSeconds(365);
+    private static final ImmutableSet<String> SET_COOKIE_HEADERS = ImmutableSet.of("set-cookie",
+                                                                                   "set-cookie2");
+
+    /**
+     * The request headers which carry credentials by default.
+     */
+    public static final ImmutableList<String> DEFAULT_CREDENTIAL_HEADERS =
+            ImmutableList.of(HttpHeaders.AUTHORIZATION, HttpHeaders.COOKIE, "Proxy-Authorization");
+
+    private class ResponseCachingResourceMethodDispatchProvider implements ResourceMethodDispatchProvider {
+        private final ResourceMethodDispatchProvider provider;
+
+        private ResponseCachingResourceMethodDispatchProvider(ResourceMethodDispatchProvider provider) {
+            this.provider = provider;
+        }
+
+        @Override
+        public RequestDispatcher create(AbstractResourceMethod method) {
+            final RequestDispatcher dispatcher = provider.create(method);
+            if (dispatcher == null) {
+                return null;
+            }
+
+            final CacheControl control = method.getAnnotation(CacheControl.class);
+            if ((control == null) || !HttpMethod.GET.equals(method.getHttpMethod()) ||
+                    control.isPrivate() || control.noCache() || control.noStore()) {
+                return dispatcher;
+            }
+
+            final long maxAge = maxAge(control);
+            if (maxAge <= 0) {
+                return dispatcher;
+            }
+
+            return new ResponseCachingRequestDispatcher(dispatcher,
+                                                        method.getSupportedOutputTypes(),
+                                                        maxAge);
+        }
+
+        private long maxAge(CacheControl control) {
+            if (control.immutable()) {
+                return ONE_YEAR_IN_SECONDS;
+            }
+            if (control.sharedMaxAge() >= 0) {
+                return control.sharedMaxAgeUnit().toSeconds(control.sharedMaxAge());
+            }
+            return control.maxAgeUnit().toSeconds(control.maxAge());
+        }
+    }
+
+    private class ResponseCachingRequestDispatcher implements RequestDispatcher {
+        private final RequestDispatcher dispatcher;
+        private final List<MediaType> producedTypes;
+        private final long maxAge;
+
+        private ResponseCachingRequestDispatcher(RequestDispatcher dispatcher,
+                                                 List<MediaType> producedTypes,
+                                                 long maxAge) {
+            this.dispatcher = dispatcher;
+            this.producedTypes = producedTypes;
+            this.maxAge = maxAge;
+        }
+
+        @Override
+        public void dispatch(Object resource, HttpContext context) {
+            if (ServerWarmer.isWarmUp() || hasUnvariedCredentials(context.getRequest())) {
+                dispatcher.dispatch(resource, context);
+                return;
+            }
+
+            final ResponseCache.Key key = key(context.getRequest());
+            final ResponseCache.Entry entry = cache.get(key);
+            switch (cache.check(entry)) {
+                case FRESH:
+                case STALE:
+                    context.getResponse().setResponse(cachedResponse(entry));
+                    break;
+                case REVALIDATE:
+                    boolean refreshed = false;
+                    try {
+                        refreshed = dispatchAndCache(resource, context, key);
+                    } finally {
+                        if (!refreshed) {
+                            cache.revalidationFailed(entry);
+                        }
+                    }
+                    break;
+                default:
+                    dispatchAndCache(resource, context, key);
+            }
+        }
+
+        private boolean dispatchAndCache(Object resource, HttpContext context, ResponseCache.Key key) {
+            dispatcher.dispatch(resource, context);
+
+            final HttpResponseContext response = context.getResponse();
+            final Object entity = response.getEntity();
+            if ((response.getStatus() != Response.Status.OK.getStatusCode()) || (entity == null)) {
+                return false;
+            }
+
+            final MediaType mediaType = ResponseEntities.mediaType(context, producedTypes);
+            if (mediaType == null) {
+                return false;
+            }
+
+            final byte[] bytes;
+            try {
+                bytes = ResponseEntities.serialize(providers, response, mediaType);
+            } catch (IOException e) {
+                LOGGER.debug("Unable to serialize the response to {}, not caching it", key, e);
+                return false;
+            } catch (WebApplicationException e) {
+                LOGGER.debug("Unable to serialize the response to {}, not caching it", key, e);
+                return false;
+            }
+            if (bytes == null) {
+                return false;
+            }
+
+            final ImmutableListMultimap.Builder<String, Object> headers = ImmutableListMultimap.builder();
+            for (Map.Entry<String, List<Object>> header : response.getHttpHeaders().entrySet()) {
+                if (SET_COOKIE_HEADERS.contains(header.getKey().toLowerCase(Locale.ENGLISH))) {
+                    LOGGER.debug("The response to {} sets cookies, not caching it", key);
+                    return false;
+                }
+                if (!HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(header.getKey())) {
+                    headers.putAll(header.getKey(), header.getValue());
+                }
+            }
+            cache.put(key, mediaType, headers.build(), bytes, maxAge);
+
+            // send the bytes we've just serialized instead of serializing the entity again
+            response.getHttpHeaders().putSingle(HttpHeaders.CONTENT_TYPE, mediaType);
+            response.setEntity(bytes);
+            return true;
+        }
+
+        private Response cachedResponse(ResponseCache.Entry entry) {
+            final Response.ResponseBuilder builder = Response.ok(entry.getEntity(),
+                                                                 entry.getMediaType());
+            for (Map.Entry<String, Object> header : entry.getHeaders().entries()) {
+                builder.header(header.getKey(), header.getValue());
+            }
+            builder.header("Age", entry.getAge(cache.tick()));
+            return builder.build();
+        }
+    }
+
+    private final ResponseCache cache;
+    private final ImmutableList<String> varyHeaders;
+    private final ImmutableList<String> unvariedCredentialHeaders;
+
+    @Context
+    private Providers providers;
+
+    /**
+     * Creates a new adapter which treats the {@link #DEFAULT_CREDENTIAL_HEADERS} as credentials.
+     *
+     * @param cache       the cache to store responses in
+     * @param varyHeaders the names of the request headers which responses vary on
+     */
+    public ResponseCachingResourceMethodDispatchAdapter(ResponseCache cache,
+                                                        List<String> varyHeaders) {
+        this(cache, varyHeaders, DEFAULT_CREDENTIAL_HEADERS);
+    }
+
+    /**
+     * Creates a new adapter.
+     *
+     * @param cache             the cache to store responses in
+     * @param varyHeaders       the names of the request headers which responses vary on
+     * @param credentialHeaders the names of the request headers which carry credentials; requests
+     *                          with any of them which isn't also a vary header aren't cached
+     */
+    public ResponseCachingResourceMethodDispatchAdapter(ResponseCache cache,
+                                                        List<String> varyHeaders,
+                                                        List<String> credentialHeaders) {
+        this.cache = cache;
+        this.varyHeaders = ImmutableList.copyOf(varyHeaders);
+
+        final ImmutableList.Builder<String> unvaried = ImmutableList.builder();
+        for (String header : credentialHeaders) {
+            if (!containsIgnoreCase(varyHeaders, header)) {
+                unvaried.add(header);
+            }
+        }
+        this.unvariedCredentialHeaders = unvaried.build();
+    }
+
+    @Override
+    public ResourceMethodDispatchProvider adapt(ResourceMethodDispatchProvider provider) {
+        return new ResponseCachingResourceMethodDispatchProvider(provider);
+    }
+
+    private boolean hasUnvariedCredentials(HttpRequestContext request) {
+        final MultivaluedMap<String, String> headers = request.getRequestHeaders();
+        for (String name : unvariedCredentialHeaders) {
+            if (headers.containsKey(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsIgnoreCase(List<String> names, String name) {
+        for (String candidate : names) {
+            if (candidate.equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ResponseCache.Key key(HttpRequestContext request) {
+        final MultivaluedMap<String, String> headers = request.getRequestHeaders();
+        final ImmutableList.Builder<String> values = ImmutableList.builder();
+        for (String name : varyHeaders) {
+            final List<String> value = headers.get(name);
+            values.add(value == null ? "" : value.toString());
+        }
+        final URI uri = request.getRequestUri();
+        final String path = (uri.getRawQuery() == null) ?
+                uri.getRawPath() : uri.getRawPath() + '?' + uri.getRawQuery();
+        return new ResponseCache.Key(request.getMethod(), path, values.build());
+    }
+}
@@ -0,0 +1,44 @@
+package com.yammer.dropwizard.jersey.coalescing;
+
+import java.lang.annotation.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An annotation which collapses identical concurrent calls to the annotated {@code GET} method into
+ * a single call. Calls are identical if they have the same request URI and the same values of the
+ * given request headers. While one of them is being handled, the others wait for it and are then
+ * sent its response.
+ * <p/>
+ * The headers are the only thing which tells one client from another, so they must include every
+ * header the method authenticates callers with (e.g. a custom API key header), or one caller may
+ * be sent another's response.
+ * <p/>
+ * Calls which have waited for longer than the given timeout are handled on their own.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Coalesce {
+    /**
+     * The names of the request headers which the response depends on. Calls with different values
+     * for any of them aren't coalesced.
+     *
+     * @return the names of the request headers the response depends on
+     */
+    String[] headers() default { "Accept", "Accept-Encoding", "Authorization", "Cookie" };
+
+    /**
+     * The longest a call waits for an identical call to be handled, in {@link #timeoutUnit()}s.
+     * If the request has a deadline, it doesn't wait past it.
+     *
+     * @return the longest a call waits for an identical one
+     */
+    long timeout() default 5;
+
+    /**
+     * The time unit of {@link #timeout()}.
+     *
+     * @return the time unit of {@link #timeout()}
+     */
+    TimeUnit timeoutUnit() default TimeUnit.SECONDS;
+}
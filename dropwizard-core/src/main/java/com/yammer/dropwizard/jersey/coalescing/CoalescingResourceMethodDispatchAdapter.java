@@ -0,0 +1,292 @@
+package com.yammer.dropwizard.jersey.coalescing;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.SettableFuture;
+import com.sun.jersey.api.core.HttpContext;
+import com.sun.jersey.api.core.HttpRequestContext;
+import com.sun.jersey.api.core.HttpResponseContext;
+import com.sun.jersey.api.model.AbstractResourceMethod;
+import com.sun.jersey.spi.container.ResourceMethodDispatchAdapter;
+import com.sun.jersey.spi.container.ResourceMethodDispatchProvider;
+import com.sun.jersey.spi.dispatch.RequestDispatcher;
+import com.yammer.dropwizard.jersey.ResponseEntities;
+import com.yammer.dropwizard.jersey.async.AsyncResourceMethodDispatchAdapter;
+import com.yammer.dropwizard.servlets.RequestDeadline;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.Providers;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Collapses identical concurrent calls to methods annotated with {@link Coalesce} into a single
+ * call, whose response (or exception) is shared with all the calls which waited for it.
+ * <p/>
+ * Responses are shared already serialized, so each waiting call gets its own copy. Responses which
+ * can't be serialized ahead of time aren't shared; the calls waiting for them are handled on their
+ * own instead, as are calls which time out. Cookies set by the shared response are only sent to
+ * the call which was handled, never to the calls which waited for it.
+ * <p/>
+ * For each coalesced resource method {@code method} of a resource class {@code Resource}, calls
+ * which were sent another call's response are metered as {@code Resource#method-coalesced}, and
+ * calls which gave up waiting as {@code Resource#method-coalesce-timeouts}, in the resource class's
+ * group.
+ */
+public class CoalescingResourceMethodDispatchAdapter implements ResourceMethodDispatchAdapter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CoalescingResourceMethodDispatchAdapter.class);
+    private static final ImmutableSet<String> SET_COOKIE_HEADERS = ImmutableSet.of("set-cookie",
+                                                                                   "set-cookie2");
+
+    private static class SharedResponse {
+        private final int status;
+        private final ImmutableListMultimap<String, Object> headers;
+        private final MediaType mediaType;
+        private final byte[] entity;
+
+        private SharedResponse(int status,
+                               ImmutableListMultimap<String, Object> headers,
+                               @Nullable MediaType mediaType,
+                               @Nullable byte[] entity) {
+            this.status = status;
+            this.headers = headers;
+            this.mediaType = mediaType;
+            this.entity = entity;
+        }
+
+        private Response toResponse() {
+            final Response.ResponseBuilder builder = Response.status(status);
+            if (entity != null) {
+                builder.entity(entity).type(mediaType);
+            }
+            for (Map.Entry<String, Object> header : headers.entries()) {
+                builder.header(header.getKey(), header.getValue());
+            }
+            return builder.build();
+        }
+    }
+
+    private class CoalescingResourceMethodDispatchProvider implements ResourceMethodDispatchProvider {
+        private final ResourceMethodDispatchProvider provider;
+
+        private CoalescingResourceMethodDispatchProvider(ResourceMethodDispatchProvider provider) {
+            this.provider = provider;
+        }
+
+        @Override
+        public RequestDispatcher create(AbstractResourceMethod method) {
+            final RequestDispatcher dispatcher = provider.create(method);
+            if (dispatcher == null) {
+                return null;
+            }
+
+            final Coalesce annotation = method.getAnnotation(Coalesce.class);
+            if ((annotation == null) || !HttpMethod.GET.equals(method.getHttpMethod())) {
+                return dispatcher;
+            }
+
+            final Class<?> klass = method.getDeclaringResource().getResourceClass();
+            final String name = klass.getSimpleName() + '#' + method.getMethod().getName();
+            final Meter coalesced = registry.newMeter(klass, name + "-coalesced",
+                                                      "requests", TimeUnit.SECONDS);
+            final Meter timeouts = registry.newMeter(klass, name + "-coalesce-timeouts",
+                                                     "requests", TimeUnit.SECONDS);
+            return new CoalescingRequestDispatcher(dispatcher,
+                                                   method.getSupportedOutputTypes(),
+                                                   ImmutableList.copyOf(annotation.headers()),
+                                                   annotation.timeoutUnit().toNanos(annotation.timeout()),
+                                                   coalesced,
+                                                   timeouts);
+        }
+    }
+
+    private class CoalescingRequestDispatcher implements RequestDispatcher {
+        private final ConcurrentMap<List<String>, SettableFuture<SharedResponse>> calls =
+                Maps.newConcurrentMap();
+        private final RequestDispatcher dispatcher;
+        private final List<MediaType> producedTypes;
+        private final ImmutableList<String> headers;
+        private final long timeout;
+        private final Meter coalesced;
+        private final Meter timeouts;
+
+        private CoalescingRequestDispatcher(RequestDispatcher dispatcher,
+                                            List<MediaType> producedTypes,
+                                            ImmutableList<String> headers,
+                                            long timeout,
+                                            Meter coalesced,
+                                            Meter timeouts) {
+            this.dispatcher = dispatcher;
+            this.producedTypes = producedTypes;
+            this.headers = headers;
+            this.timeout = timeout;
+            this.coalesced = coalesced;
+            this.timeouts = timeouts;
+        }
+
+        @Override
+        public void dispatch(Object resource, HttpContext context) {
+            if (AsyncResourceMethodDispatchAdapter.isResumed()) {
+                dispatcher.dispatch(resource, context);
+                return;
+            }
+
+            final List<String> key = key(context.getRequest());
+            final SettableFuture<SharedResponse> call = SettableFuture.create();
+            final SettableFuture<SharedResponse> existing = calls.putIfAbsent(key, call);
+            if (existing == null) {
+                lead(resource, context, key, call);
+            } else if (!follow(context, existing)) {
+                dispatcher.dispatch(resource, context);
+            }
+        }
+
+        private void lead(Object resource,
+                          HttpContext context,
+                          List<String> key,
+                          SettableFuture<SharedResponse> call) {
+            try {
+                dispatcher.dispatch(resource, context);
+                call.set(share(context.getResponse(), context));
+            } catch (RuntimeException e) {
+                call.setException(e);
+                throw e;
+            } finally {
+                calls.remove(key, call);
+                // if the call failed with an Error, let the waiting calls be handled on their own
+                call.set(null);
+            }
+        }
+
+        private boolean follow(HttpContext context, SettableFuture<SharedResponse> call) {
+            long wait = timeout;
+            final Optional<RequestDeadline> deadline = RequestDeadline.current();
+            if (deadline.isPresent()) {
+                wait = Math.min(wait, deadline.get().getRemaining(TimeUnit.NANOSECONDS));
+            }
+
+            try {
+                final SharedResponse response = call.get(wait, TimeUnit.NANOSECONDS);
+                if (response == null) {
+                    return false;
+                }
+                coalesced.mark();
+                context.getResponse().setResponse(response.toResponse());
+                return true;
+            } catch (ExecutionException e) {
+                coalesced.mark();
+                throw Throwables.propagate(e.getCause());
+            } catch (TimeoutException e) {
+                timeouts.mark();
+                if (deadline.isPresent()) {
+                    deadline.get().check();
+                }
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        @Nullable
+        private SharedResponse share(HttpResponseContext response, HttpContext context) {
+            final ImmutableListMultimap.Builder<String, Object> builder = ImmutableListMultimap.builder();
+            for (Map.Entry<String, List<Object>> header : response.getHttpHeaders().entrySet()) {
+                final String name = header.getKey().toLowerCase(Locale.ENGLISH);
+                if (!SET_COOKIE_HEADERS.contains(name) &&
+                        !HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name)) {
+                    builder.putAll(header.getKey(), header.getValue());
+                }
+            }
+
+            if (response.getEntity() == null) {
+                return new SharedResponse(response.getStatus(), builder.build(), null, null);
+            }
+
+            final MediaType mediaType = ResponseEntities.mediaType(context, producedTypes);
+            if (mediaType == null) {
+                return null;
+            }
+
+            final byte[] bytes;
+            try {
+                bytes = ResponseEntities.serialize(providers, response, mediaType);
+            } catch (IOException e) {
+                LOGGER.debug("Unable to serialize the response, not sharing it", e);
+                return null;
+            } catch (WebApplicationException e) {
+                LOGGER.debug("Unable to serialize the response, not sharing it", e);
+                return null;
+            }
+            if (bytes == null) {
+                return null;
+            }
+
+            // send the bytes we've just serialized instead of serializing the entity again
+            response.getHttpHeaders().putSingle(HttpHeaders.CONTENT_TYPE, mediaType);
+            response.setEntity(bytes);
+            return new SharedResponse(response.getStatus(), builder.build(), mediaType, bytes);
+        }
+
+        private List<String> key(HttpRequestContext request) {
+            final URI uri = request.getRequestUri();
+            final ImmutableList.Builder<String> key = ImmutableList.builder();
+            key.add(request.getMethod());
+            key.add((uri.getRawQuery() == null) ?
+                            uri.getRawPath() : uri.getRawPath() + '?' + uri.getRawQuery());
+            for (String name : headers) {
+                final List<String> values = request.getRequestHeaders().get(name);
+                key.add(values == null ? "" : values.toString());
+            }
+            return key.build();
+        }
+    }
+
+    private final MetricsRegistry registry;
+
+    @Context
+    private Providers providers;
+
+    /**
+     * Creates a new adapter which records its metrics in the default registry.
+     */
+    public CoalescingResourceMethodDispatchAdapter() {
+        this(Metrics.defaultRegistry());
+    }
+
+    /**
+     * Creates a new adapter.
+     *
+     * @param registry the registry for the coalesced methods' metrics
+     */
+    public CoalescingResourceMethodDispatchAdapter(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public ResourceMethodDispatchProvider adapt(ResourceMethodDispatchProvider provider) {
+        return new CoalescingResourceMethodDispatchProvider(provider);
+    }
+}
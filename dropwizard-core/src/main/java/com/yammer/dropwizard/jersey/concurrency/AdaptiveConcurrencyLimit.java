@@ -0,0 +1,131 @@
+package com.yammer.dropwizard.jersey.concurrency;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A concurrency limit which adapts to observed latency using additive-increase,
+ * multiplicative-decrease (AIMD).
+ * <p/>
+ * The fastest latency seen recently is taken as the latency of an unloaded service. The limit is
+ * only adjusted while at least half of it is in use, since only then can latency be blamed on
+ * concurrency. If a request takes longer than the baseline latency times the tolerance (and at
+ * least a millisecond longer, so that microsecond-scale jitter doesn't count), requests are
+ * queueing somewhere, e.g. behind a database, and the limit is multiplied by the backoff ratio.
+ * Otherwise, the limit grows by one. The limit backs off at most once per round trip: the slow
+ * completions of the requests which were in flight when it backed off don't reduce it again, so
+ * a single stall which completes many requests at once doesn't collapse it to the minimum. The baseline latency is re-measured every
+ * {@link #WINDOW_SIZE} samples so the limit can recover after the service's latency
+ * characteristics change.
+ */
+public class AdaptiveConcurrencyLimit {
+    static final int WINDOW_SIZE = 1000;
+    private static final long LATENCY_SLACK = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+
+    private double limit;
+    private int inFlight;
+    private long minLatency = -1;
+    private int samples;
+    // the number of releases left before the limit may back off again
+    private int backoffCohort;
+
+    /**
+     * Creates a new limit.
+     *
+     * @param initialLimit     the starting limit
+     * @param minLimit         the lowest the limit may go
+     * @param maxLimit         the highest the limit may go
+     * @param backoffRatio     the ratio the limit is multiplied by when latency rises
+     * @param latencyTolerance how many times slower than the baseline a request may be before
+     *                         the limit is reduced
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit,
+                                    int minLimit,
+                                    int maxLimit,
+                                    double backoffRatio,
+                                    double latencyTolerance) {
+        checkArgument(minLimit > 0 && minLimit <= initialLimit && initialLimit <= maxLimit,
+                      "limits must satisfy 0 < minLimit <= initialLimit <= maxLimit");
+        checkArgument(backoffRatio > 0 && backoffRatio < 1, "backoffRatio must be in (0, 1)");
+        checkArgument(latencyTolerance >= 1, "latencyTolerance must be at least 1");
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+    }
+
+    /**
+     * Reserves a slot for a request, if the limit allows it.
+     *
+     * @return {@code true} if the request may proceed, in which case {@link #release(long)} must
+     *         be called when it completes
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= getLimit()) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Releases the slot of a completed request and adjusts the limit.
+     *
+     * @param latency the request's latency, in nanoseconds
+     */
+    public synchronized void release(long latency) {
+        final int used = inFlight;
+        inFlight--;
+
+        if (++samples > WINDOW_SIZE) {
+            samples = 1;
+            minLatency = -1;
+        }
+        if ((minLatency < 0) || (latency < minLatency)) {
+            minLatency = latency;
+        }
+
+        final boolean backedOff = backoffCohort > 0;
+        if (backedOff) {
+            backoffCohort--;
+        }
+
+        if (used * 2 >= limit) {
+            final double threshold = Math.max(minLatency * latencyTolerance,
+                                              minLatency + LATENCY_SLACK);
+            if (latency > threshold) {
+                if (!backedOff) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    backoffCohort = inFlight;
+                }
+            } else {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+        }
+    }
+
+    /**
+     * Returns the current limit.
+     *
+     * @return the maximum number of concurrent requests
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Returns the number of requests currently holding a slot.
+     *
+     * @return the number of requests in flight
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
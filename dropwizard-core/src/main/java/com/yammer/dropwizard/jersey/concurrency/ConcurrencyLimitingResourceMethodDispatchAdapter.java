@@ -0,0 +1,163 @@
+package com.yammer.dropwizard.jersey.concurrency;
+
+import com.sun.jersey.api.core.HttpContext;
+import com.sun.jersey.api.model.AbstractResourceMethod;
+import com.sun.jersey.spi.container.ResourceMethodDispatchAdapter;
+import com.sun.jersey.spi.container.ResourceMethodDispatchProvider;
+import com.sun.jersey.spi.dispatch.RequestDispatcher;
+import com.yammer.dropwizard.jersey.async.AsyncResourceMethodDispatchAdapter;
+import com.yammer.dropwizard.jetty.ServerWarmer;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Gauge;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricsRegistry;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.Provider;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gives each resource method its own {@link AdaptiveConcurrencyLimit}. Requests over a method's
+ * limit fail fast with {@code 503 Service Unavailable} instead of queueing behind slow requests.
+ * <p/>
+ * For each resource method {@code method} of a resource class {@code Resource}, the current limit
+ * and number of requests in flight are exposed as the
+ * {@code Resource#method-concurrency-limit} and {@code Resource#method-in-flight} gauges, and
+ * rejected requests are metered as {@code Resource#method-rejected}, all in the resource class's
+ * group. Warm-up requests bypass the limits. Asynchronous requests only hold on to a slot until
+ * they're suspended, and bypass the limits once they're resumed.
+ */
+@Provider
+public class ConcurrencyLimitingResourceMethodDispatchAdapter implements ResourceMethodDispatchAdapter {
+    private class ConcurrencyLimitingResourceMethodDispatchProvider implements ResourceMethodDispatchProvider {
+        private final ResourceMethodDispatchProvider provider;
+
+        private ConcurrencyLimitingResourceMethodDispatchProvider(ResourceMethodDispatchProvider provider) {
+            this.provider = provider;
+        }
+
+        @Override
+        public RequestDispatcher create(AbstractResourceMethod method) {
+            final RequestDispatcher dispatcher = provider.create(method);
+            if (dispatcher == null) {
+                return null;
+            }
+
+            final Class<?> klass = method.getDeclaringResource().getResourceClass();
+            final String name = klass.getSimpleName() + '#' + method.getMethod().getName();
+            final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(initialLimit,
+                                                                                minLimit,
+                                                                                maxLimit,
+                                                                                backoffRatio,
+                                                                                latencyTolerance);
+            registry.newGauge(klass, name + "-concurrency-limit", new Gauge<Integer>() {
+                @Override
+                public Integer value() {
+                    return limit.getLimit();
+                }
+            });
+            registry.newGauge(klass, name + "-in-flight", new Gauge<Integer>() {
+                @Override
+                public Integer value() {
+                    return limit.getInFlight();
+                }
+            });
+            final Meter rejected = registry.newMeter(klass, name + "-rejected",
+                                                     "requests", TimeUnit.SECONDS);
+            return new ConcurrencyLimitingRequestDispatcher(dispatcher, limit, rejected);
+        }
+    }
+
+    private static class ConcurrencyLimitingRequestDispatcher implements RequestDispatcher {
+        private final RequestDispatcher dispatcher;
+        private final AdaptiveConcurrencyLimit limit;
+        private final Meter rejected;
+
+        private ConcurrencyLimitingRequestDispatcher(RequestDispatcher dispatcher,
+                                                     AdaptiveConcurrencyLimit limit,
+                                                     Meter rejected) {
+            this.dispatcher = dispatcher;
+            this.limit = limit;
+            this.rejected = rejected;
+        }
+
+        @Override
+        public void dispatch(Object resource, HttpContext context) {
+            if (ServerWarmer.isWarmUp() || AsyncResourceMethodDispatchAdapter.isResumed()) {
+                // cold, slow warm-up requests would only teach the limit a bad baseline, and
+                // resumed requests were limited when they were first dispatched
+                dispatcher.dispatch(resource, context);
+                return;
+            }
+
+            if (!limit.tryAcquire()) {
+                rejected.mark();
+                throw new WebApplicationException(Response.Status.SERVICE_UNAVAILABLE);
+            }
+
+            final long start = System.nanoTime();
+            try {
+                dispatcher.dispatch(resource, context);
+            } finally {
+                limit.release(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private final MetricsRegistry registry;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+
+    /**
+     * Creates a new adapter which records its metrics in the default registry.
+     *
+     * @param initialLimit     the starting limit of each resource method
+     * @param minLimit         the lowest a limit may go
+     * @param maxLimit         the highest a limit may go
+     * @param backoffRatio     the ratio a limit is multiplied by when latency rises
+     * @param latencyTolerance how many times slower than the baseline a request may be before
+     *                         its method's limit is reduced
+     */
+    public ConcurrencyLimitingResourceMethodDispatchAdapter(int initialLimit,
+                                                            int minLimit,
+                                                            int maxLimit,
+                                                            double backoffRatio,
+                                                            double latencyTolerance) {
+        this(Metrics.defaultRegistry(), initialLimit, minLimit, maxLimit, backoffRatio,
+             latencyTolerance);
+    }
+
+    /**
+     * Creates a new adapter.
+     *
+     * @param registry         the registry for the limits' metrics
+     * @param initialLimit     the starting limit of each resource method
+     * @param minLimit         the lowest a limit may go
+     * @param maxLimit         the highest a limit may go
+     * @param backoffRatio     the ratio a limit is multiplied by when latency rises
+     * @param latencyTolerance how many times slower than the baseline a request may be before
+     *                         its method's limit is reduced
+     */
+    public ConcurrencyLimitingResourceMethodDispatchAdapter(MetricsRegistry registry,
+                                                            int initialLimit,
+                                                            int minLimit,
+                                                            int maxLimit,
+                                                            double backoffRatio,
+                                                            double latencyTolerance) {
+        this.registry = registry;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+    }
+
+    @Override
+    public ResourceMethodDispatchProvider adapt(ResourceMethodDispatchProvider provider) {
+        return new ConcurrencyLimitingResourceMethodDispatchProvider(provider);
+    }
+}
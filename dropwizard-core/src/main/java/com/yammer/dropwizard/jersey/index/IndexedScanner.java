@@ -0,0 +1,244 @@
+package com.yammer.dropwizard.jersey.index;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+import com.google.common.io.Closeables;
+import com.sun.jersey.core.spi.scanning.PackageNamesScanner;
+import com.sun.jersey.core.spi.scanning.Scanner;
+import com.sun.jersey.core.spi.scanning.ScannerException;
+import com.sun.jersey.core.spi.scanning.ScannerListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * A {@link Scanner} which looks packages up in the {@link ResourceIndex resource indexes} of the
+ * classpath roots they're in, instead of reading and parsing every class in them.
+ * <p/>
+ * A package is only looked up if every directory or JAR it's in has an index which lists the
+ * package and each of its sub-packages which has any classes in that directory or JAR. Checking
+ * that only takes the names of the classes, not their contents. Any other package, e.g. one which
+ * is split across JARs compiled with and without the processor, is scanned by a
+ * {@link PackageNamesScanner}, just as it would be without an index.
+ * <p/>
+ * The indexed classes are still passed through the listener, so Jersey checks their annotations
+ * and visibility exactly as it would for scanned classes, and stale index entries are harmless.
+ */
+public class IndexedScanner implements Scanner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IndexedScanner.class);
+    private static final String CLASS_SUFFIX = ".class";
+
+    private final ClassLoader loader;
+    private final ImmutableList<String> indexedClasses;
+    private final ImmutableList<String> scannedPackages;
+
+    /**
+     * Creates a new scanner for the given packages and their sub-packages.
+     *
+     * @param loader   the class loader the classes and the indexes are loaded from
+     * @param packages the names of the packages to scan
+     */
+    public IndexedScanner(ClassLoader loader, String... packages) {
+        this.loader = loader;
+        final Set<String> classes = Sets.newLinkedHashSet();
+        final ImmutableList.Builder<String> scanned = ImmutableList.builder();
+        for (String name : packages) {
+            final Optional<Set<String>> indexed = lookUp(loader, name);
+            if (indexed.isPresent()) {
+                classes.addAll(indexed.get());
+            } else {
+                scanned.add(name);
+            }
+        }
+        this.indexedClasses = ImmutableList.copyOf(classes);
+        this.scannedPackages = scanned.build();
+    }
+
+    /**
+     * Returns the names of the packages which have to be scanned because they aren't fully
+     * indexed.
+     *
+     * @return the names of the unindexed packages
+     */
+    public List<String> getScannedPackages() {
+        return scannedPackages;
+    }
+
+    @Override
+    public void scan(ScannerListener listener) throws ScannerException {
+        for (String klass : indexedClasses) {
+            final String name = klass.replace('.', '/') + CLASS_SUFFIX;
+            if (listener.onAccept(name)) {
+                final InputStream input = loader.getResourceAsStream(name);
+                if (input == null) {
+                    LOGGER.debug("Skipping indexed class {}, which is not on the classpath", klass);
+                    continue;
+                }
+                try {
+                    try {
+                        listener.onProcess(name, input);
+                    } finally {
+                        Closeables.close(input, true);
+                    }
+                } catch (IOException e) {
+                    throw new ScannerException("Unable to read " + name, e);
+                }
+            }
+        }
+
+        if (!scannedPackages.isEmpty()) {
+            LOGGER.debug("Scanning unindexed packages {}", scannedPackages);
+            new PackageNamesScanner(loader, scannedPackages.toArray(new String[scannedPackages.size()]))
+                    .scan(listener);
+        }
+    }
+
+    /**
+     * Returns the indexed classes in the given package and its sub-packages, if every classpath
+     * root the package is in has an index which covers it.
+     */
+    private static Optional<Set<String>> lookUp(ClassLoader loader, String packageName) {
+        final String path = packageName.replace('.', '/');
+        final Set<String> classes = Sets.newLinkedHashSet();
+        try {
+            final Enumeration<URL> urls = loader.getResources(path);
+            if (!urls.hasMoreElements()) {
+                return Optional.absent();
+            }
+            while (urls.hasMoreElements()) {
+                final URL url = urls.nextElement();
+                final Optional<List<String>> indexed;
+                if ("file".equals(url.getProtocol())) {
+                    indexed = lookUpInDirectory(url, path, packageName);
+                } else if ("jar".equals(url.getProtocol())) {
+                    indexed = lookUpInJar(url, path, packageName);
+                } else {
+                    indexed = Optional.absent();
+                }
+
+                if (!indexed.isPresent()) {
+                    LOGGER.debug("{} is not fully indexed in {}", packageName, url);
+                    return Optional.absent();
+                }
+                classes.addAll(indexed.get());
+            }
+            return Optional.<Set<String>>of(classes);
+        } catch (IOException e) {
+            LOGGER.debug("Unable to look up " + packageName + " in the resource index", e);
+            return Optional.absent();
+        } catch (URISyntaxException e) {
+            LOGGER.debug("Unable to look up " + packageName + " in the resource index", e);
+            return Optional.absent();
+        }
+    }
+
+    private static Optional<List<String>> lookUpInDirectory(URL url,
+                                                            String path,
+                                                            String packageName) throws IOException, URISyntaxException {
+        final File directory = new File(url.toURI());
+        File root = directory;
+        for (String ignored : Splitter.on('/').split(path)) {
+            root = root.getParentFile();
+        }
+
+        final File file = new File(root, ResourceIndex.LOCATION);
+        if (!file.isFile()) {
+            return Optional.absent();
+        }
+
+        final ResourceIndex index;
+        final InputStream input = new FileInputStream(file);
+        try {
+            index = ResourceIndex.read(input);
+        } finally {
+            Closeables.close(input, true);
+        }
+
+        final Set<String> packages = Sets.newHashSet();
+        findPackagesWithClasses(directory, packageName, packages);
+        return lookUp(index, packages, packageName);
+    }
+
+    private static void findPackagesWithClasses(File directory, String packageName, Set<String> packages) {
+        final File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                findPackagesWithClasses(file, packageName + '.' + file.getName(), packages);
+            } else if (file.getName().endsWith(CLASS_SUFFIX)) {
+                packages.add(packageName);
+            }
+        }
+    }
+
+    private static Optional<List<String>> lookUpInJar(URL url,
+                                                      String path,
+                                                      String packageName) throws IOException, URISyntaxException {
+        final URLConnection connection = url.openConnection();
+        if (!(connection instanceof JarURLConnection)) {
+            return Optional.absent();
+        }
+
+        final URL jarUrl = ((JarURLConnection) connection).getJarFileURL();
+        if (!"file".equals(jarUrl.getProtocol())) {
+            return Optional.absent();
+        }
+
+        final JarFile jar = new JarFile(new File(jarUrl.toURI()));
+        try {
+            final JarEntry entry = jar.getJarEntry(ResourceIndex.LOCATION);
+            if (entry == null) {
+                return Optional.absent();
+            }
+
+            final ResourceIndex index;
+            final InputStream input = jar.getInputStream(entry);
+            try {
+                index = ResourceIndex.read(input);
+            } finally {
+                Closeables.close(input, true);
+            }
+
+            final String prefix = path + '/';
+            final Set<String> packages = Sets.newHashSet();
+            final Enumeration<JarEntry> entries = jar.entries();
+            while (entries.hasMoreElements()) {
+                final String name = entries.nextElement().getName();
+                if (name.startsWith(prefix) && name.endsWith(CLASS_SUFFIX)) {
+                    packages.add(name.substring(0, name.lastIndexOf('/')).replace('/', '.'));
+                }
+            }
+            return lookUp(index, packages, packageName);
+        } finally {
+            jar.close();
+        }
+    }
+
+    private static Optional<List<String>> lookUp(ResourceIndex index,
+                                                 Set<String> packages,
+                                                 String packageName) {
+        for (String name : packages) {
+            if (!index.covers(name)) {
+                return Optional.absent();
+            }
+        }
+        return Optional.<List<String>>of(index.getClasses(packageName));
+    }
+}
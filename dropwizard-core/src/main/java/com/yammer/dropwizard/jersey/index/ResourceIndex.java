@@ -0,0 +1,103 @@
+package com.yammer.dropwizard.jersey.index;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+/**
+ * An index of the Jersey resource and provider classes in one classpath root (a directory or a
+ * JAR), written at build time by {@link ResourceIndexProcessor}.
+ * <p/>
+ * Each {@code META-INF/dropwizard/jersey-index} file lists the packages which were compiled
+ * alongside it ({@code package com.example.resources}) and the classes in them annotated with
+ * {@link javax.ws.rs.Path} or {@link javax.ws.rs.ext.Provider}
+ * ({@code class com.example.resources.PeopleResource}). An index only describes the root it's in,
+ * and only the packages it lists: classes in other packages, e.g. ones compiled without the
+ * processor, still have to be scanned.
+ */
+public class ResourceIndex {
+    /**
+     * The location of the index files.
+     */
+    public static final String LOCATION = "META-INF/dropwizard/jersey-index";
+
+    static final String PACKAGE_PREFIX = "package ";
+    static final String CLASS_PREFIX = "class ";
+
+    /**
+     * Reads an index file.
+     *
+     * @param input the contents of the index file
+     * @return the index
+     * @throws IOException if the index file can't be read
+     */
+    public static ResourceIndex read(InputStream input) throws IOException {
+        final ImmutableSet.Builder<String> packages = ImmutableSet.builder();
+        final ImmutableSet.Builder<String> classes = ImmutableSet.builder();
+        read(input, packages, classes);
+        return new ResourceIndex(packages.build(), classes.build());
+    }
+
+    static void read(InputStream input,
+                     ImmutableSet.Builder<String> packages,
+                     ImmutableSet.Builder<String> classes) throws IOException {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(input,
+                                                                               Charsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.startsWith(PACKAGE_PREFIX)) {
+                packages.add(line.substring(PACKAGE_PREFIX.length()).trim());
+            } else if (line.startsWith(CLASS_PREFIX)) {
+                classes.add(line.substring(CLASS_PREFIX.length()).trim());
+            }
+        }
+    }
+
+    private final ImmutableSet<String> packages;
+    private final ImmutableSet<String> classes;
+
+    /**
+     * Creates a new index.
+     *
+     * @param packages the names of the indexed packages
+     * @param classes  the binary names of the resource and provider classes in those packages
+     */
+    public ResourceIndex(ImmutableSet<String> packages, ImmutableSet<String> classes) {
+        this.packages = packages;
+        this.classes = classes;
+    }
+
+    /**
+     * Returns whether the given package was indexed, i.e. whether the index lists all of its
+     * resource and provider classes.
+     *
+     * @param packageName the name of a package
+     * @return {@code true} if the package was indexed
+     */
+    public boolean covers(String packageName) {
+        return packages.contains(packageName);
+    }
+
+    /**
+     * Returns the binary names of the indexed classes in the given package and its sub-packages.
+     *
+     * @param packageName the name of a package
+     * @return the indexed classes in the package
+     */
+    public ImmutableList<String> getClasses(String packageName) {
+        final String prefix = packageName + '.';
+        final ImmutableList.Builder<String> builder = ImmutableList.builder();
+        for (String klass : classes) {
+            if (klass.startsWith(prefix)) {
+                builder.add(klass);
+            }
+        }
+        return builder.build();
+    }
+}
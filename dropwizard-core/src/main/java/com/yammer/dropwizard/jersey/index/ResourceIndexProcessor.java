@@ -0,0 +1,132 @@
+package com.yammer.dropwizard.jersey.index;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import com.google.common.io.Closeables;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Set;
+import java.util.SortedSet;
+
+/**
+ * An annotation processor which writes a {@link ResourceIndex} of the packages being compiled and
+ * of the classes in them annotated with {@link javax.ws.rs.Path} or
+ * {@link javax.ws.rs.ext.Provider}.
+ * <p/>
+ * The processor isn't registered as a service, so it only runs in projects which ask for it, e.g.
+ * with {@code javac -processor com.yammer.dropwizard.jersey.index.ResourceIndexProcessor}. It
+ * never claims any annotations, so it doesn't interfere with other processors. Entries already in
+ * the output directory's index are kept, so incremental compiles which only see some of the
+ * sources don't drop the others.
+ */
+@SupportedAnnotationTypes("*")
+public class ResourceIndexProcessor extends AbstractProcessor {
+    private static final ImmutableSet<String> ANNOTATIONS = ImmutableSet.of("javax.ws.rs.Path",
+                                                                            "javax.ws.rs.ext.Provider");
+
+    private final SortedSet<String> packages = Sets.newTreeSet();
+    private final SortedSet<String> classes = Sets.newTreeSet();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            if (!packages.isEmpty()) {
+                writeIndex();
+            }
+        } else {
+            for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+                packages.add(processingEnv.getElementUtils()
+                                          .getPackageOf(type)
+                                          .getQualifiedName()
+                                          .toString());
+                index(type);
+            }
+        }
+        return false;
+    }
+
+    private void index(TypeElement type) {
+        if (isResourceOrProvider(type)) {
+            classes.add(processingEnv.getElementUtils().getBinaryName(type).toString());
+        }
+        for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+            index(nested);
+        }
+    }
+
+    private static boolean isResourceOrProvider(Element element) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            final Element annotation = mirror.getAnnotationType().asElement();
+            if (ANNOTATIONS.contains(((TypeElement) annotation).getQualifiedName().toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeIndex() {
+        try {
+            readExistingIndex();
+            final FileObject file = processingEnv.getFiler()
+                                                 .createResource(StandardLocation.CLASS_OUTPUT,
+                                                                 "",
+                                                                 ResourceIndex.LOCATION);
+            final Writer writer = new OutputStreamWriter(file.openOutputStream(), Charsets.UTF_8);
+            try {
+                for (String name : packages) {
+                    writer.write(ResourceIndex.PACKAGE_PREFIX + name + '\n');
+                }
+                for (String name : classes) {
+                    writer.write(ResourceIndex.CLASS_PREFIX + name + '\n');
+                }
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                                                     "Unable to write " + ResourceIndex.LOCATION +
+                                                             ": " + e.getMessage());
+        }
+    }
+
+    private void readExistingIndex() {
+        try {
+            final FileObject file = processingEnv.getFiler()
+                                                 .getResource(StandardLocation.CLASS_OUTPUT,
+                                                              "",
+                                                              ResourceIndex.LOCATION);
+            final InputStream input = file.openInputStream();
+            try {
+                final ImmutableSet.Builder<String> existingPackages = ImmutableSet.builder();
+                final ImmutableSet.Builder<String> existingClasses = ImmutableSet.builder();
+                ResourceIndex.read(input, existingPackages, existingClasses);
+                packages.addAll(existingPackages.build());
+                classes.addAll(existingClasses.build());
+            } finally {
+                Closeables.close(input, true);
+            }
+        } catch (IOException ignored) {
+            // there's no index from a previous compile
+        }
+    }
+}
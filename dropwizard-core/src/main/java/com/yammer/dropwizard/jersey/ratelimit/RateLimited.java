@@ -0,0 +1,23 @@
+package com.yammer.dropwizard.jersey.ratelimit;
+
+import java.lang.annotation.*;
+
+/**
+ * An annotation which limits the rate at which each client may call the annotated method. The
+ * limit itself is configured by name in the {@code http.rateLimiting.limits} section of the YAML
+ * configuration file; methods which use the same name share each client's token bucket.
+ * <p/>
+ * Calls over the limit get a {@code 429 Too Many Requests} response with a {@code Retry-After}
+ * header.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimited {
+    /**
+     * The name of the configured limit.
+     *
+     * @return the name of the limit
+     */
+    String value();
+}
@@ -0,0 +1,152 @@
+package com.yammer.dropwizard.jersey.ratelimit;
+
+import com.google.common.collect.ImmutableMap;
+import com.sun.jersey.api.core.HttpContext;
+import com.sun.jersey.api.model.AbstractResourceMethod;
+import com.sun.jersey.spi.container.ResourceMethodDispatchAdapter;
+import com.sun.jersey.spi.container.ResourceMethodDispatchProvider;
+import com.sun.jersey.spi.dispatch.RequestDispatcher;
+import com.yammer.dropwizard.jersey.async.AsyncResourceMethodDispatchAdapter;
+import com.yammer.dropwizard.jetty.ServerWarmer;
+import com.yammer.dropwizard.util.ClientKey;
+import com.yammer.dropwizard.util.TokenBucketTable;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.Provider;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the rate at which each client may call methods annotated with {@link RateLimited}.
+ * <p/>
+ * For each rate-limited resource method {@code method} of a resource class {@code Resource},
+ * allowed and throttled calls are metered as {@code Resource#method-allowed} and
+ * {@code Resource#method-throttled} in the resource class's group. Warm-up requests are neither
+ * limited nor metered, and resumed asynchronous requests only count once.
+ */
+@Provider
+public class RateLimitedResourceMethodDispatchAdapter implements ResourceMethodDispatchAdapter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RateLimitedResourceMethodDispatchAdapter.class);
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private class RateLimitedResourceMethodDispatchProvider implements ResourceMethodDispatchProvider {
+        private final ResourceMethodDispatchProvider provider;
+
+        private RateLimitedResourceMethodDispatchProvider(ResourceMethodDispatchProvider provider) {
+            this.provider = provider;
+        }
+
+        @Override
+        public RequestDispatcher create(AbstractResourceMethod method) {
+            final RequestDispatcher dispatcher = provider.create(method);
+            if (dispatcher == null) {
+                return null;
+            }
+
+            final RateLimited annotation = method.getAnnotation(RateLimited.class);
+            if (annotation == null) {
+                return dispatcher;
+            }
+
+            final TokenBucketTable table = limits.get(annotation.value());
+            if (table == null) {
+                LOGGER.warn("No rate limit named {} is configured; {} will not be rate limited",
+                            annotation.value(), method.getMethod());
+                return dispatcher;
+            }
+
+            final Class<?> klass = method.getDeclaringResource().getResourceClass();
+            final String name = klass.getSimpleName() + '#' + method.getMethod().getName();
+            final Meter allowed = registry.newMeter(klass, name + "-allowed",
+                                                    "requests", TimeUnit.SECONDS);
+            final Meter throttled = registry.newMeter(klass, name + "-throttled",
+                                                      "requests", TimeUnit.SECONDS);
+            return new RateLimitedRequestDispatcher(dispatcher, table, allowed, throttled);
+        }
+    }
+
+    private class RateLimitedRequestDispatcher implements RequestDispatcher {
+        private final RequestDispatcher dispatcher;
+        private final TokenBucketTable table;
+        private final Meter allowed;
+        private final Meter throttled;
+
+        private RateLimitedRequestDispatcher(RequestDispatcher dispatcher,
+                                             TokenBucketTable table,
+                                             Meter allowed,
+                                             Meter throttled) {
+            this.dispatcher = dispatcher;
+            this.table = table;
+            this.allowed = allowed;
+            this.throttled = throttled;
+        }
+
+        @Override
+        public void dispatch(Object resource, HttpContext context) {
+            if (ServerWarmer.isWarmUp(request) || AsyncResourceMethodDispatchAdapter.isResumed()) {
+                // resumed requests were limited when they were first dispatched
+                dispatcher.dispatch(resource, context);
+                return;
+            }
+
+            final long wait = table.tryAcquire(clientKey.of(request));
+            if (wait > 0) {
+                throttled.mark();
+                throw new WebApplicationException(
+                        Response.status(TOO_MANY_REQUESTS)
+                                .header("Retry-After", TokenBucketTable.toRetryAfter(wait))
+                                .build()
+                );
+            }
+
+            allowed.mark();
+            dispatcher.dispatch(resource, context);
+        }
+    }
+
+    private final MetricsRegistry registry;
+    private final ImmutableMap<String, TokenBucketTable> limits;
+    private final ClientKey clientKey;
+
+    @Context
+    private HttpServletRequest request;
+
+    /**
+     * Creates a new adapter which records its metrics in the default registry.
+     *
+     * @param limits    the clients' token buckets for each named limit
+     * @param clientKey how to identify the client which made a request
+     */
+    public RateLimitedResourceMethodDispatchAdapter(Map<String, TokenBucketTable> limits,
+                                                    ClientKey clientKey) {
+        this(Metrics.defaultRegistry(), limits, clientKey);
+    }
+
+    /**
+     * Creates a new adapter.
+     *
+     * @param registry  the registry for the limits' metrics
+     * @param limits    the clients' token buckets for each named limit
+     * @param clientKey how to identify the client which made a request
+     */
+    public RateLimitedResourceMethodDispatchAdapter(MetricsRegistry registry,
+                                                    Map<String, TokenBucketTable> limits,
+                                                    ClientKey clientKey) {
+        this.registry = registry;
+        this.limits = ImmutableMap.copyOf(limits);
+        this.clientKey = clientKey;
+    }
+
+    @Override
+    public ResourceMethodDispatchProvider adapt(ResourceMethodDispatchProvider provider) {
+        return new RateLimitedResourceMethodDispatchProvider(provider);
+    }
+}
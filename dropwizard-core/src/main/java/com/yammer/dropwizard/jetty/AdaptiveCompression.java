@@ -0,0 +1,301 @@
+package com.yammer.dropwizard.jetty;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.google.common.collect.ImmutableMap;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Clock;
+import com.yammer.metrics.core.Gauge;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides how each response should be compressed, according to how busy the server is. The server
+ * is under pressure when the process's CPU load or the number of requests queued for a worker
+ * thread reaches its limit. Under pressure, responses are compressed at a reduced level, and
+ * responses which are larger than a maximum size, or whose media type's {@link Policy} says so,
+ * aren't compressed at all.
+ * <p/>
+ * The CPU load is sampled at most once a second, and is only available on JVMs which support
+ * {@code com.sun.management.OperatingSystemMXBean#getProcessCpuTime()}. Decisions are metered,
+ * and the CPU load gauged, in the {@code AdaptiveCompression} group.
+ */
+public class AdaptiveCompression {
+    /**
+     * How responses of a media type are compressed.
+     */
+    public enum Policy {
+        /**
+         * Always compress at the full level.
+         */
+        ALWAYS,
+
+        /**
+         * Compress at the reduced level under pressure.
+         */
+        REDUCE,
+
+        /**
+         * Don't compress under pressure, e.g. for media types which are already dense.
+         */
+        SKIP,
+
+        /**
+         * Never compress.
+         */
+        NEVER;
+
+        @Override
+        @JsonValue
+        public String toString() {
+            return super.toString().toLowerCase(Locale.ENGLISH);
+        }
+
+        @JsonCreator
+        public static Policy parse(String policy) {
+            return valueOf(policy.toUpperCase(Locale.ENGLISH));
+        }
+    }
+
+    /**
+     * How a response is compressed.
+     */
+    public enum Decision {
+        FULL,
+        REDUCED,
+        SKIPPED
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveCompression.class);
+    private static final long SAMPLE_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+    private static final OperatingSystemMXBean OS = ManagementFactory.getOperatingSystemMXBean();
+    private static final Method GET_PROCESS_CPU_TIME = findProcessCpuTimeMethod();
+
+    private static Method findProcessCpuTimeMethod() {
+        try {
+            // look the method up on the public interface, since the implementing class needn't be
+            // accessible
+            final Class<?> type = Class.forName("com.sun.management.OperatingSystemMXBean");
+            if (type.isInstance(OS)) {
+                final Method method = type.getMethod("getProcessCpuTime");
+                if ((Long) method.invoke(OS) >= 0) {
+                    return method;
+                }
+            }
+        } catch (Exception ignored) {
+            // fall through
+        }
+        LOGGER.info("The process's CPU load isn't available on this JVM, so only the number of " +
+                            "queued requests will be used to detect pressure");
+        return null;
+    }
+
+    private final Clock clock;
+    private final double maxCpuLoad;
+    private final int maxQueueSize;
+    private final long maxEntitySizeUnderLoad;
+    private final int reducedLevel;
+    private final ImmutableMap<String, Policy> policies;
+    private final int processors = Runtime.getRuntime().availableProcessors();
+    private final AtomicLong nextSample;
+    private long lastSampleTick;
+    private long lastCpuTime;
+    private volatile double cpuLoad;
+    private final Meter full;
+    private final Meter reduced;
+    private final Meter skipped;
+
+    /**
+     * Creates a new AdaptiveCompression which records its metrics in the default registry.
+     *
+     * @param maxCpuLoad             the process CPU load, from {@code 0} to {@code 1}, at which
+     *                               the server is under pressure
+     * @param maxQueueSize           the number of queued requests at which the server is under
+     *                               pressure
+     * @param maxEntitySizeUnderLoad the size, in bytes, above which responses aren't compressed
+     *                               under pressure
+     * @param reducedLevel           the compression level under pressure
+     * @param policies               the policies of media types (e.g. {@code image/svg+xml} or
+     *                               {@code image/*}) which aren't compressed at the reduced level
+     *                               under pressure
+     */
+    public AdaptiveCompression(double maxCpuLoad,
+                               int maxQueueSize,
+                               long maxEntitySizeUnderLoad,
+                               int reducedLevel,
+                               Map<String, Policy> policies) {
+        this(Metrics.defaultRegistry(), Clock.defaultClock(), maxCpuLoad, maxQueueSize,
+             maxEntitySizeUnderLoad, reducedLevel, policies);
+    }
+
+    /**
+     * Creates a new AdaptiveCompression.
+     *
+     * @param registry               the registry for the metrics
+     * @param clock                  the clock used to sample the CPU load
+     * @param maxCpuLoad             the process CPU load, from {@code 0} to {@code 1}, at which
+     *                               the server is under pressure
+     * @param maxQueueSize           the number of queued requests at which the server is under
+     *                               pressure
+     * @param maxEntitySizeUnderLoad the size, in bytes, above which responses aren't compressed
+     *                               under pressure
+     * @param reducedLevel           the compression level under pressure
+     * @param policies               the policies of media types (e.g. {@code image/svg+xml} or
+     *                               {@code image/*}) which aren't compressed at the reduced level
+     *                               under pressure
+     */
+    public AdaptiveCompression(MetricsRegistry registry,
+                               Clock clock,
+                               double maxCpuLoad,
+                               int maxQueueSize,
+                               long maxEntitySizeUnderLoad,
+                               int reducedLevel,
+                               Map<String, Policy> policies) {
+        this.clock = clock;
+        this.maxCpuLoad = maxCpuLoad;
+        this.maxQueueSize = maxQueueSize;
+        this.maxEntitySizeUnderLoad = maxEntitySizeUnderLoad;
+        this.reducedLevel = reducedLevel;
+        final ImmutableMap.Builder<String, Policy> builder = ImmutableMap.builder();
+        for (Map.Entry<String, Policy> entry : policies.entrySet()) {
+            builder.put(entry.getKey().toLowerCase(Locale.ENGLISH), entry.getValue());
+        }
+        this.policies = builder.build();
+        // the first sample only records the CPU time the load is measured from
+        this.lastSampleTick = clock.tick();
+        this.lastCpuTime = -1;
+        this.nextSample = new AtomicLong(lastSampleTick);
+        this.full = registry.newMeter(AdaptiveCompression.class, "full", "responses", TimeUnit.SECONDS);
+        this.reduced = registry.newMeter(AdaptiveCompression.class, "reduced", "responses", TimeUnit.SECONDS);
+        this.skipped = registry.newMeter(AdaptiveCompression.class, "skipped", "responses", TimeUnit.SECONDS);
+        registry.newGauge(AdaptiveCompression.class, "cpu-load", new Gauge<Double>() {
+            @Override
+            public Double value() {
+                return getCpuLoad();
+            }
+        });
+    }
+
+    /**
+     * Returns the compression level used under pressure.
+     *
+     * @return the reduced compression level
+     */
+    public int getReducedLevel() {
+        return reducedLevel;
+    }
+
+    /**
+     * Decides how a response should be compressed, and meters the decision.
+     *
+     * @param mimeType   the media type of the response, if known
+     * @param size       the size of the response entity (or as much of it as has been buffered) in
+     *                   bytes, or {@code -1} if unknown
+     * @param queueSize  the number of requests queued for a worker thread
+     * @return how the response should be compressed
+     */
+    public Decision decide(@Nullable String mimeType, long size, int queueSize) {
+        final Decision decision = decide(policy(mimeType), size, queueSize);
+        switch (decision) {
+            case FULL:
+                full.mark();
+                break;
+            case REDUCED:
+                reduced.mark();
+                break;
+            default:
+                skipped.mark();
+        }
+        return decision;
+    }
+
+    /**
+     * Returns the process's CPU load, as of the latest sample.
+     *
+     * @return the CPU load, from {@code 0} to {@code 1}, or {@code 0} if it isn't available
+     */
+    public double getCpuLoad() {
+        final long now = clock.tick();
+        final long next = nextSample.get();
+        if ((now >= next) && nextSample.compareAndSet(next, now + SAMPLE_INTERVAL)) {
+            final long cpuTime = getProcessCpuTime();
+            if ((cpuTime >= 0) && (lastCpuTime >= 0) && (now > lastSampleTick)) {
+                cpuLoad = Math.min(1.0, (cpuTime - lastCpuTime) /
+                        ((double) (now - lastSampleTick) * processors));
+            }
+            lastCpuTime = cpuTime;
+            lastSampleTick = now;
+        }
+        return cpuLoad;
+    }
+
+    /**
+     * Returns the CPU time used by the process.
+     *
+     * @return the CPU time in nanoseconds, or {@code -1} if it isn't available
+     */
+    protected long getProcessCpuTime() {
+        if (GET_PROCESS_CPU_TIME == null) {
+            return -1;
+        }
+        try {
+            return (Long) GET_PROCESS_CPU_TIME.invoke(OS);
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private Decision decide(Policy policy, long size, int queueSize) {
+        switch (policy) {
+            case NEVER:
+                return Decision.SKIPPED;
+            case ALWAYS:
+                return Decision.FULL;
+            default:
+                if ((queueSize < maxQueueSize) && (getCpuLoad() < maxCpuLoad)) {
+                    return Decision.FULL;
+                }
+                if ((policy == Policy.SKIP) || (size > maxEntitySizeUnderLoad)) {
+                    return Decision.SKIPPED;
+                }
+                return Decision.REDUCED;
+        }
+    }
+
+    private Policy policy(@Nullable String mimeType) {
+        if (mimeType == null) {
+            return Policy.REDUCE;
+        }
+
+        String type = mimeType.toLowerCase(Locale.ENGLISH);
+        final int semicolon = type.indexOf(';');
+        if (semicolon >= 0) {
+            type = type.substring(0, semicolon).trim();
+        }
+
+        final Policy policy = policies.get(type);
+        if (policy != null) {
+            return policy;
+        }
+
+        final int slash = type.indexOf('/');
+        if (slash >= 0) {
+            final Policy wildcard = policies.get(type.substring(0, slash) + "/*");
+            if (wildcard != null) {
+                return wildcard;
+            }
+        }
+        return Policy.REDUCE;
+    }
+}
@@ -5,7 +5,18 @@ import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.classic.spi.LoggingEvent;
 import ch.qos.logback.core.Appender;
 import ch.qos.logback.core.spi.AppenderAttachableImpl;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.yammer.dropwizard.logging.BatchAppender;
+import com.yammer.metrics.Metrics;
 import com.yammer.metrics.core.Clock;
+import com.yammer.metrics.core.Counter;
+import com.yammer.metrics.core.Gauge;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricsRegistry;
+import com.yammer.metrics.core.Timer;
 import org.eclipse.jetty.http.HttpHeaders;
 import org.eclipse.jetty.server.Authentication;
 import org.eclipse.jetty.server.Request;
@@ -14,39 +25,185 @@ import org.eclipse.jetty.server.Response;
 import org.eclipse.jetty.util.DateCache;
 import org.eclipse.jetty.util.component.AbstractLifeCycle;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.*;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * A non-blocking, asynchronous {@link RequestLog} implementation which implements a subset of the
- * functionality of {@link org.eclipse.jetty.server.NCSARequestLog}. Log entries are added to an
- * in-memory queue and an offline thread handles the responsibility of batching them to disk. The
- * date format is fixed, UTC time zone is fixed, and latency is always logged.
+ * functionality of {@link org.eclipse.jetty.server.NCSARequestLog}. Log entries are formatted into
+ * a reusable per-thread buffer, copied into a bounded ring of reusable slots, and an offline
+ * thread handles the responsibility of batching them to disk, handing whole batches to
+ * {@link BatchAppender}s. The date format is fixed, UTC time zone is fixed, and latency is always
+ * logged.
+ * <p/>
+ * Entries are either NCSA-style lines or, with {@link Format#JSON}, JSON objects written by a
+ * per-thread streaming generator, which break the latency down into the time the request waited
+ * for its final dispatch (e.g. while suspended) and the time it took to handle, and include the
+ * matched resource method, the {@value #REQUEST_ID_HEADER} header and the response's compression
+ * ratio.
+ * <p/>
+ * When the ring is full, the {@link QueueFullPolicy} decides whether entries are dropped or the
+ * request thread waits for the dispatcher. The number of queued entries is gauged, dropped entries
+ * are metered, and the time entries spend queued is timed, in the {@code AsyncRequestLog} group.
+ * With a {@link RequestLogSampler}, requests which aren't sampled are counted there instead of
+ * being formatted.
+ * Entries still queued when the log is stopped are written before its appenders are stopped.
  */
 public class AsyncRequestLog extends AbstractLifeCycle implements RequestLog {
+    /**
+     * What happens to log entries when the queue is full.
+     */
+    public enum QueueFullPolicy {
+        /**
+         * Drop new entries until there's room for them.
+         */
+        DROP,
+
+        /**
+         * Block request threads until there's room for their entries. Entries are still dropped
+         * once the log is stopping, or if its dispatcher thread has died.
+         */
+        BLOCK,
+
+        /**
+         * Once the queue is half full, only keep one in every
+         * {@link AsyncRequestLog#SAMPLE_RATE} new entries, and drop new entries while it's full.
+         */
+        SAMPLE;
+
+        @Override
+        @JsonValue
+        public String toString() {
+            return super.toString().toLowerCase(Locale.ENGLISH);
+        }
+
+        @JsonCreator
+        public static QueueFullPolicy parse(String policy) {
+            return valueOf(policy.toUpperCase(Locale.ENGLISH));
+        }
+    }
+
+    /**
+     * How log entries are formatted.
+     */
+    public enum Format {
+        /**
+         * An NCSA-style line, followed by the handling and total latencies in milliseconds.
+         */
+        NCSA,
+
+        /**
+         * A JSON object per line.
+         */
+        JSON;
+
+        @Override
+        @JsonValue
+        public String toString() {
+            return super.toString().toLowerCase(Locale.ENGLISH);
+        }
+
+        @JsonCreator
+        public static Format parse(String format) {
+            return valueOf(format.toUpperCase(Locale.ENGLISH));
+        }
+    }
+
+    /**
+     * The request attribute in which the name of the resource method which handled the request is
+     * recorded, as {@code ResourceClass#method}.
+     */
+    public static final String RESOURCE_METHOD_ATTRIBUTE =
+            AsyncRequestLog.class.getName() + ".resourceMethod";
+
+    /**
+     * The request header which carries the request's id.
+     */
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+    /**
+     * The number of entries of which one is kept by {@link QueueFullPolicy#SAMPLE}.
+     */
+    public static final int SAMPLE_RATE = 10;
+
+    /**
+     * The default maximum number of queued entries.
+     */
+    public static final int DEFAULT_QUEUE_SIZE = 4096;
+
     private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
-    private static final int BATCH_SIZE = 10000;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int BATCH_SIZE = 512;
+    private static final int INITIAL_ENTRY_SIZE = 256;
+    private static final long STOP_TIMEOUT = TimeUnit.SECONDS.toMillis(10);
+    private static final long BLOCK_INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * A writer which appends to a reusable buffer, so a JSON generator can stay bound to it.
+     */
+    private static class StringBuilderWriter extends Writer {
+        private final StringBuilder builder;
+
+        private StringBuilderWriter(StringBuilder builder) {
+            this.builder = builder;
+        }
+
+        @Override
+        public void write(char[] chars, int off, int len) {
+            builder.append(chars, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            builder.append(str, off, off + len);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class Slot {
+        private StringBuilder entry = new StringBuilder(INITIAL_ENTRY_SIZE);
+        private long enqueuedAt;
+    }
 
     private class Dispatcher implements Runnable {
         private volatile boolean running = true;
         private final List<String> statements = new ArrayList<String>(BATCH_SIZE);
+        // the buffers swapped into the slots which are taken, and then the taken entries
+        private final StringBuilder[] entries = new StringBuilder[BATCH_SIZE];
+        private final long[] enqueuedAt = new long[BATCH_SIZE];
+
+        private Dispatcher() {
+            for (int i = 0; i < entries.length; i++) {
+                entries[i] = new StringBuilder(INITIAL_ENTRY_SIZE);
+            }
+        }
 
         @Override
         public void run() {
-            while (running) {
+            while (running || size > 0) {
                 try {
-                    statements.add(queue.take());
-                    queue.drainTo(statements, BATCH_SIZE);
-
-                    for (String statement : statements) {
-                        final LoggingEvent event = new LoggingEvent();
-                        event.setLevel(Level.INFO);
-                        event.setMessage(statement);
-                        appenders.appendLoopOnAppenders(event);
+                    final int count = take(entries, enqueuedAt);
+                    final long now = clock.tick();
+                    for (int i = 0; i < count; i++) {
+                        statements.add(entries[i].toString());
+                        lag.update(now - enqueuedAt[i], TimeUnit.NANOSECONDS);
+                    }
+                    if (!statements.isEmpty()) {
+                        append(statements);
                     }
-
                     statements.clear();
                 } catch (InterruptedException ignored) {
                     Thread.currentThread().interrupt();
@@ -54,24 +211,95 @@ public class AsyncRequestLog extends AbstractLifeCycle implements RequestLog {
             }
         }
 
+        /**
+         * Hands the whole batch to {@link BatchAppender}s, and wraps each statement in an event
+         * for other appenders.
+         */
+        private void append(List<String> statements) {
+            List<LoggingEvent> events = null;
+            final Iterator<Appender<ILoggingEvent>> iterator = appenders.iteratorForAppenders();
+            while (iterator.hasNext()) {
+                final Appender<ILoggingEvent> appender = iterator.next();
+                if (appender instanceof BatchAppender) {
+                    ((BatchAppender) appender).appendLines(statements);
+                } else {
+                    if (events == null) {
+                        events = new ArrayList<LoggingEvent>(statements.size());
+                        for (String statement : statements) {
+                            final LoggingEvent event = new LoggingEvent();
+                            event.setLevel(Level.INFO);
+                            event.setMessage(statement);
+                            events.add(event);
+                        }
+                    }
+
+                    for (LoggingEvent event : events) {
+                        appender.doAppend(event);
+                    }
+                }
+            }
+        }
+
         public void stop() {
             this.running = false;
+            lock.lock();
+            try {
+                notEmpty.signalAll();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
         }
     }
 
     private final Clock clock;
     @SuppressWarnings("ThreadLocalNotStaticFinal")
     private final ThreadLocal<DateCache> dateCache;
-    private final BlockingQueue<String> queue;
+    private final ThreadLocal<StringBuilder> buffers;
+    private final ThreadLocal<JsonGenerator> generators;
+    private final Format format;
+    private final QueueFullPolicy policy;
+    private final Slot[] slots;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final AtomicLong sampled = new AtomicLong();
+    private int head;
+    private volatile int size;
     private final Dispatcher dispatcher;
     private final Thread dispatchThread;
     private final AppenderAttachableImpl<ILoggingEvent> appenders;
+    private final Meter dropped;
+    private final Counter sampledOut;
+    private volatile RequestLogSampler sampler;
+    private final Timer lag;
 
     public AsyncRequestLog(Clock clock,
                            AppenderAttachableImpl<ILoggingEvent> appenders,
-                           final TimeZone timeZone) {
+                           TimeZone timeZone) {
+        this(Metrics.defaultRegistry(),
+             clock,
+             appenders,
+             timeZone,
+             DEFAULT_QUEUE_SIZE,
+             QueueFullPolicy.DROP,
+             Format.NCSA);
+    }
+
+    public AsyncRequestLog(MetricsRegistry registry,
+                           Clock clock,
+                           AppenderAttachableImpl<ILoggingEvent> appenders,
+                           final TimeZone timeZone,
+                           int queueSize,
+                           QueueFullPolicy policy,
+                           Format format) {
         this.clock = clock;
-        this.queue = new LinkedBlockingQueue<String>();
+        this.policy = policy;
+        this.format = format;
+        this.slots = new Slot[queueSize];
+        for (int i = 0; i < queueSize; i++) {
+            slots[i] = new Slot();
+        }
         this.dispatcher = new Dispatcher();
         this.dispatchThread = new Thread(dispatcher);
         dispatchThread.setName("async-request-log-dispatcher-" + THREAD_COUNTER.incrementAndGet());
@@ -86,7 +314,45 @@ public class AsyncRequestLog extends AbstractLifeCycle implements RequestLog {
             }
         };
 
+        this.buffers = new ThreadLocal<StringBuilder>() {
+            @Override
+            protected StringBuilder initialValue() {
+                return new StringBuilder(INITIAL_ENTRY_SIZE);
+            }
+        };
+
+        this.generators = new ThreadLocal<JsonGenerator>() {
+            @Override
+            protected JsonGenerator initialValue() {
+                return newGenerator();
+            }
+        };
+
         this.appenders = appenders;
+
+        registry.newGauge(AsyncRequestLog.class, "queue-size", new Gauge<Integer>() {
+            @Override
+            public Integer value() {
+                return size;
+            }
+        });
+        this.dropped = registry.newMeter(AsyncRequestLog.class, "dropped", "entries", TimeUnit.SECONDS);
+        this.lag = registry.newTimer(AsyncRequestLog.class, "dispatch-lag");
+        this.sampledOut = registry.newCounter(AsyncRequestLog.class, "sampled-out");
+    }
+
+    public RequestLogSampler getSampler() {
+        return sampler;
+    }
+
+    /**
+     * Sets the sampler which decides which requests are logged, before they're formatted. If it's
+     * {@code null}, every request is logged.
+     *
+     * @param sampler a sampler, or {@code null}
+     */
+    public void setSampler(RequestLogSampler sampler) {
+        this.sampler = sampler;
     }
 
 
@@ -102,16 +368,55 @@ public class AsyncRequestLog extends AbstractLifeCycle implements RequestLog {
     @Override
     protected void doStop() throws Exception {
         dispatcher.stop();
+        dispatchThread.join(STOP_TIMEOUT);
         final Iterator<Appender<ILoggingEvent>> iterator = appenders.iteratorForAppenders();
         while (iterator.hasNext()) {
             iterator.next().stop();
         }
     }
 
+    /**
+     * Returns the number of queued entries.
+     *
+     * @return the number of queued entries
+     */
+    public int getQueueSize() {
+        return size;
+    }
+
     @Override
     public void log(Request request, Response response) {
+        if (ServerWarmer.isWarmUp(request) || request.getAsyncContinuation().isSuspended()) {
+            // suspended requests are logged once their last dispatch completes
+            return;
+        }
+
+        final RequestLogSampler sampler = this.sampler;
+        if ((sampler != null) && !sampler.isLogged(request, response, clock.time())) {
+            sampledOut.inc();
+            return;
+        }
+
+        if (!accept()) {
+            dropped.mark();
+            return;
+        }
+
+        final StringBuilder buf = buffers.get();
+        buf.setLength(0);
+        if (format == Format.JSON) {
+            if (!formatJson(request, response)) {
+                dropped.mark();
+                return;
+            }
+        } else {
+            formatNcsa(buf, request, response);
+        }
+        put(buf);
+    }
+
+    private void formatNcsa(StringBuilder buf, Request request, Response response) {
         // copied almost entirely from NCSARequestLog
-        final StringBuilder buf = new StringBuilder(256);
         String address = request.getHeader(HttpHeaders.X_FORWARDED_FOR);
         if (address == null) {
             address = request.getRemoteAddr();
@@ -138,17 +443,13 @@ public class AsyncRequestLog extends AbstractLifeCycle implements RequestLog {
         buf.append(' ');
         buf.append(request.getProtocol());
         buf.append("\" ");
-        if (request.getAsyncContinuation().isInitial()) {
-            int status = response.getStatus();
-            if (status <= 0) {
-                status = 404;
-            }
-            buf.append((char) ('0' + ((status / 100) % 10)));
-            buf.append((char) ('0' + ((status / 10) % 10)));
-            buf.append((char) ('0' + (status % 10)));
-        } else {
-            buf.append("Async");
+        int status = response.getStatus();
+        if (status <= 0) {
+            status = 404;
         }
+        buf.append((char) ('0' + ((status / 100) % 10)));
+        buf.append((char) ('0' + ((status / 10) % 10)));
+        buf.append((char) ('0' + (status % 10)));
 
         final long responseLength = response.getContentCount();
         if (responseLength >= 0) {
@@ -182,7 +483,167 @@ public class AsyncRequestLog extends AbstractLifeCycle implements RequestLog {
 
         buf.append(' ');
         buf.append(now - request.getTimeStamp());
+    }
+
+    /**
+     * Writes the entry with the current thread's generator, which stays bound to its buffer.
+     */
+    private boolean formatJson(Request request, Response response) {
+        final JsonGenerator json = generators.get();
+        try {
+            final long now = clock.time();
+            final long timestamp = request.getTimeStamp();
+            final long dispatchTime = (request.getDispatchTime() == 0) ? timestamp : request.getDispatchTime();
+
+            json.writeStartObject();
+            json.writeNumberField("timestamp", timestamp);
+            json.writeStringField("requestId", request.getHeader(REQUEST_ID_HEADER));
+
+            String address = request.getHeader(HttpHeaders.X_FORWARDED_FOR);
+            if (address == null) {
+                address = request.getRemoteAddr();
+            }
+            json.writeStringField("remoteAddress", address);
+
+            final Authentication authentication = request.getAuthentication();
+            if (authentication instanceof Authentication.User) {
+                json.writeStringField("principal", ((Authentication.User) authentication).getUserIdentity()
+                                                                                         .getUserPrincipal()
+                                                                                         .getName());
+            } else {
+                json.writeNullField("principal");
+            }
 
-        queue.add(buf.toString());
+            json.writeStringField("method", request.getMethod());
+            json.writeStringField("uri", request.getUri().toString());
+            json.writeStringField("protocol", request.getProtocol());
+            json.writeStringField("resourceMethod", (String) request.getAttribute(RESOURCE_METHOD_ATTRIBUTE));
+
+            final int status = response.getStatus();
+            json.writeNumberField("status", (status <= 0) ? 404 : status);
+
+            json.writeNumberField("bytesIn", Math.max(request.getContentRead(), 0));
+            final long bytesOut = response.getContentCount();
+            json.writeNumberField("bytesOut", bytesOut);
+
+            final Object uncompressed = request.getAttribute(BiDiGzipHandler.UNCOMPRESSED_BYTES_ATTRIBUTE);
+            if ((uncompressed instanceof Long) && ((Long) uncompressed > 0)) {
+                json.writeNumberField("compressionRatio", (double) bytesOut / (Long) uncompressed);
+            } else {
+                json.writeNullField("compressionRatio");
+            }
+
+            json.writeNumberField("queueTime", dispatchTime - timestamp);
+            json.writeNumberField("handlingTime", now - dispatchTime);
+            json.writeNumberField("totalTime", now - timestamp);
+            json.writeEndObject();
+            json.flush();
+            return true;
+        } catch (IOException e) {
+            // the buffer can't fail, but the generator's state is unknown now
+            generators.set(newGenerator());
+            return false;
+        }
+    }
+
+    private JsonGenerator newGenerator() {
+        try {
+            final JsonGenerator generator = JSON_FACTORY.createGenerator(new StringBuilderWriter(buffers.get()));
+            generator.setRootValueSeparator(null);
+            return generator;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Decides whether to format an entry at all, without waiting for the lock. The queue may still
+     * fill up before the entry is {@link #put(CharSequence) put}.
+     */
+    private boolean accept() {
+        final int queued = size;
+        switch (policy) {
+            case BLOCK:
+                return true;
+            case SAMPLE:
+                return (queued < slots.length / 2) ||
+                        ((queued < slots.length) && (sampled.incrementAndGet() % SAMPLE_RATE == 0));
+            default:
+                return queued < slots.length;
+        }
+    }
+
+    private void put(CharSequence entry) {
+        lock.lock();
+        try {
+            while (size == slots.length) {
+                if (!awaitNotFull()) {
+                    dropped.mark();
+                    return;
+                }
+            }
+
+            final Slot slot = slots[(head + size) % slots.length];
+            slot.entry.setLength(0);
+            slot.entry.append(entry);
+            slot.enqueuedAt = clock.tick();
+            size++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits for a while for room in the queue, if the policy is to block. Must be called with the
+     * lock held.
+     *
+     * @return {@code false} if the entry should be dropped instead
+     */
+    private boolean awaitNotFull() {
+        if ((policy != QueueFullPolicy.BLOCK) || !dispatcher.running || !dispatchThread.isAlive()) {
+            return false;
+        }
+        try {
+            // wake up now and then to check whether the dispatcher is still around to make room
+            notFull.awaitNanos(BLOCK_INTERVAL);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Takes up to a batch of entries from the queue. Their slots' buffers are swapped for the
+     * given empty ones, so the entries can be turned into strings once the lock's been released.
+     *
+     * @return the number of entries taken
+     */
+    private int take(StringBuilder[] entries, long[] enqueuedAt) throws InterruptedException {
+        lock.lock();
+        try {
+            while ((size == 0) && dispatcher.running) {
+                notEmpty.await();
+            }
+
+            int count = 0;
+            while ((size > 0) && (count < entries.length)) {
+                final Slot slot = slots[head];
+                final StringBuilder entry = slot.entry;
+                slot.entry = entries[count];
+                entries[count] = entry;
+                enqueuedAt[count] = slot.enqueuedAt;
+                count++;
+                head = (head + 1) % slots.length;
+                size--;
+            }
+            if (count > 0) {
+                notFull.signalAll();
+            }
+            return count;
+        } finally {
+            lock.unlock();
+        }
     }
 }
@@ -1,36 +1,191 @@
 package com.yammer.dropwizard.jetty;
 
+import com.google.common.base.Splitter;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricsRegistry;
+import com.yammer.metrics.core.Timer;
+import com.yammer.metrics.util.RatioGauge;
+import org.eclipse.jetty.continuation.Continuation;
+import org.eclipse.jetty.continuation.ContinuationListener;
+import org.eclipse.jetty.continuation.ContinuationSupport;
 import org.eclipse.jetty.http.HttpHeaders;
+import org.eclipse.jetty.http.HttpMethods;
+import org.eclipse.jetty.http.gzip.AbstractCompressedStream;
+import org.eclipse.jetty.http.gzip.CompressedResponseWrapper;
 import org.eclipse.jetty.server.Handler;
 import org.eclipse.jetty.server.Request;
 import org.eclipse.jetty.server.handler.GzipHandler;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+import javax.servlet.DispatcherType;
 import javax.servlet.ServletException;
 import javax.servlet.ServletInputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletRequestWrapper;
 import javax.servlet.http.HttpServletResponse;
 import java.io.BufferedReader;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.util.zip.GZIPInputStream;
-
-// TODO: 10/12/11 <coda> -- write tests for BiDiGzipHandler
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
 
 /**
- * A Jetty {@link Handler} which both compresses response entities to requests with {@code gzip} as
- * an acceptable content-encoding and decompresses request entities with {@code gzip} as the given
- * content-encoding.
+ * A Jetty {@link Handler} which both compresses response entities to requests with {@code gzip} or
+ * {@code deflate} as an acceptable content-encoding and decompresses request entities with
+ * {@code gzip} or {@code deflate} as the given content-encoding.
+ * <p/>
+ * Unlike Jetty's {@link GzipHandler}, which allocates a new native zlib stream for every request,
+ * the handler keeps bounded pools of {@link Deflater}s and {@link Inflater}s. The number of bytes
+ * before and after compression, and the time spent compressing each response, are recorded in the
+ * {@code BiDiGzipHandler} group.
+ * <p/>
+ * With {@link AdaptiveCompression}, the handler backs off when the server is busy: responses are
+ * compressed at a lower level, or not at all.
  */
 @SuppressWarnings("IOResourceOpenedButNotSafelyClosed")
 public class BiDiGzipHandler extends GzipHandler {
+    /**
+     * The request attribute in which the size of a compressed response entity before compression
+     * is recorded, as a {@link Long}.
+     */
+    public static final String UNCOMPRESSED_BYTES_ATTRIBUTE =
+            BiDiGzipHandler.class.getName() + ".uncompressedBytes";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BiDiGzipHandler.class);
     private static final String GZIP_ENCODING = "gzip";
+    private static final String DEFLATE_ENCODING = "deflate";
+    private static final Splitter ENCODING_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+    private static final int POOL_SIZE = 64;
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final int GZIP_FRAMING_SIZE = 18;
+    private static final byte[] GZIP_HEADER = {
+            (byte) GZIP_MAGIC, (byte) (GZIP_MAGIC >> 8), Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0
+    };
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    /**
+     * Reads a single {@code gzip} member with an inflater of our own, which
+     * {@link java.util.zip.GZIPInputStream} doesn't allow. Anything after the first member is
+     * ignored.
+     */
+    private static class GzipInflaterInputStream extends InflaterInputStream {
+        private final CRC32 crc = new CRC32();
+        private boolean eos;
+
+        private GzipInflaterInputStream(InputStream in, Inflater inflater, int bufferSize) throws IOException {
+            super(in, inflater, bufferSize);
+            readHeader();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (eos) {
+                return -1;
+            }
+            final int n = super.read(b, off, len);
+            if (n == -1) {
+                readTrailer();
+                eos = true;
+            } else {
+                crc.update(b, off, n);
+            }
+            return n;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return eos ? 0 : super.available();
+        }
+
+        private void readHeader() throws IOException {
+            if (readUShort(in) != GZIP_MAGIC) {
+                throw new ZipException("Not in GZIP format");
+            }
+            if (readUByte(in) != Deflater.DEFLATED) {
+                throw new ZipException("Unsupported compression method");
+            }
+            final int flags = readUByte(in);
+            skipBytes(in, 6);
+            if ((flags & FEXTRA) == FEXTRA) {
+                skipBytes(in, readUShort(in));
+            }
+            if ((flags & FNAME) == FNAME) {
+                while (readUByte(in) != 0) {
+                    // skip the file name
+                }
+            }
+            if ((flags & FCOMMENT) == FCOMMENT) {
+                while (readUByte(in) != 0) {
+                    // skip the comment
+                }
+            }
+            if ((flags & FHCRC) == FHCRC) {
+                skipBytes(in, 2);
+            }
+        }
+
+        private void readTrailer() throws IOException {
+            // the trailer may be partly in our buffer and partly still in the underlying stream
+            final byte[] trailer = new byte[8];
+            final int remaining = Math.min(inf.getRemaining(), trailer.length);
+            System.arraycopy(buf, len - inf.getRemaining(), trailer, 0, remaining);
+            for (int i = remaining; i < trailer.length; i++) {
+                trailer[i] = (byte) readUByte(in);
+            }
+            if ((readInt(trailer, 0) != crc.getValue()) ||
+                    (readInt(trailer, 4) != (inf.getBytesWritten() & 0xffffffffL))) {
+                throw new ZipException("Corrupt GZIP trailer");
+            }
+        }
+
+        private static long readInt(byte[] bytes, int offset) {
+            return ((bytes[offset] & 0xffL)) |
+                    ((bytes[offset + 1] & 0xffL) << 8) |
+                    ((bytes[offset + 2] & 0xffL) << 16) |
+                    ((bytes[offset + 3] & 0xffL) << 24);
+        }
+
+        private static int readUShort(InputStream in) throws IOException {
+            return readUByte(in) | (readUByte(in) << 8);
+        }
+
+        private static int readUByte(InputStream in) throws IOException {
+            final int b = in.read();
+            if (b == -1) {
+                throw new EOFException("Unexpected end of GZIP stream");
+            }
+            return b;
+        }
 
-    private static class GzipServletInputStream extends ServletInputStream {
-        private final GZIPInputStream input;
+        private static void skipBytes(InputStream in, int n) throws IOException {
+            for (int i = 0; i < n; i++) {
+                readUByte(in);
+            }
+        }
+    }
+
+    private static class InflatingServletInputStream extends ServletInputStream {
+        private final InputStream input;
 
-        private GzipServletInputStream(HttpServletRequest request, int bufferSize) throws IOException {
-            this.input = new GZIPInputStream(request.getInputStream(), bufferSize);
+        private InflatingServletInputStream(InputStream input) {
+            this.input = input;
         }
 
         @Override
@@ -79,16 +234,36 @@ public class BiDiGzipHandler extends GzipHandler {
         }
     }
 
-    private static class GzipServletRequest extends HttpServletRequestWrapper {
+    private static class InflatingServletRequest extends HttpServletRequestWrapper {
+        private final InflaterPool pool;
+        private final Inflater inflater;
         private final ServletInputStream input;
         private final BufferedReader reader;
 
-        private GzipServletRequest(HttpServletRequest request, int bufferSize) throws IOException {
+        private InflatingServletRequest(HttpServletRequest request,
+                                        InflaterPool pool,
+                                        boolean gzip,
+                                        int bufferSize) throws IOException {
             super(request);
-            this.input = new GzipServletInputStream(request, bufferSize);
+            this.pool = pool;
+            this.inflater = pool.acquire();
+            final InputStream inflating;
+            try {
+                inflating = gzip ?
+                        new GzipInflaterInputStream(request.getInputStream(), inflater, bufferSize) :
+                        new InflaterInputStream(request.getInputStream(), inflater, bufferSize);
+            } catch (IOException e) {
+                pool.release(inflater);
+                throw e;
+            }
+            this.input = new InflatingServletInputStream(inflating);
             this.reader = new BufferedReader(new InputStreamReader(input));
         }
 
+        private void release() {
+            pool.release(inflater);
+        }
+
         @Override
         public ServletInputStream getInputStream() throws IOException {
             return input;
@@ -101,26 +276,444 @@ public class BiDiGzipHandler extends GzipHandler {
     }
 
     /**
-     * Creates a new BiDiGzipHandler which forwards requests to the given handler.
+     * Compresses a response entity with a pooled deflater, adding the {@code gzip} header and
+     * trailer if needed, and returns the deflater to its pool once the entity is complete.
+     */
+    private class PooledDeflaterOutputStream extends DeflaterOutputStream {
+        private final HttpServletRequest request;
+        private final DeflaterPool pool;
+        private final CRC32 crc;
+        private long deflating;
+        private boolean released;
+
+        private PooledDeflaterOutputStream(HttpServletRequest request,
+                                           OutputStream out,
+                                           DeflaterPool pool,
+                                           int level,
+                                           boolean gzip) throws IOException {
+            super(out, pool.acquire(level), BiDiGzipHandler.this.getBufferSize());
+            this.request = request;
+            this.pool = pool;
+            if (gzip) {
+                this.crc = new CRC32();
+                out.write(GZIP_HEADER);
+            } else {
+                this.crc = null;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            super.write(b, off, len);
+            if (crc != null) {
+                crc.update(b, off, len);
+            }
+        }
+
+        @Override
+        protected void deflate() throws IOException {
+            // only time the compression itself, not the writes to the connection
+            final long start = System.nanoTime();
+            final int length = def.deflate(buf, 0, buf.length);
+            deflating += System.nanoTime() - start;
+            if (length > 0) {
+                out.write(buf, 0, length);
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (!released && !def.finished()) {
+                super.finish();
+                if (crc != null) {
+                    final byte[] trailer = new byte[8];
+                    writeInt(crc.getValue(), trailer, 0);
+                    writeInt(def.getBytesRead(), trailer, 4);
+                    out.write(trailer);
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (released) {
+                return;
+            }
+            try {
+                super.close();
+            } finally {
+                released = true;
+                request.setAttribute(UNCOMPRESSED_BYTES_ATTRIBUTE, def.getBytesRead());
+                uncompressedBytes.mark(def.getBytesRead());
+                compressedBytes.mark(def.getBytesWritten() + ((crc == null) ? 0 : GZIP_FRAMING_SIZE));
+                compression.update(deflating, TimeUnit.NANOSECONDS);
+                pool.release(def);
+            }
+        }
+
+        private void writeInt(long value, byte[] bytes, int offset) {
+            bytes[offset] = (byte) value;
+            bytes[offset + 1] = (byte) (value >> 8);
+            bytes[offset + 2] = (byte) (value >> 16);
+            bytes[offset + 3] = (byte) (value >> 24);
+        }
+    }
+
+    /**
+     * A response wrapper which compresses with pooled deflaters and, unlike Jetty's, doesn't drop
+     * the {@code ETag} header of {@code 304 Not Modified} responses. Jetty holds the header back
+     * until it knows whether the entity will be compressed, and only sends it once the entity is
+     * written; a {@code 304 Not Modified} response has no entity, so it would never be sent.
+     */
+    private class CompressingServletResponse extends CompressedResponseWrapper {
+        private final String encoding;
+        private boolean notModified;
+
+        private CompressingServletResponse(HttpServletRequest request,
+                                           HttpServletResponse response,
+                                           String encoding) {
+            super(request, response);
+            this.encoding = encoding;
+            super.setMimeTypes(getMimeTypes());
+            super.setBufferSize(BiDiGzipHandler.this.getBufferSize());
+            super.setMinCompressSize(getMinGzipSize());
+        }
+
+        @Override
+        protected AbstractCompressedStream newCompressedStream(final HttpServletRequest request,
+                                                               HttpServletResponse response) throws IOException {
+            return new AbstractCompressedStream(encoding, request, this, getVary()) {
+                private AdaptiveCompression.Decision decision;
+                private int writing;
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    // a large write is compressed before it's buffered, so remember its length
+                    this.writing = len;
+                    try {
+                        super.write(b, off, len);
+                    } finally {
+                        this.writing = 0;
+                    }
+                }
+
+                @Override
+                public void doCompress() throws IOException {
+                    if ((adaptiveCompression != null) && (decision == null) &&
+                            (_compressedOutputStream == null)) {
+                        // decide once the entity has been buffered, or turned out to be large
+                        long size = _wrapper.getContentLength();
+                        if (size < 0) {
+                            size = ((_bOut == null) ? 0 : _bOut.getCount()) + writing;
+                        }
+                        this.decision = adaptiveCompression.decide(_response.getContentType(),
+                                                                   size,
+                                                                   queueSize());
+                        if (decision == AdaptiveCompression.Decision.SKIPPED) {
+                            doNotCompress(true);
+                            return;
+                        }
+                    }
+                    super.doCompress();
+                }
+
+                @Override
+                protected DeflaterOutputStream createStream() throws IOException {
+                    final boolean gzip = GZIP_ENCODING.equals(encoding);
+                    final int level = (decision == AdaptiveCompression.Decision.REDUCED) ?
+                            adaptiveCompression.getReducedLevel() : compressionLevel;
+                    return new PooledDeflaterOutputStream(request,
+                                                          _response.getOutputStream(),
+                                                          gzip ? gzipDeflaters : zlibDeflaters,
+                                                          level,
+                                                          gzip);
+                }
+            };
+        }
+
+        @Override
+        protected PrintWriter newWriter(OutputStream out, String encoding) throws UnsupportedEncodingException {
+            return BiDiGzipHandler.this.newWriter(out, encoding);
+        }
+
+        @Override
+        public void setStatus(int sc) {
+            super.setStatus(sc);
+            setNotModified(sc);
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public void setStatus(int sc, String sm) {
+            super.setStatus(sc, sm);
+            setNotModified(sc);
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            super.setHeader(name, value);
+            if (notModified && HttpHeaders.ETAG.equalsIgnoreCase(name)) {
+                ((HttpServletResponse) getResponse()).setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            super.addHeader(name, value);
+            if (notModified && HttpHeaders.ETAG.equalsIgnoreCase(name)) {
+                ((HttpServletResponse) getResponse()).setHeader(name, value);
+            }
+        }
+
+        private void setNotModified(int sc) {
+            this.notModified = (sc == HttpServletResponse.SC_NOT_MODIFIED);
+            if (notModified && (getETag() != null)) {
+                ((HttpServletResponse) getResponse()).setHeader(HttpHeaders.ETAG, getETag());
+            }
+        }
+    }
+
+    private final Meter uncompressedBytes;
+    private final Meter compressedBytes;
+    private final Timer compression;
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+    private AdaptiveCompression adaptiveCompression;
+    private DeflaterPool gzipDeflaters;
+    private DeflaterPool zlibDeflaters;
+    private InflaterPool gzipInflaters;
+    private InflaterPool zlibInflaters;
+
+    /**
+     * Creates a new BiDiGzipHandler which forwards requests to the given handler and records its
+     * metrics in the default registry.
      *
      * @param underlying    the underlying handler
      */
     public BiDiGzipHandler(Handler underlying) {
+        this(Metrics.defaultRegistry(), underlying);
+    }
+
+    /**
+     * Creates a new BiDiGzipHandler which forwards requests to the given handler.
+     *
+     * @param registry      the registry for the handler's metrics
+     * @param underlying    the underlying handler
+     */
+    public BiDiGzipHandler(MetricsRegistry registry, Handler underlying) {
+        this.uncompressedBytes = registry.newMeter(BiDiGzipHandler.class, "uncompressed-bytes",
+                                                   "bytes", TimeUnit.SECONDS);
+        this.compressedBytes = registry.newMeter(BiDiGzipHandler.class, "compressed-bytes",
+                                                 "bytes", TimeUnit.SECONDS);
+        this.compression = registry.newTimer(BiDiGzipHandler.class, "compression",
+                                             TimeUnit.MILLISECONDS, TimeUnit.SECONDS);
+        registry.newGauge(BiDiGzipHandler.class, "compression-ratio", new RatioGauge() {
+            @Override
+            protected double getNumerator() {
+                return compressedBytes.count();
+            }
+
+            @Override
+            protected double getDenominator() {
+                return uncompressedBytes.count();
+            }
+        });
         setHandler(underlying);
     }
 
+    /**
+     * Returns the compression level of response entities.
+     *
+     * @return the compression level, from {@code 0} to {@code 9}, or
+     *         {@link Deflater#DEFAULT_COMPRESSION}
+     */
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * Sets the compression level of response entities. Higher levels produce smaller entities,
+     * but take longer.
+     *
+     * @param compressionLevel the compression level, from {@code 0} to {@code 9}, or
+     *                         {@link Deflater#DEFAULT_COMPRESSION}
+     */
+    public void setCompressionLevel(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * Returns the policy which backs compression off when the server is busy, if any.
+     *
+     * @return the adaptive compression policy, or {@code null}
+     */
+    @Nullable
+    public AdaptiveCompression getAdaptiveCompression() {
+        return adaptiveCompression;
+    }
+
+    /**
+     * Sets the policy which backs compression off when the server is busy.
+     *
+     * @param adaptiveCompression the adaptive compression policy, or {@code null} to always
+     *                            compress at the configured level
+     */
+    public void setAdaptiveCompression(@Nullable AdaptiveCompression adaptiveCompression) {
+        this.adaptiveCompression = adaptiveCompression;
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        this.gzipDeflaters = new DeflaterPool(compressionLevel, true, POOL_SIZE);
+        this.zlibDeflaters = new DeflaterPool(compressionLevel, false, POOL_SIZE);
+        this.gzipInflaters = new InflaterPool(true, POOL_SIZE);
+        this.zlibInflaters = new InflaterPool(false, POOL_SIZE);
+        super.doStart();
+    }
+
+    @Override
+    protected CompressedResponseWrapper newGzipResponseWrapper(HttpServletRequest request,
+                                                               HttpServletResponse response) {
+        return new CompressingServletResponse(request, response, GZIP_ENCODING);
+    }
+
     @Override
     public void handle(String target,
                        Request baseRequest,
                        HttpServletRequest request,
                        HttpServletResponse response) throws IOException, ServletException {
-        if (GZIP_ENCODING.equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING))) {
-            super.handle(target,
-                         baseRequest,
-                         new GzipServletRequest(request, getBufferSize()),
-                         response);
+        if ((getHandler() == null) || !isStarted()) {
+            return;
+        }
+
+        // a resumed request's entity was already inflated (and read) when it was first dispatched
+        final String contentEncoding = DispatcherType.ASYNC.equals(baseRequest.getDispatcherType()) ?
+                null : request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        if (GZIP_ENCODING.equalsIgnoreCase(contentEncoding)) {
+            handleInflated(target, baseRequest,
+                           new InflatingServletRequest(request, gzipInflaters, true, getBufferSize()),
+                           response);
+        } else if (DEFLATE_ENCODING.equalsIgnoreCase(contentEncoding)) {
+            handleInflated(target, baseRequest,
+                           new InflatingServletRequest(request, zlibInflaters, false, getBufferSize()),
+                           response);
         } else {
-            super.handle(target, baseRequest, request, response);
+            handleCompressed(target, baseRequest, request, response);
+        }
+    }
+
+    private void handleInflated(String target,
+                                Request baseRequest,
+                                final InflatingServletRequest request,
+                                HttpServletResponse response) throws IOException, ServletException {
+        try {
+            handleCompressed(target, baseRequest, request, response);
+        } finally {
+            final Continuation continuation = ContinuationSupport.getContinuation(request);
+            if (continuation.isSuspended()) {
+                continuation.addContinuationListener(new ContinuationListener() {
+                    @Override
+                    public void onComplete(Continuation continuation) {
+                        request.release();
+                    }
+
+                    @Override
+                    public void onTimeout(Continuation continuation) {
+                    }
+                });
+            } else {
+                request.release();
+            }
+        }
+    }
+
+    // the same as GzipHandler#handle, but with a choice of encodings
+    private void handleCompressed(String target,
+                                  Request baseRequest,
+                                  HttpServletRequest request,
+                                  HttpServletResponse response) throws IOException, ServletException {
+        final String encoding = acceptedEncoding(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        if ((encoding == null) || response.containsHeader(HttpHeaders.CONTENT_ENCODING) ||
+                HttpMethods.HEAD.equalsIgnoreCase(request.getMethod()) ||
+                ((getExcluded() != null) && getExcluded().contains(request.getHeader(HttpHeaders.USER_AGENT)))) {
+            getHandler().handle(target, baseRequest, request, response);
+            return;
+        }
+
+        final CompressedResponseWrapper wrappedResponse =
+                new CompressingServletResponse(request, response, encoding);
+        boolean exceptional = true;
+        try {
+            getHandler().handle(target, baseRequest, request, wrappedResponse);
+            exceptional = false;
+        } finally {
+            final Continuation continuation = ContinuationSupport.getContinuation(request);
+            if (continuation.isSuspended() && continuation.isResponseWrapped()) {
+                continuation.addContinuationListener(new ContinuationListener() {
+                    @Override
+                    public void onComplete(Continuation continuation) {
+                        try {
+                            wrappedResponse.finish();
+                        } catch (IOException e) {
+                            LOGGER.warn("Unable to finish a compressed response", e);
+                        }
+                    }
+
+                    @Override
+                    public void onTimeout(Continuation continuation) {
+                    }
+                });
+            } else if (exceptional && !response.isCommitted()) {
+                wrappedResponse.resetBuffer();
+                wrappedResponse.noCompression();
+            } else {
+                wrappedResponse.finish();
+            }
+        }
+    }
+
+    private int queueSize() {
+        final ThreadPool pool = (getServer() == null) ? null : getServer().getThreadPool();
+        if (pool instanceof BoundedQueuedThreadPool) {
+            return ((BoundedQueuedThreadPool) pool).getQueueSize();
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the encoding to compress the response with, preferring {@code gzip} to
+     * {@code deflate}, or {@code null} if the client accepts neither.
+     */
+    private static String acceptedEncoding(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+
+        boolean deflate = false;
+        for (String token : ENCODING_SPLITTER.split(acceptEncoding)) {
+            final int semicolon = token.indexOf(';');
+            final String name = ((semicolon < 0) ? token : token.substring(0, semicolon)).trim();
+            if ((semicolon >= 0) && isUnacceptable(token.substring(semicolon + 1))) {
+                continue;
+            }
+            if (GZIP_ENCODING.equalsIgnoreCase(name) || "x-gzip".equalsIgnoreCase(name)) {
+                return GZIP_ENCODING;
+            }
+            if (DEFLATE_ENCODING.equalsIgnoreCase(name)) {
+                deflate = true;
+            }
+        }
+        return deflate ? DEFLATE_ENCODING : null;
+    }
+
+    private static boolean isUnacceptable(String parameter) {
+        final String param = parameter.trim();
+        if (param.startsWith("q=")) {
+            try {
+                return Double.parseDouble(param.substring(2).trim()) <= 0;
+            } catch (NumberFormatException ignored) {
+                return false;
+            }
         }
+        return false;
     }
 }
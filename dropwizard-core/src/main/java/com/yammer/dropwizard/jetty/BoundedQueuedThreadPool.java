@@ -0,0 +1,172 @@
+package com.yammer.dropwizard.jetty;
+
+import com.google.common.base.Optional;
+import com.yammer.dropwizard.util.Duration;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.*;
+import com.yammer.metrics.util.RatioGauge;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An instrumented {@link QueuedThreadPool} which tracks how long jobs wait in its queue before
+ * being run. If a job waits longer than the given maximum queue wait, the thread running it is
+ * marked as overdue so that {@link LoadSheddingHandler} can fail the request fast instead of
+ * doing work the client has likely given up on. Combined with {@link #setMaxQueued(int)}, this
+ * bounds both the length of the queue and the latency it adds.
+ */
+public class BoundedQueuedThreadPool extends QueuedThreadPool {
+    private static final ThreadLocal<Boolean> OVERDUE = new ThreadLocal<Boolean>() {
+        @Override
+        protected Boolean initialValue() {
+            return Boolean.FALSE;
+        }
+    };
+
+    private static class QueuedJob implements Runnable {
+        private final Runnable job;
+        private final long queuedAt;
+
+        private QueuedJob(Runnable job, long queuedAt) {
+            this.job = job;
+            this.queuedAt = queuedAt;
+        }
+
+        @Override
+        public void run() {
+            job.run();
+        }
+
+        @Override
+        public String toString() {
+            return job.toString();
+        }
+    }
+
+    /**
+     * Returns {@code true} if the job running on the current thread waited longer than the
+     * maximum queue wait of its pool, and clears the flag so that subsequent requests handled by
+     * the same job are not also considered overdue.
+     *
+     * @return whether or not the current request should be shed
+     */
+    public static boolean clearOverdue() {
+        final boolean overdue = OVERDUE.get();
+        if (overdue) {
+            OVERDUE.set(Boolean.FALSE);
+        }
+        return overdue;
+    }
+
+    private final Clock clock;
+    private final long maxQueueWait;
+    private final Timer queueWait;
+    private final Meter rejected;
+
+    /**
+     * Creates a new pool which records its metrics in the default registry.
+     *
+     * @param maxQueueWait the longest a job may wait in the queue before it's considered overdue
+     */
+    public BoundedQueuedThreadPool(Optional<Duration> maxQueueWait) {
+        this(null, maxQueueWait);
+    }
+
+    /**
+     * Creates a new pool which records its metrics in the default registry.
+     *
+     * @param scope        the scope of the pool's metrics, or {@code null} for the server's pool
+     * @param maxQueueWait the longest a job may wait in the queue before it's considered overdue
+     */
+    public BoundedQueuedThreadPool(@Nullable String scope, Optional<Duration> maxQueueWait) {
+        this(Metrics.defaultRegistry(), Clock.defaultClock(), scope, maxQueueWait);
+    }
+
+    /**
+     * Creates a new pool.
+     *
+     * @param registry     the registry for the pool's metrics
+     * @param clock        the clock used to measure queue wait times
+     * @param scope        the scope of the pool's metrics, or {@code null} for the server's pool
+     * @param maxQueueWait the longest a job may wait in the queue before it's considered overdue
+     */
+    public BoundedQueuedThreadPool(MetricsRegistry registry,
+                                   Clock clock,
+                                   @Nullable String scope,
+                                   Optional<Duration> maxQueueWait) {
+        super();
+        this.clock = clock;
+        this.maxQueueWait = maxQueueWait.isPresent() ? maxQueueWait.get().toNanoseconds() : -1;
+        this.queueWait = registry.newTimer(QueuedThreadPool.class, "queue-wait", scope,
+                                           TimeUnit.MILLISECONDS, TimeUnit.SECONDS);
+        this.rejected = registry.newMeter(QueuedThreadPool.class, "rejected-jobs", scope,
+                                          "jobs", TimeUnit.SECONDS);
+        registry.newGauge(QueuedThreadPool.class, "percent-idle", scope, new RatioGauge() {
+            @Override
+            protected double getNumerator() {
+                return getIdleThreads();
+            }
+
+            @Override
+            protected double getDenominator() {
+                return getThreads();
+            }
+        });
+        registry.newGauge(QueuedThreadPool.class, "active-threads", scope, new Gauge<Integer>() {
+            @Override
+            public Integer value() {
+                return getThreads();
+            }
+        });
+        registry.newGauge(QueuedThreadPool.class, "idle-threads", scope, new Gauge<Integer>() {
+            @Override
+            public Integer value() {
+                return getIdleThreads();
+            }
+        });
+        registry.newGauge(QueuedThreadPool.class, "queue-size", scope, new Gauge<Integer>() {
+            @Override
+            public Integer value() {
+                return getQueueSize();
+            }
+        });
+    }
+
+    /**
+     * Returns the number of jobs waiting for a thread.
+     *
+     * @return the number of queued jobs
+     */
+    public int getQueueSize() {
+        final BlockingQueue<Runnable> queue = getQueue();
+        return (queue == null) ? 0 : queue.size();
+    }
+
+    @Override
+    public boolean dispatch(Runnable job) {
+        if (super.dispatch(new QueuedJob(job, clock.tick()))) {
+            return true;
+        }
+        rejected.mark();
+        return false;
+    }
+
+    @Override
+    protected void runJob(Runnable job) {
+        if (job instanceof QueuedJob) {
+            final long waited = clock.tick() - ((QueuedJob) job).queuedAt;
+            queueWait.update(waited, TimeUnit.NANOSECONDS);
+            OVERDUE.set((maxQueueWait >= 0) && (waited > maxQueueWait));
+            try {
+                super.runJob(job);
+            } finally {
+                OVERDUE.set(Boolean.FALSE);
+            }
+        } else {
+            super.runJob(job);
+        }
+    }
+}
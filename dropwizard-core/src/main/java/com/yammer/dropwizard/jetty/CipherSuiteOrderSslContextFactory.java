@@ -0,0 +1,91 @@
+package com.yammer.dropwizard.jetty;
+
+import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLServerSocket;
+import java.io.IOException;
+import java.lang.reflect.Method;
+
+/**
+ * A {@link SslContextFactory} which can make the server, rather than the client, choose the
+ * cipher suite of a connection according to the order of the included cipher suites.
+ * <p/>
+ * This relies on {@code SSLParameters#setUseCipherSuitesOrder(boolean)}, which is only available
+ * on Java 8 and later; on older JVMs the client's preference is used and a warning is logged.
+ */
+public class CipherSuiteOrderSslContextFactory extends SslContextFactory {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CipherSuiteOrderSslContextFactory.class);
+    private static final Method SET_USE_CIPHER_SUITES_ORDER = findMethod(SSLParameters.class,
+                                                                         "setUseCipherSuitesOrder",
+                                                                         boolean.class);
+    private static final Method GET_SSL_PARAMETERS = findMethod(SSLServerSocket.class,
+                                                                "getSSLParameters");
+    private static final Method SET_SSL_PARAMETERS = findMethod(SSLServerSocket.class,
+                                                                "setSSLParameters",
+                                                                SSLParameters.class);
+
+    private static Method findMethod(Class<?> klass, String name, Class<?>... parameterTypes) {
+        try {
+            return klass.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private boolean honorCipherSuiteOrder = false;
+
+    public boolean isHonorCipherSuiteOrder() {
+        return honorCipherSuiteOrder;
+    }
+
+    public void setHonorCipherSuiteOrder(boolean honorCipherSuiteOrder) {
+        checkNotStarted();
+        this.honorCipherSuiteOrder = honorCipherSuiteOrder;
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        super.doStart();
+        if (honorCipherSuiteOrder && SET_USE_CIPHER_SUITES_ORDER == null) {
+            LOGGER.warn("This JVM does not support server cipher suite ordering; " +
+                                "the client's cipher suite preferences will be used instead");
+        }
+    }
+
+    @Override
+    public void customize(SSLEngine sslEngine) {
+        super.customize(sslEngine);
+        if (honorCipherSuiteOrder && SET_USE_CIPHER_SUITES_ORDER != null) {
+            final SSLParameters parameters = sslEngine.getSSLParameters();
+            useCipherSuitesOrder(parameters);
+            sslEngine.setSSLParameters(parameters);
+        }
+    }
+
+    @Override
+    public SSLServerSocket newSslServerSocket(String host, int port, int backlog) throws IOException {
+        final SSLServerSocket socket = super.newSslServerSocket(host, port, backlog);
+        if (honorCipherSuiteOrder && SET_USE_CIPHER_SUITES_ORDER != null) {
+            try {
+                final SSLParameters parameters = (SSLParameters) GET_SSL_PARAMETERS.invoke(socket);
+                useCipherSuitesOrder(parameters);
+                SET_SSL_PARAMETERS.invoke(socket, parameters);
+            } catch (Exception e) {
+                throw new IllegalStateException("Unable to set the cipher suite order", e);
+            }
+        }
+        return socket;
+    }
+
+    private static void useCipherSuitesOrder(SSLParameters parameters) {
+        try {
+            SET_USE_CIPHER_SUITES_ORDER.invoke(parameters, true);
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to set the cipher suite order", e);
+        }
+    }
+}
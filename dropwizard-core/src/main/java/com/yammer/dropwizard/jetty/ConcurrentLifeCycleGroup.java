@@ -0,0 +1,105 @@
+package com.yammer.dropwizard.jetty;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.component.LifeCycle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.*;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A group of independent {@link LifeCycle}s which are started concurrently, and stopped one by
+ * one in the reverse order they were added. If any of them fails to start, the ones which did
+ * start are stopped again and the failure is rethrown.
+ */
+public class ConcurrentLifeCycleGroup extends AbstractLifeCycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrentLifeCycleGroup.class);
+
+    private final int threads;
+    private final List<LifeCycle> members = new CopyOnWriteArrayList<LifeCycle>();
+
+    /**
+     * Creates a new group.
+     *
+     * @param threads the maximum number of members to start at once
+     */
+    public ConcurrentLifeCycleGroup(int threads) {
+        checkArgument(threads > 0, "threads must be positive");
+        this.threads = threads;
+    }
+
+    public void add(LifeCycle member) {
+        members.add(member);
+    }
+
+    public ImmutableList<LifeCycle> getMembers() {
+        return ImmutableList.copyOf(members);
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        if (members.isEmpty()) {
+            return;
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(threads, members.size()),
+                new ThreadFactoryBuilder().setNameFormat("dw-startup-%d").setDaemon(true).build()
+        );
+        try {
+            final List<Future<?>> futures = Lists.newArrayList();
+            for (final LifeCycle member : members) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        member.start();
+                        return null;
+                    }
+                }));
+            }
+
+            Exception failure = null;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = (e.getCause() instanceof Exception) ?
+                                (Exception) e.getCause() : e;
+                    }
+                }
+            }
+
+            if (failure != null) {
+                doStop();
+                throw failure;
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        for (LifeCycle member : getMembers().reverse()) {
+            if (member.isStarted()) {
+                try {
+                    member.stop();
+                } catch (Exception e) {
+                    LOGGER.warn("Unable to stop {}", member, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrentLifeCycleGroup" + members;
+    }
+}
@@ -0,0 +1,36 @@
+package com.yammer.dropwizard.jetty;
+
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.server.handler.RequestLogHandler;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * A {@link RequestLogHandler} which logs each request once, when its last dispatch completes.
+ * <p/>
+ * Jetty's handler only logs initial dispatches, including those which leave the request
+ * suspended; an {@link AsyncRequestLog} skips those, and this handler logs the request instead
+ * once it's been resumed or has expired and its final dispatch completes.
+ */
+public class ContinuationAwareRequestLogHandler extends RequestLogHandler {
+    @Override
+    public void handle(String target,
+                       Request baseRequest,
+                       HttpServletRequest request,
+                       HttpServletResponse response) throws IOException, ServletException {
+        try {
+            super.handle(target, baseRequest, request, response);
+        } finally {
+            if ((getRequestLog() != null) &&
+                    DispatcherType.ASYNC.equals(baseRequest.getDispatcherType()) &&
+                    !baseRequest.getAsyncContinuation().isSuspended()) {
+                getRequestLog().log(baseRequest, (Response) response);
+            }
+        }
+    }
+}
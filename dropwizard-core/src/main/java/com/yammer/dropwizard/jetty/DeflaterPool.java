@@ -0,0 +1,82 @@
+package com.yammer.dropwizard.jetty;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * A bounded pool of {@link Deflater}s, which saves allocating (and finalizing) a native zlib
+ * stream for every compressed response. When the pool is empty a new deflater is created; when
+ * it's full, released deflaters are ended instead of being kept.
+ */
+public class DeflaterPool {
+    private final int level;
+    private final boolean nowrap;
+    private final BlockingQueue<Deflater> pool;
+
+    /**
+     * Creates a new pool.
+     *
+     * @param level    the compression level of the deflaters, from {@code 0} to {@code 9}, or
+     *                 {@link Deflater#DEFAULT_COMPRESSION}
+     * @param nowrap   if true, the deflaters write raw {@code deflate} data, without a zlib header
+     *                 and trailer (as {@code gzip} needs)
+     * @param capacity the maximum number of idle deflaters to keep
+     */
+    public DeflaterPool(int level, boolean nowrap, int capacity) {
+        this.level = level;
+        this.nowrap = nowrap;
+        this.pool = new ArrayBlockingQueue<Deflater>(capacity);
+    }
+
+    /**
+     * Returns an idle deflater, or a new one if there are none.
+     *
+     * @return a deflater
+     */
+    public Deflater acquire() {
+        final Deflater deflater = pool.poll();
+        if (deflater != null) {
+            return deflater;
+        }
+        return new Deflater(level, nowrap);
+    }
+
+    /**
+     * Returns an idle deflater, or a new one if there are none, set to the given compression
+     * level.
+     *
+     * @param level the compression level, from {@code 0} to {@code 9}, or
+     *              {@link Deflater#DEFAULT_COMPRESSION}
+     * @return a deflater
+     */
+    public Deflater acquire(int level) {
+        final Deflater deflater = acquire();
+        if (level != this.level) {
+            deflater.setLevel(level);
+        }
+        return deflater;
+    }
+
+    /**
+     * Returns a deflater to the pool, or ends it if the pool is full.
+     *
+     * @param deflater a deflater acquired from this pool
+     */
+    public void release(Deflater deflater) {
+        deflater.reset();
+        deflater.setLevel(level);
+        if (!pool.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Returns the number of idle deflaters in the pool.
+     *
+     * @return the number of idle deflaters
+     */
+    public int size() {
+        return pool.size();
+    }
+}
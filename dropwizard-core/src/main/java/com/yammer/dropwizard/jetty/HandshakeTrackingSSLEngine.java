@@ -0,0 +1,214 @@
+package com.yammer.dropwizard.jetty;
+
+import com.google.common.base.Throwables;
+
+import javax.net.ssl.*;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+
+/**
+ * An {@link SSLEngine} which delegates to another engine and reports the completion of each
+ * handshake to a {@link SslHandshakeMetrics.Handshake}. Unlike {@link SSLSocket},
+ * {@link SSLEngine} has no handshake listeners, so the only reliable signal is the
+ * {@link SSLEngineResult.HandshakeStatus#FINISHED} status of a wrap or unwrap.
+ * <p/>
+ * A handshake is timed from the first unwrap of a handshake record, so the time a connection
+ * spends idle before the client's hello isn't counted.
+ */
+class HandshakeTrackingSSLEngine extends SSLEngine {
+    private static final byte HANDSHAKE_CONTENT_TYPE = 22;
+
+    private final SSLEngine engine;
+    private final SslHandshakeMetrics metrics;
+    private SslHandshakeMetrics.Handshake handshake;
+
+    HandshakeTrackingSSLEngine(SSLEngine engine, SslHandshakeMetrics metrics) {
+        super(engine.getPeerHost(), engine.getPeerPort());
+        this.engine = engine;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public SSLEngineResult wrap(ByteBuffer[] srcs, int offset, int length, ByteBuffer dst) throws SSLException {
+        return track(engine.wrap(srcs, offset, length, dst));
+    }
+
+    @Override
+    public SSLEngineResult unwrap(ByteBuffer src, ByteBuffer[] dsts, int offset, int length) throws SSLException {
+        if ((handshake == null) && isHandshakeRecord(src)) {
+            // the client's hello, or a renegotiation
+            handshake = metrics.start();
+        }
+        return track(engine.unwrap(src, dsts, offset, length));
+    }
+
+    private static boolean isHandshakeRecord(ByteBuffer src) {
+        if (!src.hasRemaining()) {
+            return false;
+        }
+        final byte first = src.get(src.position());
+        // an SSLv2-compatible client hello has no content type, but has the high bit set instead
+        return (first == HANDSHAKE_CONTENT_TYPE) || ((first & 0x80) != 0);
+    }
+
+    private SSLEngineResult track(SSLEngineResult result) {
+        if ((result.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.FINISHED) &&
+                (handshake != null)) {
+            handshake.completed(engine.getSession());
+            handshake = null;
+        }
+        return result;
+    }
+
+    @Override
+    public Runnable getDelegatedTask() {
+        return engine.getDelegatedTask();
+    }
+
+    @Override
+    public void closeInbound() throws SSLException {
+        engine.closeInbound();
+    }
+
+    @Override
+    public boolean isInboundDone() {
+        return engine.isInboundDone();
+    }
+
+    @Override
+    public void closeOutbound() {
+        engine.closeOutbound();
+    }
+
+    @Override
+    public boolean isOutboundDone() {
+        return engine.isOutboundDone();
+    }
+
+    @Override
+    public String[] getSupportedCipherSuites() {
+        return engine.getSupportedCipherSuites();
+    }
+
+    @Override
+    public String[] getEnabledCipherSuites() {
+        return engine.getEnabledCipherSuites();
+    }
+
+    @Override
+    public void setEnabledCipherSuites(String[] suites) {
+        engine.setEnabledCipherSuites(suites);
+    }
+
+    @Override
+    public String[] getSupportedProtocols() {
+        return engine.getSupportedProtocols();
+    }
+
+    @Override
+    public String[] getEnabledProtocols() {
+        return engine.getEnabledProtocols();
+    }
+
+    @Override
+    public void setEnabledProtocols(String[] protocols) {
+        engine.setEnabledProtocols(protocols);
+    }
+
+    @Override
+    public SSLSession getSession() {
+        return engine.getSession();
+    }
+
+    // not annotated with @Override, since SSLEngine only has this since Java 7
+    public SSLSession getHandshakeSession() {
+        return engine.getHandshakeSession();
+    }
+
+    // not annotated with @Override, since SSLEngine only has this since Java 9
+    public String getApplicationProtocol() {
+        return delegateProtocol("getApplicationProtocol");
+    }
+
+    // not annotated with @Override, since SSLEngine only has this since Java 9
+    public String getHandshakeApplicationProtocol() {
+        return delegateProtocol("getHandshakeApplicationProtocol");
+    }
+
+    private String delegateProtocol(String methodName) {
+        try {
+            return (String) SSLEngine.class.getMethod(methodName).invoke(engine);
+        } catch (NoSuchMethodException e) {
+            throw new UnsupportedOperationException(methodName);
+        } catch (InvocationTargetException e) {
+            throw Throwables.propagate(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void beginHandshake() throws SSLException {
+        engine.beginHandshake();
+    }
+
+    @Override
+    public SSLEngineResult.HandshakeStatus getHandshakeStatus() {
+        return engine.getHandshakeStatus();
+    }
+
+    @Override
+    public void setUseClientMode(boolean mode) {
+        engine.setUseClientMode(mode);
+    }
+
+    @Override
+    public boolean getUseClientMode() {
+        return engine.getUseClientMode();
+    }
+
+    @Override
+    public void setNeedClientAuth(boolean need) {
+        engine.setNeedClientAuth(need);
+    }
+
+    @Override
+    public boolean getNeedClientAuth() {
+        return engine.getNeedClientAuth();
+    }
+
+    @Override
+    public void setWantClientAuth(boolean want) {
+        engine.setWantClientAuth(want);
+    }
+
+    @Override
+    public boolean getWantClientAuth() {
+        return engine.getWantClientAuth();
+    }
+
+    @Override
+    public void setEnableSessionCreation(boolean flag) {
+        engine.setEnableSessionCreation(flag);
+    }
+
+    @Override
+    public boolean getEnableSessionCreation() {
+        return engine.getEnableSessionCreation();
+    }
+
+    @Override
+    public SSLParameters getSSLParameters() {
+        return engine.getSSLParameters();
+    }
+
+    @Override
+    public void setSSLParameters(SSLParameters params) {
+        engine.setSSLParameters(params);
+    }
+
+    @Override
+    public String toString() {
+        return engine.toString();
+    }
+}
@@ -0,0 +1,69 @@
+package com.yammer.dropwizard.jetty;
+
+import com.yammer.metrics.core.Counter;
+import org.eclipse.jetty.continuation.Continuation;
+import org.eclipse.jetty.continuation.ContinuationListener;
+import org.eclipse.jetty.server.AsyncContinuation;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.HandlerWrapper;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * A Jetty {@link Handler} which counts the requests in flight. Unlike the {@code active-requests}
+ * counter of an {@link com.yammer.metrics.jetty.InstrumentedHandler}, a suspended request is
+ * counted once, from its initial dispatch until its continuation completes, however it was
+ * resumed.
+ */
+public class InFlightRequestHandler extends HandlerWrapper {
+    private final Counter inFlight;
+    private final ContinuationListener listener = new ContinuationListener() {
+        @Override
+        public void onComplete(Continuation continuation) {
+            inFlight.dec();
+        }
+
+        @Override
+        public void onTimeout(Continuation continuation) {
+            // the request is redispatched, and counted until it completes
+        }
+    };
+
+    /**
+     * Creates a new InFlightRequestHandler which forwards requests to the given handler.
+     *
+     * @param underlying the underlying handler
+     * @param inFlight   the counter of requests in flight
+     */
+    public InFlightRequestHandler(Handler underlying, Counter inFlight) {
+        this.inFlight = inFlight;
+        setHandler(underlying);
+    }
+
+    @Override
+    public void handle(String target,
+                       Request baseRequest,
+                       HttpServletRequest request,
+                       HttpServletResponse response) throws IOException, ServletException {
+        final AsyncContinuation continuation = baseRequest.getAsyncContinuation();
+        final boolean initial = continuation.isInitial();
+        if (initial) {
+            inFlight.inc();
+        }
+        try {
+            super.handle(target, baseRequest, request, response);
+        } finally {
+            if (initial) {
+                if (continuation.isSuspended()) {
+                    continuation.addContinuationListener(listener);
+                } else {
+                    inFlight.dec();
+                }
+            }
+        }
+    }
+}
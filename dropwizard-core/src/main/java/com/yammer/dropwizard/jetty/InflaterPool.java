@@ -0,0 +1,61 @@
+package com.yammer.dropwizard.jetty;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Inflater;
+
+/**
+ * A bounded pool of {@link Inflater}s, which saves allocating (and finalizing) a native zlib
+ * stream for every compressed request. When the pool is empty a new inflater is created; when
+ * it's full, released inflaters are ended instead of being kept.
+ */
+public class InflaterPool {
+    private final boolean nowrap;
+    private final BlockingQueue<Inflater> pool;
+
+    /**
+     * Creates a new pool.
+     *
+     * @param nowrap   if true, the inflaters read raw {@code deflate} data, without a zlib header
+     *                 and trailer (as {@code gzip} needs)
+     * @param capacity the maximum number of idle inflaters to keep
+     */
+    public InflaterPool(boolean nowrap, int capacity) {
+        this.nowrap = nowrap;
+        this.pool = new ArrayBlockingQueue<Inflater>(capacity);
+    }
+
+    /**
+     * Returns an idle inflater, or a new one if there are none.
+     *
+     * @return an inflater
+     */
+    public Inflater acquire() {
+        final Inflater inflater = pool.poll();
+        if (inflater != null) {
+            return inflater;
+        }
+        return new Inflater(nowrap);
+    }
+
+    /**
+     * Returns an inflater to the pool, or ends it if the pool is full.
+     *
+     * @param inflater an inflater acquired from this pool
+     */
+    public void release(Inflater inflater) {
+        inflater.reset();
+        if (!pool.offer(inflater)) {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Returns the number of idle inflaters in the pool.
+     *
+     * @return the number of idle inflaters
+     */
+    public int size() {
+        return pool.size();
+    }
+}
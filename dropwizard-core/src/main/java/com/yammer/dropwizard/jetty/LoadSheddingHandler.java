@@ -0,0 +1,52 @@
+package com.yammer.dropwizard.jetty;
+
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Meter;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.HandlerWrapper;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A Jetty {@link Handler} which immediately responds with a fixed status code to requests which
+ * spent too long in the queue of a {@link BoundedQueuedThreadPool}.
+ */
+public class LoadSheddingHandler extends HandlerWrapper {
+    private final int statusCode;
+    private final Meter shed;
+
+    /**
+     * Creates a new LoadSheddingHandler which forwards timely requests to the given handler.
+     *
+     * @param underlying the underlying handler
+     * @param statusCode the status code of shed responses
+     */
+    public LoadSheddingHandler(Handler underlying, int statusCode) {
+        this.statusCode = statusCode;
+        this.shed = Metrics.defaultRegistry().newMeter(QueuedThreadPool.class,
+                                                       "shed-requests",
+                                                       "requests",
+                                                       TimeUnit.SECONDS);
+        setHandler(underlying);
+    }
+
+    @Override
+    public void handle(String target,
+                       Request baseRequest,
+                       HttpServletRequest request,
+                       HttpServletResponse response) throws IOException, ServletException {
+        if (BoundedQueuedThreadPool.clearOverdue()) {
+            shed.mark();
+            baseRequest.setHandled(true);
+            response.sendError(statusCode);
+        } else {
+            super.handle(target, baseRequest, request, response);
+        }
+    }
+}
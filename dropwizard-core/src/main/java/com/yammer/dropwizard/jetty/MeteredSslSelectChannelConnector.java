@@ -0,0 +1,27 @@
+package com.yammer.dropwizard.jetty;
+
+import com.yammer.metrics.jetty.InstrumentedSslSelectChannelConnector;
+import org.eclipse.jetty.server.nio.SelectChannelConnector;
+import org.eclipse.jetty.util.ssl.SslContextFactory;
+
+import javax.net.ssl.SSLEngine;
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+
+/**
+ * An {@link InstrumentedSslSelectChannelConnector} which also records the number of full and
+ * resumed handshakes, and how long they take.
+ */
+public class MeteredSslSelectChannelConnector extends InstrumentedSslSelectChannelConnector {
+    private final SslHandshakeMetrics handshakes;
+
+    public MeteredSslSelectChannelConnector(SslContextFactory factory, int port) {
+        super(factory, port);
+        this.handshakes = new SslHandshakeMetrics(SelectChannelConnector.class, port);
+    }
+
+    @Override
+    protected SSLEngine createSSLEngine(SocketChannel channel) throws IOException {
+        return new HandshakeTrackingSSLEngine(super.createSSLEngine(channel), handshakes);
+    }
+}
@@ -0,0 +1,39 @@
+package com.yammer.dropwizard.jetty;
+
+import com.yammer.metrics.jetty.InstrumentedSslSocketConnector;
+import org.eclipse.jetty.server.bio.SocketConnector;
+import org.eclipse.jetty.util.ssl.SslContextFactory;
+
+import javax.net.ssl.HandshakeCompletedEvent;
+import javax.net.ssl.HandshakeCompletedListener;
+import javax.net.ssl.SSLSocket;
+import java.io.IOException;
+import java.net.Socket;
+
+/**
+ * An {@link InstrumentedSslSocketConnector} which also records the number of full and resumed
+ * handshakes, and how long they take.
+ */
+public class MeteredSslSocketConnector extends InstrumentedSslSocketConnector {
+    private final SslHandshakeMetrics handshakes;
+
+    public MeteredSslSocketConnector(SslContextFactory factory, int port) {
+        super(factory, port);
+        this.handshakes = new SslHandshakeMetrics(SocketConnector.class, port);
+    }
+
+    @Override
+    protected void configure(Socket socket) throws IOException {
+        super.configure(socket);
+        if (socket instanceof SSLSocket) {
+            final SslHandshakeMetrics.Handshake handshake = handshakes.start();
+            ((SSLSocket) socket).addHandshakeCompletedListener(new HandshakeCompletedListener() {
+                @Override
+                public void handshakeCompleted(HandshakeCompletedEvent event) {
+                    handshake.completed(event.getSession());
+                    ((SSLSocket) event.getSocket()).removeHandshakeCompletedListener(this);
+                }
+            });
+        }
+    }
+}
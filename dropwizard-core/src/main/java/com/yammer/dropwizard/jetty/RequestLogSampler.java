@@ -0,0 +1,84 @@
+package com.yammer.dropwizard.jetty;
+
+import com.google.common.collect.Ordering;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Decides which requests are written to the request log. Only a fraction of successful requests
+ * are logged, while client and server errors, and requests which took longer than a threshold,
+ * are always logged. The fraction can be overridden for paths starting with a given prefix, in
+ * which case the longest matching prefix wins.
+ */
+public class RequestLogSampler {
+    private static final Ordering<Map.Entry<String, Double>> LONGEST_PREFIX_FIRST =
+            new Ordering<Map.Entry<String, Double>>() {
+                @Override
+                public int compare(Map.Entry<String, Double> a, Map.Entry<String, Double> b) {
+                    return b.getKey().length() - a.getKey().length();
+                }
+            };
+
+    private final double successRate;
+    private final long slowRequestThreshold;
+    private final List<Map.Entry<String, Double>> pathRates;
+    private final ThreadLocal<Random> random = new ThreadLocal<Random>() {
+        @Override
+        protected Random initialValue() {
+            return new Random();
+        }
+    };
+
+    /**
+     * Creates a new sampler.
+     *
+     * @param successRate          the fraction, from {@code 0} to {@code 1}, of successful requests
+     *                             which are logged
+     * @param slowRequestThreshold the number of milliseconds after which requests are always
+     *                             logged, or {@code 0} if they're sampled regardless of latency
+     * @param pathRates            the fractions of successful requests logged for paths starting
+     *                             with the given prefixes
+     */
+    public RequestLogSampler(double successRate, long slowRequestThreshold, Map<String, Double> pathRates) {
+        this.successRate = successRate;
+        this.slowRequestThreshold = slowRequestThreshold;
+        this.pathRates = LONGEST_PREFIX_FIRST.immutableSortedCopy(pathRates.entrySet());
+    }
+
+    /**
+     * Returns whether the given request should be logged.
+     *
+     * @param request  a request
+     * @param response the request's response
+     * @param now      the current time, in milliseconds since the epoch
+     * @return {@code true} if the request should be logged
+     */
+    public boolean isLogged(Request request, Response response, long now) {
+        final int status = response.getStatus();
+        if ((status <= 0) || (status >= 400)) {
+            return true;
+        }
+
+        if ((slowRequestThreshold > 0) && ((now - request.getTimeStamp()) >= slowRequestThreshold)) {
+            return true;
+        }
+
+        final double rate = rate(request.getRequestURI());
+        return (rate >= 1) || ((rate > 0) && (random.get().nextDouble() < rate));
+    }
+
+    private double rate(String path) {
+        if (path != null) {
+            for (Map.Entry<String, Double> entry : pathRates) {
+                if (path.startsWith(entry.getKey())) {
+                    return entry.getValue();
+                }
+            }
+        }
+        return successRate;
+    }
+}
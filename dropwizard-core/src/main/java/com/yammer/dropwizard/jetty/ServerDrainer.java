@@ -0,0 +1,190 @@
+package com.yammer.dropwizard.jetty;
+
+import com.google.common.collect.ImmutableSet;
+import com.yammer.dropwizard.util.Duration;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Counter;
+import com.yammer.metrics.core.HealthCheck;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricsRegistry;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.ShutdownThread;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Drains a {@link Server} before it stops at JVM shutdown. The drainer registers itself to be
+ * stopped before the server and, when stopped, it:
+ * <ol>
+ *     <li>fails its health check, so load balancers take the server out of rotation;</li>
+ *     <li>waits for the drain delay, giving them time to notice;</li>
+ *     <li>closes all connectors except the ones it was told to keep open (e.g. the admin
+ *     connector, so the health check remains visible), so no new connections are accepted;</li>
+ *     <li>waits until there are no more requests in flight, or the drain timeout expires.</li>
+ * </ol>
+ * Only then does the server go on to stop its connectors, handlers, and managed objects. The
+ * number of requests in flight when draining started and the number which were cut off by the
+ * timeout are logged and metered.
+ * <p/>
+ * Draining has to happen while the server is still running, since Jetty stops handling requests
+ * as soon as the server starts stopping.
+ */
+public class ServerDrainer extends AbstractLifeCycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ServerDrainer.class);
+    private static final long POLL_INTERVAL = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final Server server;
+    private final Counter activeRequests;
+    private final ImmutableSet<String> openConnectors;
+    private final Duration delay;
+    private final Duration timeout;
+    private final Meter inFlight;
+    private final Meter cutOff;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final HealthCheck healthCheck = new HealthCheck("shutdown") {
+        @Override
+        protected Result check() throws Exception {
+            if (draining.get()) {
+                return Result.unhealthy("The server is shutting down");
+            }
+            return Result.healthy();
+        }
+    };
+
+    /**
+     * Creates a new drainer which records its metrics in the default registry.
+     *
+     * @param server         the server to drain
+     * @param activeRequests the number of requests in flight
+     * @param openConnectors the names of the connectors to keep open while draining
+     * @param delay          how long to wait between failing the health check and closing the
+     *                       connectors
+     * @param timeout        the longest to wait for in-flight requests to complete
+     */
+    public ServerDrainer(Server server,
+                         Counter activeRequests,
+                         ImmutableSet<String> openConnectors,
+                         Duration delay,
+                         Duration timeout) {
+        this(Metrics.defaultRegistry(), server, activeRequests, openConnectors, delay, timeout);
+    }
+
+    /**
+     * Creates a new drainer.
+     *
+     * @param registry       the registry for the drainer's metrics
+     * @param server         the server to drain
+     * @param activeRequests the number of requests in flight
+     * @param openConnectors the names of the connectors to keep open while draining
+     * @param delay          how long to wait between failing the health check and closing the
+     *                       connectors
+     * @param timeout        the longest to wait for in-flight requests to complete
+     */
+    public ServerDrainer(MetricsRegistry registry,
+                         Server server,
+                         Counter activeRequests,
+                         ImmutableSet<String> openConnectors,
+                         Duration delay,
+                         Duration timeout) {
+        this.server = server;
+        this.activeRequests = activeRequests;
+        this.openConnectors = openConnectors;
+        this.delay = delay;
+        this.timeout = timeout;
+        this.inFlight = registry.newMeter(Server.class, "shutdown-in-flight-requests",
+                                          "requests", TimeUnit.SECONDS);
+        this.cutOff = registry.newMeter(Server.class, "shutdown-cut-off-requests",
+                                        "requests", TimeUnit.SECONDS);
+    }
+
+    /**
+     * Returns the names of the connectors which are kept open while draining.
+     *
+     * @return the names of the connectors kept open
+     */
+    public ImmutableSet<String> getOpenConnectors() {
+        return openConnectors;
+    }
+
+    /**
+     * Returns a health check which fails once the server starts draining.
+     *
+     * @return the drainer's health check
+     */
+    public HealthCheck getHealthCheck() {
+        return healthCheck;
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        // stop before the server does
+        ShutdownThread.register(0, this);
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        ShutdownThread.deregister(this);
+        // don't drain a server which is already stopping, or never started
+        if (server.isRunning()) {
+            try {
+                drain();
+            } catch (InterruptedException e) {
+                LOGGER.warn("Interrupted while draining, stopping immediately");
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void drain() throws InterruptedException {
+        LOGGER.info("Draining the server");
+        draining.set(true);
+
+        final long delayNanos = delay.toNanoseconds();
+        if (delayNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(delayNanos);
+        }
+
+        closeConnectors();
+
+        final long inFlightRequests = activeRequests.count();
+        LOGGER.info("Waiting for {} in-flight requests to complete", inFlightRequests);
+        inFlight.mark(inFlightRequests);
+
+        final long deadline = System.nanoTime() + timeout.toNanoseconds();
+        long remaining = deadline - System.nanoTime();
+        while ((activeRequests.count() > 0) && (remaining > 0)) {
+            TimeUnit.NANOSECONDS.sleep(Math.min(remaining, POLL_INTERVAL));
+            remaining = deadline - System.nanoTime();
+        }
+
+        final long cutOffRequests = activeRequests.count();
+        if (cutOffRequests > 0) {
+            LOGGER.warn("Cutting off {} requests still in flight after {}", cutOffRequests, timeout);
+            cutOff.mark(cutOffRequests);
+        } else {
+            LOGGER.info("All in-flight requests completed");
+        }
+    }
+
+    private void closeConnectors() {
+        final Connector[] connectors = server.getConnectors();
+        if (connectors != null) {
+            for (Connector connector : connectors) {
+                if (!openConnectors.contains(connector.getName())) {
+                    LOGGER.info("Closing {}", connector);
+                    try {
+                        connector.close();
+                    } catch (IOException e) {
+                        LOGGER.warn("Unable to close {}", connector, e);
+                    }
+                }
+            }
+        }
+    }
+}
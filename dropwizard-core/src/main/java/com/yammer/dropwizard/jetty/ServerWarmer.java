@@ -0,0 +1,372 @@
+package com.yammer.dropwizard.jetty;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.net.HttpHeaders;
+import com.yammer.dropwizard.util.Duration;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricsRegistry;
+import com.yammer.metrics.core.Timer;
+import com.yammer.metrics.core.TimerContext;
+import org.eclipse.jetty.io.ByteArrayBuffer;
+import org.eclipse.jetty.io.EndPoint;
+import org.eclipse.jetty.server.AbstractHttpConnection;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.ServletRequest;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts a {@link Server} and warms up its JIT-compiled code paths by sending it synthetic requests
+ * before the connectors serving the service start accepting connections. The warmer:
+ * <ol>
+ *     <li>starts the server with only the connectors it was told to open early (e.g. the admin
+ *     connector, so metrics and health checks are available during the warm-up);</li>
+ *     <li>sends the requests in-process, through a {@link LocalConnector} named after each of the
+ *     remaining connectors, so they go through the same handlers, filters, and resources as real
+ *     requests do;</li>
+ *     <li>adds the remaining connectors back to the server and starts them.</li>
+ * </ol>
+ * Each iteration sends every request once through each of those connectors; warm-up stops after
+ * the given number of iterations or once the given duration has passed, whichever comes first.
+ * Requests which fail or get an error response are metered and logged, but don't stop the server
+ * from starting.
+ * <p/>
+ * Warm-up requests carry the {@link #WARMUP_ATTRIBUTE} attribute, so the request log, the response
+ * cache, the request metrics, and the rate and concurrency limits can leave them out.
+ */
+public class ServerWarmer {
+    /**
+     * The request attribute which marks warm-up requests.
+     */
+    public static final String WARMUP_ATTRIBUTE = ServerWarmer.class.getName() + ".warmUp";
+
+    /**
+     * Returns whether the given request is a warm-up request.
+     *
+     * @param request a request
+     * @return {@code true} if {@code request} was sent by a {@link ServerWarmer}
+     */
+    public static boolean isWarmUp(ServletRequest request) {
+        return (request != null) && (request.getAttribute(WARMUP_ATTRIBUTE) != null);
+    }
+
+    /**
+     * Returns whether the request the current thread is handling is a warm-up request.
+     *
+     * @return {@code true} if the current request was sent by a {@link ServerWarmer}
+     */
+    public static boolean isWarmUp() {
+        final AbstractHttpConnection connection = AbstractHttpConnection.getCurrentConnection();
+        return (connection != null) && isWarmUp(connection.getRequest());
+    }
+
+    /**
+     * A {@link LocalConnector} which marks its requests as warm-up requests.
+     */
+    private static class WarmUpConnector extends LocalConnector {
+        @Override
+        public void customize(EndPoint endpoint, org.eclipse.jetty.server.Request request) throws IOException {
+            super.customize(endpoint, request);
+            request.setAttribute(WARMUP_ATTRIBUTE, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * A synthetic request.
+     */
+    public static class Request {
+        private final String method;
+        private final String path;
+        private final byte[] bytes;
+
+        /**
+         * Creates a new request. If it has a body but no {@code Content-Type} header, the body is
+         * sent as {@code application/json}.
+         *
+         * @param method  the request method
+         * @param path    the request path, including any query string
+         * @param headers the request headers
+         * @param body    the request body, if any
+         */
+        public Request(String method,
+                       String path,
+                       Map<String, String> headers,
+                       Optional<String> body) {
+            this.method = method;
+            this.path = path;
+
+            final byte[] entity = body.isPresent() ? body.get().getBytes(Charsets.UTF_8) : new byte[0];
+            final StringBuilder head = new StringBuilder()
+                    .append(method).append(' ').append(path).append(" HTTP/1.1\r\n")
+                    .append(HttpHeaders.HOST).append(": localhost\r\n");
+            boolean hasContentType = false;
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                hasContentType |= HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(header.getKey());
+                head.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+            }
+            if (body.isPresent()) {
+                if (!hasContentType) {
+                    head.append(HttpHeaders.CONTENT_TYPE).append(": application/json\r\n");
+                }
+                head.append(HttpHeaders.CONTENT_LENGTH).append(": ").append(entity.length).append("\r\n");
+            }
+            head.append(HttpHeaders.CONNECTION).append(": close\r\n\r\n");
+
+            final byte[] prefix = head.toString().getBytes(Charsets.ISO_8859_1);
+            this.bytes = new byte[prefix.length + entity.length];
+            System.arraycopy(prefix, 0, bytes, 0, prefix.length);
+            System.arraycopy(entity, 0, bytes, prefix.length, entity.length);
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        @Override
+        public String toString() {
+            return method + ' ' + path;
+        }
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ServerWarmer.class);
+
+    private final Server server;
+    private final ImmutableSet<String> openConnectors;
+    private final ImmutableList<Request> requests;
+    private final int iterations;
+    private final Optional<Duration> duration;
+    private final Timer timer;
+    private final Meter failures;
+    private Optional<ImmutableSet<String>> warmedConnectors = Optional.absent();
+
+    /**
+     * Creates a new warmer which records its metrics in the default registry.
+     *
+     * @param server         the server to warm up
+     * @param openConnectors the names of the connectors to start before the warm-up
+     * @param requests       the requests to send in each iteration
+     * @param iterations     the maximum number of iterations
+     * @param duration       the maximum duration of the warm-up, if any
+     */
+    public ServerWarmer(Server server,
+                        ImmutableSet<String> openConnectors,
+                        ImmutableList<Request> requests,
+                        int iterations,
+                        Optional<Duration> duration) {
+        this(Metrics.defaultRegistry(), server, openConnectors, requests, iterations, duration);
+    }
+
+    /**
+     * Creates a new warmer.
+     *
+     * @param registry       the registry for the warmer's metrics
+     * @param server         the server to warm up
+     * @param openConnectors the names of the connectors to start before the warm-up
+     * @param requests       the requests to send in each iteration
+     * @param iterations     the maximum number of iterations
+     * @param duration       the maximum duration of the warm-up, if any
+     */
+    public ServerWarmer(MetricsRegistry registry,
+                        Server server,
+                        ImmutableSet<String> openConnectors,
+                        ImmutableList<Request> requests,
+                        int iterations,
+                        Optional<Duration> duration) {
+        this.server = server;
+        this.openConnectors = openConnectors;
+        this.requests = requests;
+        this.iterations = iterations;
+        this.duration = duration;
+        this.timer = registry.newTimer(Server.class, "warmup-requests",
+                                       TimeUnit.MILLISECONDS, TimeUnit.SECONDS);
+        this.failures = registry.newMeter(Server.class, "warmup-failures",
+                                          "requests", TimeUnit.SECONDS);
+    }
+
+    /**
+     * Returns the names of the connectors which are started before the warm-up.
+     *
+     * @return the names of the connectors open during the warm-up
+     */
+    public ImmutableSet<String> getOpenConnectors() {
+        return openConnectors;
+    }
+
+    /**
+     * Sets the names of the connectors the warm-up requests look like they arrived on. By default,
+     * those are the connectors which are held back until the warm-up is over, but a connector
+     * which also serves the admin servlets is started before the warm-up and still needs warming.
+     *
+     * @param names the names of the connectors to warm up
+     */
+    public void setWarmedConnectors(ImmutableSet<String> names) {
+        this.warmedConnectors = Optional.of(names);
+    }
+
+    /**
+     * Starts the server, warms it up, and then starts the remaining connectors.
+     *
+     * @throws Exception if the server or one of its connectors can't be started
+     */
+    public void start() throws Exception {
+        final List<Connector> open = Lists.newArrayList();
+        final List<Connector> held = Lists.newArrayList();
+        final Connector[] connectors = server.getConnectors();
+        if (connectors != null) {
+            for (Connector connector : connectors) {
+                if (openConnectors.contains(connector.getName())) {
+                    open.add(connector);
+                } else {
+                    held.add(connector);
+                }
+            }
+        }
+
+        server.setConnectors(open.toArray(new Connector[open.size()]));
+        server.start();
+
+        // make the requests look like they arrived on each of the warmed connectors, so they
+        // reach every handler which serves those connectors
+        final Set<String> names = Sets.newLinkedHashSet();
+        if (warmedConnectors.isPresent()) {
+            names.addAll(warmedConnectors.get());
+        } else {
+            for (Connector connector : held) {
+                names.add(connector.getName());
+            }
+        }
+
+        if (!names.isEmpty() && !requests.isEmpty()) {
+            final List<LocalConnector> local = Lists.newArrayList();
+            try {
+                for (String name : names) {
+                    final LocalConnector connector = new WarmUpConnector();
+                    connector.setServer(server);
+                    connector.setName(name);
+                    local.add(connector);
+                    connector.start();
+                }
+                warmUp(local);
+            } catch (InterruptedException e) {
+                LOGGER.warn("Interrupted while warming up, starting immediately");
+                Thread.currentThread().interrupt();
+            } finally {
+                for (LocalConnector connector : local) {
+                    connector.stop();
+                }
+            }
+        }
+
+        for (Connector connector : held) {
+            server.addConnector(connector);
+            connector.start();
+        }
+    }
+
+    private void warmUp(List<LocalConnector> connectors) throws InterruptedException {
+        LOGGER.info("Warming up {} with {} iterations of {}", names(connectors), iterations, requests);
+        final long limit = duration.isPresent() ? duration.get().toNanoseconds() : Long.MAX_VALUE;
+        final int progressStep = Math.max(1, iterations / 10);
+        final long start = System.nanoTime();
+
+        long first = 0;
+        long last = 0;
+        int iteration = 0;
+        int failed = 0;
+        while ((iteration < iterations) && ((System.nanoTime() - start) < limit)) {
+            final long iterationStart = System.nanoTime();
+            for (LocalConnector connector : connectors) {
+                for (Request request : requests) {
+                    if (!send(connector, request)) {
+                        failed++;
+                    }
+                }
+            }
+            last = System.nanoTime() - iterationStart;
+            if (iteration == 0) {
+                first = last;
+            }
+            iteration++;
+            if ((iteration % progressStep) == 0) {
+                LOGGER.info("Warm-up iteration {} of {} took {}ms",
+                            iteration, iterations, toMillis(last));
+            }
+        }
+
+        if (failed > 0) {
+            LOGGER.warn("{} warm-up requests failed or got an error response", failed);
+        }
+        LOGGER.info("Warmed up with {} iterations in {}ms; the first took {}ms, the last {}ms",
+                    iteration, toMillis(System.nanoTime() - start), toMillis(first), toMillis(last));
+    }
+
+    private boolean send(LocalConnector connector, Request request) throws InterruptedException {
+        final int status;
+        final TimerContext context = timer.time();
+        try {
+            status = parseStatus(connector.getResponses(new ByteArrayBuffer(request.bytes), false));
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.debug("Warm-up request {} failed", request, e);
+            failures.mark();
+            return false;
+        } finally {
+            context.stop();
+        }
+
+        if ((status < 200) || (status >= 400)) {
+            LOGGER.debug("Warm-up request {} got a {} response", request, status);
+            failures.mark();
+            return false;
+        }
+        return true;
+    }
+
+    private static int parseStatus(ByteArrayBuffer response) {
+        if (response != null) {
+            // HTTP/1.1 200 OK
+            final String text = response.toString(Charsets.ISO_8859_1.name());
+            final int start = text.indexOf(' ') + 1;
+            if ((start > 0) && (text.length() >= start + 3)) {
+                try {
+                    return Integer.parseInt(text.substring(start, start + 3));
+                } catch (NumberFormatException ignored) {
+                    // not a status line
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static List<String> names(List<LocalConnector> connectors) {
+        final List<String> names = Lists.newArrayList();
+        for (LocalConnector connector : connectors) {
+            names.add(connector.getName());
+        }
+        return names;
+    }
+
+    private static String toMillis(long nanos) {
+        return String.format("%.2f", nanos / 1.0e6);
+    }
+}
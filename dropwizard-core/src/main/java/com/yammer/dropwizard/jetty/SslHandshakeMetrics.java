@@ -0,0 +1,87 @@
+package com.yammer.dropwizard.jetty;
+
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Clock;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricsRegistry;
+import com.yammer.metrics.core.Timer;
+
+import javax.net.ssl.SSLSession;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the number of full and resumed SSL handshakes on a connector, and how long they take.
+ * A handshake is considered resumed if the session it negotiated was created before the handshake
+ * started, i.e. it was taken from the server's session cache.
+ */
+public class SslHandshakeMetrics {
+    /**
+     * A handshake in progress.
+     */
+    public class Handshake {
+        private final long startTick;
+        private final long startTime;
+
+        private Handshake(long startTick, long startTime) {
+            this.startTick = startTick;
+            this.startTime = startTime;
+        }
+
+        /**
+         * Records the completion of the handshake.
+         *
+         * @param session the session negotiated by the handshake
+         */
+        public void completed(SSLSession session) {
+            handshakes.update(clock.tick() - startTick, TimeUnit.NANOSECONDS);
+            if (session.getCreationTime() < startTime) {
+                resumed.mark();
+            } else {
+                full.mark();
+            }
+        }
+    }
+
+    private final Clock clock;
+    private final Timer handshakes;
+    private final Meter full;
+    private final Meter resumed;
+
+    /**
+     * Creates a new set of handshake metrics in the default registry.
+     *
+     * @param klass the class the metrics belong to
+     * @param port  the port of the connector
+     */
+    public SslHandshakeMetrics(Class<?> klass, int port) {
+        this(Metrics.defaultRegistry(), Clock.defaultClock(), klass, port);
+    }
+
+    /**
+     * Creates a new set of handshake metrics.
+     *
+     * @param registry the registry for the metrics
+     * @param clock    the clock used to time handshakes
+     * @param klass    the class the metrics belong to
+     * @param port     the port of the connector
+     */
+    public SslHandshakeMetrics(MetricsRegistry registry, Clock clock, Class<?> klass, int port) {
+        final String scope = Integer.toString(port);
+        this.clock = clock;
+        this.handshakes = registry.newTimer(klass, "handshakes", scope,
+                                            TimeUnit.MILLISECONDS, TimeUnit.SECONDS);
+        this.full = registry.newMeter(klass, "full-handshakes", scope,
+                                      "handshakes", TimeUnit.SECONDS);
+        this.resumed = registry.newMeter(klass, "resumed-handshakes", scope,
+                                         "handshakes", TimeUnit.SECONDS);
+    }
+
+    /**
+     * Marks the start of a new handshake.
+     *
+     * @return the handshake in progress
+     */
+    public Handshake start() {
+        return new Handshake(clock.tick(), clock.time());
+    }
+}
@@ -0,0 +1,43 @@
+package com.yammer.dropwizard.jetty;
+
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.HandlerWrapper;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * A Jetty {@link Handler} which sends {@link ServerWarmer warm-up requests} straight to an inner
+ * handler, bypassing the handlers wrapped around it (e.g. an
+ * {@link com.yammer.metrics.jetty.InstrumentedHandler}), so the warm-up doesn't show up in the
+ * service's request metrics. All other requests go through the wrapping handlers as usual.
+ */
+public class WarmUpBypassingHandler extends HandlerWrapper {
+    private final Handler bypassed;
+
+    /**
+     * Creates a new WarmUpBypassingHandler.
+     *
+     * @param wrapping the handler which wraps {@code bypassed}, and which handles normal requests
+     * @param bypassed the handler which handles warm-up requests
+     */
+    public WarmUpBypassingHandler(Handler wrapping, Handler bypassed) {
+        this.bypassed = bypassed;
+        setHandler(wrapping);
+    }
+
+    @Override
+    public void handle(String target,
+                       Request baseRequest,
+                       HttpServletRequest request,
+                       HttpServletResponse response) throws IOException, ServletException {
+        if (ServerWarmer.isWarmUp(baseRequest) && isStarted()) {
+            bypassed.handle(target, baseRequest, request, response);
+        } else {
+            super.handle(target, baseRequest, request, response);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.yammer.dropwizard.lifecycle;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.yammer.metrics.core.Clock;
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.component.LifeCycle;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long each phase of a service's startup (parsing its configuration, running each
+ * bundle, starting each managed object, etc.) takes, and how much memory it allocates.
+ * <p/>
+ * Allocation is measured on the thread which runs the phase, and is only available on JVMs which
+ * support {@code com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}.
+ */
+public class StartupProfiler {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final Method GET_THREAD_ALLOCATED_BYTES = findAllocatedBytesMethod();
+
+    private static Method findAllocatedBytesMethod() {
+        try {
+            // look the method up on the public interface, since the implementing class needn't be
+            // accessible
+            final Class<?> type = Class.forName("com.sun.management.ThreadMXBean");
+            if (!type.isInstance(THREADS)) {
+                return null;
+            }
+            final Method method = type.getMethod("getThreadAllocatedBytes", long.class);
+            method.invoke(THREADS, Thread.currentThread().getId());
+            return method;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static long allocatedBytes() {
+        if (GET_THREAD_ALLOCATED_BYTES == null) {
+            return -1;
+        }
+        try {
+            return (Long) GET_THREAD_ALLOCATED_BYTES.invoke(THREADS, Thread.currentThread().getId());
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    /**
+     * A phase of startup.
+     */
+    public class Phase {
+        private final String name;
+        private final String thread;
+        private final long startTime;
+        private final long startBytes;
+        private volatile long duration = -1;
+        private volatile long allocated = -1;
+
+        private Phase(String name) {
+            this.name = name;
+            this.thread = Thread.currentThread().getName();
+            this.startBytes = allocatedBytes();
+            this.startTime = clock.tick();
+        }
+
+        /**
+         * Ends the phase. Must be called on the thread which started it.
+         */
+        public void stop() {
+            if (duration < 0) {
+                this.duration = clock.tick() - startTime;
+                final long endBytes = allocatedBytes();
+                if (startBytes >= 0 && endBytes >= 0) {
+                    this.allocated = endBytes - startBytes;
+                }
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getThread() {
+            return thread;
+        }
+
+        /**
+         * Returns the wall time the phase took, or {@code -1} if it hasn't ended.
+         *
+         * @param unit the unit of the result
+         * @return the phase's duration
+         */
+        public long getDuration(TimeUnit unit) {
+            return (duration < 0) ? -1 : unit.convert(duration, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Returns the number of bytes allocated during the phase, or {@code -1} if unknown.
+         *
+         * @return the bytes allocated during the phase
+         */
+        public long getAllocatedBytes() {
+            return allocated;
+        }
+    }
+
+    private final Clock clock;
+    private final List<Phase> phases = Lists.newArrayList();
+    private volatile long uptime = -1;
+
+    public StartupProfiler() {
+        this(Clock.defaultClock());
+    }
+
+    public StartupProfiler(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Starts a new phase.
+     *
+     * @param name the name of the phase
+     * @return the phase, which must be stopped when it ends
+     */
+    public Phase start(String name) {
+        final Phase phase = new Phase(name);
+        synchronized (phases) {
+            phases.add(phase);
+        }
+        return phase;
+    }
+
+    /**
+     * Records that the service has started.
+     */
+    public void finish() {
+        this.uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+
+    /**
+     * Returns the number of milliseconds between the JVM starting and the service starting, or
+     * {@code -1} if the service hasn't started yet.
+     *
+     * @return the service's startup time
+     */
+    public long getUptimeAtStart() {
+        return uptime;
+    }
+
+    /**
+     * Returns a listener which records the starting of the {@link LifeCycle} it's added to as a
+     * phase.
+     *
+     * @param name the name of the phase
+     * @return a listener which records a phase
+     */
+    public LifeCycle.Listener newListener(final String name) {
+        return new AbstractLifeCycle.AbstractLifeCycleListener() {
+            private Phase phase;
+
+            @Override
+            public void lifeCycleStarting(LifeCycle event) {
+                this.phase = start(name);
+            }
+
+            @Override
+            public void lifeCycleStarted(LifeCycle event) {
+                if (phase != null) {
+                    phase.stop();
+                }
+            }
+
+            @Override
+            public void lifeCycleFailure(LifeCycle event, Throwable cause) {
+                lifeCycleStarted(event);
+            }
+        };
+    }
+
+    /**
+     * Returns the phases recorded so far, in the order they started.
+     *
+     * @return the recorded phases
+     */
+    public ImmutableList<Phase> getPhases() {
+        synchronized (phases) {
+            return ImmutableList.copyOf(phases);
+        }
+    }
+
+    /**
+     * Returns a table of the recorded phases.
+     *
+     * @return a human-readable report of the service's startup
+     */
+    public String getReport() {
+        final StringBuilder builder = new StringBuilder(1024);
+        builder.append(String.format("    %-50s %10s %12s  %s%n", "PHASE", "TIME (ms)", "ALLOC (KB)", "THREAD"));
+        for (Phase phase : getPhases()) {
+            final long duration = phase.getDuration(TimeUnit.MILLISECONDS);
+            final long allocated = phase.getAllocatedBytes();
+            builder.append(String.format("    %-50s %10s %12s  %s%n",
+                                         phase.getName(),
+                                         (duration < 0) ? "-" : Long.toString(duration),
+                                         (allocated < 0) ? "-" : Long.toString(allocated / 1024),
+                                         phase.getThread()));
+        }
+        if (uptime >= 0) {
+            builder.append(String.format("    %-50s %10d%n", "total since JVM start", uptime));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,84 @@
+package com.yammer.dropwizard.logging;
+
+import ch.qos.logback.core.spi.ContextAware;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileFilter;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Deletes the oldest archived log files whose names match an archived file name pattern.
+ */
+final class ArchivedLogFiles {
+    private static final Pattern TOKENS = Pattern.compile("%d(\\{[^}]+\\})?|%i");
+    private static final String INDEX_TOKEN = "%i";
+    private static final String COMPRESSED_SUFFIXES = "(\\.gz|\\.zip)?";
+
+    private ArchivedLogFiles() { /* singleton */ }
+
+    /**
+     * Deletes the oldest archived log files, so that at most {@code maxCount} of them are kept and,
+     * if {@code maxTotalSize} is positive, so that together they take up at most
+     * {@code maxTotalSize} bytes.
+     *
+     * @param filenamePattern the pattern of archived files' names, without a compression suffix
+     * @param activeFile      the file currently being written to, which is never deleted
+     * @param maxCount        the maximum number of archived files
+     * @param maxTotalSize    the maximum total size of archived files, or {@code 0}
+     * @param owner           the component errors are reported by
+     */
+    static void prune(String filenamePattern,
+                      @Nullable final File activeFile,
+                      int maxCount,
+                      long maxTotalSize,
+                      ContextAware owner) {
+        final File pattern = new File(filenamePattern).getAbsoluteFile();
+        final Pattern archivedName = namePattern(pattern.getName());
+        final File[] archives = pattern.getParentFile().listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                return archivedName.matcher(file.getName()).matches() &&
+                        !file.getAbsoluteFile().equals(activeFile == null ? null : activeFile.getAbsoluteFile());
+            }
+        });
+
+        if ((archives == null) || ((archives.length <= maxCount) && (maxTotalSize <= 0))) {
+            return;
+        }
+
+        Arrays.sort(archives, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return Long.valueOf(b.lastModified()).compareTo(a.lastModified());
+            }
+        });
+
+        long totalSize = 0;
+        for (int i = 0; i < archives.length; i++) {
+            totalSize += archives[i].length();
+            if ((i >= maxCount) || ((maxTotalSize > 0) && (totalSize > maxTotalSize))) {
+                if (!archives[i].delete()) {
+                    owner.addError("Unable to delete " + archives[i]);
+                }
+            }
+        }
+    }
+
+    private static Pattern namePattern(String filenamePattern) {
+        final StringBuilder regex = new StringBuilder();
+        final Matcher matcher = TOKENS.matcher(filenamePattern);
+        int start = 0;
+        while (matcher.find()) {
+            regex.append(Pattern.quote(filenamePattern.substring(start, matcher.start())));
+            regex.append(INDEX_TOKEN.equals(matcher.group()) ? "\\d+" : ".+?");
+            start = matcher.end();
+        }
+        regex.append(Pattern.quote(filenamePattern.substring(start)));
+        regex.append(COMPRESSED_SUFFIXES);
+        return Pattern.compile(regex.toString());
+    }
+}
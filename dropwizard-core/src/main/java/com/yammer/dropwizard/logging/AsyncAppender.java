@@ -1,21 +1,53 @@
 package com.yammer.dropwizard.logging;
 
+import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.Appender;
-import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Queues;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.yammer.dropwizard.util.Duration;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Gauge;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricsRegistry;
 
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
-public class AsyncAppender extends AppenderBase<ILoggingEvent> implements Runnable {
+/**
+ * An appender which hands events to a delegate appender on a background thread, so logging
+ * doesn't wait for slow appenders.
+ * <p/>
+ * Events are queued in a bounded queue. When it's full, events at or below the discarding
+ * threshold (e.g. {@code INFO}) are discarded, while more severe events wait for room in the
+ * queue. Only the events which wait do so, since appending doesn't hold a lock. The number of
+ * queued events is gauged and discarded events are metered in the {@code AsyncAppender} group,
+ * scoped by the appender's name. When the appender is stopped, queued events are handed to the
+ * delegate for at most the maximum flush time before the delegate is stopped.
+ */
+public class AsyncAppender extends UnsynchronizedAppenderBase<ILoggingEvent> implements Runnable {
     private static final int BATCH_SIZE = 1000;
+    private static final long POLL_INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
 
+    /**
+     * Wraps the given appender in a started {@link AsyncAppender} which queues up to 1024 events,
+     * discards {@code INFO} and less severe events while its queue is full, and records its
+     * metrics in the default registry.
+     *
+     * @param delegate the appender to hand events to
+     * @return a started asynchronous appender
+     * @deprecated use
+     *             {@link #AsyncAppender(MetricsRegistry, Appender, String, int, Level, Duration)}
+     */
+    @Deprecated
     public static Appender<ILoggingEvent> wrap(Appender<ILoggingEvent> delegate) {
-        final AsyncAppender appender = new AsyncAppender(delegate);
+        final String name = (delegate.getName() == null) ? "async" : delegate.getName();
+        final AsyncAppender appender = new AsyncAppender(Metrics.defaultRegistry(), delegate, name,
+                                                         1024, Level.INFO, Duration.seconds(1));
         appender.start();
         return appender;
     }
@@ -28,51 +60,150 @@ public class AsyncAppender extends AppenderBase<ILoggingEvent> implements Runnab
     private final Appender<ILoggingEvent> delegate;
     private final BlockingQueue<ILoggingEvent> queue;
     private final List<ILoggingEvent> batch;
-    private final Thread dispatcher;
+    private final Level discardingThreshold;
+    private final Duration maxFlushTime;
+    private final Meter discarded;
+    private Thread dispatcher;
     private volatile boolean running;
+    private volatile long flushDeadline;
 
-    private AsyncAppender(Appender<ILoggingEvent> delegate) {
+    /**
+     * Creates a new appender.
+     *
+     * @param registry            the registry of the appender's metrics
+     * @param delegate            the appender to hand events to
+     * @param name                the appender's name, which scopes its metrics
+     * @param queueSize           the maximum number of queued events
+     * @param discardingThreshold the most severe level of the events which are discarded while
+     *                            the queue is full
+     * @param maxFlushTime        the maximum amount of time spent handing queued events to the
+     *                            delegate when the appender is stopped
+     */
+    public AsyncAppender(MetricsRegistry registry,
+                         Appender<ILoggingEvent> delegate,
+                         String name,
+                         int queueSize,
+                         Level discardingThreshold,
+                         Duration maxFlushTime) {
         this.delegate = delegate;
-        this.queue = Queues.newLinkedBlockingQueue();
+        this.queue = new ArrayBlockingQueue<ILoggingEvent>(queueSize);
         this.batch = Lists.newArrayListWithCapacity(BATCH_SIZE);
-        this.dispatcher = THREAD_FACTORY.newThread(this);
+        this.discardingThreshold = discardingThreshold;
+        this.maxFlushTime = maxFlushTime;
         setContext(delegate.getContext());
+        setName(name);
+
+        // replace the metrics of an appender of the same name, e.g. when logging is reconfigured
+        registry.removeMetric(AsyncAppender.class, "queue-size", name);
+        registry.removeMetric(AsyncAppender.class, "discarded", name);
+        registry.newGauge(AsyncAppender.class, "queue-size", name, new Gauge<Integer>() {
+            @Override
+            public Integer value() {
+                return queue.size();
+            }
+        });
+        this.discarded = registry.newMeter(AsyncAppender.class, "discarded", name,
+                                           "events", TimeUnit.SECONDS);
     }
 
     @Override
     protected void append(ILoggingEvent eventObject) {
         eventObject.prepareForDeferredProcessing();
-        queue.add(eventObject);
+        if (queue.offer(eventObject)) {
+            return;
+        }
+
+        if (eventObject.getLevel().toInt() <= discardingThreshold.toInt()) {
+            discarded.mark();
+            return;
+        }
+
+        boolean interrupted = false;
+        try {
+            while (running) {
+                try {
+                    if (queue.offer(eventObject, POLL_INTERVAL, TimeUnit.NANOSECONDS)) {
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            discarded.mark();
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
     }
 
     @Override
     public void start() {
-        super.start();
+        if (isStarted()) {
+            return;
+        }
         this.running = true;
+        this.dispatcher = THREAD_FACTORY.newThread(this);
         dispatcher.start();
+        super.start();
     }
 
     @Override
     public void stop() {
-        this.running = false;
+        if (!isStarted()) {
+            return;
+        }
         super.stop();
+
+        this.flushDeadline = System.nanoTime() + maxFlushTime.toNanoseconds();
+        this.running = false;
+        try {
+            // the dispatcher may be waiting for an event when it's told to stop
+            dispatcher.join(TimeUnit.NANOSECONDS.toMillis(maxFlushTime.toNanoseconds() +
+                                                                  POLL_INTERVAL));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (!queue.isEmpty()) {
+            addWarn("Discarding " + queue.size() + " events which weren't flushed in " +
+                            maxFlushTime);
+            discarded.mark(queue.size());
+            queue.clear();
+        }
+
+        delegate.stop();
     }
 
     @Override
     public void run() {
         while (running) {
             try {
-                batch.add(queue.take());
-                queue.drainTo(batch, BATCH_SIZE - 1);
-
-                for (ILoggingEvent event : batch) {
-                    delegate.doAppend(event);
+                final ILoggingEvent event = queue.poll(POLL_INTERVAL, TimeUnit.NANOSECONDS);
+                if (event != null) {
+                    batch.add(event);
+                    queue.drainTo(batch, BATCH_SIZE - 1);
+                    appendBatch();
                 }
-
-                batch.clear();
             } catch (InterruptedException ignored) {
-                Thread.currentThread().interrupt();
+                // keep going until stopped
+            }
+        }
+
+        // flush what's left, for as long as we're allowed to
+        while (System.nanoTime() < flushDeadline) {
+            queue.drainTo(batch, BATCH_SIZE);
+            if (batch.isEmpty()) {
+                return;
             }
+            appendBatch();
+        }
+    }
+
+    private void appendBatch() {
+        for (ILoggingEvent event : batch) {
+            delegate.doAppend(event);
         }
+        batch.clear();
     }
 }
@@ -0,0 +1,125 @@
+package com.yammer.dropwizard.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.Layout;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonTypeName;
+import com.yammer.dropwizard.util.Duration;
+import com.yammer.metrics.Metrics;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * An output which writes to another output through an {@link AsyncAppender}, so that logging
+ * doesn't wait for it.
+ * <p/>
+ * The output's metrics are scoped by its name, which defaults to the type of the wrapped output,
+ * so each async output of a service needs a unique name.
+ */
+@JsonTypeName("async")
+public class AsyncLoggingOutput implements LoggingOutput {
+    @JsonProperty
+    private String name;
+
+    @Valid
+    @NotNull
+    @JsonProperty
+    private LoggingOutput output;
+
+    @Min(1)
+    @JsonProperty
+    private int queueSize = 1024;
+
+    @NotNull
+    @JsonProperty
+    private Level discardingThreshold = Level.INFO;
+
+    @NotNull
+    @JsonProperty
+    private Duration maxFlushTime = Duration.seconds(1);
+
+    /**
+     * Returns the output's name, which scopes its metrics. If no name is configured, the type of
+     * the wrapped output is used.
+     *
+     * @return the output's name
+     */
+    @JsonIgnore
+    public String getName() {
+        if (name == null) {
+            final JsonTypeName type = output.getClass().getAnnotation(JsonTypeName.class);
+            return (type == null) ? output.getClass().getSimpleName() : type.value();
+        }
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public LoggingOutput getOutput() {
+        return output;
+    }
+
+    public void setOutput(LoggingOutput output) {
+        this.output = output;
+    }
+
+    /**
+     * Returns the maximum number of events waiting to be written.
+     *
+     * @return the maximum number of queued events
+     */
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    /**
+     * Returns the most severe level of the events which are discarded while the queue is full.
+     * More severe events wait for room in the queue.
+     *
+     * @return the most severe level of discarded events
+     */
+    public Level getDiscardingThreshold() {
+        return discardingThreshold;
+    }
+
+    public void setDiscardingThreshold(Level discardingThreshold) {
+        this.discardingThreshold = discardingThreshold;
+    }
+
+    /**
+     * Returns the maximum amount of time spent writing queued events when the output is stopped.
+     *
+     * @return the maximum flush time
+     */
+    public Duration getMaxFlushTime() {
+        return maxFlushTime;
+    }
+
+    public void setMaxFlushTime(Duration maxFlushTime) {
+        this.maxFlushTime = maxFlushTime;
+    }
+
+    @Override
+    public Appender<ILoggingEvent> build(LoggerContext context, String serviceName, Layout<ILoggingEvent> layout) {
+        final AsyncAppender appender = new AsyncAppender(Metrics.defaultRegistry(),
+                                                         output.build(context, serviceName, layout),
+                                                         getName(),
+                                                         queueSize,
+                                                         discardingThreshold,
+                                                         maxFlushTime);
+        appender.start();
+        return appender;
+    }
+}
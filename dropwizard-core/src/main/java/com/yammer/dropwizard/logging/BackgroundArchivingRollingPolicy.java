@@ -0,0 +1,107 @@
+package com.yammer.dropwizard.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.rolling.RolloverFailure;
+import ch.qos.logback.core.rolling.TimeBasedRollingPolicy;
+import ch.qos.logback.core.rolling.helper.CompressionMode;
+import ch.qos.logback.core.rolling.helper.Compressor;
+import ch.qos.logback.core.rolling.helper.FileFilterUtil;
+import ch.qos.logback.core.rolling.helper.RenameUtil;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link TimeBasedRollingPolicy} which compresses archived log files and deletes old ones on a
+ * single background thread, so the thread whose statement triggers a rollover only has to rename
+ * the log file.
+ * <p/>
+ * Old archived files are deleted once there are more than a given number of them or, if there's
+ * a maximum total size, once together they take up more than that.
+ */
+public class BackgroundArchivingRollingPolicy extends TimeBasedRollingPolicy<ILoggingEvent> {
+    private static final ThreadFactory THREAD_FACTORY =
+            new ThreadFactoryBuilder().setNameFormat("log-file-archiver-%d")
+                                      .setDaemon(true)
+                                      .build();
+
+    private final int archivedFileCount;
+    private final long maxTotalSize;
+    private final RenameUtil renameUtil = new RenameUtil();
+    private Compressor compressor;
+    private ExecutorService archiver;
+
+    /**
+     * Creates a new rolling policy.
+     *
+     * @param archivedFileCount the maximum number of archived files
+     * @param maxTotalSize      the maximum total size of archived files, or {@code 0}
+     */
+    public BackgroundArchivingRollingPolicy(int archivedFileCount, long maxTotalSize) {
+        this.archivedFileCount = archivedFileCount;
+        this.maxTotalSize = maxTotalSize;
+    }
+
+    @Override
+    public void start() {
+        // old archived files are deleted by the archiver, not by the policy's own archive remover
+        setMaxHistory(0);
+        super.start();
+
+        renameUtil.setContext(context);
+        this.compressor = new Compressor(compressionMode);
+        compressor.setContext(context);
+        this.archiver = Executors.newSingleThreadExecutor(THREAD_FACTORY);
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+
+        if (archiver != null) {
+            archiver.shutdown();
+            try {
+                archiver.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void rollover() throws RolloverFailure {
+        final String archivedFilename = getTimeBasedFileNamingAndTriggeringPolicy().getElapsedPeriodsFileName();
+        final String activeFilename = getParentsRawFileProperty();
+        final CompressionMode mode = compressionMode;
+
+        final String source;
+        if ((activeFilename == null) || (mode == CompressionMode.NONE)) {
+            source = archivedFilename;
+        } else {
+            // move the file out of the way, and compress it once the new one's been opened
+            source = archivedFilename + System.nanoTime() + ".tmp";
+        }
+
+        if (activeFilename != null) {
+            renameUtil.rename(activeFilename, source);
+        }
+
+        archiver.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (mode != CompressionMode.NONE) {
+                    compressor.compress(source, archivedFilename, FileFilterUtil.afterLastSlash(archivedFilename));
+                }
+                ArchivedLogFiles.prune(Compressor.computeFileNameStr_WCS(getFileNamePattern(), mode),
+                                       (activeFilename == null) ? null : new File(activeFilename),
+                                       archivedFileCount,
+                                       maxTotalSize,
+                                       BackgroundArchivingRollingPolicy.this);
+            }
+        });
+    }
+}
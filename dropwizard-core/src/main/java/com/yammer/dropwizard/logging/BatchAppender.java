@@ -0,0 +1,20 @@
+package com.yammer.dropwizard.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+
+import java.util.List;
+
+/**
+ * An {@link Appender} which can write batches of already-formatted lines, such as request log
+ * entries, without wrapping each of them in a {@link ILoggingEvent} and running it through a
+ * layout.
+ */
+public interface BatchAppender extends Appender<ILoggingEvent> {
+    /**
+     * Writes the given lines, each followed by a line separator.
+     *
+     * @param lines the formatted lines, without line separators
+     */
+    void appendLines(List<? extends CharSequence> lines);
+}
@@ -0,0 +1,320 @@
+package com.yammer.dropwizard.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.Layout;
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.yammer.metrics.core.Clock;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An appender which encodes lines into a large direct buffer and writes it to a
+ * {@link FileChannel} in as few writes as possible, instead of writing every line on its own.
+ * <p/>
+ * If there's an archived file name pattern, the file is archived when the date in the pattern's
+ * {@code %d} (or {@code %d{yyyy-MM-dd-HH}}, etc.) token changes, and, if there's a maximum file
+ * size, when the file grows past it, in which case the pattern needs an {@code %i} token for the
+ * file's index within the period. Archived files whose names end in {@code .gz} are compressed on
+ * a background thread, and only the most recent archived files are kept.
+ */
+public class BatchedFileAppender extends AppenderBase<ILoggingEvent> implements BatchAppender {
+    private static final Pattern DATE_TOKEN = Pattern.compile("%d(\\{([^}]+)\\})?");
+    private static final String INDEX_TOKEN = "%i";
+    private static final String DEFAULT_DATE_PATTERN = "yyyy-MM-dd";
+    private static final String COMPRESSED_SUFFIX = ".gz";
+    private static final int COMPRESSION_BUFFER_SIZE = 64 * 1024;
+    private static final long PERIOD_CHECK_INTERVAL = TimeUnit.SECONDS.toMillis(1);
+    private static final ThreadFactory THREAD_FACTORY =
+            new ThreadFactoryBuilder().setNameFormat("log-file-compressor-%d")
+                                      .setDaemon(true)
+                                      .build();
+
+    private final Clock clock;
+    private final File file;
+    private final String archivedFilenamePattern;
+    private final int archivedFileCount;
+    private final long maxFileSize;
+    private final int bufferSize;
+    private final TimeZone timeZone;
+    private Layout<ILoggingEvent> layout;
+
+    private ByteBuffer buffer;
+    private CharsetEncoder encoder;
+    private FileChannel channel;
+    private long fileSize;
+    private SimpleDateFormat periodFormat;
+    private String period;
+    private long nextPeriodCheck;
+    private int index;
+    private ExecutorService compressor;
+
+    /**
+     * Creates a new appender.
+     *
+     * @param clock                   the clock used to tell when the period changes
+     * @param file                    the file to write to
+     * @param archivedFilenamePattern the pattern of archived files' names, or {@code null} if the
+     *                                file is never archived
+     * @param archivedFileCount       the number of archived files to keep
+     * @param maxFileSize             the size at which the file is archived, or {@code 0} if
+     *                                it's only archived when the period changes
+     * @param bufferSize              the size of the buffer lines are encoded into
+     * @param timeZone                the time zone of archived files' dates
+     */
+    public BatchedFileAppender(Clock clock,
+                               File file,
+                               @Nullable String archivedFilenamePattern,
+                               int archivedFileCount,
+                               long maxFileSize,
+                               int bufferSize,
+                               TimeZone timeZone) {
+        this.clock = clock;
+        this.file = file;
+        this.archivedFilenamePattern = archivedFilenamePattern;
+        this.archivedFileCount = archivedFileCount;
+        this.maxFileSize = maxFileSize;
+        this.bufferSize = bufferSize;
+        this.timeZone = timeZone;
+    }
+
+    public Layout<ILoggingEvent> getLayout() {
+        return layout;
+    }
+
+    public void setLayout(Layout<ILoggingEvent> layout) {
+        this.layout = layout;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (isStarted()) {
+            return;
+        }
+
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.encoder = Charsets.UTF_8.newEncoder()
+                                     .onMalformedInput(CodingErrorAction.REPLACE)
+                                     .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        if (archivedFilenamePattern != null) {
+            final Matcher matcher = DATE_TOKEN.matcher(archivedFilenamePattern);
+            if (matcher.find()) {
+                final String datePattern = (matcher.group(2) == null) ? DEFAULT_DATE_PATTERN : matcher.group(2);
+                this.periodFormat = new SimpleDateFormat(datePattern, Locale.US);
+                periodFormat.setTimeZone(timeZone);
+            }
+            this.compressor = Executors.newSingleThreadExecutor(THREAD_FACTORY);
+        }
+
+        // a file left by an earlier run belongs to the period it was last written in
+        this.period = formatPeriod(file.exists() ? file.lastModified() : clock.time());
+        this.nextPeriodCheck = 0;
+        this.index = firstUnusedIndex(period);
+
+        try {
+            open();
+            super.start();
+        } catch (IOException e) {
+            addError("Unable to open " + file, e);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!isStarted()) {
+            return;
+        }
+
+        super.stop();
+
+        try {
+            flush();
+            channel.close();
+        } catch (IOException e) {
+            addError("Unable to close " + file, e);
+        }
+
+        if (compressor != null) {
+            compressor.shutdown();
+            try {
+                compressor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void appendLines(List<? extends CharSequence> lines) {
+        if (isStarted()) {
+            write(lines, true);
+        }
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        write(Collections.singletonList(layout.doLayout(event)), false);
+    }
+
+    private void write(List<? extends CharSequence> lines, boolean separate) {
+        try {
+            if (archivedFilenamePattern != null) {
+                final long now = clock.time();
+                if (now >= nextPeriodCheck) {
+                    this.nextPeriodCheck = now + PERIOD_CHECK_INTERVAL;
+                    final String currentPeriod = formatPeriod(now);
+                    if (!currentPeriod.equals(period)) {
+                        archive(currentPeriod);
+                    }
+                }
+            }
+
+            for (CharSequence line : lines) {
+                encode(line);
+                if (separate) {
+                    encode(CoreConstants.LINE_SEPARATOR);
+                }
+            }
+            flush();
+
+            if ((archivedFilenamePattern != null) && (maxFileSize > 0) && (fileSize >= maxFileSize)) {
+                archive(period);
+            }
+        } catch (IOException e) {
+            addError("Unable to write to " + file, e);
+        }
+    }
+
+    private void encode(CharSequence chars) throws IOException {
+        final CharBuffer input = CharBuffer.wrap(chars);
+        encoder.reset();
+        while (encoder.encode(input, buffer, true).isOverflow()) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            fileSize += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void open() throws IOException {
+        final File parent = file.getAbsoluteFile().getParentFile();
+        if (!parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Unable to create " + parent);
+        }
+        this.channel = new FileOutputStream(file, true).getChannel();
+        this.fileSize = channel.size();
+    }
+
+    private void archive(String nextPeriod) throws IOException {
+        flush();
+        channel.close();
+
+        final String archivedFilename = archivedFilename(period, index);
+        final boolean compressed = archivedFilename.endsWith(COMPRESSED_SUFFIX);
+        final File archived = new File(compressed ? uncompressed(archivedFilename) : archivedFilename);
+        final File parent = archived.getAbsoluteFile().getParentFile();
+        if ((parent.exists() || parent.mkdirs()) && file.renameTo(archived)) {
+            compressor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (compressed) {
+                        compress(archived);
+                    }
+                    ArchivedLogFiles.prune(uncompressed(archivedFilenamePattern), file,
+                                           archivedFileCount, 0, BatchedFileAppender.this);
+                }
+            });
+        } else {
+            addError("Unable to rename " + file + " to " + archived);
+        }
+
+        if (nextPeriod.equals(period)) {
+            index++;
+        } else {
+            this.period = nextPeriod;
+            this.index = firstUnusedIndex(nextPeriod);
+        }
+
+        open();
+    }
+
+    private void compress(File source) {
+        final File target = new File(source.getPath() + COMPRESSED_SUFFIX);
+        try {
+            final OutputStream output = new GZIPOutputStream(new FileOutputStream(target),
+                                                             COMPRESSION_BUFFER_SIZE);
+            try {
+                Files.copy(source, output);
+            } finally {
+                output.close();
+            }
+
+            if (!source.delete()) {
+                addError("Unable to delete " + source);
+            }
+        } catch (IOException e) {
+            addError("Unable to compress " + source, e);
+        }
+    }
+
+    private String formatPeriod(long time) {
+        return (periodFormat == null) ? "" : periodFormat.format(new Date(time));
+    }
+
+    private int firstUnusedIndex(String period) {
+        if ((archivedFilenamePattern == null) || !archivedFilenamePattern.contains(INDEX_TOKEN)) {
+            return 0;
+        }
+
+        int i = 0;
+        while (new File(archivedFilename(period, i)).exists() ||
+                new File(uncompressed(archivedFilename(period, i))).exists()) {
+            i++;
+        }
+        return i;
+    }
+
+    private String archivedFilename(String period, int index) {
+        return DATE_TOKEN.matcher(archivedFilenamePattern)
+                         .replaceAll(Matcher.quoteReplacement(period))
+                         .replace(INDEX_TOKEN, Integer.toString(index));
+    }
+
+    private static String uncompressed(String filename) {
+        if (filename.endsWith(COMPRESSED_SUFFIX)) {
+            return filename.substring(0, filename.length() - COMPRESSED_SUFFIX.length());
+        }
+        return filename;
+    }
+}
@@ -0,0 +1,193 @@
+package com.yammer.dropwizard.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.filter.ThresholdFilter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.Layout;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonTypeName;
+import com.google.common.base.Strings;
+import com.google.common.primitives.Ints;
+import com.yammer.dropwizard.util.Size;
+import com.yammer.dropwizard.validation.ValidationMethod;
+import com.yammer.metrics.core.Clock;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.io.File;
+import java.util.TimeZone;
+
+/**
+ * A file output which writes through a {@link BatchedFileAppender}. Request logs hand it whole
+ * batches of formatted entries, which are written to disk in a few large writes.
+ */
+@JsonTypeName("batched-file")
+public class BatchedFileLoggingOutput implements LoggingOutput {
+    @NotNull
+    @JsonProperty
+    private Level threshold = Level.ALL;
+
+    @NotNull
+    @JsonProperty
+    private String currentLogFilename;
+
+    @JsonProperty
+    private boolean archive = true;
+
+    @JsonProperty
+    private String archivedLogFilenamePattern;
+
+    @Min(1)
+    @Max(50)
+    @JsonProperty
+    private int archivedFileCount = 5;
+
+    @JsonProperty
+    private Size maxFileSize;
+
+    @NotNull
+    @JsonProperty
+    private Size bufferSize = Size.kilobytes(256);
+
+    @NotNull
+    @JsonProperty
+    private TimeZone timeZone = TimeZone.getTimeZone("UTC");
+
+    @JsonProperty
+    private String logFormat;
+
+    public Level getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(Level threshold) {
+        this.threshold = threshold;
+    }
+
+    public String getCurrentLogFilename() {
+        return currentLogFilename;
+    }
+
+    public void setCurrentLogFilename(String currentLogFilename) {
+        this.currentLogFilename = currentLogFilename;
+    }
+
+    public boolean isArchive() {
+        return archive;
+    }
+
+    public void setArchive(boolean archive) {
+        this.archive = archive;
+    }
+
+    public String getArchivedLogFilenamePattern() {
+        return archivedLogFilenamePattern;
+    }
+
+    public void setArchivedLogFilenamePattern(String archivedLogFilenamePattern) {
+        this.archivedLogFilenamePattern = archivedLogFilenamePattern;
+    }
+
+    public int getArchivedFileCount() {
+        return archivedFileCount;
+    }
+
+    public void setArchivedFileCount(int archivedFileCount) {
+        this.archivedFileCount = archivedFileCount;
+    }
+
+    /**
+     * Returns the size at which the log file is archived, or {@code null} if it's only archived
+     * when the date in {@link #getArchivedLogFilenamePattern()} changes.
+     *
+     * @return the maximum size of the log file
+     */
+    public Size getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    public void setMaxFileSize(Size maxFileSize) {
+        this.maxFileSize = maxFileSize;
+    }
+
+    /**
+     * Returns the size of the buffer log statements are collected in before they're written.
+     *
+     * @return the size of the write buffer
+     */
+    public Size getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(Size bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public TimeZone getTimeZone() {
+        return timeZone;
+    }
+
+    public void setTimeZone(TimeZone timeZone) {
+        this.timeZone = timeZone;
+    }
+
+    public String getLogFormat() {
+        return logFormat;
+    }
+
+    public void setLogFormat(String logFormat) {
+        this.logFormat = logFormat;
+    }
+
+    @ValidationMethod(message = "must have archivedLogFilenamePattern if archive is true")
+    public boolean isValidArchiveConfiguration() {
+        return !archive || (archivedLogFilenamePattern != null);
+    }
+
+    @ValidationMethod(message = "must have %i in archivedLogFilenamePattern if maxFileSize is set")
+    public boolean isValidMaxFileSizeConfiguration() {
+        return !archive || (maxFileSize == null) ||
+                ((archivedLogFilenamePattern != null) && archivedLogFilenamePattern.contains("%i"));
+    }
+
+    @ValidationMethod(message = "must have a bufferSize of at least 1KB")
+    public boolean isValidBufferSize() {
+        return (bufferSize == null) || (bufferSize.toBytes() >= 1024);
+    }
+
+    @Override
+    public Appender<ILoggingEvent> build(LoggerContext context, String serviceName, Layout<ILoggingEvent> layout) {
+        final BatchedFileAppender appender = new BatchedFileAppender(
+                Clock.defaultClock(),
+                new File(currentLogFilename),
+                archive ? archivedLogFilenamePattern : null,
+                archivedFileCount,
+                (maxFileSize == null) ? 0 : maxFileSize.toBytes(),
+                Ints.checkedCast(bufferSize.toBytes()),
+                timeZone);
+        appender.setContext(context);
+
+        if (layout == null) {
+            final LogFormatter formatter = new LogFormatter(context, timeZone);
+            if (!Strings.isNullOrEmpty(logFormat)) {
+                formatter.setPattern(logFormat);
+            }
+            formatter.start();
+            appender.setLayout(formatter);
+        } else {
+            appender.setLayout(layout);
+        }
+
+        final ThresholdFilter filter = new ThresholdFilter();
+        filter.setLevel(threshold.toString());
+        filter.start();
+        appender.addFilter(filter);
+
+        appender.start();
+
+        return appender;
+    }
+}
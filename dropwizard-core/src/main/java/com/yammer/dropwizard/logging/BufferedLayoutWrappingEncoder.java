@@ -0,0 +1,92 @@
+package com.yammer.dropwizard.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.encoder.LayoutWrappingEncoder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.yammer.dropwizard.util.Duration;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An encoder which formats events with a layout into a buffer of a given size, which is written to
+ * the file when it's full or when the file is closed.
+ * <p/>
+ * Unless the encoder flushes after every event, the buffer is also flushed periodically on a
+ * background thread, so that statements logged by a quiet service don't sit in memory.
+ */
+public class BufferedLayoutWrappingEncoder extends LayoutWrappingEncoder<ILoggingEvent> {
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("log-file-flusher-%d")
+                                      .setDaemon(true)
+                                      .build());
+
+    private final int bufferSize;
+    private final Duration flushPeriod;
+    private ScheduledFuture<?> flushes;
+
+    /**
+     * Creates a new encoder.
+     *
+     * @param bufferSize  the size of the buffer events are formatted into
+     * @param flushPeriod the time between flushes of the buffer, if it's not flushed after every
+     *                    event
+     */
+    public BufferedLayoutWrappingEncoder(int bufferSize, Duration flushPeriod) {
+        this.bufferSize = bufferSize;
+        this.flushPeriod = flushPeriod;
+    }
+
+    @Override
+    public synchronized void init(OutputStream os) throws IOException {
+        super.init(new BufferedOutputStream(os, bufferSize));
+        if (!isImmediateFlush()) {
+            final long period = flushPeriod.toNanoseconds();
+            this.flushes = FLUSHER.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    flush();
+                }
+            }, period, period, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void doEncode(ILoggingEvent event) throws IOException {
+        super.doEncode(event);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (flushes != null) {
+            flushes.cancel(false);
+            this.flushes = null;
+        }
+
+        super.close();
+
+        // the appender closes the underlying stream, so make sure nothing is left in the buffer
+        if (outputStream != null) {
+            outputStream.flush();
+            this.outputStream = null;
+        }
+    }
+
+    /**
+     * Writes any buffered events to the file.
+     */
+    public synchronized void flush() {
+        if (outputStream != null) {
+            try {
+                outputStream.flush();
+            } catch (IOException e) {
+                addError("Unable to flush the log file", e);
+            }
+        }
+    }
+}
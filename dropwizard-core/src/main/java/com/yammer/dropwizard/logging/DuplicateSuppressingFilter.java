@@ -0,0 +1,226 @@
+package com.yammer.dropwizard.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import com.google.common.base.Objects;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.yammer.dropwizard.util.Duration;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A filter which stops the same statement from being logged over and over again, e.g. when a
+ * dependency fails and every request logs the same stack trace.
+ * <p/>
+ * Statements at or above a threshold level are fingerprinted by their logger, their message
+ * format, and the type of their exception and the top of its stack trace. Only the first few
+ * statements with each fingerprint are logged in each window; at the end of the window, the number
+ * of statements which were suppressed is logged instead. Statements below the threshold only pay
+ * for a level comparison.
+ */
+public class DuplicateSuppressingFilter extends TurboFilter {
+    /**
+     * The marker of the statements which summarize suppressed statements.
+     */
+    public static final Marker SUMMARY = MarkerFactory.getMarker("SUPPRESSED_DUPLICATES");
+
+    private static final String FQCN = DuplicateSuppressingFilter.class.getName();
+
+    // the count of occurrences which have been removed from the map
+    private static final int RETIRED = Integer.MIN_VALUE;
+
+    private static final class Fingerprint {
+        private final String loggerName;
+        private final String format;
+        private final String exceptionType;
+        private final StackTraceElement stackTop;
+
+        private Fingerprint(String loggerName, String format, Throwable throwable) {
+            this.loggerName = loggerName;
+            this.format = format;
+            if (throwable == null) {
+                this.exceptionType = null;
+                this.stackTop = null;
+            } else {
+                final StackTraceElement[] stackTrace = throwable.getStackTrace();
+                this.exceptionType = throwable.getClass().getName();
+                this.stackTop = (stackTrace.length == 0) ? null : stackTrace[0];
+            }
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) { return true; }
+            if ((obj == null) || (getClass() != obj.getClass())) { return false; }
+            final Fingerprint that = (Fingerprint) obj;
+            return Objects.equal(loggerName, that.loggerName) &&
+                    Objects.equal(format, that.format) &&
+                    Objects.equal(exceptionType, that.exceptionType) &&
+                    Objects.equal(stackTop, that.stackTop);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(loggerName, format, exceptionType, stackTop);
+        }
+    }
+
+    private static final class Occurrences {
+        private final Logger logger;
+        private final Level level;
+        private final AtomicInteger count = new AtomicInteger();
+        private final AtomicLong suppressed = new AtomicLong();
+
+        private Occurrences(Logger logger, Level level) {
+            this.logger = logger;
+            this.level = level;
+        }
+    }
+
+    private final Level threshold;
+    private final int maxOccurrences;
+    private final Duration window;
+    private final int maxFingerprints;
+    private final ConcurrentMap<Fingerprint, Occurrences> occurrences;
+    private ScheduledExecutorService summarizer;
+
+    /**
+     * Creates a new filter.
+     *
+     * @param threshold       the least severe level of the statements which are fingerprinted
+     * @param maxOccurrences  the number of statements with the same fingerprint which are logged
+     *                        in each window
+     * @param window          the length of each window
+     * @param maxFingerprints the maximum number of fingerprints which are tracked at once
+     */
+    public DuplicateSuppressingFilter(Level threshold, int maxOccurrences, Duration window, int maxFingerprints) {
+        this.threshold = threshold;
+        this.maxOccurrences = maxOccurrences;
+        this.window = window;
+        this.maxFingerprints = maxFingerprints;
+        this.occurrences = new ConcurrentHashMap<Fingerprint, Occurrences>();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if ((level == null) || (level.levelInt < threshold.levelInt) ||
+                (level.levelInt < logger.getEffectiveLevel().levelInt)) {
+            return FilterReply.NEUTRAL;
+        }
+
+        final Fingerprint fingerprint = new Fingerprint(logger.getName(), format, findThrowable(params, t));
+        while (true) {
+            Occurrences occurrence = occurrences.get(fingerprint);
+            if (occurrence == null) {
+                if (occurrences.size() >= maxFingerprints) {
+                    return FilterReply.NEUTRAL;
+                }
+                final Occurrences created = new Occurrences(logger, level);
+                occurrence = occurrences.putIfAbsent(fingerprint, created);
+                if (occurrence == null) {
+                    occurrence = created;
+                }
+            }
+
+            final int count = occurrence.count.incrementAndGet();
+            if (count < 0) {
+                // the summarizer has just retired these occurrences, so count this one afresh
+                occurrences.remove(fingerprint, occurrence);
+                continue;
+            }
+
+            if (count <= maxOccurrences) {
+                return FilterReply.NEUTRAL;
+            }
+
+            occurrence.suppressed.incrementAndGet();
+            return FilterReply.DENY;
+        }
+    }
+
+    @Override
+    public void start() {
+        final long period = window.toNanoseconds();
+        this.summarizer = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("log-duplicate-summarizer-%d")
+                                          .setDaemon(true)
+                                          .build());
+        summarizer.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                summarize();
+            }
+        }, period, period, TimeUnit.NANOSECONDS);
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        if (summarizer != null) {
+            summarizer.shutdown();
+        }
+        summarize();
+    }
+
+    /**
+     * Logs the number of statements with each fingerprint which were suppressed in the current
+     * window, and starts a new window.
+     */
+    public synchronized void summarize() {
+        for (Map.Entry<Fingerprint, Occurrences> entry : occurrences.entrySet()) {
+            final Occurrences occurrence = entry.getValue();
+            if (occurrence.count.compareAndSet(0, RETIRED)) {
+                // nothing was logged with this fingerprint for a whole window, and anything
+                // logged from now on won't be counted against these occurrences
+                occurrences.remove(entry.getKey(), occurrence);
+                continue;
+            }
+            occurrence.count.set(0);
+
+            final long suppressed = occurrence.suppressed.getAndSet(0);
+            if (suppressed > 0) {
+                final Fingerprint fingerprint = entry.getKey();
+                final LoggingEvent summary = new LoggingEvent(
+                        FQCN,
+                        occurrence.logger,
+                        occurrence.level,
+                        "Suppressed {} more statements like \"{}\" ({}) in the last {}",
+                        null,
+                        new Object[]{
+                                suppressed,
+                                fingerprint.format,
+                                (fingerprint.exceptionType == null) ? "no exception" : fingerprint.exceptionType,
+                                window
+                        });
+                summary.setMarker(SUMMARY);
+                // the summary bypasses the turbo filters, including this one
+                occurrence.logger.callAppenders(summary);
+            }
+        }
+    }
+
+    private static Throwable findThrowable(Object[] params, Throwable t) {
+        if (t != null) {
+            return t;
+        }
+
+        // SLF4J treats a trailing exception parameter as the statement's exception
+        if ((params != null) && (params.length > 0) && (params[params.length - 1] instanceof Throwable)) {
+            return (Throwable) params[params.length - 1];
+        }
+        return null;
+    }
+}
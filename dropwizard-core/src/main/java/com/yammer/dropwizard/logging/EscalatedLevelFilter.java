@@ -0,0 +1,46 @@
+package com.yammer.dropwizard.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import javax.annotation.Nullable;
+
+/**
+ * A filter which logs the statements made by a thread whose log level has been escalated, e.g.
+ * while it handles a single request, regardless of the levels of their loggers. Statements made
+ * by other threads only pay for a thread-local lookup.
+ *
+ * @see com.yammer.dropwizard.servlets.LogLevelEscalationFilter
+ */
+public class EscalatedLevelFilter extends TurboFilter {
+    // not the MDC, since logback's MDC is inherited by threads started while a level is escalated
+    private static final ThreadLocal<Level> ESCALATED = new ThreadLocal<Level>();
+
+    /**
+     * Escalates the log level of the current thread, so that statements at or above the given
+     * level are logged.
+     *
+     * @param level the current thread's escalated level, or {@code null} if it isn't escalated
+     */
+    public static void escalate(@Nullable Level level) {
+        if (level == null) {
+            ESCALATED.remove();
+        } else {
+            ESCALATED.set(level);
+        }
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        final Level escalated = ESCALATED.get();
+        if ((escalated == null) || (level == null) || (level.levelInt < escalated.levelInt) ||
+                (level.levelInt >= logger.getEffectiveLevel().levelInt)) {
+            // leave statements the logger would log anyway to the other filters
+            return FilterReply.NEUTRAL;
+        }
+        return FilterReply.ACCEPT;
+    }
+}
@@ -9,11 +9,17 @@ import ch.qos.logback.core.FileAppender;
 import ch.qos.logback.core.Layout;
 import ch.qos.logback.core.rolling.DefaultTimeBasedFileNamingAndTriggeringPolicy;
 import ch.qos.logback.core.rolling.RollingFileAppender;
-import ch.qos.logback.core.rolling.TimeBasedRollingPolicy;
+import ch.qos.logback.core.rolling.SizeAndTimeBasedFNATP;
+import ch.qos.logback.core.rolling.TimeBasedFileNamingAndTriggeringPolicyBase;
 import ch.qos.logback.core.spi.FilterAttachable;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import com.google.common.base.Strings;
+import com.google.common.primitives.Ints;
+import com.yammer.dropwizard.util.Duration;
+import com.yammer.dropwizard.util.Size;
+import com.yammer.dropwizard.util.SizeUnit;
+import com.yammer.dropwizard.validation.MinSize;
 import com.yammer.dropwizard.validation.ValidationMethod;
 
 import javax.validation.constraints.Max;
@@ -42,6 +48,24 @@ public class FileLoggingOutput implements LoggingOutput {
     @JsonProperty
     private int archivedFileCount = 5;
 
+    @JsonProperty
+    private Size maxFileSize;
+
+    @JsonProperty
+    private Size maxTotalSize;
+
+    @NotNull
+    @MinSize(value = 1, unit = SizeUnit.KILOBYTES)
+    @JsonProperty
+    private Size bufferSize = Size.kilobytes(8);
+
+    @JsonProperty
+    private boolean immediateFlush = true;
+
+    @NotNull
+    @JsonProperty
+    private Duration flushPeriod = Duration.seconds(1);
+
     @NotNull
     @JsonProperty
     private TimeZone timeZone = TimeZone.getTimeZone("UTC");
@@ -89,6 +113,70 @@ public class FileLoggingOutput implements LoggingOutput {
         this.archivedFileCount = archivedFileCount;
     }
 
+    /**
+     * Returns the size at which the log file is archived, or {@code null} if it's only archived
+     * when the date in {@link #getArchivedLogFilenamePattern()} changes.
+     *
+     * @return the maximum size of the log file
+     */
+    public Size getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    public void setMaxFileSize(Size maxFileSize) {
+        this.maxFileSize = maxFileSize;
+    }
+
+    /**
+     * Returns the maximum total size of archived log files, or {@code null} if only
+     * {@link #getArchivedFileCount()} limits them. The oldest archived files are deleted first.
+     *
+     * @return the maximum total size of archived log files
+     */
+    public Size getMaxTotalSize() {
+        return maxTotalSize;
+    }
+
+    public void setMaxTotalSize(Size maxTotalSize) {
+        this.maxTotalSize = maxTotalSize;
+    }
+
+    /**
+     * Returns the size of the buffer log statements are collected in before they're written.
+     *
+     * @return the size of the write buffer
+     */
+    public Size getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(Size bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Returns whether every log statement is written to the file as soon as it's logged. If not,
+     * statements are written when the buffer is full, and at least every
+     * {@link #getFlushPeriod() flush period}.
+     *
+     * @return whether every log statement is written immediately
+     */
+    public boolean isImmediateFlush() {
+        return immediateFlush;
+    }
+
+    public void setImmediateFlush(boolean immediateFlush) {
+        this.immediateFlush = immediateFlush;
+    }
+
+    public Duration getFlushPeriod() {
+        return flushPeriod;
+    }
+
+    public void setFlushPeriod(Duration flushPeriod) {
+        this.flushPeriod = flushPeriod;
+    }
+
     public TimeZone getTimeZone() {
         return timeZone;
     }
@@ -110,25 +198,37 @@ public class FileLoggingOutput implements LoggingOutput {
         return !archive || (archivedLogFilenamePattern != null);
     }
 
+    @ValidationMethod(message = "must have %i in archivedLogFilenamePattern if maxFileSize is set")
+    public boolean isValidMaxFileSizeConfiguration() {
+        return !archive || (maxFileSize == null) ||
+                ((archivedLogFilenamePattern != null) && archivedLogFilenamePattern.contains("%i"));
+    }
+
     @Override
     public Appender<ILoggingEvent> build(LoggerContext context, String serviceName, Layout<ILoggingEvent> layout) {
-                final FileAppender<ILoggingEvent> appender = archive ?
+        final FileAppender<ILoggingEvent> appender = archive ?
                 new RollingFileAppender<ILoggingEvent>() :
                 new FileAppender<ILoggingEvent>();
 
         appender.setAppend(true);
         appender.setContext(context);
 
+        final BufferedLayoutWrappingEncoder encoder =
+                new BufferedLayoutWrappingEncoder(Ints.checkedCast(bufferSize.toBytes()), flushPeriod);
+        encoder.setContext(context);
+        encoder.setImmediateFlush(immediateFlush);
         if (layout == null) {
             final LogFormatter formatter = new LogFormatter(context, timeZone);
             if (!Strings.isNullOrEmpty(logFormat)) {
                 formatter.setPattern(logFormat);
             }
             formatter.start();
-            appender.setLayout(formatter);
+            encoder.setLayout(formatter);
         } else {
-            appender.setLayout(layout);
+            encoder.setLayout(layout);
         }
+        encoder.start();
+        appender.setEncoder(encoder);
 
         appender.setFile(currentLogFilename);
         appender.setPrudent(false);
@@ -136,17 +236,24 @@ public class FileLoggingOutput implements LoggingOutput {
         addThresholdFilter(appender, threshold);
 
         if (archive) {
-            final DefaultTimeBasedFileNamingAndTriggeringPolicy<ILoggingEvent> triggeringPolicy =
-                    new DefaultTimeBasedFileNamingAndTriggeringPolicy<ILoggingEvent>();
+            final TimeBasedFileNamingAndTriggeringPolicyBase<ILoggingEvent> triggeringPolicy;
+            if (maxFileSize == null) {
+                triggeringPolicy = new DefaultTimeBasedFileNamingAndTriggeringPolicy<ILoggingEvent>();
+            } else {
+                final SizeAndTimeBasedFNATP<ILoggingEvent> sizeAndTimePolicy =
+                        new SizeAndTimeBasedFNATP<ILoggingEvent>();
+                sizeAndTimePolicy.setMaxFileSize(Long.toString(maxFileSize.toBytes()));
+                triggeringPolicy = sizeAndTimePolicy;
+            }
             triggeringPolicy.setContext(context);
 
-            final TimeBasedRollingPolicy<ILoggingEvent> rollingPolicy = new TimeBasedRollingPolicy<ILoggingEvent>();
+            final BackgroundArchivingRollingPolicy rollingPolicy = new BackgroundArchivingRollingPolicy(
+                    archivedFileCount, (maxTotalSize == null) ? 0 : maxTotalSize.toBytes());
             rollingPolicy.setContext(context);
             rollingPolicy.setFileNamePattern(archivedLogFilenamePattern);
             rollingPolicy.setTimeBasedFileNamingAndTriggeringPolicy(
                     triggeringPolicy);
             triggeringPolicy.setTimeBasedRollingPolicy(rollingPolicy);
-            rollingPolicy.setMaxHistory(archivedFileCount);
 
             ((RollingFileAppender<ILoggingEvent>) appender).setRollingPolicy(rollingPolicy);
             ((RollingFileAppender<ILoggingEvent>) appender).setTriggeringPolicy(triggeringPolicy);
@@ -155,7 +262,6 @@ public class FileLoggingOutput implements LoggingOutput {
             rollingPolicy.start();
         }
 
-        appender.stop();
         appender.start();
 
         return appender;
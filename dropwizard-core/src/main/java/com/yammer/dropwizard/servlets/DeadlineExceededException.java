@@ -0,0 +1,19 @@
+package com.yammer.dropwizard.servlets;
+
+/**
+ * Thrown when work is abandoned because the deadline of the request it was being done for has
+ * passed.
+ *
+ * @see RequestDeadline
+ */
+public class DeadlineExceededException extends RuntimeException {
+    private static final long serialVersionUID = -4052382011436484574L;
+
+    public DeadlineExceededException() {
+        super("The request's deadline has passed");
+    }
+
+    public DeadlineExceededException(Throwable cause) {
+        super("The request's deadline has passed", cause);
+    }
+}
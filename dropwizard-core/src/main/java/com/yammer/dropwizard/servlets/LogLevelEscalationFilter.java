@@ -0,0 +1,313 @@
+package com.yammer.dropwizard.servlets;
+
+import ch.qos.logback.classic.Level;
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.BaseEncoding;
+import com.yammer.dropwizard.logging.EscalatedLevelFilter;
+import com.yammer.dropwizard.util.ClientKey;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Clock;
+import com.yammer.metrics.core.Meter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.servlet.*;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A servlet filter which escalates the log level of individual requests, so that e.g. their
+ * {@code DEBUG} statements are logged without changing the level of any logger. The statements are
+ * let through by an {@link EscalatedLevelFilter}.
+ * <p/>
+ * A request is escalated if it has a correctly signed header (by default {@code X-Log-Level}), or
+ * if it matches one of the filter's {@link Rule rules}, which are usually added through the
+ * {@link LogLevelEscalationTask}. The header's value is {@code <level>:<expiry>:<signature>},
+ * where {@code expiry} is the time, in seconds since the epoch, after which the header is ignored,
+ * and {@code signature} is the hex-encoded HMAC-SHA256 of {@code <level>:<expiry>}, keyed with
+ * the filter's secret.
+ * <p/>
+ * A rule's principal is compared with the requests' clients, as told apart by the filter's
+ * {@link ClientKey}. By default, that's the principal set by the servlet container, or the
+ * client's IP address. Resources authenticated with {@code @Auth} don't set that principal. For
+ * them, a key like {@code header:X-Api-Key} matches rules to a credential instead.
+ */
+@SuppressWarnings("UnusedDeclaration")
+public class LogLevelEscalationFilter implements Filter {
+    public static final String DEFAULT_HEADER = "X-Log-Level";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LogLevelEscalationFilter.class);
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    /**
+     * A rule which escalates the log level of a fraction of the requests for paths starting with a
+     * prefix, or made by a principal, until it expires.
+     */
+    public static class Rule {
+        private final Level level;
+        private final Optional<String> pathPrefix;
+        private final Optional<String> principal;
+        private final double sampleRate;
+        private final long expiresAt;
+
+        /**
+         * Creates a new rule.
+         *
+         * @param level      the escalated log level
+         * @param pathPrefix the prefix of the paths of the escalated requests, if any
+         * @param principal  the client of the escalated requests, as told apart by the filter's
+         *                   {@link ClientKey}, if any
+         * @param sampleRate the fraction, from {@code 0} to {@code 1}, of the matching requests
+         *                   which are escalated
+         * @param expiresAt  the time, in milliseconds since the epoch, when the rule expires
+         */
+        public Rule(Level level,
+                    Optional<String> pathPrefix,
+                    Optional<String> principal,
+                    double sampleRate,
+                    long expiresAt) {
+            this.level = level;
+            this.pathPrefix = pathPrefix;
+            this.principal = principal;
+            this.sampleRate = sampleRate;
+            this.expiresAt = expiresAt;
+        }
+
+        public Level getLevel() {
+            return level;
+        }
+
+        public Optional<String> getPathPrefix() {
+            return pathPrefix;
+        }
+
+        public Optional<String> getPrincipal() {
+            return principal;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+
+        private boolean matches(HttpServletRequest request, ClientKey clientKey) {
+            if (pathPrefix.isPresent()) {
+                final String path = request.getRequestURI();
+                if ((path == null) || !path.startsWith(pathPrefix.get())) {
+                    return false;
+                }
+            }
+            return !principal.isPresent() || principal.get().equals(clientKey.of(request));
+        }
+
+        @Override
+        public String toString() {
+            return level +
+                    " for " + (pathPrefix.isPresent() ? pathPrefix.get() + "*" : "all paths") +
+                    ", " + (principal.isPresent() ? principal.get() : "all principals") +
+                    ", " + (sampleRate * 100) + "% of requests" +
+                    ", until " + new Date(expiresAt);
+        }
+    }
+
+    private final String header;
+    private final Optional<SecretKeySpec> secret;
+    private final ClientKey clientKey;
+    private final Clock clock;
+    private final List<Rule> rules;
+    private final Meter escalated;
+    private final ThreadLocal<Random> random = new ThreadLocal<Random>() {
+        @Override
+        protected Random initialValue() {
+            return new Random();
+        }
+    };
+
+    /**
+     * Creates a filter which only escalates requests which match its rules.
+     */
+    public LogLevelEscalationFilter() {
+        this(DEFAULT_HEADER, Optional.<String>absent(), Clock.defaultClock());
+    }
+
+    /**
+     * Creates a new filter.
+     *
+     * @param header the name of the header containing the request's signed log level
+     * @param secret the secret the header is signed with, if requests can be escalated by it
+     * @param clock  the clock used to tell when headers and rules expire
+     */
+    public LogLevelEscalationFilter(String header, Optional<String> secret, Clock clock) {
+        this(header, secret, ClientKey.principal(), clock);
+    }
+
+    /**
+     * Creates a new filter.
+     *
+     * @param header    the name of the header containing the request's signed log level
+     * @param secret    the secret the header is signed with, if requests can be escalated by it
+     * @param clientKey how the clients named by rules are told apart
+     * @param clock     the clock used to tell when headers and rules expire
+     */
+    public LogLevelEscalationFilter(String header,
+                                    Optional<String> secret,
+                                    ClientKey clientKey,
+                                    Clock clock) {
+        this.header = header;
+        this.secret = secret.isPresent() ?
+                Optional.of(new SecretKeySpec(secret.get().getBytes(Charsets.UTF_8), HMAC_ALGORITHM)) :
+                Optional.<SecretKeySpec>absent();
+        this.clientKey = clientKey;
+        this.clock = clock;
+        this.rules = new CopyOnWriteArrayList<Rule>();
+        this.escalated = Metrics.newMeter(LogLevelEscalationFilter.class, "escalated-requests",
+                                          "requests", TimeUnit.SECONDS);
+    }
+
+    /**
+     * Adds a rule which escalates the log level of matching requests. If several rules match a
+     * request, the first one added wins.
+     *
+     * @param rule a rule
+     */
+    public void addRule(Rule rule) {
+        rules.add(rule);
+    }
+
+    /**
+     * Removes all rules.
+     *
+     * @return the number of rules which were removed
+     */
+    public int removeRules() {
+        final int count = rules.size();
+        rules.clear();
+        return count;
+    }
+
+    /**
+     * Returns the rules which haven't expired yet.
+     *
+     * @return the current rules
+     */
+    public ImmutableList<Rule> getRules() {
+        removeExpiredRules(clock.time());
+        return ImmutableList.copyOf(rules);
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException { /* unused */ }
+
+    @Override
+    public void destroy() { /* unused */ }
+
+    @Override
+    public void doFilter(ServletRequest request,
+                         ServletResponse response,
+                         FilterChain chain) throws IOException, ServletException {
+        final Level level = escalatedLevel((HttpServletRequest) request);
+        if (level == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        escalated.mark();
+        EscalatedLevelFilter.escalate(level);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            EscalatedLevelFilter.escalate(null);
+        }
+    }
+
+    private Level escalatedLevel(HttpServletRequest request) {
+        if (secret.isPresent()) {
+            final String value = request.getHeader(header);
+            if (value != null) {
+                final Level level = verify(value);
+                if (level != null) {
+                    return level;
+                }
+            }
+        }
+
+        if (rules.isEmpty()) {
+            return null;
+        }
+
+        final long now = clock.time();
+        for (Rule rule : rules) {
+            if (rule.expiresAt <= now) {
+                rules.remove(rule);
+            } else if (rule.matches(request, clientKey) &&
+                    ((rule.sampleRate >= 1) || (random.get().nextDouble() < rule.sampleRate))) {
+                return rule.level;
+            }
+        }
+        return null;
+    }
+
+    private Level verify(String value) {
+        final String[] parts = value.trim().split(":");
+        if (parts.length != 3) {
+            LOGGER.debug("Ignoring malformed {} header: {}", header, value);
+            return null;
+        }
+
+        final Level level = Level.toLevel(parts[0], null);
+        final long expiresAt;
+        try {
+            expiresAt = TimeUnit.SECONDS.toMillis(Long.parseLong(parts[1]));
+        } catch (NumberFormatException e) {
+            LOGGER.debug("Ignoring malformed {} header: {}", header, value);
+            return null;
+        }
+
+        if ((level == null) || (expiresAt <= clock.time())) {
+            LOGGER.debug("Ignoring expired {} header: {}", header, value);
+            return null;
+        }
+
+        if (!MessageDigest.isEqual(sign(parts[0] + ':' + parts[1]),
+                                   parts[2].toLowerCase(Locale.ENGLISH).getBytes(Charsets.US_ASCII))) {
+            LOGGER.debug("Ignoring incorrectly signed {} header: {}", header, value);
+            return null;
+        }
+
+        return level;
+    }
+
+    private byte[] sign(String payload) {
+        try {
+            final Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(secret.get());
+            final byte[] signature = mac.doFinal(payload.getBytes(Charsets.UTF_8));
+            return BaseEncoding.base16().lowerCase().encode(signature).getBytes(Charsets.US_ASCII);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void removeExpiredRules(long now) {
+        for (Rule rule : rules) {
+            if (rule.expiresAt <= now) {
+                rules.remove(rule);
+            }
+        }
+    }
+}
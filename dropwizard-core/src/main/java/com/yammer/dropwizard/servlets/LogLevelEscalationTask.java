@@ -0,0 +1,97 @@
+package com.yammer.dropwizard.servlets;
+
+import ch.qos.logback.classic.Level;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultimap;
+import com.yammer.dropwizard.tasks.Task;
+import com.yammer.dropwizard.util.Duration;
+import com.yammer.metrics.core.Clock;
+
+import java.io.PrintWriter;
+
+/**
+ * Adds a rule to a {@link LogLevelEscalationFilter}, escalating the log level ({@code level},
+ * {@code DEBUG} by default) of a fraction ({@code rate}, {@code 1} by default) of the requests for
+ * paths starting with {@code path}, or made by {@code principal}, for a while ({@code duration},
+ * {@code 10 minutes} by default). If {@code clear} is given, removes all rules instead.
+ * <p/>
+ * The {@code principal} is compared with the filter's {@link com.yammer.dropwizard.util.ClientKey
+ * client key}. By default that's {@link javax.servlet.http.HttpServletRequest#getUserPrincipal()},
+ * which {@code @Auth} never sets, so unless the filter is configured with e.g. a header key, the
+ * principal of a request authenticated by {@code @Auth} is its client's IP address.
+ */
+public class LogLevelEscalationTask extends Task {
+    private static final Duration DEFAULT_DURATION = Duration.minutes(10);
+
+    private final LogLevelEscalationFilter filter;
+    private final Clock clock;
+
+    /**
+     * Creates a new LogLevelEscalationTask.
+     *
+     * @param filter    the filter to add rules to
+     */
+    public LogLevelEscalationTask(LogLevelEscalationFilter filter) {
+        this(filter, Clock.defaultClock());
+    }
+
+    /**
+     * Creates a new LogLevelEscalationTask with the given {@link Clock} instance.
+     *
+     * @param filter    the filter to add rules to
+     * @param clock     the clock used to tell when rules expire
+     */
+    public LogLevelEscalationTask(LogLevelEscalationFilter filter, Clock clock) {
+        super("escalate-log-level");
+        this.filter = filter;
+        this.clock = clock;
+    }
+
+    @Override
+    public void execute(ImmutableMultimap<String, String> parameters, PrintWriter output) {
+        if (parameters.containsKey("clear")) {
+            output.println("Removed " + filter.removeRules() + " rules");
+            return;
+        }
+
+        final Level level = Level.toLevel(first(parameters, "level").or("DEBUG"), null);
+        if (level == null) {
+            output.println("Unknown level: " + first(parameters, "level").get());
+            return;
+        }
+
+        final double rate;
+        final Duration duration;
+        try {
+            rate = Double.parseDouble(first(parameters, "rate").or("1"));
+            duration = first(parameters, "duration").isPresent() ?
+                    Duration.parse(first(parameters, "duration").get()) : DEFAULT_DURATION;
+        } catch (IllegalArgumentException e) {
+            output.println("Invalid rule: " + e.getMessage());
+            return;
+        }
+
+        if ((rate <= 0) || (rate > 1)) {
+            output.println("Invalid rate: " + rate + " (must be greater than 0 and at most 1)");
+            return;
+        }
+
+        filter.addRule(new LogLevelEscalationFilter.Rule(level,
+                                                         first(parameters, "path"),
+                                                         first(parameters, "principal"),
+                                                         rate,
+                                                         clock.time() + duration.toMilliseconds()));
+        for (LogLevelEscalationFilter.Rule rule : filter.getRules()) {
+            output.println(rule);
+        }
+    }
+
+    private static Optional<String> first(ImmutableMultimap<String, String> parameters, String name) {
+        final ImmutableList<String> values = parameters.get(name).asList();
+        if (values.isEmpty()) {
+            return Optional.absent();
+        }
+        return Optional.of(values.get(0));
+    }
+}
@@ -0,0 +1,86 @@
+package com.yammer.dropwizard.servlets;
+
+import com.yammer.dropwizard.util.ClientKey;
+import com.yammer.dropwizard.util.TokenBucketTable;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricsRegistry;
+
+import javax.servlet.*;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A servlet filter which limits the rate of requests each client may make, for servlets which
+ * aren't Jersey resources (for those, use
+ * {@link com.yammer.dropwizard.jersey.ratelimit.RateLimited}). Requests over the limit get a
+ * {@code 429 Too Many Requests} response with a {@code Retry-After} header.
+ * <p/>
+ * Allowed and throttled requests are metered as {@code name-allowed} and {@code name-throttled}.
+ */
+@SuppressWarnings("UnusedDeclaration")
+public class RateLimitingFilter implements Filter {
+    private static final int SC_TOO_MANY_REQUESTS = 429;
+
+    private final TokenBucketTable buckets;
+    private final ClientKey clientKey;
+    private final Meter allowed;
+    private final Meter throttled;
+
+    /**
+     * Creates a new filter which records its metrics in the default registry.
+     *
+     * @param name      the name of the limit
+     * @param buckets   the clients' token buckets
+     * @param clientKey how to identify the client which made a request
+     */
+    public RateLimitingFilter(String name, TokenBucketTable buckets, ClientKey clientKey) {
+        this(Metrics.defaultRegistry(), name, buckets, clientKey);
+    }
+
+    /**
+     * Creates a new filter.
+     *
+     * @param registry  the registry for the filter's metrics
+     * @param name      the name of the limit
+     * @param buckets   the clients' token buckets
+     * @param clientKey how to identify the client which made a request
+     */
+    public RateLimitingFilter(MetricsRegistry registry,
+                              String name,
+                              TokenBucketTable buckets,
+                              ClientKey clientKey) {
+        this.buckets = buckets;
+        this.clientKey = clientKey;
+        this.allowed = registry.newMeter(RateLimitingFilter.class, name + "-allowed",
+                                         "requests", TimeUnit.SECONDS);
+        this.throttled = registry.newMeter(RateLimitingFilter.class, name + "-throttled",
+                                           "requests", TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException { /* unused */ }
+
+    @Override
+    public void destroy() { /* unused */ }
+
+    @Override
+    public void doFilter(ServletRequest request,
+                         ServletResponse response,
+                         FilterChain chain) throws IOException, ServletException {
+        final HttpServletRequest req = (HttpServletRequest) request;
+        final HttpServletResponse res = (HttpServletResponse) response;
+        final long wait = buckets.tryAcquire(clientKey.of(req));
+        if (wait > 0) {
+            throttled.mark();
+            res.setHeader("Retry-After", Long.toString(TokenBucketTable.toRetryAfter(wait)));
+            res.sendError(SC_TOO_MANY_REQUESTS);
+            return;
+        }
+
+        allowed.mark();
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,92 @@
+package com.yammer.dropwizard.servlets;
+
+import com.google.common.base.Optional;
+import com.yammer.dropwizard.util.Duration;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The point in time by which the request being handled by the current thread has to be completed,
+ * because its caller will have given up on it by then. Outgoing calls made on behalf of the request
+ * (e.g. via clients built by {@code JerseyClientBuilder}, or connections from a
+ * {@code ManagedDataSource}) use it to bound their own timeouts.
+ *
+ * @see RequestDeadlineFilter
+ */
+public class RequestDeadline {
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<RequestDeadline>();
+
+    /**
+     * Returns the deadline of the request being handled by the current thread, if it has one.
+     *
+     * @return the current request's deadline
+     */
+    public static Optional<RequestDeadline> current() {
+        return Optional.fromNullable(CURRENT.get());
+    }
+
+    /**
+     * Sets the deadline of the request being handled by the current thread.
+     *
+     * @param deadline the current request's deadline, or {@code null} if it has none
+     */
+    public static void set(@Nullable RequestDeadline deadline) {
+        if (deadline == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(deadline);
+        }
+    }
+
+    /**
+     * Returns a deadline the given amount of time from now.
+     *
+     * @param timeout the amount of time until the deadline
+     * @return a new deadline
+     */
+    public static RequestDeadline in(Duration timeout) {
+        return new RequestDeadline(System.nanoTime() + timeout.toNanoseconds());
+    }
+
+    private final long deadline;
+
+    private RequestDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Returns the amount of time left until the deadline, or zero if it has passed.
+     *
+     * @param unit the unit of the result
+     * @return the remaining time
+     */
+    public long getRemaining(TimeUnit unit) {
+        return unit.convert(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns {@code true} if the deadline has passed.
+     *
+     * @return whether the deadline has passed
+     */
+    public boolean isExpired() {
+        return deadline - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Throws a {@link DeadlineExceededException} if the deadline has passed.
+     *
+     * @throws DeadlineExceededException if the deadline has passed
+     */
+    public void check() throws DeadlineExceededException {
+        if (isExpired()) {
+            throw new DeadlineExceededException();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RequestDeadline{remaining=" + getRemaining(TimeUnit.MILLISECONDS) + "ms}";
+    }
+}
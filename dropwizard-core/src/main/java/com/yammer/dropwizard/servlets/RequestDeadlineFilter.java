@@ -0,0 +1,121 @@
+package com.yammer.dropwizard.servlets;
+
+import com.google.common.base.CharMatcher;
+import com.yammer.dropwizard.util.Duration;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Meter;
+import org.eclipse.jetty.server.Request;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.*;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static com.yammer.dropwizard.util.Servlets.getFullUrl;
+
+/**
+ * A servlet filter which reads the amount of time the caller is willing to wait for a response
+ * from a request header (by default {@code X-Request-Timeout}) and makes it available as the
+ * {@link RequestDeadline} of the request. The header's value is either a number of milliseconds or
+ * a duration such as {@code 250ms}. The time spent waiting for a worker thread counts towards
+ * the deadline.
+ * <p/>
+ * Requests whose deadline has already passed, or which throw a
+ * {@link DeadlineExceededException}, are abandoned with a {@code 504 Gateway Timeout}.
+ */
+@SuppressWarnings("UnusedDeclaration")
+public class RequestDeadlineFilter implements Filter {
+    public static final String DEFAULT_HEADER = "X-Request-Timeout";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RequestDeadlineFilter.class);
+
+    private final String header;
+    private final Meter abandoned;
+
+    /**
+     * Creates a filter which reads the {@code X-Request-Timeout} header.
+     */
+    public RequestDeadlineFilter() {
+        this(DEFAULT_HEADER);
+    }
+
+    /**
+     * Creates a filter which reads the given header.
+     *
+     * @param header the name of the header containing the request's timeout
+     */
+    public RequestDeadlineFilter(String header) {
+        this.header = header;
+        this.abandoned = Metrics.newMeter(RequestDeadlineFilter.class, "abandoned-requests",
+                                          "requests", TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException { /* unused */ }
+
+    @Override
+    public void destroy() { /* unused */ }
+
+    @Override
+    public void doFilter(ServletRequest request,
+                         ServletResponse response,
+                         FilterChain chain) throws IOException, ServletException {
+        final HttpServletRequest req = (HttpServletRequest) request;
+        final HttpServletResponse res = (HttpServletResponse) response;
+        final RequestDeadline deadline = parseDeadline(req);
+        if (deadline == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (deadline.isExpired()) {
+            abandon(req, res);
+            return;
+        }
+
+        RequestDeadline.set(deadline);
+        try {
+            chain.doFilter(request, response);
+        } catch (DeadlineExceededException e) {
+            abandon(req, res);
+        } finally {
+            RequestDeadline.set(null);
+        }
+    }
+
+    private RequestDeadline parseDeadline(HttpServletRequest request) {
+        final String value = request.getHeader(header);
+        if (value == null) {
+            return null;
+        }
+
+        final Duration timeout;
+        try {
+            if (CharMatcher.DIGIT.matchesAllOf(value.trim())) {
+                timeout = Duration.milliseconds(Long.parseLong(value.trim()));
+            } else {
+                timeout = Duration.parse(value);
+            }
+        } catch (IllegalArgumentException e) {
+            LOGGER.debug("Ignoring malformed {} header: {}", header, value);
+            return null;
+        }
+
+        // count the time the request spent waiting for a thread
+        final long waited = (request instanceof Request) ?
+                System.currentTimeMillis() - ((Request) request).getTimeStamp() : 0;
+        return RequestDeadline.in(Duration.milliseconds(timeout.toMilliseconds() - Math.max(0, waited)));
+    }
+
+    private void abandon(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        abandoned.mark();
+        LOGGER.debug("Abandoning {} {}: its deadline has passed",
+                     request.getMethod(), getFullUrl(request));
+        if (!response.isCommitted()) {
+            response.sendError(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+        }
+    }
+}
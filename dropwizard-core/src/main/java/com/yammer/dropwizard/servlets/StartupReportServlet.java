@@ -0,0 +1,37 @@
+package com.yammer.dropwizard.servlets;
+
+import com.yammer.dropwizard.lifecycle.StartupProfiler;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * A servlet which shows how long each phase of the service's startup took, as recorded by a
+ * {@link StartupProfiler}.
+ */
+public class StartupReportServlet extends HttpServlet {
+    private static final long serialVersionUID = 4383532212063656617L;
+
+    private final transient StartupProfiler profiler;
+
+    public StartupReportServlet(StartupProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest req,
+                         HttpServletResponse resp) throws ServletException, IOException {
+        resp.setContentType("text/plain");
+        resp.setHeader("Cache-Control", "must-revalidate,no-cache,no-store");
+        final PrintWriter writer = resp.getWriter();
+        try {
+            writer.print(profiler.getReport());
+        } finally {
+            writer.close();
+        }
+    }
+}
@@ -79,10 +79,14 @@ public class ExecutorServiceBuilder {
                                                                    workQueue,
                                                                    threadFactory,
                                                                    handler);
-        lifeCycle.addBean(new JettyManaged(new ExecutorServiceManager(executor,
-                                                                      shutdownTime,
-                                                                      shutdownUnit,
-                                                                      nameFormat)));
+        final JettyManaged managed = new JettyManaged(new ExecutorServiceManager(executor,
+                                                                                 shutdownTime,
+                                                                                 shutdownUnit,
+                                                                                 nameFormat));
+        // shares LifecycleEnvironment's lock, since bundles may be run concurrently
+        synchronized (lifeCycle) {
+            lifeCycle.addBean(managed);
+        }
         return executor;
     }
 }
@@ -74,7 +74,10 @@ public class FilterBuilder {
      * @return {@code this}
      */
     public FilterBuilder addUrlPattern(String urlPattern) {
-        handler.addFilter(holder, checkNotNull(urlPattern), EnumSet.of(DispatcherType.REQUEST));
+        // bundles may be run concurrently
+        synchronized (handler) {
+            handler.addFilter(holder, checkNotNull(urlPattern), EnumSet.of(DispatcherType.REQUEST));
+        }
         return this;
     }
 
@@ -6,9 +6,11 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Ordering;
 import com.sun.jersey.core.reflection.AnnotatedMethod;
 import com.sun.jersey.core.reflection.MethodList;
-import com.sun.jersey.core.spi.scanning.PackageNamesScanner;
+import com.sun.jersey.core.reflection.ReflectionHelper;
 import com.sun.jersey.spi.container.servlet.ServletContainer;
 import com.yammer.dropwizard.jersey.DropwizardResourceConfig;
+import com.yammer.dropwizard.jersey.index.IndexedScanner;
+import com.yammer.dropwizard.jersey.index.ResourceIndexProcessor;
 import org.eclipse.jetty.util.component.AbstractLifeCycle;
 import org.eclipse.jetty.util.component.LifeCycle;
 import org.slf4j.Logger;
@@ -59,23 +61,31 @@ public class JerseyEnvironment {
      *
      * @param resource a Jersey singleton resource
      */
-    public void addResource(Object resource) {
+    public synchronized void addResource(Object resource) {
         config.getSingletons().add(checkNotNull(resource));
     }
 
     /**
      * Scans the packages and sub-packages of the given {@link Class} objects for resources and
-     * providers.
+     * providers. Packages which were fully indexed at build time by {@link ResourceIndexProcessor}
+     * are looked up in the index instead of being scanned.
      *
      * @param classes the classes whose packages to scan
      */
-    public void scanPackagesForResourcesAndProviders(Class<?>... classes) {
+    public synchronized void scanPackagesForResourcesAndProviders(Class<?>... classes) {
         checkNotNull(classes);
         final String[] names = new String[classes.length];
         for (int i = 0; i < classes.length; i++) {
             names[i] = classes[i].getPackage().getName();
         }
-        config.init(new PackageNamesScanner(names));
+
+        final IndexedScanner scanner = new IndexedScanner(ReflectionHelper.getContextClassLoader(),
+                                                          names);
+        if (!scanner.getScannedPackages().isEmpty()) {
+            LOGGER.debug("No complete resource index for {}, scanning the classpath",
+                         scanner.getScannedPackages());
+        }
+        config.init(scanner);
     }
 
     /**
@@ -84,7 +94,7 @@ public class JerseyEnvironment {
      *
      * @param klass a Jersey resource class
      */
-    public void addResource(Class<?> klass) {
+    public synchronized void addResource(Class<?> klass) {
         config.getClasses().add(checkNotNull(klass));
     }
 
@@ -93,7 +103,7 @@ public class JerseyEnvironment {
      *
      * @param provider a Jersey provider
      */
-    public void addProvider(Object provider) {
+    public synchronized void addProvider(Object provider) {
         config.getSingletons().add(checkNotNull(provider));
     }
 
@@ -103,7 +113,7 @@ public class JerseyEnvironment {
      *
      * @param klass a Jersey provider class
      */
-    public void addProvider(Class<?> klass) {
+    public synchronized void addProvider(Class<?> klass) {
         config.getClasses().add(checkNotNull(klass));
     }
 
@@ -113,7 +123,7 @@ public class JerseyEnvironment {
      * @param name the name of the feature to be enabled
      * @see com.sun.jersey.api.core.ResourceConfig
      */
-    public void enableJerseyFeature(String name) {
+    public synchronized void enableJerseyFeature(String name) {
         config.getFeatures().put(checkNotNull(name), Boolean.TRUE);
     }
 
@@ -123,7 +133,7 @@ public class JerseyEnvironment {
      * @param name the name of the feature to be disabled
      * @see com.sun.jersey.api.core.ResourceConfig
      */
-    public void disableJerseyFeature(String name) {
+    public synchronized void disableJerseyFeature(String name) {
         config.getFeatures().put(checkNotNull(name), Boolean.FALSE);
     }
 
@@ -134,7 +144,7 @@ public class JerseyEnvironment {
      * @param value the value of the Jersey property
      * @see com.sun.jersey.api.core.ResourceConfig
      */
-    public void setJerseyProperty(String name, @Nullable Object value) {
+    public synchronized void setJerseyProperty(String name, @Nullable Object value) {
         config.getProperties().put(checkNotNull(name), value);
     }
 
@@ -1,10 +1,12 @@
 package com.yammer.dropwizard.setup;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.yammer.dropwizard.jetty.ConcurrentLifeCycleGroup;
 import com.yammer.dropwizard.jetty.JettyManaged;
 import com.yammer.dropwizard.lifecycle.ExecutorServiceManager;
 import com.yammer.dropwizard.lifecycle.Managed;
 import com.yammer.dropwizard.lifecycle.ServerLifecycleListener;
+import com.yammer.dropwizard.lifecycle.StartupProfiler;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.util.component.AbstractLifeCycle;
 import org.eclipse.jetty.util.component.AggregateLifeCycle;
@@ -19,10 +21,19 @@ import static com.google.common.base.Preconditions.checkNotNull;
 public class LifecycleEnvironment {
     private static final Logger LOGGER = LoggerFactory.getLogger(LifecycleEnvironment.class);
 
+    // bundles may be run concurrently, so everything added to lifeCycle is added while holding
+    // its lock
     private final AggregateLifeCycle lifeCycle;
+    private final StartupProfiler profiler;
+    private ConcurrentLifeCycleGroup concurrentGroup;
 
     public LifecycleEnvironment(AggregateLifeCycle lifeCycle) {
+        this(lifeCycle, new StartupProfiler());
+    }
+
+    public LifecycleEnvironment(AggregateLifeCycle lifeCycle, StartupProfiler profiler) {
         this.lifeCycle = lifeCycle;
+        this.profiler = profiler;
         lifeCycle.addLifeCycleListener(new AbstractLifeCycle.AbstractLifeCycleListener() {
             @Override
             public void lifeCycleStarting(LifeCycle event) {
@@ -39,7 +50,30 @@ public class LifecycleEnvironment {
      * @param managed a managed object
      */
     public void manage(Managed managed) {
-        lifeCycle.addBean(new JettyManaged(checkNotNull(managed)));
+        final JettyManaged jettyManaged = new JettyManaged(checkNotNull(managed));
+        jettyManaged.addLifeCycleListener(profiler.newListener("managed " + managed));
+        synchronized (lifeCycle) {
+            if (concurrentGroup == null) {
+                lifeCycle.addBean(jettyManaged);
+            } else {
+                concurrentGroup.add(jettyManaged);
+            }
+        }
+    }
+
+    /**
+     * Starts the {@link Managed} instances added from now on concurrently, rather than one after
+     * the other. They must not depend on each other having been started.
+     *
+     * @param threads the maximum number of managed objects to start at once
+     */
+    public void startManagedObjectsConcurrently(int threads) {
+        synchronized (lifeCycle) {
+            if (concurrentGroup == null) {
+                this.concurrentGroup = new ConcurrentLifeCycleGroup(threads);
+                lifeCycle.addBean(concurrentGroup);
+            }
+        }
     }
 
     /**
@@ -49,7 +83,10 @@ public class LifecycleEnvironment {
      * @param managed a Jetty-managed object
      */
     public void manage(LifeCycle managed) {
-        lifeCycle.addBean(checkNotNull(managed));
+        checkNotNull(managed);
+        synchronized (lifeCycle) {
+            lifeCycle.addBean(managed);
+        }
     }
 
     public ExecutorServiceBuilder executorService(String nameFormat) {
@@ -88,7 +125,9 @@ public class LifecycleEnvironment {
                                                                 unit,
                                                                 new LinkedBlockingQueue<Runnable>(),
                                                                 threadFactory);
-        lifeCycle.manage(new ExecutorServiceManager(executor, 5, TimeUnit.SECONDS, nameFormat));
+        synchronized (lifeCycle) {
+            lifeCycle.manage(new ExecutorServiceManager(executor, 5, TimeUnit.SECONDS, nameFormat));
+        }
         return executor;
     }
 
@@ -108,7 +147,9 @@ public class LifecycleEnvironment {
                                                                       .build();
         final ScheduledExecutorService executor = new ScheduledThreadPoolExecutor(corePoolSize,
                                                                                   threadFactory);
-        lifeCycle.manage(new ExecutorServiceManager(executor, 5, TimeUnit.SECONDS, nameFormat));
+        synchronized (lifeCycle) {
+            lifeCycle.manage(new ExecutorServiceManager(executor, 5, TimeUnit.SECONDS, nameFormat));
+        }
         return executor;
     }
 
@@ -49,10 +49,14 @@ public class ScheduledExecutorServiceBuilder {
         final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(poolSize,
                                                                                      threadFactory,
                                                                                      handler);
-        lifeCycle.addBean(new JettyManaged(new ExecutorServiceManager(executor,
-                                                                      shutdownTime,
-                                                                      shutdownUnit,
-                                                                      nameFormat)));
+        final JettyManaged managed = new JettyManaged(new ExecutorServiceManager(executor,
+                                                                                 shutdownTime,
+                                                                                 shutdownUnit,
+                                                                                 nameFormat));
+        // shares LifecycleEnvironment's lock, since bundles may be run concurrently
+        synchronized (lifeCycle) {
+            lifeCycle.addBean(managed);
+        }
         return executor;
     }
 }
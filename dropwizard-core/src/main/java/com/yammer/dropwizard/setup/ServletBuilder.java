@@ -83,11 +83,14 @@ public class ServletBuilder {
      * @return {@code this}
      */
     public ServletBuilder addUrlPattern(String urlPattern) {
-        try {
-            handler.addServlet(holder, checkNotNull(urlPattern));
-        } catch (IllegalArgumentException ignored) {
+        // bundles may be run concurrently
+        synchronized (handler) {
+            try {
+                handler.addServlet(holder, checkNotNull(urlPattern));
+            } catch (IllegalArgumentException ignored) {
                 throw new IllegalArgumentException("Can't map this servlet to " + urlPattern +
-                                                             ", another servlet is already mapped to that.");
+                                                           ", another servlet is already mapped to that.");
+            }
         }
         return this;
     }
@@ -93,8 +93,10 @@ public class ServletEnvironment {
      *                  javax.servlet.ServletRequestAttributeListener}
      */
     public void addServletListeners(EventListener... listeners) {
-        for (EventListener listener : listeners) {
-            handler.addEventListener(listener);
+        synchronized (handler) {
+            for (EventListener listener : listeners) {
+                handler.addEventListener(listener);
+            }
         }
     }
 
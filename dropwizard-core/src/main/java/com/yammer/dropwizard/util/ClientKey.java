@@ -0,0 +1,117 @@
+package com.yammer.dropwizard.util;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import javax.servlet.http.HttpServletRequest;
+import java.security.Principal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Identifies the client which made a request, e.g. for rate limiting. Parsed from one of:
+ * <ul>
+ *     <li>{@code address}: the client's IP address;</li>
+ *     <li>{@code principal}: the name of the authenticated user, or the client's IP address if
+ *     the request isn't authenticated;</li>
+ *     <li>{@code header:<name>}: the value of the given request header (e.g. an API key), or the
+ *     client's IP address if the request doesn't have it.</li>
+ * </ul>
+ * Requests without an IP address, e.g. those made through a
+ * {@link org.eclipse.jetty.server.LocalConnector}, are all identified as {@link #UNKNOWN}.
+ */
+public abstract class ClientKey {
+    /**
+     * The key of clients whose IP address isn't known.
+     */
+    public static final String UNKNOWN = "unknown";
+
+    private static final String HEADER_PREFIX = "header:";
+
+    private static final ClientKey ADDRESS = new ClientKey("address") {
+        @Override
+        public String of(HttpServletRequest request) {
+            return addressOf(request);
+        }
+    };
+
+    private static final ClientKey PRINCIPAL = new ClientKey("principal") {
+        @Override
+        public String of(HttpServletRequest request) {
+            final Principal principal = request.getUserPrincipal();
+            if ((principal == null) || (principal.getName() == null)) {
+                return addressOf(request);
+            }
+            return principal.getName();
+        }
+    };
+
+    public static ClientKey address() {
+        return ADDRESS;
+    }
+
+    public static ClientKey principal() {
+        return PRINCIPAL;
+    }
+
+    public static ClientKey header(final String name) {
+        return new ClientKey(HEADER_PREFIX + name) {
+            @Override
+            public String of(HttpServletRequest request) {
+                final String value = request.getHeader(name);
+                if (value == null) {
+                    return addressOf(request);
+                }
+                return value;
+            }
+        };
+    }
+
+    @JsonCreator
+    public static ClientKey parse(String key) {
+        if (ADDRESS.name.equals(key)) {
+            return ADDRESS;
+        }
+        if (PRINCIPAL.name.equals(key)) {
+            return PRINCIPAL;
+        }
+        checkArgument(key.startsWith(HEADER_PREFIX) && key.length() > HEADER_PREFIX.length(),
+                      "Invalid client key: " + key);
+        return header(key.substring(HEADER_PREFIX.length()));
+    }
+
+    private static String addressOf(HttpServletRequest request) {
+        final String address = request.getRemoteAddr();
+        return (address == null) ? UNKNOWN : address;
+    }
+
+    private final String name;
+
+    private ClientKey(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the key of the client which made the given request.
+     *
+     * @param request a request
+     * @return the key of the client which made {@code request}, never {@code null}
+     */
+    public abstract String of(HttpServletRequest request);
+
+    @Override
+    public boolean equals(Object obj) {
+        return (this == obj) || ((obj instanceof ClientKey) && name.equals(((ClientKey) obj).name));
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
+    @Override
+    @JsonValue
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,116 @@
+package com.yammer.dropwizard.util;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.yammer.metrics.core.Clock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A table of token buckets, one per key (e.g. per client), which all share the same rate and
+ * burst size.
+ * <p/>
+ * Each bucket is a single {@link AtomicLong} holding the time at which it will be full again (the
+ * generic cell rate algorithm, which is equivalent to a token bucket), so acquiring a token is a
+ * compare-and-set and never blocks. The table is striped, holds at most a fixed number of
+ * buckets, evicting the least recently used ones when full, and evicts buckets which have been
+ * idle for a while; an evicted client starts again with a full bucket.
+ */
+public class TokenBucketTable {
+    private final Clock clock;
+    private final long interval;
+    private final long tolerance;
+    private final LoadingCache<String, AtomicLong> buckets;
+
+    /**
+     * Creates a new table.
+     *
+     * @param permits     the number of tokens added to each bucket per {@code period}
+     * @param period      the period over which {@code permits} tokens are added
+     * @param burst       the number of tokens each bucket holds when full
+     * @param maxKeys     the maximum number of buckets in the table
+     * @param idleTimeout how long a bucket may go unused before it's evicted
+     */
+    public TokenBucketTable(int permits, Duration period, int burst, long maxKeys, Duration idleTimeout) {
+        this(Clock.defaultClock(), permits, period, burst, maxKeys, idleTimeout);
+    }
+
+    /**
+     * Creates a new table.
+     *
+     * @param clock       the clock used to refill the buckets
+     * @param permits     the number of tokens added to each bucket per {@code period}
+     * @param period      the period over which {@code permits} tokens are added
+     * @param burst       the number of tokens each bucket holds when full
+     * @param maxKeys     the maximum number of buckets in the table
+     * @param idleTimeout how long a bucket may go unused before it's evicted
+     */
+    public TokenBucketTable(final Clock clock,
+                            int permits,
+                            Duration period,
+                            int burst,
+                            long maxKeys,
+                            Duration idleTimeout) {
+        checkArgument(permits > 0, "permits must be positive");
+        checkArgument(period.toNanoseconds() > 0, "period must be positive");
+        checkArgument(burst > 0, "burst must be positive");
+        this.clock = clock;
+        this.interval = Math.max(1, period.toNanoseconds() / permits);
+        this.tolerance = interval * (burst - 1);
+        this.buckets = CacheBuilder.newBuilder()
+                                   .maximumSize(maxKeys)
+                                   .expireAfterAccess(idleTimeout.getQuantity(), idleTimeout.getUnit())
+                                   .build(new CacheLoader<String, AtomicLong>() {
+                                       @Override
+                                       public AtomicLong load(String key) throws Exception {
+                                           return new AtomicLong(clock.tick());
+                                       }
+                                   });
+    }
+
+    /**
+     * Takes a token from the given key's bucket, if it has one.
+     *
+     * @param key the key of the bucket
+     * @return {@code 0} if a token was taken, otherwise the number of nanoseconds until the bucket
+     *         will have a token
+     */
+    public long tryAcquire(String key) {
+        final AtomicLong bucket = buckets.getUnchecked(key);
+        while (true) {
+            final long now = clock.tick();
+            final long full = bucket.get();
+            final long wait = (full - tolerance) - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(full, Math.max(full, now) + interval)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of buckets in the table.
+     *
+     * @return the number of buckets
+     */
+    public long size() {
+        return buckets.size();
+    }
+
+    /**
+     * Returns the number of seconds to wait until a token will be available, rounded up, as used
+     * in a {@code Retry-After} header.
+     *
+     * @param wait the wait in nanoseconds, as returned by {@link #tryAcquire(String)}
+     * @return the wait in whole seconds
+     */
+    public static long toRetryAfter(long wait) {
+        return Math.max(1, (wait + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+}
@@ -1,9 +1,12 @@
 package com.yammer.dropwizard.config.tests;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.io.Resources;
+import com.yammer.dropwizard.config.AdaptiveCompressionConfiguration;
 import com.yammer.dropwizard.config.ConfigurationFactory;
 import com.yammer.dropwizard.config.GzipConfiguration;
+import com.yammer.dropwizard.jetty.AdaptiveCompression;
 import com.yammer.dropwizard.util.Size;
 import com.yammer.dropwizard.validation.Validator;
 import org.junit.Before;
@@ -51,4 +54,34 @@ public class GzipConfigurationTest {
         assertThat(gzip.getCompressedMimeTypes())
                 .isEqualTo(ImmutableSet.of("text/plain"));
     }
+
+    @Test
+    public void hasACompressionLevel() throws Exception {
+        assertThat(gzip.getCompressionLevel())
+                .isEqualTo(4);
+    }
+
+    @Test
+    public void hasAnAdaptiveCompressionPolicy() throws Exception {
+        final AdaptiveCompressionConfiguration adaptive = gzip.getAdaptiveCompressionConfiguration();
+
+        assertThat(adaptive.isEnabled())
+                .isTrue();
+
+        assertThat(adaptive.getMaxCpuLoad())
+                .isEqualTo(0.5);
+
+        assertThat(adaptive.getMaxQueueSize())
+                .isEqualTo(10);
+
+        assertThat(adaptive.getReducedCompressionLevel())
+                .isEqualTo(2);
+
+        assertThat(adaptive.getMaxEntitySizeUnderLoad())
+                .isEqualTo(Size.kilobytes(16));
+
+        assertThat(adaptive.getMediaTypes())
+                .isEqualTo(ImmutableMap.of("image/svg+xml", AdaptiveCompression.Policy.SKIP,
+                                           "text/html", AdaptiveCompression.Policy.ALWAYS));
+    }
 }
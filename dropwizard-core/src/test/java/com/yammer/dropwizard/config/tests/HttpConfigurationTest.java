@@ -1,10 +1,19 @@
 package com.yammer.dropwizard.config.tests;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.io.Resources;
 import com.yammer.dropwizard.config.ConfigurationFactory;
 import com.yammer.dropwizard.config.HttpConfiguration;
 import com.yammer.dropwizard.config.HttpConfiguration.ConnectorType;
+import com.yammer.dropwizard.config.LogLevelEscalationConfiguration;
+import com.yammer.dropwizard.config.RateLimitConfiguration;
+import com.yammer.dropwizard.config.RateLimitingConfiguration;
+import com.yammer.dropwizard.config.ServiceConnectorConfiguration;
+import com.yammer.dropwizard.config.WarmupConfiguration;
+import com.yammer.dropwizard.config.WarmupRequestConfiguration;
+import com.yammer.dropwizard.util.ClientKey;
 import com.yammer.dropwizard.util.Duration;
 import com.yammer.dropwizard.util.Size;
 import com.yammer.dropwizard.validation.Validator;
@@ -30,6 +39,107 @@ public class HttpConfigurationTest {
                 .isFalse();
     }
 
+    @Test
+    public void loadsRequestQueueConfig() throws Exception {
+        assertThat(http.getRequestQueueConfiguration().getMaxQueueLength())
+                .isEqualTo(500);
+
+        assertThat(http.getRequestQueueConfiguration().getMaxQueueWait())
+                .isEqualTo(Optional.of(Duration.milliseconds(100)));
+
+        assertThat(http.getRequestQueueConfiguration().getShedStatusCode())
+                .isEqualTo(429);
+    }
+
+    @Test
+    public void loadsConcurrencyLimitConfig() throws Exception {
+        assertThat(http.getConcurrencyLimitConfiguration().isEnabled())
+                .isTrue();
+
+        assertThat(http.getConcurrencyLimitConfiguration().getInitialLimit())
+                .isEqualTo(10);
+
+        assertThat(http.getConcurrencyLimitConfiguration().getMaxLimit())
+                .isEqualTo(50);
+
+        assertThat(http.getConcurrencyLimitConfiguration().getBackoffRatio())
+                .isEqualTo(0.8);
+    }
+
+    @Test
+    public void loadsRateLimitingConfig() throws Exception {
+        final RateLimitingConfiguration rateLimiting = http.getRateLimitingConfiguration();
+        assertThat(rateLimiting.getClientKey())
+                .isEqualTo(ClientKey.header("X-Api-Key"));
+
+        assertThat(rateLimiting.getMaxClients())
+                .isEqualTo(500);
+
+        final RateLimitConfiguration search = rateLimiting.getLimits().get("search");
+        assertThat(search.getPermits())
+                .isEqualTo(5);
+
+        assertThat(search.getPeriod())
+                .isEqualTo(Duration.seconds(10));
+
+        assertThat(search.getBurst())
+                .isEqualTo(Optional.of(10));
+    }
+
+    @Test
+    public void loadsWarmupConfig() throws Exception {
+        final WarmupConfiguration warmup = http.getWarmupConfiguration();
+        assertThat(warmup.getIterations())
+                .isEqualTo(50);
+
+        assertThat(warmup.getDuration())
+                .isEqualTo(Optional.of(Duration.seconds(30)));
+
+        final WarmupRequestConfiguration get = warmup.getRequests().get(0);
+        assertThat(get.getMethod())
+                .isEqualTo("GET");
+
+        assertThat(get.getPath())
+                .isEqualTo("/things?q=warm");
+
+        assertThat(get.getBody())
+                .isEqualTo(Optional.<String>absent());
+
+        final WarmupRequestConfiguration post = warmup.getRequests().get(1);
+        assertThat(post.getMethod())
+                .isEqualTo("POST");
+
+        assertThat(post.getHeaders())
+                .isEqualTo(ImmutableMap.of("X-Api-Key", "warm-up"));
+
+        assertThat(post.getBody())
+                .isEqualTo(Optional.of("{\"name\":\"warm-up\"}"));
+    }
+
+    @Test
+    public void loadsLogLevelEscalationConfig() throws Exception {
+        final LogLevelEscalationConfiguration escalation = http.getLogLevelEscalationConfiguration();
+        assertThat(escalation.isEnabled())
+                .isTrue();
+
+        assertThat(escalation.getHeader())
+                .isEqualTo("X-Debug-Level");
+
+        assertThat(escalation.getSecret())
+                .isEqualTo(Optional.of("s3cr3t"));
+    }
+
+    @Test
+    public void doesNotAllowServiceConnectorsNamedLikeTheAdminConnector() throws Exception {
+        final ServiceConnectorConfiguration connector = new ServiceConnectorConfiguration();
+        connector.setName(HttpConfiguration.ADMIN_CONNECTOR_NAME);
+        connector.setPort(9083);
+        http.setConnectors(ImmutableList.of(connector));
+
+        assertThat(http.isConnectorNamingUnique())
+                .isFalse();
+    }
+
     @Test
     public void hasAServicePort() throws Exception {
         assertThat(http.getPort())
@@ -42,6 +152,49 @@ public class HttpConfigurationTest {
                 .isEqualTo(9081);
     }
 
+    @Test
+    public void hasServiceConnectors() throws Exception {
+        final ServiceConnectorConfiguration first = http.getConnectors().get(0);
+        assertThat(first.getName())
+                .isEqualTo("public");
+        assertThat(first.getPort())
+                .isEqualTo(9443);
+        assertThat(first.getType())
+                .isEqualTo(Optional.of(ConnectorType.NONBLOCKING));
+        assertThat(first.getAcceptorThreads())
+                .isEqualTo(Optional.of(4));
+        assertThat(first.getMaxThreads())
+                .isEqualTo(Optional.of(256));
+
+        final ServiceConnectorConfiguration second = http.getConnectors().get(1);
+        assertThat(second.getName())
+                .isEqualTo("internal-api");
+        assertThat(second.getPort())
+                .isEqualTo(9082);
+        assertThat(second.getType())
+                .isEqualTo(Optional.<ConnectorType>absent());
+        assertThat(second.getMaxThreads())
+                .isEqualTo(Optional.<Integer>absent());
+    }
+
+    @Test
+    public void hasAnAdminConnector() throws Exception {
+        assertThat(http.getAdminConnectorConfiguration().getType())
+                .isEqualTo(Optional.of(ConnectorType.NONBLOCKING));
+
+        assertThat(http.getAdminConnectorConfiguration().getMaxIdleTime())
+                .isEqualTo(Optional.of(Duration.seconds(30)));
+
+        assertThat(http.getAdminConnectorConfiguration().getRequestBufferSize())
+                .isEqualTo(Optional.of(Size.kilobytes(8)));
+
+        assertThat(http.getAdminConnectorConfiguration().getResponseBufferSize())
+                .isEqualTo(Optional.<Size>absent());
+
+        assertThat(http.getAdminConnectorConfiguration().getMaxThreads())
+                .isEqualTo(Optional.of(16));
+    }
+
     @Test
     public void hasAMaximumNumberOfThreads() throws Exception {
         assertThat(http.getMaxThreads())
@@ -144,6 +297,12 @@ public class HttpConfigurationTest {
                 .isEqualTo(Duration.seconds(5));
     }
 
+    @Test
+    public void hasADrainDelay() throws Exception {
+        assertThat(http.getDrainDelay())
+                .isEqualTo(Duration.seconds(3));
+    }
+
     @Test
     public void canSendAServerHeader() throws Exception {
         assertThat(http.isServerHeaderEnabled())
@@ -1,10 +1,16 @@
 package com.yammer.dropwizard.config.tests;
 
 import ch.qos.logback.classic.Level;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.io.Resources;
 import com.yammer.dropwizard.config.ConfigurationFactory;
+import com.yammer.dropwizard.config.LogDeduplicationConfiguration;
 import com.yammer.dropwizard.config.LoggingConfiguration;
+import com.yammer.dropwizard.logging.AsyncLoggingOutput;
+import com.yammer.dropwizard.logging.ConsoleLoggingOutput;
+import com.yammer.dropwizard.logging.LoggingOutput;
+import com.yammer.dropwizard.util.Duration;
 import com.yammer.dropwizard.validation.Validator;
 import org.junit.Before;
 import org.junit.Test;
@@ -34,4 +40,61 @@ public class LoggingConfigurationTest {
         assertThat(config.getLoggers())
                 .isEqualTo(ImmutableMap.of("com.example.app", Level.DEBUG));
     }
+
+    @Test
+    public void hasAsyncOutputs() throws Exception {
+        final AsyncLoggingOutput output = (AsyncLoggingOutput) config.getOutputs().get(3);
+
+        assertThat(output.getQueueSize())
+                .isEqualTo(512);
+
+        assertThat(output.getDiscardingThreshold())
+                .isEqualTo(Level.DEBUG);
+
+        assertThat(output.getMaxFlushTime())
+                .isEqualTo(Duration.seconds(5));
+
+        assertThat(output.getOutput())
+                .isInstanceOf(ConsoleLoggingOutput.class);
+
+        assertThat(output.getName())
+                .isEqualTo("async-console");
+    }
+
+    @Test
+    public void requiresUniqueAsyncOutputNames() throws Exception {
+        final AsyncLoggingOutput first = new AsyncLoggingOutput();
+        first.setOutput(new ConsoleLoggingOutput());
+        final AsyncLoggingOutput second = new AsyncLoggingOutput();
+        second.setOutput(new ConsoleLoggingOutput());
+        config.setOutputs(ImmutableList.<LoggingOutput>of(first, second));
+
+        assertThat(first.getName())
+                .isEqualTo("console");
+
+        assertThat(config.isAsyncOutputNamingUnique())
+                .isFalse();
+
+        second.setName("stderr");
+
+        assertThat(config.isAsyncOutputNamingUnique())
+                .isTrue();
+    }
+
+    @Test
+    public void hasDeduplicationSettings() throws Exception {
+        final LogDeduplicationConfiguration deduplication = config.getDeduplicationConfiguration();
+
+        assertThat(deduplication.isEnabled())
+                .isTrue();
+
+        assertThat(deduplication.getThreshold())
+                .isEqualTo(Level.ERROR);
+
+        assertThat(deduplication.getMaxOccurrences())
+                .isEqualTo(5);
+
+        assertThat(deduplication.getWindow())
+                .isEqualTo(Duration.seconds(30));
+    }
 }
@@ -0,0 +1,93 @@
+package com.yammer.dropwizard.config.tests;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.classic.util.ContextInitializer;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.yammer.dropwizard.config.LoggingConfiguration;
+import com.yammer.dropwizard.config.LoggingFactory;
+import com.yammer.dropwizard.logging.DuplicateSuppressingFilter;
+import com.yammer.dropwizard.logging.EscalatedLevelFilter;
+import com.yammer.dropwizard.logging.LoggingOutput;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class LoggingFactoryTest {
+    private final LoggerContext context =
+            ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).getLoggerContext();
+    private final LoggingConfiguration config = new LoggingConfiguration();
+    private final LoggingFactory factory = new LoggingFactory(config, "test");
+
+    @Before
+    public void setUp() throws Exception {
+        config.setOutputs(ImmutableList.<LoggingOutput>of());
+        config.getDeduplicationConfiguration().setEnabled(true);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        // go back to the test configuration
+        context.reset();
+        new ContextInitializer(context).autoConfig();
+    }
+
+    @Test
+    public void replacesTheDuplicateSuppressingFilterWhenReconfigured() throws Exception {
+        factory.configure();
+        final List<DuplicateSuppressingFilter> first = filters(DuplicateSuppressingFilter.class);
+
+        factory.configure();
+        final List<DuplicateSuppressingFilter> second = filters(DuplicateSuppressingFilter.class);
+
+        assertThat(second)
+                .hasSize(1);
+
+        assertThat(second.get(0))
+                .isNotSameAs(first.get(0));
+
+        assertThat(first.get(0).isStarted())
+                .isFalse();
+    }
+
+    @Test
+    public void removesTheDuplicateSuppressingFilterWhenDisabled() throws Exception {
+        factory.configure();
+
+        config.getDeduplicationConfiguration().setEnabled(false);
+        factory.configure();
+
+        assertThat(filters(DuplicateSuppressingFilter.class))
+                .isEmpty();
+    }
+
+    @Test
+    public void replacesTheEscalatedLevelFilterWhenAddedAgain() throws Exception {
+        factory.configure();
+        LoggingFactory.addEscalatedLevelFilter();
+        LoggingFactory.addEscalatedLevelFilter();
+
+        assertThat(filters(EscalatedLevelFilter.class))
+                .hasSize(1);
+
+        assertThat(filters(DuplicateSuppressingFilter.class))
+                .hasSize(1);
+    }
+
+    private <T extends TurboFilter> List<T> filters(Class<T> type) {
+        final List<T> filters = Lists.newArrayList();
+        for (TurboFilter filter : context.getTurboFilterList()) {
+            if (type.isInstance(filter)) {
+                filters.add(type.cast(filter));
+            }
+        }
+        return filters;
+    }
+}
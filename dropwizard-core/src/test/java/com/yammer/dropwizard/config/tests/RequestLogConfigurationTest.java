@@ -1,8 +1,15 @@
 package com.yammer.dropwizard.config.tests;
 
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.io.Resources;
 import com.yammer.dropwizard.config.ConfigurationFactory;
 import com.yammer.dropwizard.config.RequestLogConfiguration;
+import com.yammer.dropwizard.config.RequestLogSamplingConfiguration;
+import com.yammer.dropwizard.jetty.AsyncRequestLog;
+import com.yammer.dropwizard.logging.BatchedFileLoggingOutput;
+import com.yammer.dropwizard.util.Duration;
+import com.yammer.dropwizard.util.Size;
 import com.yammer.dropwizard.validation.Validator;
 import org.junit.Before;
 import org.junit.Test;
@@ -26,4 +33,50 @@ public class RequestLogConfigurationTest {
         assertThat(requestLog.getTimeZone())
             .isEqualTo(TimeZone.getTimeZone("UTC"));
     }
+
+    @Test
+    public void hasAQueueSize() throws Exception {
+        assertThat(requestLog.getQueueSize())
+                .isEqualTo(1024);
+    }
+
+    @Test
+    public void hasAQueueFullPolicy() throws Exception {
+        assertThat(requestLog.getQueueFullPolicy())
+                .isEqualTo(AsyncRequestLog.QueueFullPolicy.BLOCK);
+    }
+
+    @Test
+    public void hasBatchedFileOutputs() throws Exception {
+        final BatchedFileLoggingOutput output = (BatchedFileLoggingOutput) requestLog.getOutputs().get(1);
+
+        assertThat(output.getMaxFileSize())
+                .isEqualTo(Size.megabytes(100));
+
+        assertThat(output.getBufferSize())
+                .isEqualTo(Size.megabytes(1));
+    }
+
+    @Test
+    public void hasAFormat() throws Exception {
+        assertThat(requestLog.getFormat())
+                .isEqualTo(AsyncRequestLog.Format.JSON);
+    }
+
+    @Test
+    public void hasSamplingRules() throws Exception {
+        final RequestLogSamplingConfiguration sampling = requestLog.getSamplingConfiguration();
+
+        assertThat(sampling.isEnabled())
+                .isTrue();
+
+        assertThat(sampling.getSuccessRate())
+                .isEqualTo(0.1);
+
+        assertThat(sampling.getSlowRequestThreshold())
+                .isEqualTo(Optional.of(Duration.milliseconds(500)));
+
+        assertThat(sampling.getPaths())
+                .isEqualTo(ImmutableMap.of("/health", 0.0));
+    }
 }
@@ -0,0 +1,76 @@
+package com.yammer.dropwizard.config.tests;
+
+import com.google.common.collect.ImmutableList;
+import com.yammer.dropwizard.config.Environment;
+import com.yammer.dropwizard.config.HttpConfiguration;
+import com.yammer.dropwizard.config.ServerFactory;
+import com.yammer.dropwizard.config.WarmupRequestConfiguration;
+import com.yammer.dropwizard.jetty.LoadSheddingHandler;
+import com.yammer.dropwizard.jetty.ServerDrainer;
+import com.yammer.dropwizard.jetty.ServerWarmer;
+import com.yammer.dropwizard.json.ObjectMapperFactory;
+import com.yammer.dropwizard.util.Duration;
+import com.yammer.dropwizard.validation.Validator;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.handler.HandlerCollection;
+import org.junit.Test;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class ServerFactoryTest {
+    private final HttpConfiguration config = new HttpConfiguration();
+    private final Environment environment = new Environment("test",
+                                                            new ObjectMapperFactory(),
+                                                            new Validator());
+
+    @Test
+    public void shedsOverdueRequestsIfTheQueueWaitIsBounded() throws Exception {
+        config.getRequestQueueConfiguration().setMaxQueueWait(Duration.milliseconds(100));
+
+        assertThat(serviceHandler(buildServer()))
+                .isInstanceOf(LoadSheddingHandler.class);
+    }
+
+    @Test
+    public void doesNotShedRequestsIfTheQueueWaitIsUnbounded() throws Exception {
+        assertThat(serviceHandler(buildServer()))
+                .isNotInstanceOf(LoadSheddingHandler.class);
+    }
+
+    @Test
+    public void keepsTheInternalConnectorOpenWhileDraining() throws Exception {
+        assertThat(buildServer().getBean(ServerDrainer.class).getOpenConnectors())
+                .containsOnly(HttpConfiguration.ADMIN_CONNECTOR_NAME);
+    }
+
+    @Test
+    public void keepsTheConnectorsSharingTheAdminPortOpenWhileDraining() throws Exception {
+        config.setAdminPort(config.getPort());
+
+        assertThat(buildServer().getBean(ServerDrainer.class).getOpenConnectors())
+                .containsOnly("main");
+    }
+
+    @Test
+    public void startsTheConnectorsSharingTheAdminPortBeforeWarmingUp() throws Exception {
+        config.setAdminPort(config.getPort());
+        final WarmupRequestConfiguration request = new WarmupRequestConfiguration();
+        request.setPath("/things");
+        config.getWarmupConfiguration().setRequests(ImmutableList.of(request));
+
+        final ServerFactory factory = new ServerFactory(config, "test");
+        final ServerWarmer warmer = factory.buildWarmer(factory.buildServer(environment)).get();
+
+        assertThat(warmer.getOpenConnectors())
+                .containsOnly("main");
+    }
+
+    private Server buildServer() throws Exception {
+        return new ServerFactory(config, "test").buildServer(environment);
+    }
+
+    private static Handler serviceHandler(Server server) {
+        return ((HandlerCollection) server.getHandler()).getHandlers()[0];
+    }
+}
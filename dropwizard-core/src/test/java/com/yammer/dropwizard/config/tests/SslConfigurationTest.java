@@ -0,0 +1,62 @@
+package com.yammer.dropwizard.config.tests;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Resources;
+import com.yammer.dropwizard.config.ConfigurationFactory;
+import com.yammer.dropwizard.config.SslConfiguration;
+import com.yammer.dropwizard.util.Duration;
+import com.yammer.dropwizard.validation.Validator;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class SslConfigurationTest {
+    private SslConfiguration ssl;
+
+    @Before
+    public void setUp() throws Exception {
+        this.ssl = ConfigurationFactory.forClass(SslConfiguration.class, new Validator())
+                                       .build(new File(Resources.getResource("yaml/ssl.yml").toURI()));
+    }
+
+    @Test
+    public void hasSupportedProtocols() throws Exception {
+        assertThat(ssl.getSupportedProtocols())
+                .isEqualTo(ImmutableList.of("TLSv1.1", "TLSv1.2"));
+    }
+
+    @Test
+    public void hasOrderedSupportedCipherSuites() throws Exception {
+        assertThat(ssl.getSupportedCipherSuites())
+                .isEqualTo(ImmutableList.of("TLS_ECDHE_RSA_WITH_AES_128_CBC_SHA256",
+                                            "TLS_RSA_WITH_AES_128_CBC_SHA"));
+    }
+
+    @Test
+    public void hasExcludedCipherSuites() throws Exception {
+        assertThat(ssl.getExcludedCipherSuites())
+                .isEqualTo(ImmutableList.of("SSL_RSA_WITH_RC4_128_MD5"));
+    }
+
+    @Test
+    public void canHonorTheCipherSuiteOrder() throws Exception {
+        assertThat(ssl.getHonorCipherSuiteOrder())
+                .isEqualTo(Optional.of(true));
+    }
+
+    @Test
+    public void hasSessionCachingSettings() throws Exception {
+        assertThat(ssl.getSessionCachingEnabled())
+                .isEqualTo(Optional.of(true));
+
+        assertThat(ssl.getSessionCacheSize())
+                .isEqualTo(Optional.of(10000));
+
+        assertThat(ssl.getSessionTimeout())
+                .isEqualTo(Optional.of(Duration.hours(1)));
+    }
+}
@@ -0,0 +1,244 @@
+package com.yammer.dropwizard.jersey.async.tests;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.spi.container.servlet.ServletContainer;
+import com.yammer.dropwizard.jersey.DropwizardResourceConfig;
+import com.yammer.dropwizard.jersey.async.AsyncResourceMethodDispatchAdapter;
+import com.yammer.dropwizard.jersey.async.AsyncResponse;
+import com.yammer.dropwizard.jersey.async.AsyncTimeout;
+import com.yammer.dropwizard.jersey.ratelimit.RateLimited;
+import com.yammer.dropwizard.jersey.ratelimit.RateLimitedResourceMethodDispatchAdapter;
+import com.yammer.dropwizard.util.ClientKey;
+import com.yammer.dropwizard.util.Duration;
+import com.yammer.dropwizard.util.TokenBucketTable;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.annotation.Metered;
+import com.yammer.metrics.core.Counter;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricName;
+import com.yammer.metrics.core.MetricsRegistry;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.nio.SelectChannelConnector;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class AsyncResourceMethodDispatchAdapterTest {
+    @Path("/test/")
+    @Produces(MediaType.TEXT_PLAIN)
+    public static class ExampleResource {
+        private volatile SettableFuture<String> future = SettableFuture.create();
+        private volatile AsyncResponse response;
+
+        @GET
+        @Path("/future")
+        public ListenableFuture<String> getFuture() {
+            return future;
+        }
+
+        @GET
+        @Path("/done")
+        public ListenableFuture<String> getDone() {
+            return Futures.immediateFuture("done");
+        }
+
+        @GET
+        @Path("/handle")
+        public void getHandle(@Context AsyncResponse response) {
+            this.response = response;
+        }
+
+        @GET
+        @Path("/limited")
+        @RateLimited("once")
+        @Metered
+        public ListenableFuture<String> getLimited() {
+            return future;
+        }
+
+        @GET
+        @Path("/slow")
+        @AsyncTimeout(value = 100, unit = TimeUnit.MILLISECONDS)
+        public ListenableFuture<String> getSlow() {
+            return future;
+        }
+    }
+
+    private final ExampleResource resource = new ExampleResource();
+    private final MetricsRegistry registry = new MetricsRegistry();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Client client = Client.create();
+    private final Server server = new Server();
+    private final SelectChannelConnector connector = new SelectChannelConnector();
+
+    @Before
+    public void setUp() throws Exception {
+        final DropwizardResourceConfig config = new DropwizardResourceConfig(true);
+        config.getSingletons().add(resource);
+        config.getSingletons().add(new RateLimitedResourceMethodDispatchAdapter(
+                registry,
+                ImmutableMap.of("once", new TokenBucketTable(1, Duration.minutes(1), 1, 100,
+                                                             Duration.minutes(1))),
+                ClientKey.address()));
+
+        final ServletContextHandler handler = new ServletContextHandler();
+        handler.addServlet(new ServletHolder(new ServletContainer(config)), "/*");
+
+        // the acceptor and the selector take up two threads, which leaves two worker threads
+        final QueuedThreadPool threadPool = new QueuedThreadPool(4);
+        threadPool.setMinThreads(4);
+        connector.setPort(0);
+        connector.setAcceptors(1);
+        server.setThreadPool(threadPool);
+        server.addConnector(connector);
+        server.setHandler(handler);
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        server.stop();
+    }
+
+    @Test
+    public void suspendsRequestsUntilTheirFutureIsDone() throws Exception {
+        final Future<ClientResponse> first = get("/test/future");
+        final Future<ClientResponse> second = get("/test/future");
+        final Future<ClientResponse> third = get("/test/future");
+        waitForSuspendedRequests(3);
+
+        // all the worker threads would be taken if suspended requests held on to them
+        assertThat(get("/test/done").get(5, TimeUnit.SECONDS).getEntity(String.class))
+                .isEqualTo("done");
+
+        resource.future.set("hello");
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getEntity(String.class))
+                .isEqualTo("hello");
+
+        assertThat(second.get(5, TimeUnit.SECONDS).getEntity(String.class))
+                .isEqualTo("hello");
+
+        assertThat(third.get(5, TimeUnit.SECONDS).getEntity(String.class))
+                .isEqualTo("hello");
+
+        assertThat(suspended().count())
+                .isZero();
+    }
+
+    @Test
+    public void doesNotSuspendRequestsWhoseFutureIsAlreadyDone() throws Exception {
+        final ClientResponse response = get("/test/done").get(5, TimeUnit.SECONDS);
+
+        assertThat(response.getEntity(String.class))
+                .isEqualTo("done");
+    }
+
+    @Test
+    public void suspendsRequestsUntilTheirResponseIsResumed() throws Exception {
+        final Future<ClientResponse> future = get("/test/handle");
+        waitForSuspendedRequests(1);
+
+        resource.response.resume("resumed");
+
+        assertThat(future.get(5, TimeUnit.SECONDS).getEntity(String.class))
+                .isEqualTo("resumed");
+    }
+
+    @Test
+    public void mapsExceptions() throws Exception {
+        final Future<ClientResponse> future = get("/test/future");
+        waitForSuspendedRequests(1);
+
+        resource.future.setException(new WebApplicationException(404));
+
+        assertThat(future.get(5, TimeUnit.SECONDS).getStatus())
+                .isEqualTo(404);
+    }
+
+    @Test
+    public void timesOutRequests() throws Exception {
+        final ClientResponse response = get("/test/slow").get(5, TimeUnit.SECONDS);
+
+        assertThat(response.getStatus())
+                .isEqualTo(503);
+
+        assertThat(resource.future.isCancelled())
+                .isTrue();
+    }
+
+    @Test
+    public void limitsAndMetersResumedRequestsOnce() throws Exception {
+        final Future<ClientResponse> future = get("/test/limited");
+        waitForSuspendedRequests(1);
+
+        resource.future.set("limited");
+
+        final ClientResponse response = future.get(5, TimeUnit.SECONDS);
+
+        assertThat(response.getStatus())
+                .isEqualTo(200);
+
+        assertThat(response.getEntity(String.class))
+                .isEqualTo("limited");
+
+        assertThat(((Meter) registry.allMetrics()
+                                    .get(new MetricName(ExampleResource.class,
+                                                        "ExampleResource#getLimited-allowed"))).count())
+                .isEqualTo(1);
+
+        assertThat(((Meter) Metrics.defaultRegistry()
+                                   .allMetrics()
+                                   .get(new MetricName(ExampleResource.class, "getLimited"))).count())
+                .isEqualTo(1);
+    }
+
+    private Future<ClientResponse> get(final String path) {
+        return executor.submit(new Callable<ClientResponse>() {
+            @Override
+            public ClientResponse call() throws Exception {
+                return client.resource("http://localhost:" + connector.getLocalPort() + path)
+                             .get(ClientResponse.class);
+            }
+        });
+    }
+
+    private void waitForSuspendedRequests(int count) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while ((suspended().count() < count) && (System.currentTimeMillis() < deadline)) {
+            Thread.sleep(10);
+        }
+        assertThat(suspended().count())
+                .isEqualTo(count);
+    }
+
+    private static Counter suspended() {
+        return (Counter) Metrics.defaultRegistry()
+                                .allMetrics()
+                                .get(new MetricName(AsyncResourceMethodDispatchAdapter.class,
+                                                    "suspended-requests"));
+    }
+}
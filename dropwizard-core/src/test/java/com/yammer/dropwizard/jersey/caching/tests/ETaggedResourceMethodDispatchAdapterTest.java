@@ -0,0 +1,139 @@
+package com.yammer.dropwizard.jersey.caching.tests;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hashing;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.test.framework.AppDescriptor;
+import com.sun.jersey.test.framework.JerseyTest;
+import com.sun.jersey.test.framework.LowLevelAppDescriptor;
+import com.yammer.dropwizard.jersey.DropwizardResourceConfig;
+import com.yammer.dropwizard.jersey.caching.ETagged;
+import org.junit.Test;
+import org.slf4j.bridge.SLF4JBridgeHandler;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class ETaggedResourceMethodDispatchAdapterTest extends JerseyTest {
+    static {
+        SLF4JBridgeHandler.removeHandlersForRootLogger();
+        SLF4JBridgeHandler.install();
+    }
+
+    private static final String TAG =
+            '"' + Hashing.murmur3_128().hashString("tagged", Charsets.UTF_8).toString() + '"';
+
+    @Path("/test/")
+    @Produces(MediaType.TEXT_PLAIN)
+    public static class ExampleResource {
+        @GET
+        @Path("/tagged")
+        @ETagged
+        public String showTagged() {
+            return "tagged";
+        }
+
+        @GET
+        @Path("/untagged")
+        public String showUntagged() {
+            return "untagged";
+        }
+    }
+
+    @Override
+    protected AppDescriptor configure() {
+        final DropwizardResourceConfig config = new DropwizardResourceConfig(true);
+        config.getSingletons().add(new ExampleResource());
+        return new LowLevelAppDescriptor.Builder(config).build();
+    }
+
+    @Test
+    public void taggedResponsesHaveETagHeaders() throws Exception {
+        final ClientResponse response = client().resource("/test/tagged").get(ClientResponse.class);
+
+        assertThat(response.getStatus())
+                .isEqualTo(200);
+
+        assertThat(response.getHeaders().get(HttpHeaders.ETAG))
+                .containsOnly(TAG);
+
+        assertThat(response.getEntity(String.class))
+                .isEqualTo("tagged");
+    }
+
+    @Test
+    public void untaggedResponsesDoNotHaveETagHeaders() throws Exception {
+        final ClientResponse response = client().resource("/test/untagged").get(ClientResponse.class);
+
+        assertThat(response.getHeaders().get(HttpHeaders.ETAG))
+                .isNull();
+    }
+
+    @Test
+    public void matchingRequestsAreNotModified() throws Exception {
+        final ClientResponse response = getTagged("\"nope\", " + TAG);
+
+        assertThat(response.getStatus())
+                .isEqualTo(304);
+
+        assertThat(response.getHeaders().get(HttpHeaders.ETAG))
+                .containsOnly(TAG);
+
+        assertThat(response.hasEntity())
+                .isFalse();
+    }
+
+    @Test
+    public void weakTagsMatch() throws Exception {
+        assertThat(getTagged("W/" + TAG).getStatus())
+                .isEqualTo(304);
+    }
+
+    @Test
+    public void gzippedTagsMatchAndAreEchoed() throws Exception {
+        final String gzipped = TAG.substring(0, TAG.length() - 1) + "-gzip\"";
+        final ClientResponse response = getTagged(gzipped);
+
+        assertThat(response.getStatus())
+                .isEqualTo(304);
+
+        assertThat(response.getHeaders().get(HttpHeaders.ETAG))
+                .containsOnly(gzipped);
+    }
+
+    @Test
+    public void deflatedTagsMatch() throws Exception {
+        final String deflated = TAG.substring(0, TAG.length() - 1) + "-deflate\"";
+
+        assertThat(getTagged(deflated).getStatus())
+                .isEqualTo(304);
+    }
+
+    @Test
+    public void wildcardsMatch() throws Exception {
+        assertThat(getTagged("*").getStatus())
+                .isEqualTo(304);
+    }
+
+    @Test
+    public void otherTagsAreModified() throws Exception {
+        final ClientResponse response = getTagged("\"nope\"");
+
+        assertThat(response.getStatus())
+                .isEqualTo(200);
+
+        assertThat(response.getEntity(String.class))
+                .isEqualTo("tagged");
+    }
+
+    private ClientResponse getTagged(String ifNoneMatch) {
+        return client().resource("/test/tagged")
+                       .header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch)
+                       .get(ClientResponse.class);
+    }
+}
@@ -0,0 +1,106 @@
+package com.yammer.dropwizard.jersey.caching.tests;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.yammer.dropwizard.jersey.caching.ResponseCache;
+import com.yammer.dropwizard.util.Duration;
+import com.yammer.dropwizard.util.Size;
+import com.yammer.metrics.core.Clock;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricName;
+import com.yammer.metrics.core.MetricsRegistry;
+import org.junit.Test;
+
+import javax.ws.rs.core.MediaType;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class ResponseCacheTest {
+    private final MetricsRegistry registry = new MetricsRegistry();
+    private final Clock clock = mock(Clock.class);
+    private final ResponseCache cache = new ResponseCache(registry,
+                                                          clock,
+                                                          Size.kilobytes(16),
+                                                          Duration.seconds(5));
+    private final ResponseCache.Key key = new ResponseCache.Key("GET", "/one",
+                                                                ImmutableList.<String>of());
+
+    @Test
+    public void missesWhenNothingIsCached() throws Exception {
+        assertThat(cache.check(cache.get(key)))
+                .isEqualTo(ResponseCache.Status.MISS);
+
+        assertThat(meter("misses").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void hitsWhileTheResponseIsFresh() throws Exception {
+        put(key, 10);
+        at(9);
+
+        assertThat(cache.check(cache.get(key)))
+                .isEqualTo(ResponseCache.Status.FRESH);
+
+        assertThat(meter("hits").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void letsOneRequestRevalidateAStaleResponse() throws Exception {
+        put(key, 10);
+        at(12);
+        final ResponseCache.Entry entry = cache.get(key);
+
+        assertThat(cache.check(entry))
+                .isEqualTo(ResponseCache.Status.REVALIDATE);
+
+        assertThat(cache.check(entry))
+                .isEqualTo(ResponseCache.Status.STALE);
+
+        cache.revalidationFailed(entry);
+
+        assertThat(cache.check(entry))
+                .isEqualTo(ResponseCache.Status.REVALIDATE);
+
+        assertThat(meter("stale-hits").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void missesOnceTheStalePeriodIsOver() throws Exception {
+        put(key, 10);
+        at(15);
+
+        assertThat(cache.check(cache.get(key)))
+                .isEqualTo(ResponseCache.Status.MISS);
+    }
+
+    @Test
+    public void evictsResponsesWhenFull() throws Exception {
+        for (int i = 0; i < 64; i++) {
+            put(new ResponseCache.Key("GET", "/" + i, ImmutableList.<String>of()), 10);
+        }
+
+        assertThat(cache.size())
+                .isLessThan(64);
+
+        assertThat(meter("evictions").count())
+                .isEqualTo(64 - cache.size());
+    }
+
+    private void put(ResponseCache.Key key, long maxAge) {
+        cache.put(key, MediaType.TEXT_PLAIN_TYPE, ImmutableListMultimap.<String, Object>of(),
+                  new byte[1024], maxAge);
+    }
+
+    private void at(long seconds) {
+        when(clock.tick()).thenReturn(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    private Meter meter(String name) {
+        return (Meter) registry.allMetrics().get(new MetricName(ResponseCache.class, name));
+    }
+}
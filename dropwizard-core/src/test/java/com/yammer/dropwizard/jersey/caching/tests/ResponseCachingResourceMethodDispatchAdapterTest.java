@@ -0,0 +1,271 @@
+package com.yammer.dropwizard.jersey.caching.tests;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultimap;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.test.framework.AppDescriptor;
+import com.sun.jersey.test.framework.JerseyTest;
+import com.sun.jersey.test.framework.LowLevelAppDescriptor;
+import com.yammer.dropwizard.jersey.DropwizardResourceConfig;
+import com.yammer.dropwizard.jersey.caching.CacheControl;
+import com.yammer.dropwizard.jersey.caching.PurgeResponseCacheTask;
+import com.yammer.dropwizard.jersey.caching.ResponseCache;
+import com.yammer.dropwizard.jersey.caching.ResponseCachingResourceMethodDispatchAdapter;
+import com.yammer.dropwizard.util.Duration;
+import com.yammer.dropwizard.util.Size;
+import com.yammer.metrics.core.Clock;
+import com.yammer.metrics.core.MetricsRegistry;
+import org.junit.Test;
+import org.slf4j.bridge.SLF4JBridgeHandler;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.NewCookie;
+import javax.ws.rs.core.Response;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class ResponseCachingResourceMethodDispatchAdapterTest extends JerseyTest {
+    static {
+        SLF4JBridgeHandler.removeHandlersForRootLogger();
+        SLF4JBridgeHandler.install();
+    }
+
+    private static class ManualClock extends Clock {
+        private long tick;
+
+        @Override
+        public long tick() {
+            return tick;
+        }
+
+        private void advance(long duration, TimeUnit unit) {
+            tick += unit.toNanos(duration);
+        }
+    }
+
+    @Path("/test/")
+    @Produces(MediaType.TEXT_PLAIN)
+    public static class ExampleResource {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @GET
+        @Path("/max-age")
+        @CacheControl(maxAge = 10)
+        public String showMaxAge(@QueryParam("name") String name) {
+            return name + calls.incrementAndGet();
+        }
+
+        @GET
+        @Path("/shared-max-age")
+        @CacheControl(maxAge = 0, sharedMaxAge = 1, sharedMaxAgeUnit = TimeUnit.MINUTES)
+        public String showSharedMaxAge() {
+            return "shared-max-age" + calls.incrementAndGet();
+        }
+
+        @GET
+        @Path("/private")
+        @CacheControl(isPrivate = true, maxAge = 10)
+        public String showPrivate() {
+            return "private" + calls.incrementAndGet();
+        }
+
+        @GET
+        @Path("/cookie")
+        @CacheControl(maxAge = 10)
+        public Response showCookie() {
+            return Response.ok("cookie" + calls.incrementAndGet())
+                           .cookie(new NewCookie("session", "secret"))
+                           .build();
+        }
+
+        @GET
+        @Path("/uncached")
+        public String showUncached() {
+            return "uncached" + calls.incrementAndGet();
+        }
+    }
+
+    // configure() is called by JerseyTest's constructor, before any field initializers run
+    private ManualClock clock;
+    private ResponseCache cache;
+
+    @Override
+    protected AppDescriptor configure() {
+        this.clock = new ManualClock();
+        this.cache = new ResponseCache(new MetricsRegistry(),
+                                       clock,
+                                       Size.megabytes(1),
+                                       Duration.seconds(5));
+        final DropwizardResourceConfig config = new DropwizardResourceConfig(true);
+        config.getSingletons().add(new ExampleResource());
+        config.getSingletons().add(new ResponseCachingResourceMethodDispatchAdapter(
+                cache,
+                ImmutableList.of(HttpHeaders.AUTHORIZATION),
+                ImmutableList.of(HttpHeaders.AUTHORIZATION, HttpHeaders.COOKIE, "X-Api-Key")));
+        return new LowLevelAppDescriptor.Builder(config).build();
+    }
+
+    @Test
+    public void servesFreshResponsesFromTheCache() throws Exception {
+        assertThat(get("/test/max-age?name=a"))
+                .isEqualTo("a1");
+
+        clock.advance(3, TimeUnit.SECONDS);
+        final ClientResponse response = client().resource("/test/max-age?name=a")
+                                                .get(ClientResponse.class);
+
+        assertThat(response.getEntity(String.class))
+                .isEqualTo("a1");
+
+        assertThat(response.getType())
+                .isEqualTo(MediaType.TEXT_PLAIN_TYPE);
+
+        assertThat(response.getHeaders().getFirst("Age"))
+                .isEqualTo("3");
+    }
+
+    @Test
+    public void cachesEachUriSeparately() throws Exception {
+        assertThat(get("/test/max-age?name=a"))
+                .isEqualTo("a1");
+
+        assertThat(get("/test/max-age?name=b"))
+                .isEqualTo("b2");
+
+        assertThat(get("/test/max-age?name=a"))
+                .isEqualTo("a1");
+    }
+
+    @Test
+    public void cachesEachValueOfTheVaryHeadersSeparately() throws Exception {
+        assertThat(client().resource("/test/max-age?name=a")
+                           .header(HttpHeaders.AUTHORIZATION, "one")
+                           .get(String.class))
+                .isEqualTo("a1");
+
+        assertThat(client().resource("/test/max-age?name=a")
+                           .header(HttpHeaders.AUTHORIZATION, "two")
+                           .get(String.class))
+                .isEqualTo("a2");
+
+        assertThat(client().resource("/test/max-age?name=a")
+                           .header(HttpHeaders.AUTHORIZATION, "one")
+                           .get(String.class))
+                .isEqualTo("a1");
+    }
+
+    @Test
+    public void refreshesResponsesOnceTheyAreStale() throws Exception {
+        assertThat(get("/test/max-age?name=a"))
+                .isEqualTo("a1");
+
+        clock.advance(11, TimeUnit.SECONDS);
+
+        assertThat(get("/test/max-age?name=a"))
+                .isEqualTo("a2");
+
+        assertThat(get("/test/max-age?name=a"))
+                .isEqualTo("a2");
+    }
+
+    @Test
+    public void prefersTheSharedMaxAge() throws Exception {
+        assertThat(get("/test/shared-max-age"))
+                .isEqualTo("shared-max-age1");
+
+        clock.advance(30, TimeUnit.SECONDS);
+
+        assertThat(get("/test/shared-max-age"))
+                .isEqualTo("shared-max-age1");
+    }
+
+    @Test
+    public void doesNotCachePrivateResponses() throws Exception {
+        assertThat(get("/test/private"))
+                .isEqualTo("private1");
+
+        assertThat(get("/test/private"))
+                .isEqualTo("private2");
+    }
+
+    @Test
+    public void doesNotCacheResponsesWithoutCacheControl() throws Exception {
+        assertThat(get("/test/uncached"))
+                .isEqualTo("uncached1");
+
+        assertThat(get("/test/uncached"))
+                .isEqualTo("uncached2");
+    }
+
+    @Test
+    public void doesNotCacheResponsesWhichSetCookies() throws Exception {
+        final ClientResponse response = client().resource("/test/cookie")
+                                                .get(ClientResponse.class);
+
+        assertThat(response.getCookies())
+                .hasSize(1);
+
+        assertThat(response.getEntity(String.class))
+                .isEqualTo("cookie1");
+
+        assertThat(get("/test/cookie"))
+                .isEqualTo("cookie2");
+    }
+
+    @Test
+    public void bypassesTheCacheForCredentialsWhichResponsesDoNotVaryOn() throws Exception {
+        assertThat(get("/test/max-age?name=a"))
+                .isEqualTo("a1");
+
+        assertThat(client().resource("/test/max-age?name=a")
+                           .header(HttpHeaders.COOKIE, "session=one")
+                           .get(String.class))
+                .isEqualTo("a2");
+
+        assertThat(client().resource("/test/max-age?name=a")
+                           .header("X-Api-Key", "one")
+                           .get(String.class))
+                .isEqualTo("a3");
+
+        assertThat(client().resource("/test/max-age?name=a")
+                           .header("X-Api-Key", "two")
+                           .get(String.class))
+                .isEqualTo("a4");
+
+        assertThat(get("/test/max-age?name=a"))
+                .isEqualTo("a1");
+    }
+
+    @Test
+    public void purgesResponsesWithTheGivenPrefix() throws Exception {
+        get("/test/max-age?name=a");
+        get("/test/shared-max-age");
+
+        final StringWriter output = new StringWriter();
+        new PurgeResponseCacheTask(cache).execute(
+                ImmutableMultimap.of("prefix", "/test/max-age"),
+                new PrintWriter(output));
+
+        assertThat(output.toString())
+                .isEqualTo(String.format("Purged 1 responses%n"));
+
+        assertThat(get("/test/max-age?name=a"))
+                .isEqualTo("a3");
+
+        assertThat(get("/test/shared-max-age"))
+                .isEqualTo("shared-max-age2");
+    }
+
+    private String get(String path) {
+        return client().resource(path).get(String.class);
+    }
+}
@@ -0,0 +1,241 @@
+package com.yammer.dropwizard.jersey.coalescing.tests;
+
+import com.google.common.collect.Lists;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.test.framework.AppDescriptor;
+import com.sun.jersey.test.framework.JerseyTest;
+import com.sun.jersey.test.framework.LowLevelAppDescriptor;
+import com.yammer.dropwizard.jersey.DropwizardResourceConfig;
+import com.yammer.dropwizard.jersey.coalescing.Coalesce;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricName;
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.bridge.SLF4JBridgeHandler;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.NewCookie;
+import javax.ws.rs.core.Response;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class CoalescingResourceMethodDispatchAdapterTest extends JerseyTest {
+    static {
+        SLF4JBridgeHandler.removeHandlersForRootLogger();
+        SLF4JBridgeHandler.install();
+    }
+
+    @Path("/test/")
+    @Produces(MediaType.TEXT_PLAIN)
+    public static class ExampleResource {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @GET
+        @Path("/coalesced")
+        @Coalesce
+        public String showCoalesced() throws InterruptedException {
+            return "coalesced" + block();
+        }
+
+        @GET
+        @Path("/cookie")
+        @Coalesce
+        public Response showCookie() throws InterruptedException {
+            return Response.ok("cookie" + block())
+                           .cookie(new NewCookie("session", "secret"))
+                           .build();
+        }
+
+        @GET
+        @Path("/failing")
+        @Coalesce
+        public String showFailing() throws InterruptedException {
+            block();
+            throw new WebApplicationException(503);
+        }
+
+        @GET
+        @Path("/impatient")
+        @Coalesce(timeout = 50, timeoutUnit = TimeUnit.MILLISECONDS)
+        public String showImpatient() throws InterruptedException {
+            return "impatient" + block();
+        }
+
+        @GET
+        @Path("/uncoalesced")
+        public String showUncoalesced() throws InterruptedException {
+            return "uncoalesced" + block();
+        }
+
+        private int block() throws InterruptedException {
+            final int call = calls.incrementAndGet();
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return call;
+        }
+    }
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    // configure() is called by JerseyTest's constructor, before any field initializers run
+    private ExampleResource resource;
+
+    @Override
+    protected AppDescriptor configure() {
+        this.resource = new ExampleResource();
+        final DropwizardResourceConfig config = new DropwizardResourceConfig(true);
+        config.getSingletons().add(resource);
+        return new LowLevelAppDescriptor.Builder(config).build();
+    }
+
+    @After
+    public void shutdown() throws Exception {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void identicalCallsShareOneResponse() throws Exception {
+        final List<ClientResponse> responses = callConcurrently("/test/coalesced", 5);
+
+        assertThat(resource.calls.get())
+                .isEqualTo(1);
+
+        for (ClientResponse response : responses) {
+            assertThat(response.getStatus())
+                    .isEqualTo(200);
+
+            assertThat(response.getType())
+                    .isEqualTo(MediaType.TEXT_PLAIN_TYPE);
+
+            assertThat(response.getEntity(String.class))
+                    .isEqualTo("coalesced1");
+        }
+
+        assertThat(meter("ExampleResource#showCoalesced-coalesced").count())
+                .isEqualTo(4);
+    }
+
+    @Test
+    public void cookiesAreNotShared() throws Exception {
+        final List<ClientResponse> responses = callConcurrently("/test/cookie", 3);
+
+        assertThat(resource.calls.get())
+                .isEqualTo(1);
+
+        assertThat(responses.get(0).getCookies())
+                .hasSize(1);
+
+        for (ClientResponse response : responses.subList(1, responses.size())) {
+            assertThat(response.getEntity(String.class))
+                    .isEqualTo("cookie1");
+
+            assertThat(response.getCookies())
+                    .isEmpty();
+        }
+    }
+
+    @Test
+    public void exceptionsAreShared() throws Exception {
+        final List<ClientResponse> responses = callConcurrently("/test/failing", 3);
+
+        assertThat(resource.calls.get())
+                .isEqualTo(1);
+
+        for (ClientResponse response : responses) {
+            assertThat(response.getStatus())
+                    .isEqualTo(503);
+        }
+    }
+
+    @Test
+    public void callsWhichTimeOutAreHandledOnTheirOwn() throws Exception {
+        final List<ClientResponse> responses = callConcurrently("/test/impatient", 2);
+
+        assertThat(resource.calls.get())
+                .isEqualTo(2);
+
+        assertThat(responses.get(1).getEntity(String.class))
+                .isEqualTo("impatient2");
+
+        assertThat(meter("ExampleResource#showImpatient-coalesce-timeouts").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void callsWithDifferentHeadersAreNotCoalesced() throws Exception {
+        final Future<ClientResponse> first = executor.submit(call("/test/coalesced", "one"));
+        resource.entered.await(5, TimeUnit.SECONDS);
+        final Future<ClientResponse> second = executor.submit(call("/test/coalesced", "two"));
+        Thread.sleep(200);
+        resource.release.countDown();
+
+        assertThat(first.get().getEntity(String.class))
+                .isEqualTo("coalesced1");
+
+        assertThat(second.get().getEntity(String.class))
+                .isEqualTo("coalesced2");
+    }
+
+    @Test
+    public void unannotatedMethodsAreNotCoalesced() throws Exception {
+        callConcurrently("/test/uncoalesced", 3);
+
+        assertThat(resource.calls.get())
+                .isEqualTo(3);
+    }
+
+    /**
+     * Makes the first call, and once it's being handled, the rest, which then wait for it.
+     */
+    private List<ClientResponse> callConcurrently(String path, int count) throws Exception {
+        final List<Future<ClientResponse>> futures = Lists.newArrayList();
+        futures.add(executor.submit(call(path, null)));
+        resource.entered.await(5, TimeUnit.SECONDS);
+        for (int i = 1; i < count; i++) {
+            futures.add(executor.submit(call(path, null)));
+        }
+        Thread.sleep(200);
+        resource.release.countDown();
+
+        final List<ClientResponse> responses = Lists.newArrayList();
+        for (Future<ClientResponse> future : futures) {
+            responses.add(future.get(5, TimeUnit.SECONDS));
+        }
+        return responses;
+    }
+
+    private Callable<ClientResponse> call(final String path, final String authorization) {
+        return new Callable<ClientResponse>() {
+            @Override
+            public ClientResponse call() throws Exception {
+                if (authorization == null) {
+                    return client().resource(path).get(ClientResponse.class);
+                }
+                return client().resource(path)
+                               .header(HttpHeaders.AUTHORIZATION, authorization)
+                               .get(ClientResponse.class);
+            }
+        };
+    }
+
+    private static Meter meter(String name) {
+        return (Meter) Metrics.defaultRegistry()
+                              .allMetrics()
+                              .get(new MetricName(ExampleResource.class, name));
+    }
+}
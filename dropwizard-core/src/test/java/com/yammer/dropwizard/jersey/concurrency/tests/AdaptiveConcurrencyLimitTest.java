@@ -0,0 +1,129 @@
+package com.yammer.dropwizard.jersey.concurrency.tests;
+
+import com.yammer.dropwizard.jersey.concurrency.AdaptiveConcurrencyLimit;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class AdaptiveConcurrencyLimitTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 2, 6, 0.5, 2.0);
+
+    @Test
+    public void rejectsRequestsOverTheLimit() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            assertThat(limit.tryAcquire())
+                    .isTrue();
+        }
+
+        assertThat(limit.tryAcquire())
+                .isFalse();
+
+        assertThat(limit.getInFlight())
+                .isEqualTo(4);
+    }
+
+    @Test
+    public void growsWhileLatencyIsSteady() throws Exception {
+        acquire(4);
+        limit.release(FAST);
+        limit.release(FAST);
+
+        assertThat(limit.getLimit())
+                .isEqualTo(6);
+    }
+
+    @Test
+    public void neverGrowsPastTheMaximum() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            acquire(limit.getLimit());
+            limit.release(FAST);
+            limit.release(FAST);
+            limit.release(FAST);
+            releaseAll();
+        }
+
+        assertThat(limit.getLimit())
+                .isEqualTo(6);
+    }
+
+    @Test
+    public void backsOffWhenLatencyRises() throws Exception {
+        acquire(4);
+        limit.release(FAST);
+        limit.release(SLOW);
+
+        assertThat(limit.getLimit())
+                .isEqualTo(2);
+    }
+
+    @Test
+    public void neverBacksOffPastTheMinimum() throws Exception {
+        acquire(4);
+        limit.release(FAST);
+        limit.release(SLOW);
+        limit.release(SLOW);
+        limit.release(SLOW);
+
+        assertThat(limit.getLimit())
+                .isEqualTo(2);
+    }
+
+    @Test
+    public void backsOffOnceWhenManySlowRequestsCompleteTogether() throws Exception {
+        final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(100, 1, 200, 0.9, 2.0);
+        for (int i = 0; i < 60; i++) {
+            limit.tryAcquire();
+        }
+        limit.release(FAST);
+
+        // e.g. a GC pause which held up every request in flight
+        for (int i = 0; i < 59; i++) {
+            limit.release(SLOW);
+        }
+
+        assertThat(limit.getLimit())
+                .isEqualTo(90);
+    }
+
+    @Test
+    public void backsOffAgainOnceTheStalledRequestsHaveCompleted() throws Exception {
+        acquire(4);
+        limit.release(FAST);
+        limit.release(SLOW);
+        releaseAll();
+
+        acquire(6);
+        limit.release(SLOW);
+
+        assertThat(limit.getLimit())
+                .isEqualTo(2);
+    }
+
+    @Test
+    public void ignoresLatencyWhileMostlyIdle() throws Exception {
+        acquire(1);
+        limit.release(FAST);
+        acquire(1);
+        limit.release(SLOW);
+
+        assertThat(limit.getLimit())
+                .isEqualTo(4);
+    }
+
+    private void acquire(int count) {
+        for (int i = 0; i < count; i++) {
+            limit.tryAcquire();
+        }
+    }
+
+    private void releaseAll() {
+        while (limit.getInFlight() > 0) {
+            limit.release(FAST);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.yammer.dropwizard.jersey.concurrency.tests;
+
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.test.framework.AppDescriptor;
+import com.sun.jersey.test.framework.JerseyTest;
+import com.sun.jersey.test.framework.LowLevelAppDescriptor;
+import com.yammer.dropwizard.jersey.DropwizardResourceConfig;
+import com.yammer.dropwizard.jersey.concurrency.ConcurrencyLimitingResourceMethodDispatchAdapter;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricName;
+import com.yammer.metrics.core.MetricsRegistry;
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.bridge.SLF4JBridgeHandler;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class ConcurrencyLimitingResourceMethodDispatchAdapterTest extends JerseyTest {
+    static {
+        SLF4JBridgeHandler.removeHandlersForRootLogger();
+        SLF4JBridgeHandler.install();
+    }
+
+    @Path("/test/")
+    @Produces(MediaType.TEXT_PLAIN)
+    public static class ExampleResource {
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @GET
+        @Path("/slow")
+        public String show() throws InterruptedException {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "slow";
+        }
+
+        @GET
+        @Path("/other")
+        public String showOther() {
+            return "other";
+        }
+    }
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    // configure() is called by JerseyTest's constructor, before any field initializers run
+    private MetricsRegistry registry;
+    private ExampleResource resource;
+
+    @Override
+    protected AppDescriptor configure() {
+        this.registry = new MetricsRegistry();
+        this.resource = new ExampleResource();
+        final DropwizardResourceConfig config = new DropwizardResourceConfig(true);
+        config.getSingletons().add(new ConcurrencyLimitingResourceMethodDispatchAdapter(registry,
+                                                                                        1, 1, 1,
+                                                                                        0.5, 2));
+        config.getSingletons().add(resource);
+        return new LowLevelAppDescriptor.Builder(config).build();
+    }
+
+    @After
+    public void shutdown() throws Exception {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void rejectsRequestsOverTheLimit() throws Exception {
+        final Future<ClientResponse> first = executor.submit(call("/test/slow"));
+        resource.entered.await(5, TimeUnit.SECONDS);
+
+        final ClientResponse second = client().resource("/test/slow").get(ClientResponse.class);
+        resource.release.countDown();
+
+        assertThat(second.getStatus())
+                .isEqualTo(503);
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getStatus())
+                .isEqualTo(200);
+
+        assertThat(meter("ExampleResource#show-rejected").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void limitsEachResourceMethodSeparately() throws Exception {
+        final Future<ClientResponse> first = executor.submit(call("/test/slow"));
+        resource.entered.await(5, TimeUnit.SECONDS);
+
+        final ClientResponse other = client().resource("/test/other").get(ClientResponse.class);
+        resource.release.countDown();
+
+        assertThat(other.getStatus())
+                .isEqualTo(200);
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getStatus())
+                .isEqualTo(200);
+    }
+
+    private Callable<ClientResponse> call(final String path) {
+        return new Callable<ClientResponse>() {
+            @Override
+            public ClientResponse call() throws Exception {
+                return client().resource(path).get(ClientResponse.class);
+            }
+        };
+    }
+
+    private Meter meter(String name) {
+        return (Meter) registry.allMetrics().get(new MetricName(ExampleResource.class, name));
+    }
+}
@@ -0,0 +1,167 @@
+package com.yammer.dropwizard.jersey.index.tests;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+import com.sun.jersey.core.spi.scanning.ScannerListener;
+import com.yammer.dropwizard.jersey.index.IndexedScanner;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static com.yammer.dropwizard.jersey.index.tests.Sources.plain;
+import static com.yammer.dropwizard.jersey.index.tests.Sources.resource;
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class IndexedScannerTest {
+    private static final String PACKAGE = "com.example.indexing";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void looksUpFullyIndexedPackages() throws Exception {
+        final File indexed = indexedClasses();
+        final IndexedScanner scanner = new IndexedScanner(loader(indexed), PACKAGE);
+
+        assertThat(scanner.getScannedPackages())
+                .isEmpty();
+
+        assertThat(process(scanner))
+                .containsOnly("PeopleResource.class", "PlacesResource.class");
+    }
+
+    @Test
+    public void looksUpFullyIndexedJars() throws Exception {
+        final File jar = jar(indexedClasses());
+        final IndexedScanner scanner = new IndexedScanner(loader(jar), PACKAGE);
+
+        assertThat(scanner.getScannedPackages())
+                .isEmpty();
+
+        assertThat(process(scanner))
+                .containsOnly("PeopleResource.class", "PlacesResource.class");
+    }
+
+    @Test
+    public void skipsIndexedClassesWhichNoLongerExist() throws Exception {
+        final File indexed = indexedClasses();
+        new File(indexed, "com/example/indexing/PeopleResource.class").delete();
+        final IndexedScanner scanner = new IndexedScanner(loader(indexed), PACKAGE);
+
+        assertThat(process(scanner))
+                .containsOnly("PlacesResource.class");
+    }
+
+    @Test
+    public void scansPackagesWhichAreAlsoInUnindexedRoots() throws Exception {
+        final File indexed = indexedClasses();
+        final File unindexed = folder.newFolder("unindexed");
+        new Sources().add(PACKAGE + ".ThingsResource", resource(PACKAGE + ".ThingsResource"))
+                     .compile(unindexed, false);
+        final IndexedScanner scanner = new IndexedScanner(loader(indexed, unindexed), PACKAGE);
+
+        assertThat(scanner.getScannedPackages())
+                .containsOnly(PACKAGE);
+
+        assertThat(process(scanner))
+                .contains("PeopleResource.class", "PlacesResource.class", "ThingsResource.class");
+    }
+
+    @Test
+    public void scansPackagesWithUnindexedSubPackages() throws Exception {
+        final File indexed = indexedClasses();
+        new Sources().add(PACKAGE + ".late.ThingsResource", resource(PACKAGE + ".late.ThingsResource"))
+                     .compile(indexed, false);
+        final IndexedScanner scanner = new IndexedScanner(loader(indexed), PACKAGE);
+
+        assertThat(scanner.getScannedPackages())
+                .containsOnly(PACKAGE);
+
+        assertThat(process(scanner))
+                .contains("ThingsResource.class");
+    }
+
+    @Test
+    public void scansUnindexedPackages() throws Exception {
+        final File unindexed = folder.newFolder("unindexed");
+        new Sources().add(PACKAGE + ".ThingsResource", resource(PACKAGE + ".ThingsResource"))
+                     .compile(unindexed, false);
+        final IndexedScanner scanner = new IndexedScanner(loader(unindexed), PACKAGE);
+
+        assertThat(scanner.getScannedPackages())
+                .containsOnly(PACKAGE);
+
+        assertThat(process(scanner))
+                .containsOnly("ThingsResource.class");
+    }
+
+    private File indexedClasses() throws Exception {
+        final File output = folder.newFolder("indexed");
+        new Sources().add(PACKAGE + ".PeopleResource", resource(PACKAGE + ".PeopleResource"))
+                     .add(PACKAGE + ".Helper", plain(PACKAGE + ".Helper"))
+                     .add(PACKAGE + ".api.PlacesResource", resource(PACKAGE + ".api.PlacesResource"))
+                     .compile(output, true);
+        return output;
+    }
+
+    private File jar(File directory) throws Exception {
+        final File jar = new File(folder.getRoot(), "indexed.jar");
+        final JarOutputStream output = new JarOutputStream(new FileOutputStream(jar));
+        try {
+            addToJar(output, directory, "");
+        } finally {
+            output.close();
+        }
+        return jar;
+    }
+
+    private static void addToJar(JarOutputStream output, File directory, String prefix) throws Exception {
+        for (File file : directory.listFiles()) {
+            if (file.isDirectory()) {
+                output.putNextEntry(new JarEntry(prefix + file.getName() + '/'));
+                output.closeEntry();
+                addToJar(output, file, prefix + file.getName() + '/');
+            } else {
+                output.putNextEntry(new JarEntry(prefix + file.getName()));
+                Files.copy(file, output);
+                output.closeEntry();
+            }
+        }
+    }
+
+    private static ClassLoader loader(File... roots) throws Exception {
+        final URL[] urls = new URL[roots.length];
+        for (int i = 0; i < roots.length; i++) {
+            urls[i] = roots[i].toURI().toURL();
+        }
+        return new URLClassLoader(urls, null);
+    }
+
+    /**
+     * Returns the file names of the classes the scanner passes to its listener.
+     */
+    private static List<String> process(IndexedScanner scanner) {
+        final List<String> names = Lists.newArrayList();
+        scanner.scan(new ScannerListener() {
+            @Override
+            public boolean onAccept(String name) {
+                return name.endsWith(".class");
+            }
+
+            @Override
+            public void onProcess(String name, InputStream input) {
+                names.add(name.substring(name.lastIndexOf('/') + 1));
+            }
+        });
+        return names;
+    }
+}
@@ -0,0 +1,63 @@
+package com.yammer.dropwizard.jersey.index.tests;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import com.yammer.dropwizard.jersey.index.ResourceIndex;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.List;
+
+import static com.yammer.dropwizard.jersey.index.tests.Sources.plain;
+import static com.yammer.dropwizard.jersey.index.tests.Sources.resource;
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class ResourceIndexProcessorTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void indexesPackagesResourcesAndProviders() throws Exception {
+        final File output = folder.newFolder("classes");
+        new Sources().add("com.example.indexing.PeopleResource", resource("com.example.indexing.PeopleResource"))
+                     .add("com.example.indexing.Helper", plain("com.example.indexing.Helper"))
+                     .add("com.example.indexing.api.PeopleProvider",
+                          "package com.example.indexing.api;\n" +
+                                  "@javax.ws.rs.ext.Provider public class PeopleProvider {}\n")
+                     .add("com.example.indexing.api.Outer",
+                          "package com.example.indexing.api;\n" +
+                                  "public class Outer {\n" +
+                                  "    @javax.ws.rs.Path(\"/inner\") public static class Inner {}\n" +
+                                  "}\n")
+                     .compile(output, true);
+
+        assertThat(index(output))
+                .containsOnly("package com.example.indexing",
+                              "package com.example.indexing.api",
+                              "class com.example.indexing.PeopleResource",
+                              "class com.example.indexing.api.Outer$Inner",
+                              "class com.example.indexing.api.PeopleProvider");
+    }
+
+    @Test
+    public void keepsTheEntriesOfPreviousCompiles() throws Exception {
+        final File output = folder.newFolder("classes");
+        new Sources().add("com.example.indexing.PeopleResource", resource("com.example.indexing.PeopleResource"))
+                     .compile(output, true);
+        new Sources().add("com.example.indexing.api.PlacesResource",
+                          resource("com.example.indexing.api.PlacesResource"))
+                     .compile(output, true);
+
+        assertThat(index(output))
+                .containsOnly("package com.example.indexing",
+                              "package com.example.indexing.api",
+                              "class com.example.indexing.PeopleResource",
+                              "class com.example.indexing.api.PlacesResource");
+    }
+
+    private static List<String> index(File output) throws Exception {
+        return Files.readLines(new File(output, ResourceIndex.LOCATION), Charsets.UTF_8);
+    }
+}
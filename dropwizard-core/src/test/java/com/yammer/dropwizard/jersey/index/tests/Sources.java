@@ -0,0 +1,81 @@
+package com.yammer.dropwizard.jersey.index.tests;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.yammer.dropwizard.jersey.index.ResourceIndexProcessor;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import javax.ws.rs.Path;
+import java.io.File;
+import java.net.URI;
+import java.util.List;
+
+import static org.junit.Assume.assumeNotNull;
+
+/**
+ * Compiles Java sources at test time, with or without the {@link ResourceIndexProcessor}.
+ */
+class Sources {
+    private final List<JavaFileObject> files = Lists.newArrayList();
+
+    /**
+     * Adds a source file.
+     *
+     * @param className the binary name of the file's top-level class
+     * @param source    the contents of the file
+     * @return {@code this}
+     */
+    Sources add(String className, final String source) {
+        final URI uri = URI.create("string:///" + className.replace('.', '/') + ".java");
+        files.add(new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Compiles the sources into the given directory.
+     *
+     * @param output the directory to write the classes to
+     * @param index  whether to run the {@link ResourceIndexProcessor}
+     */
+    void compile(File output, boolean index) throws Exception {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assumeNotNull(compiler);
+
+        final File jaxrs = new File(Path.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        final List<String> options = Lists.newArrayList("-d", output.getAbsolutePath(),
+                                                        "-classpath", jaxrs.getAbsolutePath());
+        if (!index) {
+            options.add("-proc:none");
+        }
+
+        final JavaCompiler.CompilationTask task = compiler.getTask(null, null, null, options, null, files);
+        if (index) {
+            task.setProcessors(ImmutableList.of(new ResourceIndexProcessor()));
+        }
+        if (!task.call()) {
+            throw new IllegalStateException("Unable to compile " + files);
+        }
+    }
+
+    static String resource(String className) {
+        return type(className, "@javax.ws.rs.Path(\"/\") public class");
+    }
+
+    static String plain(String className) {
+        return type(className, "public class");
+    }
+
+    private static String type(String className, String declaration) {
+        final int dot = className.lastIndexOf('.');
+        return "package " + className.substring(0, dot) + ";\n" +
+                declaration + ' ' + className.substring(dot + 1) + " {}\n";
+    }
+}
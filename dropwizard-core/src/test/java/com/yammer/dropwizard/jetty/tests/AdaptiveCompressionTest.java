@@ -0,0 +1,142 @@
+package com.yammer.dropwizard.jetty.tests;
+
+import com.google.common.collect.ImmutableMap;
+import com.yammer.dropwizard.jetty.AdaptiveCompression;
+import com.yammer.metrics.core.Clock;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricName;
+import com.yammer.metrics.core.MetricsRegistry;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.yammer.dropwizard.jetty.AdaptiveCompression.Decision.*;
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+public class AdaptiveCompressionTest {
+    private static class JvmCpuTime extends AdaptiveCompression {
+        private JvmCpuTime() {
+            super(new MetricsRegistry(), Clock.defaultClock(), 0.8, 10, 1024, 1,
+                  ImmutableMap.<String, Policy>of());
+        }
+
+        private long cpuTime() {
+            return getProcessCpuTime();
+        }
+    }
+
+    private static final int PROCESSORS = Runtime.getRuntime().availableProcessors();
+
+    private final MetricsRegistry registry = new MetricsRegistry();
+    private final AtomicLong tick = new AtomicLong();
+    private final AtomicLong cpuTime = new AtomicLong();
+    private final Clock clock = new Clock() {
+        @Override
+        public long tick() {
+            return tick.get();
+        }
+    };
+    private final AdaptiveCompression compression = new AdaptiveCompression(
+            registry, clock, 0.8, 10, 1024, 1,
+            ImmutableMap.of("image/svg+xml", AdaptiveCompression.Policy.SKIP,
+                            "text/*", AdaptiveCompression.Policy.ALWAYS,
+                            "application/zip", AdaptiveCompression.Policy.NEVER)) {
+        @Override
+        protected long getProcessCpuTime() {
+            return cpuTime.get();
+        }
+    };
+
+    @Test
+    public void compressesFullyWhenTheServerIsIdle() throws Exception {
+        assertThat(compression.decide("application/json", 1024 * 1024, 0))
+                .isEqualTo(FULL);
+    }
+
+    @Test
+    public void reducesTheLevelWhenRequestsAreQueued() throws Exception {
+        assertThat(compression.decide("application/json", 100, 10))
+                .isEqualTo(REDUCED);
+
+        assertThat(compression.getReducedLevel())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void reducesTheLevelWhenTheCpuIsBusy() throws Exception {
+        compression.getCpuLoad();
+        tick.set(TimeUnit.SECONDS.toNanos(1));
+        cpuTime.set(TimeUnit.SECONDS.toNanos(PROCESSORS) * 9 / 10);
+
+        assertThat(compression.getCpuLoad())
+                .isGreaterThan(0.89)
+                .isLessThan(0.91);
+
+        assertThat(compression.decide("application/json", 100, 0))
+                .isEqualTo(REDUCED);
+    }
+
+    @Test
+    public void onlySamplesTheCpuLoadOnceASecond() throws Exception {
+        compression.getCpuLoad();
+        tick.set(TimeUnit.MILLISECONDS.toNanos(500));
+        cpuTime.set(TimeUnit.SECONDS.toNanos(PROCESSORS));
+
+        assertThat(compression.getCpuLoad())
+                .isZero();
+    }
+
+    @Test
+    public void skipsLargeResponsesUnderPressure() throws Exception {
+        assertThat(compression.decide("application/json", 1025, 10))
+                .isEqualTo(SKIPPED);
+    }
+
+    @Test
+    public void followsTheMediaTypePolicies() throws Exception {
+        assertThat(compression.decide("image/svg+xml", 100, 0))
+                .isEqualTo(FULL);
+
+        assertThat(compression.decide("image/svg+xml", 100, 10))
+                .isEqualTo(SKIPPED);
+
+        assertThat(compression.decide("text/html; charset=UTF-8", 1024 * 1024, 10))
+                .isEqualTo(FULL);
+
+        assertThat(compression.decide("application/zip", 100, 0))
+                .isEqualTo(SKIPPED);
+    }
+
+    @Test
+    public void metersDecisions() throws Exception {
+        compression.decide("application/json", 100, 0);
+        compression.decide("application/json", 100, 10);
+        compression.decide("application/json", 100, 10);
+        compression.decide("application/zip", 100, 0);
+
+        assertThat(meter("full").count())
+                .isEqualTo(1);
+
+        assertThat(meter("reduced").count())
+                .isEqualTo(2);
+
+        assertThat(meter("skipped").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void readsTheProcessCpuTimeFromTheJvm() throws Exception {
+        assumeTrue(ManagementFactory.getOperatingSystemMXBean() instanceof
+                           com.sun.management.OperatingSystemMXBean);
+
+        assertThat(new JvmCpuTime().cpuTime())
+                .isGreaterThan(0);
+    }
+
+    private Meter meter(String name) {
+        return (Meter) registry.allMetrics().get(new MetricName(AdaptiveCompression.class, name));
+    }
+}
@@ -4,8 +4,18 @@ import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.Appender;
 import ch.qos.logback.core.spi.AppenderAttachableImpl;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yammer.dropwizard.jetty.AsyncRequestLog;
+import com.yammer.dropwizard.jetty.BiDiGzipHandler;
+import com.yammer.dropwizard.jetty.RequestLogSampler;
+import com.yammer.dropwizard.jetty.ServerWarmer;
+import com.yammer.dropwizard.logging.BatchAppender;
 import com.yammer.metrics.core.Clock;
+import com.yammer.metrics.core.Counter;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricName;
+import com.yammer.metrics.core.MetricsRegistry;
 import org.eclipse.jetty.http.HttpHeaders;
 import org.eclipse.jetty.http.HttpURI;
 import org.eclipse.jetty.server.*;
@@ -13,9 +23,15 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.TimeZone;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 import static org.fest.assertions.api.Assertions.assertThat;
@@ -107,13 +123,221 @@ public class AsyncRequestLogTest {
     }
 
     @Test
-    public void logsAsyncContinuations() throws Exception {
+    public void skipsSuspendedContinuations() throws Exception {
+        when(continuation.isSuspended()).thenReturn(true);
+
+        asyncRequestLog.log(request, response);
+
+        assertThat(asyncRequestLog.getQueueSize())
+                .isZero();
+
+        verify(request, never()).getMethod();
+    }
+
+    @Test
+    public void logsTheStatusOfResumedContinuations() throws Exception {
         when(continuation.isInitial()).thenReturn(false);
 
         final ILoggingEvent event = logAndCapture();
 
         assertThat(event.getFormattedMessage())
-                .isEqualTo("10.0.0.1 - - [16/Nov/2012:05:00:47 +0000] \"GET /test/things?yay HTTP/1.1\" Async 8290 1000 2000");
+                .isEqualTo("10.0.0.1 - - [16/Nov/2012:05:00:47 +0000] \"GET /test/things?yay HTTP/1.1\" 200 8290 1000 2000");
+    }
+
+    @Test
+    public void dropsEntriesWhileTheQueueIsFull() throws Exception {
+        final MetricsRegistry registry = new MetricsRegistry();
+        final AsyncRequestLog log = new AsyncRequestLog(registry, clock, appenders, TimeZone.getTimeZone("UTC"),
+                                                        2, AsyncRequestLog.QueueFullPolicy.DROP,
+                                                        AsyncRequestLog.Format.NCSA);
+
+        for (int i = 0; i < 3; i++) {
+            log.log(request, response);
+        }
+
+        assertThat(log.getQueueSize())
+                .isEqualTo(2);
+
+        assertThat(dropped(registry).count())
+                .isEqualTo(1);
+    }
+
+    @Test(timeout = 5000)
+    public void dropsEntriesInsteadOfBlockingOnceStopped() throws Exception {
+        final MetricsRegistry registry = new MetricsRegistry();
+        final AsyncRequestLog log = new AsyncRequestLog(registry, clock, appenders, TimeZone.getTimeZone("UTC"),
+                                                        1, AsyncRequestLog.QueueFullPolicy.BLOCK,
+                                                        AsyncRequestLog.Format.NCSA);
+        log.start();
+        log.stop();
+
+        for (int i = 0; i < 3; i++) {
+            log.log(request, response);
+        }
+
+        assertThat(dropped(registry).count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    public void samplesEntriesOnceTheQueueIsHalfFull() throws Exception {
+        final MetricsRegistry registry = new MetricsRegistry();
+        final AsyncRequestLog log = new AsyncRequestLog(registry, clock, appenders, TimeZone.getTimeZone("UTC"),
+                                                        4, AsyncRequestLog.QueueFullPolicy.SAMPLE,
+                                                        AsyncRequestLog.Format.NCSA);
+
+        for (int i = 0; i < 2 + AsyncRequestLog.SAMPLE_RATE; i++) {
+            log.log(request, response);
+        }
+
+        assertThat(log.getQueueSize())
+                .isEqualTo(3);
+
+        assertThat(dropped(registry).count())
+                .isEqualTo(AsyncRequestLog.SAMPLE_RATE - 1);
+    }
+
+    @Test
+    public void writesQueuedEntriesWhenStopped() throws Exception {
+        final AsyncRequestLog log = new AsyncRequestLog(new MetricsRegistry(), clock, appenders,
+                                                        TimeZone.getTimeZone("UTC"),
+                                                        10, AsyncRequestLog.QueueFullPolicy.BLOCK,
+                                                        AsyncRequestLog.Format.NCSA);
+
+        for (int i = 0; i < 5; i++) {
+            log.log(request, response);
+        }
+
+        log.start();
+        log.stop();
+
+        verify(appender, times(5)).doAppend(any(ILoggingEvent.class));
+
+        assertThat(log.getQueueSize())
+                .isZero();
+    }
+
+    @Test
+    public void handsBatchesToBatchAppenders() throws Exception {
+        final BlockingQueue<List<String>> batches = new LinkedBlockingQueue<List<String>>();
+        final BatchAppender batchAppender = mock(BatchAppender.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                // the dispatcher reuses its batches
+                final List<?> lines = (List<?>) invocation.getArguments()[0];
+                final List<String> batch = new ArrayList<String>();
+                for (Object line : lines) {
+                    batch.add(line.toString());
+                }
+                batches.add(batch);
+                return null;
+            }
+        }).when(batchAppender).appendLines(anyListOf(String.class));
+        appenders.addAppender(batchAppender);
+
+        asyncRequestLog.log(request, response);
+
+        assertThat(batches.poll(1, TimeUnit.SECONDS))
+                .containsOnly("10.0.0.1 - - [16/Nov/2012:05:00:47 +0000] \"GET /test/things?yay HTTP/1.1\" 200 8290 1000 2000");
+
+        verify(batchAppender, never()).doAppend(any(ILoggingEvent.class));
+    }
+
+    @Test
+    public void countsRequestsWhichAreSampledOut() throws Exception {
+        final MetricsRegistry registry = new MetricsRegistry();
+        final AsyncRequestLog log = new AsyncRequestLog(registry, clock, appenders, TimeZone.getTimeZone("UTC"),
+                                                        10, AsyncRequestLog.QueueFullPolicy.DROP,
+                                                        AsyncRequestLog.Format.NCSA);
+        final RequestLogSampler sampler = mock(RequestLogSampler.class);
+        when(sampler.isLogged(request, response, TimeUnit.SECONDS.toMillis(1353042049))).thenReturn(false);
+        log.setSampler(sampler);
+
+        log.log(request, response);
+
+        assertThat(log.getQueueSize())
+                .isZero();
+
+        assertThat(((Counter) registry.allMetrics()
+                                      .get(new MetricName(AsyncRequestLog.class, "sampled-out"))).count())
+                .isEqualTo(1);
+
+        verify(request, never()).getMethod();
+    }
+
+    @Test
+    public void skipsWarmUpRequests() throws Exception {
+        when(request.getAttribute(ServerWarmer.WARMUP_ATTRIBUTE)).thenReturn(Boolean.TRUE);
+
+        asyncRequestLog.log(request, response);
+
+        assertThat(asyncRequestLog.getQueueSize())
+                .isZero();
+
+        verify(request, never()).getMethod();
+    }
+
+    @Test
+    public void logsJson() throws Exception {
+        when(request.getHeader(AsyncRequestLog.REQUEST_ID_HEADER)).thenReturn("abc123");
+        when(request.getAttribute(AsyncRequestLog.RESOURCE_METHOD_ATTRIBUTE)).thenReturn("ThingResource#getThings");
+        when(request.getAttribute(BiDiGzipHandler.UNCOMPRESSED_BYTES_ATTRIBUTE)).thenReturn(33160L);
+        when(request.getContentRead()).thenReturn(12L);
+
+        final AsyncRequestLog log = new AsyncRequestLog(new MetricsRegistry(), clock, appenders,
+                                                        TimeZone.getTimeZone("UTC"),
+                                                        10, AsyncRequestLog.QueueFullPolicy.DROP,
+                                                        AsyncRequestLog.Format.JSON);
+        asyncRequestLog.stop();
+        log.start();
+        try {
+            log.log(request, response);
+            log.log(request, response);
+
+            final ArgumentCaptor<ILoggingEvent> captor = ArgumentCaptor.forClass(ILoggingEvent.class);
+            verify(appender, timeout(1000).times(2)).doAppend(captor.capture());
+
+            final ObjectMapper mapper = new ObjectMapper();
+            for (ILoggingEvent event : captor.getAllValues()) {
+                final JsonNode entry = mapper.readTree(event.getFormattedMessage());
+
+                assertThat(entry.get("timestamp").asLong())
+                        .isEqualTo(TimeUnit.SECONDS.toMillis(1353042047));
+                assertThat(entry.get("requestId").asText())
+                        .isEqualTo("abc123");
+                assertThat(entry.get("remoteAddress").asText())
+                        .isEqualTo("10.0.0.1");
+                assertThat(entry.get("principal").isNull())
+                        .isTrue();
+                assertThat(entry.get("method").asText())
+                        .isEqualTo("GET");
+                assertThat(entry.get("uri").asText())
+                        .isEqualTo("/test/things?yay");
+                assertThat(entry.get("resourceMethod").asText())
+                        .isEqualTo("ThingResource#getThings");
+                assertThat(entry.get("status").asInt())
+                        .isEqualTo(200);
+                assertThat(entry.get("bytesIn").asLong())
+                        .isEqualTo(12);
+                assertThat(entry.get("bytesOut").asLong())
+                        .isEqualTo(8290);
+                assertThat(entry.get("compressionRatio").asDouble())
+                        .isEqualTo(0.25);
+                assertThat(entry.get("queueTime").asLong())
+                        .isEqualTo(1000);
+                assertThat(entry.get("handlingTime").asLong())
+                        .isEqualTo(1000);
+                assertThat(entry.get("totalTime").asLong())
+                        .isEqualTo(2000);
+            }
+        } finally {
+            log.stop();
+        }
+    }
+
+    private static Meter dropped(MetricsRegistry registry) {
+        return (Meter) registry.allMetrics().get(new MetricName(AsyncRequestLog.class, "dropped"));
     }
 
     private ILoggingEvent logAndCapture() {
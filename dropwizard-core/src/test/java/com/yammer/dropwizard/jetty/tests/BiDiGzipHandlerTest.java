@@ -0,0 +1,274 @@
+package com.yammer.dropwizard.jetty.tests;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CharStreams;
+import com.yammer.dropwizard.jetty.AdaptiveCompression;
+import com.yammer.dropwizard.jetty.BiDiGzipHandler;
+import com.yammer.metrics.core.Clock;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricName;
+import com.yammer.metrics.core.MetricsRegistry;
+import com.yammer.metrics.core.Timer;
+import org.eclipse.jetty.continuation.Continuation;
+import org.eclipse.jetty.continuation.ContinuationSupport;
+import org.eclipse.jetty.io.ByteArrayBuffer;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class BiDiGzipHandlerTest {
+    private static final String ENTITY = Strings.repeat("Hello, world! ", 100);
+
+    private final MetricsRegistry registry = new MetricsRegistry();
+    private final Server server = new Server();
+    private final LocalConnector connector = new LocalConnector();
+    private final BiDiGzipHandler handler = new BiDiGzipHandler(registry, new AbstractHandler() {
+        @Override
+        public void handle(String target,
+                           Request baseRequest,
+                           HttpServletRequest request,
+                           HttpServletResponse response) throws IOException, ServletException {
+            baseRequest.setHandled(true);
+            response.setContentType("text/plain");
+            if ("PUT".equals(request.getMethod())) {
+                // read the entity, then suspend the request and write it once it's resumed
+                final Continuation continuation = ContinuationSupport.getContinuation(request);
+                if (continuation.isInitial()) {
+                    request.setAttribute("entity", CharStreams.toString(request.getReader()));
+                    continuation.suspend();
+                    continuation.resume();
+                } else {
+                    response.getWriter().write((String) request.getAttribute("entity"));
+                }
+            } else if ("POST".equals(request.getMethod())) {
+                response.getWriter().write(CharStreams.toString(request.getReader()));
+            } else {
+                response.getWriter().write(ENTITY);
+            }
+        }
+    });
+
+    @Before
+    public void setUp() throws Exception {
+        handler.setCompressionLevel(9);
+        server.addConnector(connector);
+        server.setHandler(handler);
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.stop();
+    }
+
+    @Test
+    public void gzipsResponses() throws Exception {
+        final Response response = send("GET", "gzip", null, null);
+
+        assertThat(response.headers)
+                .contains("Content-Encoding: gzip");
+
+        assertThat(response.decode(new GZIPInputStream(new ByteArrayInputStream(response.entity))))
+                .isEqualTo(ENTITY);
+    }
+
+    @Test
+    public void deflatesResponsesForClientsWhichDoNotAcceptGzip() throws Exception {
+        final Response response = send("GET", "deflate", null, null);
+
+        assertThat(response.headers)
+                .contains("Content-Encoding: deflate");
+
+        assertThat(response.decode(new InflaterInputStream(new ByteArrayInputStream(response.entity))))
+                .isEqualTo(ENTITY);
+    }
+
+    @Test
+    public void prefersGzip() throws Exception {
+        assertThat(send("GET", "deflate, gzip", null, null).headers)
+                .contains("Content-Encoding: gzip");
+    }
+
+    @Test
+    public void doesNotCompressWithUnacceptableEncodings() throws Exception {
+        final Response response = send("GET", "gzip;q=0", null, null);
+
+        assertThat(response.headers)
+                .doesNotContain("Content-Encoding");
+
+        assertThat(new String(response.entity, Charsets.UTF_8))
+                .isEqualTo(ENTITY);
+    }
+
+    @Test
+    public void gunzipsRequests() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final OutputStream output = new GZIPOutputStream(bytes);
+        output.write(ENTITY.getBytes(Charsets.UTF_8));
+        output.close();
+
+        final Response response = send("POST", null, "gzip", bytes.toByteArray());
+
+        assertThat(new String(response.entity, Charsets.UTF_8))
+                .isEqualTo(ENTITY);
+    }
+
+    @Test
+    public void inflatesRequests() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final OutputStream output = new DeflaterOutputStream(bytes);
+        output.write(ENTITY.getBytes(Charsets.UTF_8));
+        output.close();
+
+        final Response response = send("POST", null, "deflate", bytes.toByteArray());
+
+        assertThat(new String(response.entity, Charsets.UTF_8))
+                .isEqualTo(ENTITY);
+    }
+
+    @Test
+    public void doesNotInflateResumedRequestsAgain() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final OutputStream output = new GZIPOutputStream(bytes);
+        output.write(ENTITY.getBytes(Charsets.UTF_8));
+        output.close();
+
+        final Response response = send("PUT", null, "gzip", bytes.toByteArray());
+
+        assertThat(response.status)
+                .isEqualTo(200);
+
+        assertThat(new String(response.entity, Charsets.UTF_8))
+                .isEqualTo(ENTITY);
+    }
+
+    @Test
+    public void rejectsCorruptGzipRequests() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final OutputStream output = new GZIPOutputStream(bytes);
+        output.write(ENTITY.getBytes(Charsets.UTF_8));
+        output.close();
+        final byte[] corrupt = bytes.toByteArray();
+        corrupt[corrupt.length - 6] ^= 1; // the CRC
+
+        assertThat(send("POST", null, "gzip", corrupt).status)
+                .isEqualTo(500);
+    }
+
+    @Test
+    public void recordsCompressionMetrics() throws Exception {
+        final Response response = send("GET", "gzip", null, null);
+        send("GET", "gzip", null, null);
+
+        assertThat(meter("uncompressed-bytes").count())
+                .isEqualTo(ENTITY.length() * 2);
+
+        assertThat(meter("compressed-bytes").count())
+                .isEqualTo(response.entity.length * 2);
+
+        assertThat(((Timer) registry.allMetrics()
+                                    .get(new MetricName(BiDiGzipHandler.class, "compression"))).count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    public void backsOffUnderPressure() throws Exception {
+        // with a maximum CPU load of zero, the server is always under pressure
+        handler.setAdaptiveCompression(new AdaptiveCompression(
+                registry, Clock.defaultClock(), 0.0, 10, ENTITY.length(), 1,
+                ImmutableMap.<String, AdaptiveCompression.Policy>of()));
+
+        final Response reduced = send("GET", "gzip", null, null);
+
+        assertThat(reduced.headers)
+                .contains("Content-Encoding: gzip");
+
+        assertThat(reduced.decode(new GZIPInputStream(new ByteArrayInputStream(reduced.entity))))
+                .isEqualTo(ENTITY);
+
+        handler.setAdaptiveCompression(new AdaptiveCompression(
+                registry, Clock.defaultClock(), 0.0, 10, ENTITY.length() - 1, 1,
+                ImmutableMap.<String, AdaptiveCompression.Policy>of()));
+
+        final Response skipped = send("GET", "gzip", null, null);
+
+        assertThat(skipped.headers)
+                .doesNotContain("Content-Encoding");
+
+        assertThat(new String(skipped.entity, Charsets.UTF_8))
+                .isEqualTo(ENTITY);
+    }
+
+    private Meter meter(String name) {
+        return (Meter) registry.allMetrics().get(new MetricName(BiDiGzipHandler.class, name));
+    }
+
+    private Response send(String method,
+                          String acceptEncoding,
+                          String contentEncoding,
+                          byte[] entity) throws Exception {
+        final StringBuilder head = new StringBuilder()
+                .append(method).append(" / HTTP/1.0\r\n");
+        if (acceptEncoding != null) {
+            head.append("Accept-Encoding: ").append(acceptEncoding).append("\r\n");
+        }
+        if (entity != null) {
+            head.append("Content-Type: text/plain\r\n");
+            head.append("Content-Encoding: ").append(contentEncoding).append("\r\n");
+            head.append("Content-Length: ").append(entity.length).append("\r\n");
+        }
+        head.append("\r\n");
+
+        final ByteArrayOutputStream request = new ByteArrayOutputStream();
+        request.write(head.toString().getBytes(Charsets.ISO_8859_1));
+        if (entity != null) {
+            request.write(entity);
+        }
+        return new Response(connector.getResponses(new ByteArrayBuffer(request.toByteArray()), false)
+                                     .asArray());
+    }
+
+    private static class Response {
+        private final int status;
+        private final String headers;
+        private final byte[] entity;
+
+        private Response(byte[] bytes) {
+            int split = 0;
+            while (!((bytes[split] == '\r') && (bytes[split + 1] == '\n') &&
+                    (bytes[split + 2] == '\r') && (bytes[split + 3] == '\n'))) {
+                split++;
+            }
+            this.headers = new String(bytes, 0, split, Charsets.ISO_8859_1);
+            this.status = Integer.parseInt(headers.substring(9, 12));
+            this.entity = new byte[bytes.length - split - 4];
+            System.arraycopy(bytes, split + 4, entity, 0, entity.length);
+        }
+
+        private String decode(InputStream input) throws IOException {
+            return new String(ByteStreams.toByteArray(input), Charsets.UTF_8);
+        }
+    }
+}
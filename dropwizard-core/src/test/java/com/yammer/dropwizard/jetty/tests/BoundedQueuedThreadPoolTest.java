@@ -0,0 +1,99 @@
+package com.yammer.dropwizard.jetty.tests;
+
+import com.google.common.base.Optional;
+import com.yammer.dropwizard.jetty.BoundedQueuedThreadPool;
+import com.yammer.dropwizard.util.Duration;
+import com.yammer.metrics.core.Clock;
+import com.yammer.metrics.core.MetricsRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BoundedQueuedThreadPoolTest {
+    private final Clock clock = mock(Clock.class);
+    private final BoundedQueuedThreadPool pool =
+            new BoundedQueuedThreadPool(new MetricsRegistry(),
+                                        clock,
+                                        null,
+                                        Optional.of(Duration.milliseconds(100)));
+
+    @Before
+    public void setUp() throws Exception {
+        pool.setMinThreads(1);
+        pool.setMaxThreads(1);
+        pool.setMaxQueued(1);
+        pool.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        pool.stop();
+    }
+
+    @Test
+    public void marksJobsWhichWaitedTooLongAsOverdue() throws Exception {
+        when(clock.tick()).thenReturn(0L, TimeUnit.MILLISECONDS.toNanos(200));
+
+        assertThat(runAndCheckOverdue())
+                .isTrue();
+    }
+
+    @Test
+    public void doesNotMarkTimelyJobsAsOverdue() throws Exception {
+        when(clock.tick()).thenReturn(0L, TimeUnit.MILLISECONDS.toNanos(50));
+
+        assertThat(runAndCheckOverdue())
+                .isFalse();
+    }
+
+    @Test
+    public void rejectsJobsWhenTheQueueIsFull() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Runnable blocker = new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        assertThat(pool.dispatch(blocker))
+                .isTrue();
+        started.await(1, TimeUnit.SECONDS);
+
+        assertThat(pool.dispatch(blocker))
+                .isTrue();
+
+        assertThat(pool.dispatch(blocker))
+                .isFalse();
+
+        release.countDown();
+    }
+
+    private boolean runAndCheckOverdue() throws InterruptedException {
+        final AtomicBoolean overdue = new AtomicBoolean();
+        final CountDownLatch latch = new CountDownLatch(1);
+        pool.dispatch(new Runnable() {
+            @Override
+            public void run() {
+                overdue.set(BoundedQueuedThreadPool.clearOverdue());
+                latch.countDown();
+            }
+        });
+        latch.await(1, TimeUnit.SECONDS);
+        return overdue.get();
+    }
+}
@@ -0,0 +1,83 @@
+package com.yammer.dropwizard.jetty.tests;
+
+import com.yammer.dropwizard.jetty.ConcurrentLifeCycleGroup;
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.fest.assertions.api.Assertions.failBecauseExceptionWasNotThrown;
+
+public class ConcurrentLifeCycleGroupTest {
+    private final ConcurrentLifeCycleGroup group = new ConcurrentLifeCycleGroup(2);
+
+    private static class Member extends AbstractLifeCycle {
+        private final CountDownLatch latch;
+
+        private Member(CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        protected void doStart() throws Exception {
+            latch.countDown();
+            // only completes if the other member is started at the same time
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("not started concurrently");
+            }
+        }
+    }
+
+    @Test
+    public void startsMembersConcurrently() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(2);
+        final Member one = new Member(latch);
+        final Member two = new Member(latch);
+        group.add(one);
+        group.add(two);
+
+        group.start();
+
+        assertThat(one.isStarted())
+                .isTrue();
+        assertThat(two.isStarted())
+                .isTrue();
+    }
+
+    @Test
+    public void stopsStartedMembersIfAnyFailToStart() throws Exception {
+        final Member ok = new Member(new CountDownLatch(0));
+        group.add(ok);
+        group.add(new AbstractLifeCycle() {
+            @Override
+            protected void doStart() throws Exception {
+                throw new IllegalStateException("broken");
+            }
+        });
+
+        try {
+            group.start();
+            failBecauseExceptionWasNotThrown(IllegalStateException.class);
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage())
+                    .isEqualTo("broken");
+        }
+
+        assertThat(ok.isStopped())
+                .isTrue();
+    }
+
+    @Test
+    public void stopsMembers() throws Exception {
+        final Member one = new Member(new CountDownLatch(0));
+        group.add(one);
+        group.start();
+
+        group.stop();
+
+        assertThat(one.isStopped())
+                .isTrue();
+    }
+}
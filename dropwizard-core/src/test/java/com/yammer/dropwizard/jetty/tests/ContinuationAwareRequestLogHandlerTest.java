@@ -0,0 +1,113 @@
+package com.yammer.dropwizard.jetty.tests;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+import com.yammer.dropwizard.jetty.AsyncRequestLog;
+import com.yammer.dropwizard.jetty.ContinuationAwareRequestLogHandler;
+import com.yammer.metrics.core.Clock;
+import org.eclipse.jetty.continuation.Continuation;
+import org.eclipse.jetty.continuation.ContinuationSupport;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.eclipse.jetty.server.handler.HandlerCollection;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class ContinuationAwareRequestLogHandlerTest {
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Clock clock = mock(Clock.class);
+    @SuppressWarnings("unchecked")
+    private final Appender<ILoggingEvent> appender = mock(Appender.class);
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<ILoggingEvent>();
+    private final Server server = new Server();
+    private final LocalConnector connector = new LocalConnector();
+
+    @Before
+    public void setUp() throws Exception {
+        when(clock.time()).thenReturn(TimeUnit.SECONDS.toMillis(1353042049));
+        appenders.addAppender(appender);
+
+        final ContinuationAwareRequestLogHandler logHandler = new ContinuationAwareRequestLogHandler();
+        logHandler.setRequestLog(new AsyncRequestLog(clock, appenders, TimeZone.getTimeZone("UTC")));
+
+        final HandlerCollection handlers = new HandlerCollection();
+        handlers.addHandler(new AbstractHandler() {
+            @Override
+            public void handle(String target,
+                               Request baseRequest,
+                               HttpServletRequest request,
+                               HttpServletResponse response) throws IOException, ServletException {
+                final Continuation continuation = ContinuationSupport.getContinuation(request);
+                if ("/suspended".equals(target) && continuation.isInitial()) {
+                    continuation.suspend();
+                    executor.submit(new Runnable() {
+                        @Override
+                        public void run() {
+                            continuation.resume();
+                        }
+                    });
+                } else {
+                    response.setStatus(201);
+                    baseRequest.setHandled(true);
+                }
+            }
+        });
+        handlers.addHandler(logHandler);
+
+        server.addConnector(connector);
+        server.setHandler(handlers);
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.stop();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void logsRequests() throws Exception {
+        assertThat(request("/plain"))
+                .contains(" 201 ");
+    }
+
+    @Test
+    public void logsSuspendedRequestsOnceTheyComplete() throws Exception {
+        assertThat(request("/suspended"))
+                .contains("\"GET /suspended HTTP/1.1\" 201 ");
+    }
+
+    private String request(String path) throws Exception {
+        final String response = connector.getResponses("GET " + path + " HTTP/1.1\r\n" +
+                                                               "Host: localhost\r\n" +
+                                                               "Connection: close\r\n\r\n");
+        assertThat(response)
+                .startsWith("HTTP/1.1 201");
+
+        final ArgumentCaptor<ILoggingEvent> captor = ArgumentCaptor.forClass(ILoggingEvent.class);
+        verify(appender, timeout(1000)).doAppend(captor.capture());
+
+        // give a second entry the chance to turn up
+        Thread.sleep(100);
+        verify(appender, times(1)).doAppend(any(ILoggingEvent.class));
+
+        return captor.getValue().getFormattedMessage();
+    }
+}
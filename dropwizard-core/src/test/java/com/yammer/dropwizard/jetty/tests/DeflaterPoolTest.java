@@ -0,0 +1,49 @@
+package com.yammer.dropwizard.jetty.tests;
+
+import com.yammer.dropwizard.jetty.DeflaterPool;
+import org.junit.Test;
+
+import java.util.zip.Deflater;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class DeflaterPoolTest {
+    private final DeflaterPool pool = new DeflaterPool(Deflater.BEST_SPEED, true, 1);
+
+    @Test
+    public void reusesReleasedDeflaters() throws Exception {
+        final Deflater deflater = pool.acquire();
+        deflater.setInput(new byte[]{ 1, 2, 3 });
+        deflater.finish();
+        deflater.deflate(new byte[64]);
+        pool.release(deflater);
+
+        final Deflater reused = pool.acquire();
+
+        assertThat(reused)
+                .isSameAs(deflater);
+
+        assertThat(reused.getBytesRead())
+                .isZero();
+    }
+
+    @Test
+    public void createsDeflatersWhenEmpty() throws Exception {
+        assertThat(pool.acquire())
+                .isNotSameAs(pool.acquire());
+    }
+
+    @Test
+    public void keepsAtMostItsCapacity() throws Exception {
+        final Deflater one = pool.acquire();
+        final Deflater two = pool.acquire();
+        pool.release(one);
+        pool.release(two);
+
+        assertThat(pool.size())
+                .isEqualTo(1);
+
+        assertThat(pool.acquire())
+                .isSameAs(one);
+    }
+}
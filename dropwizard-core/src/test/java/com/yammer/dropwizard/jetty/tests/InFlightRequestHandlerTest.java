@@ -0,0 +1,102 @@
+package com.yammer.dropwizard.jetty.tests;
+
+import com.yammer.dropwizard.jetty.InFlightRequestHandler;
+import com.yammer.metrics.core.Counter;
+import com.yammer.metrics.core.MetricsRegistry;
+import org.eclipse.jetty.continuation.ContinuationListener;
+import org.eclipse.jetty.server.AsyncContinuation;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class InFlightRequestHandlerTest {
+    private final Counter inFlight = new MetricsRegistry().newCounter(Server.class, "in-flight-requests");
+    private final Handler underlying = mock(Handler.class);
+    private final Request baseRequest = mock(Request.class);
+    private final AsyncContinuation continuation = mock(AsyncContinuation.class);
+    private final HttpServletRequest request = mock(HttpServletRequest.class);
+    private final HttpServletResponse response = mock(HttpServletResponse.class);
+    private final InFlightRequestHandler handler = new InFlightRequestHandler(underlying, inFlight);
+
+    @Before
+    public void setUp() throws Exception {
+        when(baseRequest.getAsyncContinuation()).thenReturn(continuation);
+        when(continuation.isInitial()).thenReturn(true);
+        handler.start();
+    }
+
+    @Test
+    public void countsRequestsWhileTheyAreHandled() throws Exception {
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                assertThat(inFlight.count())
+                        .isEqualTo(1);
+                return null;
+            }
+        }).when(underlying).handle("/", baseRequest, request, response);
+
+        handler.handle("/", baseRequest, request, response);
+
+        verify(underlying).handle("/", baseRequest, request, response);
+
+        assertThat(inFlight.count())
+                .isZero();
+    }
+
+    @Test
+    public void countsSuspendedRequestsUntilTheyComplete() throws Exception {
+        when(continuation.isSuspended()).thenReturn(true);
+
+        handler.handle("/", baseRequest, request, response);
+
+        assertThat(inFlight.count())
+                .isEqualTo(1);
+
+        // the redispatch of the resumed request
+        when(continuation.isInitial()).thenReturn(false);
+        when(continuation.isSuspended()).thenReturn(false);
+        handler.handle("/", baseRequest, request, response);
+
+        assertThat(inFlight.count())
+                .isEqualTo(1);
+
+        final ArgumentCaptor<ContinuationListener> listener =
+                ArgumentCaptor.forClass(ContinuationListener.class);
+        verify(continuation).addContinuationListener(listener.capture());
+        listener.getValue().onComplete(continuation);
+
+        assertThat(inFlight.count())
+                .isZero();
+    }
+
+    @Test
+    public void stopsCountingRequestsWhichFail() throws Exception {
+        doThrow(new IllegalStateException("oh no")).when(underlying)
+                                                   .handle(any(String.class),
+                                                           any(Request.class),
+                                                           any(HttpServletRequest.class),
+                                                           any(HttpServletResponse.class));
+
+        try {
+            handler.handle("/", baseRequest, request, response);
+        } catch (IllegalStateException ignored) {
+            // expected
+        }
+
+        assertThat(inFlight.count())
+                .isZero();
+    }
+}
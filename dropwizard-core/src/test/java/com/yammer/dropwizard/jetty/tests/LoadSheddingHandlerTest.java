@@ -0,0 +1,104 @@
+package com.yammer.dropwizard.jetty.tests;
+
+import com.google.common.base.Optional;
+import com.yammer.dropwizard.jetty.BoundedQueuedThreadPool;
+import com.yammer.dropwizard.jetty.LoadSheddingHandler;
+import com.yammer.dropwizard.util.Duration;
+import com.yammer.metrics.core.Clock;
+import com.yammer.metrics.core.MetricsRegistry;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class LoadSheddingHandlerTest {
+    private final Clock clock = mock(Clock.class);
+    private final BoundedQueuedThreadPool pool =
+            new BoundedQueuedThreadPool(new MetricsRegistry(),
+                                        clock,
+                                        null,
+                                        Optional.of(Duration.milliseconds(100)));
+    private final Handler underlying = mock(Handler.class);
+    private final Request baseRequest = mock(Request.class);
+    private final HttpServletRequest request = mock(HttpServletRequest.class);
+    private final HttpServletResponse response = mock(HttpServletResponse.class);
+    private final LoadSheddingHandler handler = new LoadSheddingHandler(underlying, 503);
+
+    @Before
+    public void setUp() throws Exception {
+        pool.setMinThreads(1);
+        pool.setMaxThreads(1);
+        pool.start();
+        handler.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        handler.stop();
+        pool.stop();
+    }
+
+    @Test
+    public void shedsOverdueRequests() throws Exception {
+        when(clock.tick()).thenReturn(0L, TimeUnit.MILLISECONDS.toNanos(200));
+
+        handleTwiceInOneJob();
+
+        verify(response).sendError(503);
+        verify(baseRequest).setHandled(true);
+    }
+
+    @Test
+    public void handlesTheNextRequestOnTheSameThread() throws Exception {
+        when(clock.tick()).thenReturn(0L, TimeUnit.MILLISECONDS.toNanos(200));
+
+        handleTwiceInOneJob();
+
+        verify(response, times(1)).sendError(anyInt());
+        verify(underlying, times(1)).handle("/things", baseRequest, request, response);
+    }
+
+    @Test
+    public void handlesTimelyRequests() throws Exception {
+        when(clock.tick()).thenReturn(0L, TimeUnit.MILLISECONDS.toNanos(50));
+
+        handleTwiceInOneJob();
+
+        verify(response, never()).sendError(anyInt());
+        verify(underlying, times(2)).handle("/things", baseRequest, request, response);
+    }
+
+    private void handleTwiceInOneJob() throws Exception {
+        final AtomicReference<Exception> failure = new AtomicReference<Exception>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        pool.dispatch(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    // e.g. two requests on one persistent connection
+                    handler.handle("/things", baseRequest, request, response);
+                    handler.handle("/things", baseRequest, request, response);
+                } catch (Exception e) {
+                    failure.set(e);
+                } finally {
+                    latch.countDown();
+                }
+            }
+        });
+        assertThat(latch.await(1, TimeUnit.SECONDS))
+                .isTrue();
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.yammer.dropwizard.jetty.tests;
+
+import com.google.common.collect.ImmutableMap;
+import com.yammer.dropwizard.jetty.RequestLogSampler;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RequestLogSamplerTest {
+    private final Request request = mock(Request.class);
+    private final Response response = mock(Response.class);
+    private final RequestLogSampler sampler = new RequestLogSampler(
+            0.0, 500, ImmutableMap.of("/things", 1.0, "/things/secret", 0.0));
+
+    @Before
+    public void setUp() throws Exception {
+        when(request.getRequestURI()).thenReturn("/stuff");
+        when(request.getTimeStamp()).thenReturn(1000L);
+        when(response.getStatus()).thenReturn(200);
+    }
+
+    @Test
+    public void samplesSuccessfulRequests() throws Exception {
+        assertThat(sampler.isLogged(request, response, 1100))
+                .isFalse();
+    }
+
+    @Test
+    public void alwaysLogsErrors() throws Exception {
+        when(response.getStatus()).thenReturn(404);
+
+        assertThat(sampler.isLogged(request, response, 1100))
+                .isTrue();
+
+        when(response.getStatus()).thenReturn(503);
+
+        assertThat(sampler.isLogged(request, response, 1100))
+                .isTrue();
+    }
+
+    @Test
+    public void alwaysLogsSlowRequests() throws Exception {
+        assertThat(sampler.isLogged(request, response, 1500))
+                .isTrue();
+    }
+
+    @Test
+    public void usesTheLongestMatchingPathOverride() throws Exception {
+        when(request.getRequestURI()).thenReturn("/things/1");
+
+        assertThat(sampler.isLogged(request, response, 1100))
+                .isTrue();
+
+        when(request.getRequestURI()).thenReturn("/things/secret/1");
+
+        assertThat(sampler.isLogged(request, response, 1100))
+                .isFalse();
+    }
+
+    @Test
+    public void logsAFractionOfSuccessfulRequests() throws Exception {
+        final RequestLogSampler half = new RequestLogSampler(0.5, 0, ImmutableMap.<String, Double>of());
+
+        int logged = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (half.isLogged(request, response, 1100)) {
+                logged++;
+            }
+        }
+
+        assertThat(logged)
+                .isGreaterThan(4000)
+                .isLessThan(6000);
+    }
+}
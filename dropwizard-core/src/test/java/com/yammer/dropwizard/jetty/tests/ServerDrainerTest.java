@@ -0,0 +1,129 @@
+package com.yammer.dropwizard.jetty.tests;
+
+import com.google.common.collect.ImmutableSet;
+import com.yammer.dropwizard.jetty.ServerDrainer;
+import com.yammer.dropwizard.util.Duration;
+import com.yammer.metrics.core.Counter;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricName;
+import com.yammer.metrics.core.MetricsRegistry;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.Server;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class ServerDrainerTest {
+    private final MetricsRegistry registry = new MetricsRegistry();
+    private final Counter activeRequests = registry.newCounter(ServerDrainerTest.class, "active");
+    private final Connector service = mock(Connector.class);
+    private final Connector internal = mock(Connector.class);
+    private final Server server = mock(Server.class);
+    private final ServerDrainer drainer = new ServerDrainer(registry,
+                                                            server,
+                                                            activeRequests,
+                                                            ImmutableSet.of("internal"),
+                                                            Duration.milliseconds(0),
+                                                            Duration.milliseconds(200));
+
+    @Before
+    public void setUp() throws Exception {
+        when(service.getName()).thenReturn("main");
+        when(internal.getName()).thenReturn("internal");
+        when(server.getConnectors()).thenReturn(new Connector[]{ service, internal });
+        when(server.isRunning()).thenReturn(true);
+        drainer.start();
+    }
+
+    @Test
+    public void failsItsHealthCheckWhenDraining() throws Exception {
+        assertThat(drainer.getHealthCheck().execute().isHealthy())
+                .isTrue();
+
+        drainer.stop();
+
+        assertThat(drainer.getHealthCheck().execute().isHealthy())
+                .isFalse();
+    }
+
+    @Test
+    public void closesAllButTheOpenConnectors() throws Exception {
+        drainer.stop();
+
+        verify(service).close();
+        verify(internal, never()).close();
+    }
+
+    @Test
+    public void keepsASharedAdminConnectorOpen() throws Exception {
+        // with the admin port shared, the admin servlets are served by the service connector
+        final ServerDrainer shared = new ServerDrainer(registry,
+                                                       server,
+                                                       activeRequests,
+                                                       ImmutableSet.of("main"),
+                                                       Duration.milliseconds(0),
+                                                       Duration.milliseconds(200));
+        when(server.getConnectors()).thenReturn(new Connector[]{ service });
+        shared.start();
+        shared.stop();
+
+        verify(service, never()).close();
+
+        assertThat(shared.getHealthCheck().execute().isHealthy())
+                .isFalse();
+    }
+
+    @Test
+    public void waitsForInFlightRequestsToComplete() throws Exception {
+        activeRequests.inc();
+        new Thread() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException ignored) {
+                    // finish early
+                }
+                activeRequests.dec();
+            }
+        }.start();
+
+        drainer.stop();
+
+        assertThat(activeRequests.count())
+                .isZero();
+
+        assertThat(meter("shutdown-in-flight-requests").count())
+                .isEqualTo(1);
+
+        assertThat(meter("shutdown-cut-off-requests").count())
+                .isZero();
+    }
+
+    @Test
+    public void cutsOffRequestsAfterTheTimeout() throws Exception {
+        activeRequests.inc(2);
+
+        drainer.stop();
+
+        assertThat(meter("shutdown-cut-off-requests").count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    public void doesNotDrainAServerWhichIsAlreadyStopping() throws Exception {
+        when(server.isRunning()).thenReturn(false);
+
+        drainer.stop();
+
+        verify(service, never()).close();
+        assertThat(drainer.getHealthCheck().execute().isHealthy())
+                .isTrue();
+    }
+
+    private Meter meter(String name) {
+        return (Meter) registry.allMetrics().get(new MetricName(Server.class, name));
+    }
+}
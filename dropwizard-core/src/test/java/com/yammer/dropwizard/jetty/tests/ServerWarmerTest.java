@@ -0,0 +1,219 @@
+package com.yammer.dropwizard.jetty.tests;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.CharStreams;
+import com.yammer.dropwizard.jetty.ServerWarmer;
+import com.yammer.dropwizard.util.Duration;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricName;
+import com.yammer.metrics.core.MetricsRegistry;
+import com.yammer.metrics.core.Timer;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class ServerWarmerTest {
+    private final MetricsRegistry registry = new MetricsRegistry();
+    private final List<String> received = new CopyOnWriteArrayList<String>();
+    private final List<Integer> receivedWhenConnectorStarted = new CopyOnWriteArrayList<Integer>();
+    private final List<String> connectorNames = new CopyOnWriteArrayList<String>();
+    private final List<Boolean> warmUps = new CopyOnWriteArrayList<Boolean>();
+    private final Connector service = mock(Connector.class);
+    private final Connector other = mock(Connector.class);
+    private final Connector internal = mock(Connector.class);
+    private final Server server = new Server();
+
+    @Before
+    public void setUp() throws Exception {
+        when(service.getName()).thenReturn("main");
+        when(other.getName()).thenReturn("other");
+        when(internal.getName()).thenReturn("internal");
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                receivedWhenConnectorStarted.add(received.size());
+                return null;
+            }
+        }).when(service).start();
+
+        server.setConnectors(new Connector[]{ service, internal });
+        server.setHandler(new AbstractHandler() {
+            @Override
+            public void handle(String target,
+                               Request baseRequest,
+                               HttpServletRequest request,
+                               HttpServletResponse response) throws IOException, ServletException {
+                final String body = CharStreams.toString(request.getReader());
+                received.add(request.getMethod() + ' ' + target + ' ' +
+                                     request.getContentType() + ' ' + body);
+                connectorNames.add(baseRequest.getConnection().getConnector().getName());
+                warmUps.add(ServerWarmer.isWarmUp(request));
+                response.setStatus("/missing".equals(target) ? 404 : 200);
+                baseRequest.setHandled(true);
+            }
+        });
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.stop();
+    }
+
+    @Test
+    public void sendsEachRequestForEachIteration() throws Exception {
+        warmUp(5, Optional.<Duration>absent(),
+               new ServerWarmer.Request("GET", "/one", ImmutableMap.<String, String>of(),
+                                        Optional.<String>absent()),
+               new ServerWarmer.Request("POST", "/two", ImmutableMap.<String, String>of(),
+                                        Optional.of("{\"id\":1}")));
+
+        assertThat(received)
+                .hasSize(10);
+
+        assertThat(received.get(0))
+                .isEqualTo("GET /one null ");
+
+        assertThat(received.get(1))
+                .isEqualTo("POST /two application/json {\"id\":1}");
+
+        assertThat(timer("warmup-requests").count())
+                .isEqualTo(10);
+
+        assertThat(meter("warmup-failures").count())
+                .isZero();
+    }
+
+    @Test
+    public void startsTheServiceConnectorsAfterWarmingUp() throws Exception {
+        warmUp(3, Optional.<Duration>absent(),
+               new ServerWarmer.Request("GET", "/one", ImmutableMap.<String, String>of(),
+                                        Optional.<String>absent()));
+
+        verify(internal).start();
+
+        assertThat(receivedWhenConnectorStarted)
+                .containsOnly(3);
+
+        assertThat(server.getConnectors())
+                .containsOnly(service, internal);
+    }
+
+    @Test
+    public void marksTheRequestsAsWarmUpRequests() throws Exception {
+        warmUp(2, Optional.<Duration>absent(),
+               new ServerWarmer.Request("GET", "/one", ImmutableMap.<String, String>of(),
+                                        Optional.<String>absent()));
+
+        assertThat(warmUps)
+                .containsOnly(true);
+    }
+
+    @Test
+    public void warmsUpEveryHeldConnector() throws Exception {
+        server.setConnectors(new Connector[]{ service, other, internal });
+
+        warmUp(2, Optional.<Duration>absent(),
+               new ServerWarmer.Request("GET", "/one", ImmutableMap.<String, String>of(),
+                                        Optional.<String>absent()));
+
+        assertThat(connectorNames)
+                .containsExactly("main", "other", "main", "other");
+
+        verify(other).start();
+    }
+
+    @Test
+    public void warmsUpOpenConnectorsWhichServeTheService() throws Exception {
+        // e.g. a service connector which also serves the admin servlets
+        server.setConnectors(new Connector[]{ service });
+        final ServerWarmer warmer = new ServerWarmer(registry,
+                                                     server,
+                                                     ImmutableSet.of("main"),
+                                                     ImmutableList.of(new ServerWarmer.Request(
+                                                             "GET", "/one",
+                                                             ImmutableMap.<String, String>of(),
+                                                             Optional.<String>absent())),
+                                                     2,
+                                                     Optional.<Duration>absent());
+        warmer.setWarmedConnectors(ImmutableSet.of("main"));
+        warmer.start();
+
+        assertThat(receivedWhenConnectorStarted)
+                .containsOnly(0);
+
+        assertThat(connectorNames)
+                .containsExactly("main", "main");
+    }
+
+    @Test
+    public void sendsTheConfiguredHeaders() throws Exception {
+        warmUp(1, Optional.<Duration>absent(),
+               new ServerWarmer.Request("PUT", "/one",
+                                        ImmutableMap.of("Content-Type", "text/plain"),
+                                        Optional.of("hello")));
+
+        assertThat(received)
+                .containsOnly("PUT /one text/plain hello");
+    }
+
+    @Test
+    public void metersErrorResponses() throws Exception {
+        warmUp(3, Optional.<Duration>absent(),
+               new ServerWarmer.Request("GET", "/missing", ImmutableMap.<String, String>of(),
+                                        Optional.<String>absent()));
+
+        assertThat(meter("warmup-failures").count())
+                .isEqualTo(3);
+    }
+
+    @Test
+    public void stopsAfterTheDuration() throws Exception {
+        warmUp(Integer.MAX_VALUE, Optional.of(Duration.milliseconds(100)),
+               new ServerWarmer.Request("GET", "/one", ImmutableMap.<String, String>of(),
+                                        Optional.<String>absent()));
+
+        assertThat(received)
+                .isNotEmpty();
+
+        assertThat(server.isStarted())
+                .isTrue();
+    }
+
+    private void warmUp(int iterations,
+                        Optional<Duration> duration,
+                        ServerWarmer.Request... requests) throws Exception {
+        new ServerWarmer(registry,
+                         server,
+                         ImmutableSet.of("internal"),
+                         ImmutableList.copyOf(requests),
+                         iterations,
+                         duration).start();
+    }
+
+    private Timer timer(String name) {
+        return (Timer) registry.allMetrics().get(new MetricName(Server.class, name));
+    }
+
+    private Meter meter(String name) {
+        return (Meter) registry.allMetrics().get(new MetricName(Server.class, name));
+    }
+}
@@ -0,0 +1,73 @@
+package com.yammer.dropwizard.jetty.tests;
+
+import com.yammer.dropwizard.jetty.SslHandshakeMetrics;
+import com.yammer.metrics.core.Clock;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricName;
+import com.yammer.metrics.core.MetricsRegistry;
+import com.yammer.metrics.core.Timer;
+import org.eclipse.jetty.server.nio.SelectChannelConnector;
+import org.junit.Test;
+
+import javax.net.ssl.SSLSession;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SslHandshakeMetricsTest {
+    private final MetricsRegistry registry = new MetricsRegistry();
+    private final Clock clock = mock(Clock.class);
+    private final SSLSession session = mock(SSLSession.class);
+    private final SslHandshakeMetrics metrics =
+            new SslHandshakeMetrics(registry, clock, SelectChannelConnector.class, 8443);
+
+    @Test
+    public void recordsFullHandshakes() throws Exception {
+        when(clock.tick()).thenReturn(0L, TimeUnit.MILLISECONDS.toNanos(30));
+        when(clock.time()).thenReturn(1000L);
+        when(session.getCreationTime()).thenReturn(1010L);
+
+        metrics.start().completed(session);
+
+        assertThat(meter("full-handshakes").count())
+                .isEqualTo(1);
+
+        assertThat(meter("resumed-handshakes").count())
+                .isZero();
+
+        assertThat(timer().max())
+                .isEqualTo(30.0);
+    }
+
+    @Test
+    public void recordsResumedHandshakes() throws Exception {
+        when(clock.tick()).thenReturn(0L, TimeUnit.MILLISECONDS.toNanos(2));
+        when(clock.time()).thenReturn(1000L);
+        when(session.getCreationTime()).thenReturn(500L);
+
+        metrics.start().completed(session);
+
+        assertThat(meter("full-handshakes").count())
+                .isZero();
+
+        assertThat(meter("resumed-handshakes").count())
+                .isEqualTo(1);
+
+        assertThat(timer().max())
+                .isEqualTo(2.0);
+    }
+
+    private Meter meter(String name) {
+        return (Meter) registry.allMetrics().get(metricName(name));
+    }
+
+    private Timer timer() {
+        return (Timer) registry.allMetrics().get(metricName("handshakes"));
+    }
+
+    private static MetricName metricName(String name) {
+        return new MetricName(SelectChannelConnector.class, name, "8443");
+    }
+}
@@ -0,0 +1,107 @@
+package com.yammer.dropwizard.lifecycle.tests;
+
+import com.yammer.dropwizard.lifecycle.StartupProfiler;
+import com.yammer.metrics.core.Clock;
+import org.eclipse.jetty.util.component.LifeCycle;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StartupProfilerTest {
+    private final Clock clock = mock(Clock.class);
+    private final StartupProfiler profiler = new StartupProfiler(clock);
+
+    @Test
+    public void recordsPhasesInTheOrderTheyStarted() throws Exception {
+        when(clock.tick()).thenReturn(0L,
+                                      TimeUnit.MILLISECONDS.toNanos(10),
+                                      TimeUnit.MILLISECONDS.toNanos(30),
+                                      TimeUnit.MILLISECONDS.toNanos(100));
+
+        final StartupProfiler.Phase outer = profiler.start("outer");
+        final StartupProfiler.Phase inner = profiler.start("inner");
+        inner.stop();
+        outer.stop();
+
+        assertThat(profiler.getPhases())
+                .containsExactly(outer, inner);
+
+        assertThat(outer.getDuration(TimeUnit.MILLISECONDS))
+                .isEqualTo(100);
+
+        assertThat(inner.getDuration(TimeUnit.MILLISECONDS))
+                .isEqualTo(20);
+
+        assertThat(outer.getThread())
+                .isEqualTo(Thread.currentThread().getName());
+    }
+
+    @Test
+    public void hasNoDurationForUnfinishedPhases() throws Exception {
+        final StartupProfiler.Phase phase = profiler.start("phase");
+
+        assertThat(phase.getDuration(TimeUnit.MILLISECONDS))
+                .isEqualTo(-1);
+    }
+
+    @Test
+    public void recordsLifeCycles() throws Exception {
+        when(clock.tick()).thenReturn(0L, TimeUnit.MILLISECONDS.toNanos(5));
+        final LifeCycle lifeCycle = mock(LifeCycle.class);
+        final LifeCycle.Listener listener = profiler.newListener("thing");
+
+        listener.lifeCycleStarting(lifeCycle);
+        listener.lifeCycleStarted(lifeCycle);
+
+        final StartupProfiler.Phase phase = profiler.getPhases().get(0);
+        assertThat(phase.getName())
+                .isEqualTo("thing");
+
+        assertThat(phase.getDuration(TimeUnit.MILLISECONDS))
+                .isEqualTo(5);
+    }
+
+    @Test
+    public void reportsPhasesAsATable() throws Exception {
+        when(clock.tick()).thenReturn(0L, TimeUnit.MILLISECONDS.toNanos(42));
+        profiler.start("configuration").stop();
+
+        assertThat(profiler.getReport())
+                .contains("PHASE")
+                .matches("(?s).*configuration\\s+42\\s.*");
+    }
+
+    @Test
+    public void recordsWhenTheServiceStarted() throws Exception {
+        assertThat(profiler.getUptimeAtStart())
+                .isEqualTo(-1);
+
+        profiler.finish();
+
+        assertThat(profiler.getUptimeAtStart())
+                .isGreaterThan(0);
+        assertThat(profiler.getReport())
+                .contains("total since JVM start");
+    }
+
+    @Test
+    public void recordsTheMemoryAllocatedByAPhase() throws Exception {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+
+        final StartupProfiler.Phase phase = profiler.start("phase");
+        final byte[] buffer = new byte[1024 * 1024];
+        phase.stop();
+
+        assertThat(buffer)
+                .isNotEmpty();
+
+        assertThat(phase.getAllocatedBytes())
+                .isGreaterThanOrEqualTo(1024 * 1024);
+    }
+}
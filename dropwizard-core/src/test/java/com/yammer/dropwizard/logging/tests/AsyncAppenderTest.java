@@ -0,0 +1,209 @@
+package com.yammer.dropwizard.logging.tests;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.AppenderBase;
+import com.yammer.dropwizard.logging.AsyncAppender;
+import com.yammer.dropwizard.util.Duration;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricName;
+import com.yammer.metrics.core.MetricsRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class AsyncAppenderTest {
+    private static class BlockingAppender extends AppenderBase<ILoggingEvent> {
+        private final CountDownLatch appending = new CountDownLatch(1);
+        private final CountDownLatch unblocked = new CountDownLatch(1);
+        private final List<String> messages = new CopyOnWriteArrayList<String>();
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            appending.countDown();
+            try {
+                unblocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            messages.add(event.getFormattedMessage());
+        }
+    }
+
+    private final MetricsRegistry registry = new MetricsRegistry();
+    private final BlockingAppender delegate = new BlockingAppender();
+    private AsyncAppender appender;
+
+    @Before
+    public void setUp() throws Exception {
+        delegate.setContext(new LoggerContext());
+        delegate.start();
+
+        this.appender = new AsyncAppender(registry, delegate, "test", 1, Level.INFO, Duration.seconds(5));
+        appender.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        delegate.unblocked.countDown();
+        appender.stop();
+    }
+
+    @Test
+    public void discardsLowLevelEventsWhileTheQueueIsFull() throws Exception {
+        appender.doAppend(event(Level.INFO, "one"));
+        delegate.appending.await();
+
+        appender.doAppend(event(Level.INFO, "two"));
+        appender.doAppend(event(Level.INFO, "three"));
+
+        assertThat(discarded().count())
+                .isEqualTo(1);
+
+        delegate.unblocked.countDown();
+        appender.stop();
+
+        assertThat(delegate.messages)
+                .containsExactly("one", "two");
+    }
+
+    @Test
+    public void waitsForRoomForSevereEvents() throws Exception {
+        appender.doAppend(event(Level.INFO, "one"));
+        delegate.appending.await();
+
+        appender.doAppend(event(Level.INFO, "two"));
+
+        final Thread warning = new Thread() {
+            @Override
+            public void run() {
+                appender.doAppend(event(Level.WARN, "three"));
+            }
+        };
+        warning.start();
+        warning.join(200);
+
+        assertThat(warning.isAlive())
+                .isTrue();
+
+        delegate.unblocked.countDown();
+        warning.join(TimeUnit.SECONDS.toMillis(5));
+        appender.stop();
+
+        assertThat(delegate.messages)
+                .containsExactly("one", "two", "three");
+
+        assertThat(discarded().count())
+                .isZero();
+    }
+
+    @Test
+    public void discardsLowLevelEventsWhileASevereEventWaitsForRoom() throws Exception {
+        appender.doAppend(event(Level.INFO, "one"));
+        delegate.appending.await();
+
+        appender.doAppend(event(Level.INFO, "two"));
+
+        final Thread warning = new Thread() {
+            @Override
+            public void run() {
+                appender.doAppend(event(Level.WARN, "three"));
+            }
+        };
+        warning.start();
+        warning.join(200);
+
+        final Thread info = new Thread() {
+            @Override
+            public void run() {
+                appender.doAppend(event(Level.INFO, "four"));
+            }
+        };
+        info.start();
+        info.join(TimeUnit.SECONDS.toMillis(1));
+
+        assertThat(info.isAlive())
+                .isFalse();
+
+        assertThat(warning.isAlive())
+                .isTrue();
+
+        assertThat(discarded().count())
+                .isEqualTo(1);
+
+        delegate.unblocked.countDown();
+        warning.join(TimeUnit.SECONDS.toMillis(5));
+        appender.stop();
+
+        assertThat(delegate.messages)
+                .containsExactly("one", "two", "three");
+    }
+
+    @Test
+    public void flushesQueuedEventsAndStopsTheDelegateWhenStopped() throws Exception {
+        delegate.unblocked.countDown();
+        appender.doAppend(event(Level.INFO, "one"));
+        appender.stop();
+
+        assertThat(delegate.messages)
+                .containsExactly("one");
+
+        assertThat(delegate.isStarted())
+                .isFalse();
+    }
+
+    @Test
+    public void scopesItsMetricsByItsName() throws Exception {
+        final AsyncAppender other = new AsyncAppender(registry, delegate, "other", 1, Level.INFO,
+                                                      Duration.seconds(5));
+
+        assertThat(other.getName())
+                .isEqualTo("other");
+
+        assertThat(registry.allMetrics().keySet())
+                .contains(new MetricName(AsyncAppender.class, "queue-size", "test"),
+                          new MetricName(AsyncAppender.class, "queue-size", "other"));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void wrapsAppendersInAStartedAsyncAppender() throws Exception {
+        delegate.setName("console");
+        final Appender<ILoggingEvent> wrapped = AsyncAppender.wrap(delegate);
+        try {
+            assertThat(wrapped)
+                    .isInstanceOf(AsyncAppender.class);
+
+            assertThat(wrapped.isStarted())
+                    .isTrue();
+
+            assertThat(wrapped.getName())
+                    .isEqualTo("console");
+        } finally {
+            wrapped.stop();
+        }
+    }
+
+    private Meter discarded() {
+        return (Meter) registry.allMetrics().get(new MetricName(AsyncAppender.class, "discarded", "test"));
+    }
+
+    private static ILoggingEvent event(Level level, String message) {
+        final LoggingEvent event = new LoggingEvent();
+        event.setLevel(level);
+        event.setMessage(message);
+        event.setLoggerName("test");
+        event.setTimeStamp(System.currentTimeMillis());
+        return event;
+    }
+}
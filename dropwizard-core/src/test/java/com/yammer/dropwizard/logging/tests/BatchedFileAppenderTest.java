@@ -0,0 +1,169 @@
+package com.yammer.dropwizard.logging.tests;
+
+import ch.qos.logback.classic.LoggerContext;
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+import com.yammer.dropwizard.logging.BatchedFileAppender;
+import com.yammer.metrics.core.Clock;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class BatchedFileAppenderTest {
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicLong time = new AtomicLong(TimeUnit.SECONDS.toMillis(1353042047));
+    private final Clock clock = new Clock() {
+        @Override
+        public long tick() {
+            return TimeUnit.MILLISECONDS.toNanos(time.get());
+        }
+
+        @Override
+        public long time() {
+            return time.get();
+        }
+    };
+
+    private BatchedFileAppender appender;
+
+    @After
+    public void tearDown() throws Exception {
+        if (appender != null) {
+            appender.stop();
+        }
+    }
+
+    @Test
+    public void writesBatchesOfLines() throws Exception {
+        start(null, 0);
+
+        appender.appendLines(ImmutableList.of("one", "two"));
+        appender.appendLines(ImmutableList.of("three"));
+        appender.stop();
+
+        assertThat(Files.toString(file("requests.log"), Charsets.UTF_8))
+                .isEqualTo(lines("one", "two", "three"));
+    }
+
+    @Test
+    public void writesLinesLargerThanTheBuffer() throws Exception {
+        final StringBuilder line = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            line.append('\u00e9');
+        }
+
+        start(null, 0);
+
+        appender.appendLines(ImmutableList.of(line));
+        appender.stop();
+
+        assertThat(Files.toString(file("requests.log"), Charsets.UTF_8))
+                .isEqualTo(lines(line.toString()));
+    }
+
+    @Test
+    public void archivesAndCompressesFilesWhenTheDateChanges() throws Exception {
+        start("requests-%d.log.gz", 0);
+
+        appender.appendLines(ImmutableList.of("one"));
+        time.addAndGet(TimeUnit.DAYS.toMillis(1));
+        appender.appendLines(ImmutableList.of("two"));
+        appender.stop();
+
+        assertThat(gunzip(file("requests-2012-11-16.log.gz")))
+                .isEqualTo(lines("one"));
+
+        assertThat(file("requests-2012-11-16.log").exists())
+                .isFalse();
+
+        assertThat(Files.toString(file("requests.log"), Charsets.UTF_8))
+                .isEqualTo(lines("two"));
+    }
+
+    @Test
+    public void archivesFilesWhenTheyGrowTooLarge() throws Exception {
+        start("requests-%d-%i.log", 8);
+
+        appender.appendLines(ImmutableList.of("one", "two"));
+        appender.appendLines(ImmutableList.of("three"));
+        appender.appendLines(ImmutableList.of("four"));
+        appender.stop();
+
+        assertThat(Files.toString(file("requests-2012-11-16-0.log"), Charsets.UTF_8))
+                .isEqualTo(lines("one", "two"));
+
+        assertThat(Files.toString(file("requests-2012-11-16-1.log"), Charsets.UTF_8))
+                .isEqualTo(lines("three", "four"));
+
+        assertThat(file("requests.log").length())
+                .isZero();
+    }
+
+    @Test
+    public void onlyKeepsTheMostRecentArchivedFiles() throws Exception {
+        start("requests-%d.log", 0);
+
+        for (int i = 0; i < 5; i++) {
+            appender.appendLines(ImmutableList.of("day " + i));
+            time.addAndGet(TimeUnit.DAYS.toMillis(1));
+        }
+        appender.appendLines(ImmutableList.of("today"));
+        appender.stop();
+
+        assertThat(folder.getRoot().list())
+                .hasSize(4)
+                .contains("requests.log");
+    }
+
+    private void start(String archivedFilenamePattern, long maxFileSize) {
+        this.appender = new BatchedFileAppender(clock,
+                                                file("requests.log"),
+                                                archivedFilenamePattern == null ? null :
+                                                        file(archivedFilenamePattern).getPath(),
+                                                3,
+                                                maxFileSize,
+                                                1024,
+                                                TimeZone.getTimeZone("UTC"));
+        appender.setContext(new LoggerContext());
+        appender.start();
+    }
+
+    private File file(String name) {
+        return new File(folder.getRoot(), name);
+    }
+
+    private static String lines(String... lines) {
+        final StringBuilder builder = new StringBuilder();
+        for (String line : lines) {
+            builder.append(line).append(LINE_SEPARATOR);
+        }
+        return builder.toString();
+    }
+
+    private static String gunzip(File file) throws IOException {
+        final InputStream input = new GZIPInputStream(new FileInputStream(file));
+        try {
+            return new String(ByteStreams.toByteArray(input), Charsets.UTF_8);
+        } finally {
+            input.close();
+        }
+    }
+}
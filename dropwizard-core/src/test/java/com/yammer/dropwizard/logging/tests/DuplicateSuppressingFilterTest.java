@@ -0,0 +1,135 @@
+package com.yammer.dropwizard.logging.tests;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.yammer.dropwizard.logging.DuplicateSuppressingFilter;
+import com.yammer.dropwizard.util.Duration;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class DuplicateSuppressingFilterTest {
+    private final LoggerContext context = new LoggerContext();
+    private final Logger logger = context.getLogger("com.example.app");
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<ILoggingEvent>();
+    private final DuplicateSuppressingFilter filter =
+            new DuplicateSuppressingFilter(Level.WARN, 3, Duration.minutes(1), 2);
+
+    @Before
+    public void setUp() throws Exception {
+        appender.setContext(context);
+        appender.start();
+        context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME).addAppender(appender);
+        context.addTurboFilter(filter);
+    }
+
+    @Test
+    public void suppressesRepeatedStatements() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            logger.error("Error handling a request: {}", i, failure());
+        }
+
+        assertThat(appender.list)
+                .hasSize(3);
+    }
+
+    @Test
+    public void logsASummaryOfSuppressedStatements() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            logger.error("Error handling a request: {}", i, failure());
+        }
+
+        filter.summarize();
+
+        final ILoggingEvent summary = appender.list.get(3);
+
+        assertThat(summary.getLevel())
+                .isEqualTo(Level.ERROR);
+
+        assertThat(summary.getLoggerName())
+                .isEqualTo("com.example.app");
+
+        assertThat(summary.getFormattedMessage())
+                .isEqualTo("Suppressed 2 more statements like \"Error handling a request: {}\" " +
+                                   "(java.lang.IllegalStateException) in the last 1 minute");
+    }
+
+    @Test
+    public void startsANewWindowAfterASummary() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            logger.error("Error handling a request: {}", i, failure());
+        }
+
+        filter.summarize();
+        appender.list.clear();
+
+        for (int i = 0; i < 5; i++) {
+            logger.error("Error handling a request: {}", i, failure());
+        }
+
+        assertThat(appender.list)
+                .hasSize(3);
+    }
+
+    @Test
+    public void keepsSuppressingStatementsOnceTheirFingerprintIsForgotten() throws Exception {
+        logger.error("Error handling a request: {}", 0, failure());
+
+        // the first summary starts a new window, and the second forgets the idle fingerprint
+        filter.summarize();
+        filter.summarize();
+        appender.list.clear();
+
+        for (int i = 0; i < 5; i++) {
+            logger.error("Error handling a request: {}", i, failure());
+        }
+
+        assertThat(appender.list)
+                .hasSize(3);
+    }
+
+    @Test
+    public void fingerprintsTheExceptionTypeAndStackTop() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            logger.error("Error handling a request: {}", i, failure());
+            logger.error("Error handling a request: {}", i, otherFailure());
+        }
+
+        assertThat(appender.list)
+                .hasSize(6);
+    }
+
+    @Test
+    public void doesNotSuppressStatementsBelowTheThreshold() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            logger.info("Handled a request: {}", i);
+        }
+
+        assertThat(appender.list)
+                .hasSize(5);
+    }
+
+    @Test
+    public void doesNotSuppressStatementsBeyondTheMaximumNumberOfFingerprints() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            logger.warn("one");
+            logger.warn("two");
+            logger.warn("three");
+        }
+
+        assertThat(appender.list)
+                .hasSize(11);
+    }
+
+    private static Throwable failure() {
+        return new IllegalStateException("database is down");
+    }
+
+    private static Throwable otherFailure() {
+        return new IllegalStateException("database is down");
+    }
+}
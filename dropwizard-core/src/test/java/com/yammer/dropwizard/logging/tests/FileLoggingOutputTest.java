@@ -0,0 +1,177 @@
+package com.yammer.dropwizard.logging.tests;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
+import com.google.common.io.Files;
+import com.yammer.dropwizard.logging.BufferedLayoutWrappingEncoder;
+import com.yammer.dropwizard.logging.FileLoggingOutput;
+import com.yammer.dropwizard.util.Duration;
+import com.yammer.dropwizard.util.Size;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileFilter;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class FileLoggingOutputTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final LoggerContext context = new LoggerContext();
+    private final FileLoggingOutput output = new FileLoggingOutput();
+    private Appender<ILoggingEvent> appender;
+
+    @Before
+    public void setUp() throws Exception {
+        output.setCurrentLogFilename(file("app.log").getPath());
+        output.setArchive(false);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (appender != null) {
+            appender.stop();
+        }
+    }
+
+    @Test
+    public void writesStatementsImmediatelyByDefault() throws Exception {
+        this.appender = output.build(context, "test", null);
+
+        appender.doAppend(event("one"));
+
+        assertThat(Files.toString(file("app.log"), Charsets.UTF_8))
+                .contains("one");
+    }
+
+    @Test
+    public void buffersStatementsUntilTheyreFlushed() throws Exception {
+        output.setImmediateFlush(false);
+        output.setFlushPeriod(Duration.hours(1));
+        this.appender = output.build(context, "test", null);
+
+        appender.doAppend(event("one"));
+
+        assertThat(file("app.log").length())
+                .isZero();
+
+        encoder().flush();
+
+        assertThat(Files.toString(file("app.log"), Charsets.UTF_8))
+                .contains("one");
+    }
+
+    @Test
+    public void flushesBufferedStatementsPeriodically() throws Exception {
+        output.setImmediateFlush(false);
+        output.setFlushPeriod(Duration.milliseconds(10));
+        this.appender = output.build(context, "test", null);
+
+        appender.doAppend(event("one"));
+
+        for (int i = 0; (i < 500) && (file("app.log").length() == 0); i++) {
+            Thread.sleep(10);
+        }
+
+        assertThat(Files.toString(file("app.log"), Charsets.UTF_8))
+                .contains("one");
+    }
+
+    @Test
+    public void flushesBufferedStatementsWhenStopped() throws Exception {
+        output.setImmediateFlush(false);
+        output.setFlushPeriod(Duration.hours(1));
+        this.appender = output.build(context, "test", null);
+
+        appender.doAppend(event("one"));
+        appender.stop();
+
+        assertThat(Files.toString(file("app.log"), Charsets.UTF_8))
+                .contains("one");
+    }
+
+    @Test
+    public void archivesLargeFilesAndLimitsTheirTotalSize() throws Exception {
+        output.setArchive(true);
+        output.setArchivedLogFilenamePattern(file("app-%d-%i.log").getPath());
+        output.setArchivedFileCount(50);
+        output.setMaxFileSize(Size.kilobytes(1));
+        output.setMaxTotalSize(Size.kilobytes(4));
+        this.appender = output.build(context, "test", null);
+
+        for (int i = 0; i < 200; i++) {
+            appender.doAppend(event(Strings.repeat("x", 100)));
+        }
+        appender.stop();
+
+        final File[] archives = archives(".log");
+        long totalSize = 0;
+        for (File archive : archives) {
+            totalSize += archive.length();
+        }
+
+        assertThat(archives)
+                .isNotEmpty();
+
+        assertThat(totalSize)
+                .isLessThanOrEqualTo(Size.kilobytes(4).toBytes());
+    }
+
+    @Test
+    public void compressesArchivedFilesAndLimitsTheirNumber() throws Exception {
+        output.setArchive(true);
+        output.setArchivedLogFilenamePattern(file("app-%d-%i.log.gz").getPath());
+        output.setArchivedFileCount(3);
+        output.setMaxFileSize(Size.kilobytes(1));
+        this.appender = output.build(context, "test", null);
+
+        for (int i = 0; i < 200; i++) {
+            appender.doAppend(event(Strings.repeat("x", 100)));
+        }
+        appender.stop();
+
+        assertThat(archives(".log.gz"))
+                .hasSize(3);
+
+        assertThat(archives(".tmp"))
+                .isEmpty();
+    }
+
+    private BufferedLayoutWrappingEncoder encoder() {
+        return (BufferedLayoutWrappingEncoder) ((OutputStreamAppender<ILoggingEvent>) appender).getEncoder();
+    }
+
+    private File[] archives(final String suffix) {
+        return folder.getRoot().listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                return file.getName().startsWith("app-") && file.getName().endsWith(suffix);
+            }
+        });
+    }
+
+    private File file(String name) {
+        return new File(folder.getRoot(), name);
+    }
+
+    private static ILoggingEvent event(String message) {
+        final LoggingEvent event = new LoggingEvent();
+        event.setLevel(Level.INFO);
+        event.setMessage(message);
+        event.setLoggerName("test");
+        event.setThreadName("main");
+        event.setTimeStamp(System.currentTimeMillis());
+        return event;
+    }
+}
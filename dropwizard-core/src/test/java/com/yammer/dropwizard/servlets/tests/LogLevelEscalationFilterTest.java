@@ -0,0 +1,214 @@
+package com.yammer.dropwizard.servlets.tests;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
+import com.google.common.io.BaseEncoding;
+import com.yammer.dropwizard.logging.EscalatedLevelFilter;
+import com.yammer.dropwizard.servlets.LogLevelEscalationFilter;
+import com.yammer.dropwizard.util.ClientKey;
+import com.yammer.metrics.core.Clock;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Locale;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class LogLevelEscalationFilterTest {
+    private static final long NOW = 1400000000000L;
+
+    private final LoggerContext context = new LoggerContext();
+    private final Logger logger = context.getLogger("com.example.app");
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<ILoggingEvent>();
+    private final HttpServletRequest request = mock(HttpServletRequest.class);
+    private final HttpServletResponse response = mock(HttpServletResponse.class);
+    private final FilterChain chain = mock(FilterChain.class);
+    private final Clock clock = mock(Clock.class);
+    private final LogLevelEscalationFilter filter =
+            new LogLevelEscalationFilter("X-Log-Level", Optional.of("s3cr3t"), clock);
+
+    @Before
+    public void setUp() throws Exception {
+        when(clock.time()).thenReturn(NOW);
+        when(request.getRequestURI()).thenReturn("/things/1");
+        when(request.getRemoteAddr()).thenReturn("10.0.0.1");
+
+        logger.setLevel(Level.INFO);
+        appender.setContext(context);
+        appender.start();
+        context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME).addAppender(appender);
+        context.addTurboFilter(new EscalatedLevelFilter());
+
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                logger.debug("handling a request");
+                logger.trace("handling a request in detail");
+                return null;
+            }
+        }).when(chain).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+    }
+
+    @Test
+    public void passesThroughRequestsWhichAreNotEscalated() throws Exception {
+        filter.doFilter(request, response, chain);
+
+        verify(chain).doFilter(request, response);
+        assertThat(appender.list)
+                .isEmpty();
+    }
+
+    @Test
+    public void escalatesRequestsWithASignedHeader() throws Exception {
+        when(request.getHeader("X-Log-Level")).thenReturn(header("DEBUG", NOW / 1000 + 60, "s3cr3t"));
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(appender.list)
+                .hasSize(1);
+        assertThat(appender.list.get(0).getLevel())
+                .isEqualTo(Level.DEBUG);
+    }
+
+    @Test
+    public void ignoresIncorrectlySignedHeaders() throws Exception {
+        when(request.getHeader("X-Log-Level")).thenReturn(header("DEBUG", NOW / 1000 + 60, "guess"));
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(appender.list)
+                .isEmpty();
+    }
+
+    @Test
+    public void ignoresExpiredHeaders() throws Exception {
+        when(request.getHeader("X-Log-Level")).thenReturn(header("DEBUG", NOW / 1000 - 1, "s3cr3t"));
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(appender.list)
+                .isEmpty();
+    }
+
+    @Test
+    public void escalatesRequestsMatchingARule() throws Exception {
+        filter.addRule(new LogLevelEscalationFilter.Rule(Level.TRACE,
+                                                         Optional.of("/things"),
+                                                         Optional.of("10.0.0.1"),
+                                                         1.0,
+                                                         NOW + 60000));
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(appender.list)
+                .hasSize(2);
+    }
+
+    @Test
+    public void doesNotEscalateRequestsForOtherPaths() throws Exception {
+        filter.addRule(new LogLevelEscalationFilter.Rule(Level.DEBUG,
+                                                         Optional.of("/widgets"),
+                                                         Optional.<String>absent(),
+                                                         1.0,
+                                                         NOW + 60000));
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(appender.list)
+                .isEmpty();
+    }
+
+    @Test
+    public void doesNotEscalateRequestsFromOtherPrincipals() throws Exception {
+        filter.addRule(new LogLevelEscalationFilter.Rule(Level.DEBUG,
+                                                         Optional.<String>absent(),
+                                                         Optional.of("10.0.0.2"),
+                                                         1.0,
+                                                         NOW + 60000));
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(appender.list)
+                .isEmpty();
+    }
+
+    @Test
+    public void matchesPrincipalsByTheConfiguredClientKey() throws Exception {
+        final LogLevelEscalationFilter keyed = new LogLevelEscalationFilter("X-Log-Level",
+                                                                            Optional.<String>absent(),
+                                                                            ClientKey.header("X-Api-Key"),
+                                                                            clock);
+        keyed.addRule(new LogLevelEscalationFilter.Rule(Level.DEBUG,
+                                                        Optional.<String>absent(),
+                                                        Optional.of("key-1"),
+                                                        1.0,
+                                                        NOW + 60000));
+        when(request.getHeader("X-Api-Key")).thenReturn("key-1");
+
+        keyed.doFilter(request, response, chain);
+
+        assertThat(appender.list)
+                .hasSize(1);
+    }
+
+    @Test
+    public void acceptsUpperCaseSignatures() throws Exception {
+        when(request.getHeader("X-Log-Level"))
+                .thenReturn(header("DEBUG", NOW / 1000 + 60, "s3cr3t").toUpperCase(Locale.ENGLISH));
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(appender.list)
+                .hasSize(1);
+    }
+
+    @Test
+    public void removesExpiredRules() throws Exception {
+        filter.addRule(new LogLevelEscalationFilter.Rule(Level.DEBUG,
+                                                         Optional.<String>absent(),
+                                                         Optional.<String>absent(),
+                                                         1.0,
+                                                         NOW));
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(appender.list)
+                .isEmpty();
+        assertThat(filter.getRules())
+                .isEmpty();
+    }
+
+    @Test
+    public void onlyEscalatesTheRequestsThread() throws Exception {
+        when(request.getHeader("X-Log-Level")).thenReturn(header("DEBUG", NOW / 1000 + 60, "s3cr3t"));
+
+        filter.doFilter(request, response, chain);
+        logger.debug("handling something else");
+
+        assertThat(appender.list)
+                .hasSize(1);
+    }
+
+    private static String header(String level, long expiry, String secret) throws Exception {
+        final Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(Charsets.UTF_8), "HmacSHA256"));
+        final String payload = level + ':' + expiry;
+        return payload + ':' + BaseEncoding.base16().lowerCase().encode(mac.doFinal(payload.getBytes(Charsets.UTF_8)));
+    }
+}
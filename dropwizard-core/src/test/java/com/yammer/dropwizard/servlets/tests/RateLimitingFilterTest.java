@@ -0,0 +1,110 @@
+package com.yammer.dropwizard.servlets.tests;
+
+import com.yammer.dropwizard.servlets.RateLimitingFilter;
+import com.yammer.dropwizard.util.ClientKey;
+import com.yammer.dropwizard.util.Duration;
+import com.yammer.dropwizard.util.TokenBucketTable;
+import com.yammer.metrics.core.Clock;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricName;
+import com.yammer.metrics.core.MetricsRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class RateLimitingFilterTest {
+    private final Clock clock = mock(Clock.class);
+    private final MetricsRegistry registry = new MetricsRegistry();
+    // 1 token per second, 1 at once
+    private final TokenBucketTable buckets =
+            new TokenBucketTable(clock, 1, Duration.seconds(1), 1, 100, Duration.minutes(1));
+    private final RateLimitingFilter filter =
+            new RateLimitingFilter(registry, "test", buckets, ClientKey.header("X-Api-Key"));
+    private final FilterChain chain = mock(FilterChain.class);
+
+    @Before
+    public void setUp() throws Exception {
+        when(clock.tick()).thenReturn(0L);
+    }
+
+    @Test
+    public void passesRequestsWithinTheLimitThrough() throws Exception {
+        final HttpServletRequest request = request("a");
+        final HttpServletResponse response = mock(HttpServletResponse.class);
+
+        filter.doFilter(request, response, chain);
+
+        verify(chain).doFilter(request, response);
+        verifyZeroInteractions(response);
+
+        assertThat(meter("test-allowed").count())
+                .isEqualTo(1);
+        assertThat(meter("test-throttled").count())
+                .isZero();
+    }
+
+    @Test
+    public void rejectsRequestsOverTheLimit() throws Exception {
+        filter.doFilter(request("a"), mock(HttpServletResponse.class), chain);
+
+        final HttpServletRequest request = request("a");
+        final HttpServletResponse response = mock(HttpServletResponse.class);
+
+        filter.doFilter(request, response, chain);
+
+        verify(chain, never()).doFilter(request, response);
+        verify(response).setHeader("Retry-After", "1");
+        verify(response).sendError(429);
+
+        assertThat(meter("test-allowed").count())
+                .isEqualTo(1);
+        assertThat(meter("test-throttled").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void limitsEachClientSeparately() throws Exception {
+        filter.doFilter(request("a"), mock(HttpServletResponse.class), chain);
+
+        final HttpServletRequest request = request("b");
+        final HttpServletResponse response = mock(HttpServletResponse.class);
+
+        filter.doFilter(request, response, chain);
+
+        verify(chain).doFilter(request, response);
+
+        assertThat(meter("test-allowed").count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    public void limitsRequestsWithoutAKeyByAddress() throws Exception {
+        filter.doFilter(request(null), mock(HttpServletResponse.class), chain);
+
+        final HttpServletRequest request = request(null);
+        final HttpServletResponse response = mock(HttpServletResponse.class);
+
+        filter.doFilter(request, response, chain);
+
+        verify(response).sendError(429);
+        assertThat(buckets.size())
+                .isEqualTo(1);
+    }
+
+    private static HttpServletRequest request(String key) {
+        final HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getHeader("X-Api-Key")).thenReturn(key);
+        when(request.getRemoteAddr()).thenReturn("10.0.0.1");
+        return request;
+    }
+
+    private Meter meter(String name) {
+        return (Meter) registry.allMetrics().get(new MetricName(RateLimitingFilter.class, name));
+    }
+}
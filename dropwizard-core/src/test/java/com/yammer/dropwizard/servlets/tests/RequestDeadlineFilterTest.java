@@ -0,0 +1,114 @@
+package com.yammer.dropwizard.servlets.tests;
+
+import com.yammer.dropwizard.servlets.DeadlineExceededException;
+import com.yammer.dropwizard.servlets.RequestDeadline;
+import com.yammer.dropwizard.servlets.RequestDeadlineFilter;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class RequestDeadlineFilterTest {
+    private final HttpServletRequest request = mock(HttpServletRequest.class);
+    private final HttpServletResponse response = mock(HttpServletResponse.class);
+    private final FilterChain chain = mock(FilterChain.class);
+    private final RequestDeadlineFilter filter = new RequestDeadlineFilter();
+    private final AtomicReference<RequestDeadline> deadline = new AtomicReference<RequestDeadline>();
+
+    @Before
+    public void setUp() throws Exception {
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                deadline.set(RequestDeadline.current().orNull());
+                return null;
+            }
+        }).when(chain).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+    }
+
+    @Test
+    public void passesThroughRequestsWithoutATimeout() throws Exception {
+        filter.doFilter(request, response, chain);
+
+        verify(chain).doFilter(request, response);
+        assertThat(deadline.get())
+                .isNull();
+    }
+
+    @Test
+    public void readsTimeoutsInMilliseconds() throws Exception {
+        when(request.getHeader("X-Request-Timeout")).thenReturn("5000");
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(deadline.get().getRemaining(TimeUnit.MILLISECONDS))
+                .isGreaterThan(4000)
+                .isLessThanOrEqualTo(5000);
+    }
+
+    @Test
+    public void readsTimeoutsAsDurations() throws Exception {
+        when(request.getHeader("X-Request-Timeout")).thenReturn("2s");
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(deadline.get().getRemaining(TimeUnit.MILLISECONDS))
+                .isGreaterThan(1000)
+                .isLessThanOrEqualTo(2000);
+    }
+
+    @Test
+    public void ignoresMalformedTimeouts() throws Exception {
+        when(request.getHeader("X-Request-Timeout")).thenReturn("soon");
+
+        filter.doFilter(request, response, chain);
+
+        verify(chain).doFilter(request, response);
+        assertThat(deadline.get())
+                .isNull();
+    }
+
+    @Test
+    public void clearsTheDeadlineAfterTheRequest() throws Exception {
+        when(request.getHeader("X-Request-Timeout")).thenReturn("5000");
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(RequestDeadline.current().isPresent())
+                .isFalse();
+    }
+
+    @Test
+    public void abandonsRequestsWhoseDeadlineHasPassed() throws Exception {
+        when(request.getHeader("X-Request-Timeout")).thenReturn("0");
+
+        filter.doFilter(request, response, chain);
+
+        verifyZeroInteractions(chain);
+        verify(response).sendError(504);
+    }
+
+    @Test
+    public void abandonsRequestsWhichExceedTheirDeadline() throws Exception {
+        when(request.getHeader("X-Request-Timeout")).thenReturn("5000");
+        doThrow(new DeadlineExceededException()).when(chain).doFilter(request, response);
+
+        filter.doFilter(request, response, chain);
+
+        verify(response).sendError(504);
+        assertThat(RequestDeadline.current().isPresent())
+                .isFalse();
+    }
+}
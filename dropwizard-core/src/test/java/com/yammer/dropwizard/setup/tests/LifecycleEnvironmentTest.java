@@ -1,5 +1,7 @@
 package com.yammer.dropwizard.setup.tests;
 
+import com.google.common.collect.Lists;
+import com.yammer.dropwizard.jetty.ConcurrentLifeCycleGroup;
 import com.yammer.dropwizard.jetty.JettyManaged;
 import com.yammer.dropwizard.lifecycle.Managed;
 import com.yammer.dropwizard.setup.LifecycleEnvironment;
@@ -8,6 +10,12 @@ import org.eclipse.jetty.util.component.LifeCycle;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import static org.fest.assertions.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -35,4 +43,44 @@ public class LifecycleEnvironmentTest {
         assertThat(wrapper.getValue().getManaged())
                 .isEqualTo(managed);
     }
+
+    @Test
+    public void managesManagedObjectsConcurrently() throws Exception {
+        environment.startManagedObjectsConcurrently(4);
+        final Managed managed = mock(Managed.class);
+        environment.manage(managed);
+
+        final ArgumentCaptor<ConcurrentLifeCycleGroup> group =
+                ArgumentCaptor.forClass(ConcurrentLifeCycleGroup.class);
+        verify(aggregate).addBean(group.capture());
+
+        assertThat(((JettyManaged) group.getValue().getMembers().get(0)).getManaged())
+                .isEqualTo(managed);
+    }
+
+    @Test
+    public void managesObjectsAddedConcurrently() throws Exception {
+        final AggregateLifeCycle lifeCycle = new AggregateLifeCycle();
+        final LifecycleEnvironment concurrent = new LifecycleEnvironment(lifeCycle);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> futures = Lists.newArrayList();
+            for (int i = 0; i < 200; i++) {
+                futures.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        concurrent.manage(mock(Managed.class));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(lifeCycle.getBeans())
+                .hasSize(200);
+    }
 }
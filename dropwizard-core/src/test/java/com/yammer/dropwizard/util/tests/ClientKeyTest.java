@@ -0,0 +1,77 @@
+package com.yammer.dropwizard.util.tests;
+
+import com.yammer.dropwizard.util.ClientKey;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.http.HttpServletRequest;
+import java.security.Principal;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ClientKeyTest {
+    private final HttpServletRequest request = mock(HttpServletRequest.class);
+
+    @Before
+    public void setUp() throws Exception {
+        when(request.getRemoteAddr()).thenReturn("10.0.0.1");
+    }
+
+    @Test
+    public void parsesKeys() throws Exception {
+        assertThat(ClientKey.parse("address"))
+                .isEqualTo(ClientKey.address());
+        assertThat(ClientKey.parse("principal"))
+                .isEqualTo(ClientKey.principal());
+        assertThat(ClientKey.parse("header:X-Api-Key"))
+                .isEqualTo(ClientKey.header("X-Api-Key"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownKeys() throws Exception {
+        ClientKey.parse("cookie");
+    }
+
+    @Test
+    public void identifiesClientsByAddress() throws Exception {
+        assertThat(ClientKey.address().of(request))
+                .isEqualTo("10.0.0.1");
+    }
+
+    @Test
+    public void identifiesClientsByPrincipal() throws Exception {
+        final Principal principal = mock(Principal.class);
+        when(principal.getName()).thenReturn("alice");
+        when(request.getUserPrincipal()).thenReturn(principal);
+
+        assertThat(ClientKey.principal().of(request))
+                .isEqualTo("alice");
+    }
+
+    @Test
+    public void identifiesClientsByHeaderOrAddress() throws Exception {
+        assertThat(ClientKey.header("X-Api-Key").of(request))
+                .isEqualTo("10.0.0.1");
+
+        when(request.getHeader("X-Api-Key")).thenReturn("abc123");
+
+        assertThat(ClientKey.header("X-Api-Key").of(request))
+                .isEqualTo("abc123");
+    }
+
+    @Test
+    public void identifiesClientsWithoutAnAddressAsUnknown() throws Exception {
+        when(request.getRemoteAddr()).thenReturn(null);
+
+        assertThat(ClientKey.address().of(request))
+                .isEqualTo(ClientKey.UNKNOWN);
+
+        assertThat(ClientKey.principal().of(request))
+                .isEqualTo(ClientKey.UNKNOWN);
+
+        assertThat(ClientKey.header("X-Api-Key").of(request))
+                .isEqualTo(ClientKey.UNKNOWN);
+    }
+}
@@ -0,0 +1,80 @@
+package com.yammer.dropwizard.util.tests;
+
+import com.yammer.dropwizard.util.Duration;
+import com.yammer.dropwizard.util.TokenBucketTable;
+import com.yammer.metrics.core.Clock;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TokenBucketTableTest {
+    private final Clock clock = mock(Clock.class);
+    // 2 tokens per second, up to 3 at once
+    private final TokenBucketTable table =
+            new TokenBucketTable(clock, 2, Duration.seconds(1), 3, 100, Duration.minutes(1));
+
+    @Test
+    public void allowsBurstsUpToTheBucketSize() throws Exception {
+        when(clock.tick()).thenReturn(0L);
+
+        assertThat(table.tryAcquire("a"))
+                .isZero();
+        assertThat(table.tryAcquire("a"))
+                .isZero();
+        assertThat(table.tryAcquire("a"))
+                .isZero();
+        assertThat(table.tryAcquire("a"))
+                .isEqualTo(TimeUnit.MILLISECONDS.toNanos(500));
+    }
+
+    @Test
+    public void refillsBucketsOverTime() throws Exception {
+        when(clock.tick()).thenReturn(0L);
+        table.tryAcquire("a");
+        table.tryAcquire("a");
+        table.tryAcquire("a");
+
+        when(clock.tick()).thenReturn(TimeUnit.MILLISECONDS.toNanos(500));
+
+        assertThat(table.tryAcquire("a"))
+                .isZero();
+        assertThat(table.tryAcquire("a"))
+                .isEqualTo(TimeUnit.MILLISECONDS.toNanos(500));
+    }
+
+    @Test
+    public void keepsABucketPerKey() throws Exception {
+        when(clock.tick()).thenReturn(0L);
+        table.tryAcquire("a");
+        table.tryAcquire("a");
+        table.tryAcquire("a");
+
+        assertThat(table.tryAcquire("b"))
+                .isZero();
+        assertThat(table.size())
+                .isEqualTo(2);
+    }
+
+    @Test
+    public void boundsTheNumberOfBuckets() throws Exception {
+        when(clock.tick()).thenReturn(0L);
+        for (int i = 0; i < 1000; i++) {
+            table.tryAcquire(Integer.toString(i));
+        }
+
+        assertThat(table.size())
+                .isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    public void roundsRetryAfterUpToWholeSeconds() throws Exception {
+        assertThat(TokenBucketTable.toRetryAfter(TimeUnit.MILLISECONDS.toNanos(1)))
+                .isEqualTo(1);
+        assertThat(TokenBucketTable.toRetryAfter(TimeUnit.MILLISECONDS.toNanos(1500)))
+                .isEqualTo(2);
+    }
+}
@@ -0,0 +1,57 @@
+package com.yammer.dropwizard.db;
+
+import com.yammer.dropwizard.servlets.RequestDeadline;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps a {@link Connection} so that statements created through it while a
+ * {@link RequestDeadline} is in effect are not created at all once the deadline has passed, and
+ * otherwise time out when it does.
+ */
+class DeadlineConnection implements InvocationHandler {
+    static Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                                                   new Class<?>[]{Connection.class},
+                                                   new DeadlineConnection(connection));
+    }
+
+    private final Connection connection;
+
+    private DeadlineConnection(Connection connection) {
+        this.connection = connection;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        final boolean createsStatement = Statement.class.isAssignableFrom(method.getReturnType());
+        final RequestDeadline deadline = createsStatement ? RequestDeadline.current().orNull() : null;
+        if (deadline != null) {
+            deadline.check();
+        }
+
+        final Object result;
+        try {
+            result = method.invoke(connection, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+
+        if (deadline != null) {
+            final Statement statement = (Statement) result;
+            // query timeouts are in whole seconds, and zero means no timeout at all
+            final int remaining = (int) Math.max(1, Math.ceil(deadline.getRemaining(TimeUnit.MILLISECONDS) / 1000.0));
+            final int timeout = statement.getQueryTimeout();
+            if (timeout <= 0 || timeout > remaining) {
+                statement.setQueryTimeout(remaining);
+            }
+        }
+        return result;
+    }
+}
@@ -1,13 +1,19 @@
 package com.yammer.dropwizard.db;
 
+import com.yammer.dropwizard.servlets.RequestDeadline;
 import org.apache.tomcat.dbcp.dbcp.PoolingDataSource;
 import org.apache.tomcat.dbcp.pool.ObjectPool;
 
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.util.logging.Logger;
 
 /**
  * A {@link PoolingDataSource} which is also {@link ManagedDataSource}.
+ * <p/>
+ * Connections retrieved while a {@link RequestDeadline} is in effect bound the query timeouts of
+ * their statements by the time left until the deadline.
  */
 public class ManagedPooledDataSource extends PoolingDataSource implements ManagedDataSource {
     private final ObjectPool pool;
@@ -22,6 +28,15 @@ public class ManagedPooledDataSource extends PoolingDataSource implements Manage
         this.pool = pool;
     }
 
+    @Override
+    public Connection getConnection() throws SQLException {
+        final Connection connection = super.getConnection();
+        if (RequestDeadline.current().isPresent()) {
+            return DeadlineConnection.wrap(connection);
+        }
+        return connection;
+    }
+
     // JDK6 has JDBC 4.0 which doesn't have this -- don't add @Override
     @SuppressWarnings("override")
     public Logger getParentLogger() throws SQLFeatureNotSupportedException {
@@ -1,10 +1,15 @@
 package com.yammer.dropwizard.db.tests;
 
 import com.yammer.dropwizard.db.ManagedPooledDataSource;
+import com.yammer.dropwizard.servlets.DeadlineExceededException;
+import com.yammer.dropwizard.servlets.RequestDeadline;
+import com.yammer.dropwizard.util.Duration;
 import org.apache.tomcat.dbcp.pool.ObjectPool;
 import org.junit.Test;
 
+import java.sql.Connection;
 import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
 
 import static org.fest.assertions.api.Assertions.assertThat;
 import static org.fest.assertions.api.Assertions.failBecauseExceptionWasNotThrown;
@@ -37,4 +42,55 @@ public class ManagedPooledDataSourceTest {
             assertThat((Object) e).isInstanceOf(SQLFeatureNotSupportedException.class);
         }
     }
+
+    @Test
+    public void boundsQueryTimeoutsByTheRequestDeadline() throws Exception {
+        final Connection connection = mock(Connection.class);
+        final Statement statement = mock(Statement.class);
+        when(pool.borrowObject()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+
+        RequestDeadline.set(RequestDeadline.in(Duration.seconds(3)));
+        try {
+            dataSource.getConnection().createStatement();
+        } finally {
+            RequestDeadline.set(null);
+        }
+
+        verify(statement).setQueryTimeout(3);
+    }
+
+    @Test
+    public void keepsShorterQueryTimeouts() throws Exception {
+        final Connection connection = mock(Connection.class);
+        final Statement statement = mock(Statement.class);
+        when(pool.borrowObject()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.getQueryTimeout()).thenReturn(1);
+
+        RequestDeadline.set(RequestDeadline.in(Duration.seconds(3)));
+        try {
+            dataSource.getConnection().createStatement();
+        } finally {
+            RequestDeadline.set(null);
+        }
+
+        verify(statement, never()).setQueryTimeout(anyInt());
+    }
+
+    @Test
+    public void doesNotCreateStatementsOnceTheRequestDeadlineHasPassed() throws Exception {
+        final Connection connection = mock(Connection.class);
+        when(pool.borrowObject()).thenReturn(connection);
+
+        RequestDeadline.set(RequestDeadline.in(Duration.seconds(0)));
+        try {
+            dataSource.getConnection().createStatement();
+            failBecauseExceptionWasNotThrown(DeadlineExceededException.class);
+        } catch (DeadlineExceededException e) {
+            verify(connection, never()).createStatement();
+        } finally {
+            RequestDeadline.set(null);
+        }
+    }
 }
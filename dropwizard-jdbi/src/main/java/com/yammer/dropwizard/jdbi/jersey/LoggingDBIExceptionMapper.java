@@ -20,10 +20,10 @@ public class LoggingDBIExceptionMapper extends LoggingExceptionMapper<DBIExcepti
         final Throwable cause = exception.getCause();
         if (cause instanceof SQLException) {
             for (Throwable throwable : (SQLException)cause) {
-                LOGGER.error(formatLogMessage(id, throwable), throwable);
+                LOGGER.error(formatLogMessage(id, throwable), formatId(id), throwable);
             }
         } else {
-            LOGGER.error(formatLogMessage(id, exception), exception);
+            LOGGER.error(formatLogMessage(id, exception), formatId(id), exception);
         }
     }
 }
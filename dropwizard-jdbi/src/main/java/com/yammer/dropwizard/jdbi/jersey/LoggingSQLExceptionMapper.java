@@ -18,7 +18,7 @@ public class LoggingSQLExceptionMapper extends LoggingExceptionMapper<SQLExcepti
     protected void logException(long id, SQLException exception) {
         final String message = formatLogMessage(id, exception);
         for (Throwable throwable : exception) {
-            LOGGER.error(message, throwable);
+            LOGGER.error(message, formatId(id), throwable);
         }
     }
 }